@@ -24,10 +24,16 @@ struct FeedingSchedule {
   uint32_t endDay;
 };
 
+// Schedule version for delta updates, stored after the schedule table
+constexpr int EEPROM_VERSION_ADDR = EEPROM_BASE_ADDR + 1 + MAX_SCHEDULES * sizeof(FeedingSchedule);
+constexpr uint16_t VERSION_UNKNOWN = 0xFFFF;
+
 // Globals
 SoftwareSerial gsm(GSM_RX_PIN, GSM_TX_PIN);
 FeedingSchedule schedules[MAX_SCHEDULES];
 uint8_t scheduleCount = 0;
+// 0 after a full compact schedule, bumped by each delta; unknown after a text schedule
+uint16_t syncVersion = VERSION_UNKNOWN;
 String lastSender = "";
 
 // SMS assembly state
@@ -48,6 +54,9 @@ void checkSMS();
 void handleCMTI(const String& line);
 void readSMSByIndex(int index);
 void processSMS(const String& header, const String& msg);
+bool processCompactSMS(const String& msg);
+bool processDeltaSMS(const String& msg);
+void finishSchedules();
 uint32_t dateToDays(int y, int m, int d);
 uint32_t parseDate(const String&);
 
@@ -289,6 +298,18 @@ void processSMS(const String& header, const String& msg) {
   
   String msgUpper = msg;
   msgUpper.trim();
+  if (msgUpper.startsWith("FS")) {
+    if (!processCompactSMS(msgUpper)) {
+      Serial.println(F("ERROR: Compact schedule rejected"));
+    }
+    return;
+  }
+  if (msgUpper.startsWith("FD")) {
+    if (!processDeltaSMS(msgUpper)) {
+      Serial.println(F("ERROR: Schedule delta rejected"));
+    }
+    return;
+  }
   msgUpper.toUpperCase();
   if (!msgUpper.startsWith("NEW FEEDING")) {
     Serial.println(F("ERROR: Message must start with 'New feeding'"));
@@ -300,6 +321,8 @@ void processSMS(const String& header, const String& msg) {
 
   Serial.println(F("SMS format OK - parsing schedules..."));
   scheduleCount = 0;
+  // The app cannot know what a text schedule left behind, so deltas must start over
+  syncVersion = VERSION_UNKNOWN;
   String text = msg;
   text.replace("\r", "");
 
@@ -443,27 +466,204 @@ void processSMS(const String& header, const String& msg) {
     }
   }
   
+  finishSchedules();
+}
+
+// Saves what was parsed, confirms to the sender and prints the table. An empty table is
+// saved and confirmed too, so it survives a reboot and the sender sees "Added 0"
+void finishSchedules() {
   Serial.print(F("Total schedules parsed: "));
   Serial.println(scheduleCount);
   
+  Serial.println(F("Saving to EEPROM..."));
+  saveSchedules();
+  if (lastSender.length()) {
+    String confirmMsg = "Schedule updated! Added " + String(scheduleCount) + " feeding times.";
+    sendSMS(lastSender, confirmMsg);
+  }
   if (scheduleCount > 0) {
-    Serial.println(F("Saving to EEPROM..."));
-    saveSchedules();
-    if (lastSender.length()) {
-      String confirmMsg = "Schedule updated! Added " + String(scheduleCount) + " feeding times.";
-      sendSMS(lastSender, confirmMsg);
-    }
     printSchedulesFromEEPROM();
   } else {
     Serial.println(F("No schedules parsed"));
   }
 }
 
+// Compact schedule format, version 1 (see README). Base-64 digits from
+// "0-9 A-Z a-z + /": "FS1", start day (3), days to end day (2), then per slot
+// minute of day (2) and decigrams (3), then a check digit (sum of all digits mod 64).
+int8_t compactDigit(char c) {
+  if (c >= '0' && c <= '9') return c - '0';
+  if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+  if (c >= 'a' && c <= 'z') return c - 'a' + 36;
+  if (c == '+') return 62;
+  if (c == '/') return 63;
+  return -1;
+}
+
+bool readCompact(const String& s, int pos, uint8_t digits, uint32_t& value) {
+  value = 0;
+  for (uint8_t i = 0; i < digits; i++) {
+    int8_t d = compactDigit(s[pos + i]);
+    if (d < 0) return false;
+    value = value * 64 + d;
+  }
+  return true;
+}
+
+// Segments joined by checkSMS() come with line breaks in between
+String stripCompact(const String& msg) {
+  String text = "";
+  for (unsigned int i = 0; i < msg.length(); i++) {
+    char c = msg[i];
+    if (c != '\n' && c != '\r' && c != ' ') text += c;
+  }
+  return text;
+}
+
+// Every character must be a digit and the last one the sum of the others mod 64
+bool compactChecksumOk(const String& text) {
+  int len = text.length();
+  uint16_t sum = 0;
+  for (int i = 0; i < len - 1; i++) {
+    int8_t d = compactDigit(text[i]);
+    if (d < 0) return false;
+    sum += d;
+  }
+  if (compactDigit(text[len - 1]) != sum % 64) {
+    Serial.println(F("ERROR: Check digit mismatch"));
+    return false;
+  }
+  return true;
+}
+
+bool processCompactSMS(const String& msg) {
+  String text = stripCompact(msg);
+  Serial.print(F("Compact schedule: "));
+  Serial.println(text);
+
+  int len = text.length();
+  if (len < 9 || text[2] != '1' || (len - 9) % 5 != 0) {
+    Serial.println(F("ERROR: Unknown version or bad length"));
+    return false;
+  }
+  if (!compactChecksumOk(text)) return false;
+
+  uint32_t startDay, span;
+  readCompact(text, 3, 3, startDay);
+  readCompact(text, 6, 2, span);
+
+  // Parse into a scratch table so a bad slot leaves the stored schedule alone
+  FeedingSchedule parsed[MAX_SCHEDULES];
+  uint8_t count = 0;
+  for (int pos = 8; pos < len - 1 && count < MAX_SCHEDULES; pos += 5) {
+    uint32_t minute, decigrams;
+    readCompact(text, pos, 2, minute);
+    readCompact(text, pos + 2, 3, decigrams);
+    if (minute >= 1440) return false;
+    if (decigrams == 0) continue;
+    parsed[count++] = {
+      uint8_t(minute / 60),
+      uint8_t(minute % 60),
+      decigrams / 10.0f,
+      true,
+      startDay,
+      startDay + span
+    };
+  }
+
+  for (uint8_t i = 0; i < count; i++) schedules[i] = parsed[i];
+  scheduleCount = count;
+  syncVersion = 0;
+  finishSchedules();
+  return true;
+}
+
+// Schedule delta, version 1: "FD1", base and new version (2 each), start day (3),
+// days to end day (2), removed count (1), removed minutes (2 each), added or
+// changed slots (minute 2, decigrams 3), check digit. Only applied on top of the
+// base version; otherwise the sender is told which version this feeder has.
+bool processDeltaSMS(const String& msg) {
+  String text = stripCompact(msg);
+  Serial.print(F("Schedule delta: "));
+  Serial.println(text);
+
+  int len = text.length();
+  if (len < 14 || text[2] != '1') {
+    Serial.println(F("ERROR: Unknown version or bad length"));
+    return false;
+  }
+  if (!compactChecksumOk(text)) return false;
+
+  uint32_t baseVersion, newVersion, startDay, span, removedCount;
+  readCompact(text, 3, 2, baseVersion);
+  readCompact(text, 5, 2, newVersion);
+  readCompact(text, 7, 3, startDay);
+  readCompact(text, 10, 2, span);
+  readCompact(text, 12, 1, removedCount);
+  int pos = 13;
+  int slotChars = len - 1 - pos - (int)removedCount * 2;
+  if (slotChars < 0 || slotChars % 5 != 0) {
+    Serial.println(F("ERROR: Bad length"));
+    return false;
+  }
+  if (baseVersion != syncVersion) {
+    Serial.println(F("ERROR: Schedule version mismatch"));
+    if (lastSender.length()) {
+      sendSMS(lastSender, "Schedule version mismatch, have v" + String(syncVersion));
+    }
+    return false;
+  }
+
+  // Work on a copy so a delta that does not fit leaves the stored schedule alone
+  FeedingSchedule parsed[MAX_SCHEDULES];
+  uint8_t count = scheduleCount;
+  for (uint8_t i = 0; i < count; i++) parsed[i] = schedules[i];
+
+  for (uint32_t r = 0; r < removedCount; r++, pos += 2) {
+    uint32_t minute;
+    readCompact(text, pos, 2, minute);
+    for (uint8_t i = 0; i < count; i++) {
+      if (parsed[i].hour * 60 + parsed[i].minute == minute) {
+        for (uint8_t j = i + 1; j < count; j++) parsed[j - 1] = parsed[j];
+        count--;
+        break;
+      }
+    }
+  }
+  for (; pos < len - 1; pos += 5) {
+    uint32_t minute, decigrams;
+    readCompact(text, pos, 2, minute);
+    readCompact(text, pos + 2, 3, decigrams);
+    if (minute >= 1440) return false;
+    uint8_t i = 0;
+    while (i < count && parsed[i].hour * 60 + parsed[i].minute != minute) i++;
+    if (i == count) {
+      if (count == MAX_SCHEDULES) {
+        Serial.println(F("ERROR: Delta exceeds schedule slots"));
+        return false;
+      }
+      count++;
+    }
+    parsed[i] = { uint8_t(minute / 60), uint8_t(minute % 60), decigrams / 10.0f, true, startDay, startDay + span };
+  }
+  for (uint8_t i = 0; i < count; i++) {
+    parsed[i].startDay = startDay;
+    parsed[i].endDay = startDay + span;
+  }
+
+  for (uint8_t i = 0; i < count; i++) schedules[i] = parsed[i];
+  scheduleCount = count;
+  syncVersion = newVersion;
+  finishSchedules();
+  return true;
+}
+
 void saveSchedules() {
   EEPROM.put(EEPROM_BASE_ADDR, scheduleCount);
   for (uint8_t i = 0; i < scheduleCount; i++) {
     EEPROM.put(EEPROM_BASE_ADDR + 1 + i * sizeof(FeedingSchedule), schedules[i]);
   }
+  EEPROM.put(EEPROM_VERSION_ADDR, syncVersion);
 }
 
 void loadSchedules() {
@@ -472,6 +672,8 @@ void loadSchedules() {
   for (uint8_t i = 0; i < scheduleCount; i++) {
     EEPROM.get(EEPROM_BASE_ADDR + 1 + i * sizeof(FeedingSchedule), schedules[i]);
   }
+  // A fresh EEPROM reads 0xFFFF, which is VERSION_UNKNOWN
+  EEPROM.get(EEPROM_VERSION_ADDR, syncVersion);
 }
 
 void printSchedulesFromEEPROM() {
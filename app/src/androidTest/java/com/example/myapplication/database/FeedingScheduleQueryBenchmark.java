@@ -0,0 +1,156 @@
+package com.example.myapplication.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Measures the hot feeding_schedules queries at 10k, 100k and 1M rows, first with the
+ * composite indices dropped (the pre-index schema) and then with them in place.
+ * Results are written to logcat under the "ScheduleQueryBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class FeedingScheduleQueryBenchmark {
+    private static final String TAG = "ScheduleQueryBenchmark";
+    private static final int FISH_COUNT = 50;
+    private static final int TIMES_PER_DAY = 4;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final long BASE_DATE = 1724457600000L;
+    private static final int RUNS = 15;
+
+    private static final String[] COMPOSITE_INDICES = {
+            "index_feeding_schedules_fishId_startDate_endDate",
+            "index_feeding_schedules_fishId_scheduleName_startDate_endDate_feedingMinuteOfDay"
+    };
+
+    private AppDatabase db;
+
+    @Before
+    public void createDb() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void rangeQueries_10k() {
+        runAtSize(10_000);
+    }
+
+    @Test
+    public void rangeQueries_100k() {
+        runAtSize(100_000);
+    }
+
+    @Test
+    public void rangeQueries_1m() {
+        runAtSize(1_000_000);
+    }
+
+    private void runAtSize(int rows) {
+        populate(rows);
+        SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+
+        for (String index : COMPOSITE_INDICES) {
+            sql.execSQL("DROP INDEX IF EXISTS " + index);
+        }
+        report(rows, "before", sql);
+
+        sql.execSQL("CREATE INDEX IF NOT EXISTS index_feeding_schedules_fishId_startDate_endDate "
+                + "ON feeding_schedules (fishId, startDate, endDate)");
+        sql.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS "
+                + "index_feeding_schedules_fishId_scheduleName_startDate_endDate_feedingMinuteOfDay "
+                + "ON feeding_schedules (fishId, scheduleName, startDate, endDate, feedingMinuteOfDay)");
+        sql.execSQL("ANALYZE");
+        report(rows, "after", sql);
+    }
+
+    private void populate(int rows) {
+        // Schedules must belong to a fish
+        for (int fish = 1; fish <= FISH_COUNT; fish++) {
+            db.fishDao().insert(new Fish("Pond " + fish, 100, 100, 0, 0f, 0f, 0f, 1f,
+                    new Date(), new Date(), "", ""));
+        }
+
+        // Weekly schedule groups with a few feeding times each, spread across the fish
+        int groupsPerFish = Math.max(1, rows / (FISH_COUNT * TIMES_PER_DAY));
+        List<FeedingSchedule> batch = new ArrayList<>(10_000);
+        int inserted = 0;
+        for (int week = 0; week < groupsPerFish && inserted < rows; week++) {
+            long start = BASE_DATE + week * 7 * DAY_MS;
+            long end = start + 6 * DAY_MS;
+            for (int fish = 1; fish <= FISH_COUNT && inserted < rows; fish++) {
+                for (int t = 0; t < TIMES_PER_DAY && inserted < rows; t++) {
+                    batch.add(new FeedingSchedule(fish, "Week " + week, start, end,
+                            (5 + t * 4) + ":00 AM", 10f + t));
+                    inserted++;
+                }
+            }
+            if (batch.size() >= 10_000) {
+                flush(batch);
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<FeedingSchedule> batch) {
+        if (batch.isEmpty()) return;
+        db.runInTransaction(() -> db.feedingScheduleDao().insertAll(batch));
+        batch.clear();
+    }
+
+    private void report(int rows, String phase, SupportSQLiteDatabase sql) {
+        long midWeek = BASE_DATE + (rows / (FISH_COUNT * TIMES_PER_DAY) / 2) * 7 * DAY_MS;
+        long fishId = FISH_COUNT / 2;
+
+        long forDate = median(sql, "SELECT * FROM feeding_schedules WHERE fishId = ? "
+                + "AND ? BETWEEN startDate AND endDate", fishId, midWeek + DAY_MS);
+        long forRange = median(sql, "SELECT * FROM feeding_schedules WHERE fishId = ? "
+                + "AND startDate <= ? AND endDate >= ?", fishId, midWeek + 13 * DAY_MS, midWeek);
+        long byName = median(sql, "SELECT * FROM feeding_schedules WHERE fishId = ? "
+                + "AND scheduleName = ?", fishId, "Week 3");
+        long rangeDelete = median(sql, "SELECT COUNT(*) FROM feeding_schedules WHERE fishId = ? "
+                + "AND startDate = ? AND endDate = ?", fishId, midWeek, midWeek + 6 * DAY_MS);
+
+        Log.i(TAG, String.format("rows=%d %s: forDate=%dus forRange=%dus byName=%dus rangeDelete=%dus",
+                rows, phase, forDate / 1000, forRange / 1000, byName / 1000, rangeDelete / 1000));
+    }
+
+    // Median wall time in nanoseconds of fully reading the query's cursor
+    private static long median(SupportSQLiteDatabase sql, String query, Object... args) {
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            try (Cursor cursor = sql.query(new SimpleSQLiteQuery(query, args))) {
+                while (cursor.moveToNext()) {
+                    cursor.getLong(0);
+                }
+            }
+            samples[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+}
@@ -50,10 +50,11 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.TreeMap;
 import java.util.Date;
-import java.text.ParseException;
 
 import com.example.myapplication.database.FeedingSchedule;
 import com.example.myapplication.database.Fish;
+import com.example.myapplication.database.ScheduleChanges;
+import com.example.myapplication.database.ScheduleGroup;
 import com.example.myapplication.viewmodel.AquacultureViewModel;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.button.MaterialButton;
@@ -82,12 +83,12 @@ public class FeedingScheduleSetup extends AppCompatActivity {
     private List<FishItem> fishList = new ArrayList<>();
     private String currentFishName = "";
     private Button confirmFishButton;
-    private Observer<Fish> fishObserver;
     private String currentScheduleName = "";
     private Long currentStartDate = null;
     private Long currentEndDate = null;
     private static final int SMS_PERMISSION_REQUEST_CODE = 100;
     private boolean isEditingExistingSchedule = false;
+    private LiveData<List<ScheduleGroup>> scheduleGroups;
     private long lastSaveClickTime = 0; // Add this to track last save button click time
 
     @Override
@@ -104,13 +105,6 @@ public class FeedingScheduleSetup extends AppCompatActivity {
         // Initialize ViewModel
         viewModel = new ViewModelProvider(this).get(AquacultureViewModel.class);
 
-        // Clean up any existing duplicate schedules
-        viewModel.cleanupAllDuplicateSchedules().observe(this, count -> {
-            if (count > 0) {
-                Log.d("FeedingScheduleSetup", "Cleaned up " + count + " duplicate schedules on startup");
-            }
-        });
-
         // Get the selected fish from intent
         String selectedFish = getIntent().getStringExtra("SELECTED_FISH");
 
@@ -134,6 +128,22 @@ public class FeedingScheduleSetup extends AppCompatActivity {
             createScheduleButton.setOnClickListener(v -> showDateRangePicker());
         }
 
+        // Past schedules are browsed page by page on their own screen
+        MaterialButton historyButton = findViewById(R.id.scheduleHistoryButton);
+        if (historyButton != null) {
+            historyButton.setOnClickListener(v -> {
+                FishItem selectedFish = (FishItem) fishSpinner.getSelectedItem();
+                if (selectedFish == null || selectedFish.id == -1) {
+                    Toast.makeText(this, "Please select a fish first", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                Intent intent = new Intent(this, ScheduleHistoryActivity.class);
+                intent.putExtra(ScheduleHistoryActivity.EXTRA_FISH_ID, selectedFish.id);
+                intent.putExtra(ScheduleHistoryActivity.EXTRA_FISH_NAME, selectedFish.name);
+                startActivity(intent);
+            });
+        }
+
         // Setup SMS button
         Button sendSmsButton = findViewById(R.id.sendScheduleSmsButton);
         if (sendSmsButton != null) {
@@ -255,13 +265,9 @@ public class FeedingScheduleSetup extends AppCompatActivity {
                         FishItem selectedFish = (FishItem) parent.getItemAtPosition(position);
                         Log.d("FishSpinner", "Selected fish: " + selectedFish.name + " with ID: " + selectedFish.id);
 
-                        LinearLayout schedulesContainer = findViewById(R.id.schedulesContainer);
-
                         if (selectedFish.name.equals("Select Fish")) {
                             // Clear and hide schedules for default selection
-                            if (schedulesContainer != null) {
-                                schedulesContainer.removeAllViews();
-                            }
+                            showScheduleGroups(-1);
                             createScheduleButton.setEnabled(false);
                             createScheduleButton.setAlpha(0.5f);
                             return;
@@ -270,41 +276,7 @@ public class FeedingScheduleSetup extends AppCompatActivity {
                         // Enable create button and show schedules for selected fish
                         createScheduleButton.setEnabled(true);
                         createScheduleButton.setAlpha(1.0f);
-
-                        viewModel.getAllSchedulesForFish(selectedFish.id).observe(FeedingScheduleSetup.this, schedules -> {
-                            if (schedulesContainer != null) {
-                                schedulesContainer.removeAllViews();
-                                if (schedules != null) {
-                                    // Group schedules by name and date range
-                                    Map<String, List<FeedingSchedule>> groupedSchedules = new HashMap<>();
-                                    for (FeedingSchedule schedule : schedules) {
-                                        String key = schedule.getScheduleName() + "_" + schedule.getStartDate() + "_" + schedule.getEndDate();
-                                        if (!groupedSchedules.containsKey(key)) {
-                                            groupedSchedules.put(key, new ArrayList<>());
-                                        }
-                                        groupedSchedules.get(key).add(schedule);
-                                    }
-
-                                    // Convert to list for sorting
-                                    List<Map.Entry<String, List<FeedingSchedule>>> sortedGroups = new ArrayList<>(groupedSchedules.entrySet());
-
-                                    // Sort by start date
-                                    Collections.sort(sortedGroups, (entry1, entry2) -> {
-                                        long date1 = entry1.getValue().get(0).getStartDate();
-                                        long date2 = entry2.getValue().get(0).getStartDate();
-                                        return Long.compare(date1, date2);
-                                    });
-
-                                    // Display each group in sorted order
-                                    for (Map.Entry<String, List<FeedingSchedule>> entry : sortedGroups) {
-                                        List<FeedingSchedule> group = entry.getValue();
-                                        if (!group.isEmpty()) {
-                                            addScheduleGroupToContainer(group, schedulesContainer);
-                                        }
-                                    }
-                                }
-                            }
-                        });
+                        showScheduleGroups(selectedFish.id);
                     }
 
                     @Override
@@ -315,26 +287,12 @@ public class FeedingScheduleSetup extends AppCompatActivity {
                 });
             }
         });
-
-        // Debug query for all schedules
-        viewModel.getAllSchedules().observe(this, allSchedules -> {
-            Log.d("Database", "DEBUG: All schedules in database");
-            if (allSchedules != null) {
-                for (FeedingSchedule schedule : allSchedules) {
-                    Log.d("Database", String.format("Schedule found: id=%d, fishId=%d, name=%s",
-                            schedule.getId(), schedule.getFishId(), schedule.getScheduleName()));
-                }
-            }
-        });
     }
 
-    private void addScheduleGroupToContainer(List<FeedingSchedule> scheduleGroup, LinearLayout container) {
-        if (scheduleGroup.isEmpty()) return;
-
-        FeedingSchedule firstSchedule = scheduleGroup.get(0);
-        String scheduleName = firstSchedule.getScheduleName();
-        long startDate = firstSchedule.getStartDate();
-        long endDate = firstSchedule.getEndDate();
+    private void addScheduleGroupToContainer(ScheduleGroup group, LinearLayout container) {
+        List<FeedingSchedule> scheduleGroup = group.getSchedules();
+        long startDate = group.getStartDate();
+        long endDate = group.getEndDate();
 
         // Create the schedule card view
         View scheduleCard = getLayoutInflater().inflate(R.layout.schedule_group_item, container, false);
@@ -342,19 +300,13 @@ public class FeedingScheduleSetup extends AppCompatActivity {
         // Set the schedule name
         TextView scheduleNameText = scheduleCard.findViewById(R.id.scheduleNameText);
         if (scheduleNameText != null) {
-            scheduleNameText.setText(scheduleName);
+            scheduleNameText.setText(group.getScheduleName());
         }
 
-        // Format and set the date range
+        // Set the pre-formatted date range
         TextView dateRangeText = scheduleCard.findViewById(R.id.dateRangeText);
         if (dateRangeText != null) {
-            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-            String dateRange = sdf.format(new Date(startDate)) + " - " + sdf.format(new Date(endDate));
-            dateRangeText.setText(dateRange);
-
-            // Log the date for debugging
-            Log.d("ScheduleCard", "Adding card with date range: " + dateRange +
-                    " (Start timestamp: " + startDate + ")");
+            dateRangeText.setText(group.getDateRangeLabel());
         }
 
         // Setup edit button
@@ -388,19 +340,6 @@ public class FeedingScheduleSetup extends AppCompatActivity {
         // Clear any existing views first
         dailySchedulesContainer.removeAllViews();
 
-        // Sort schedules by time
-        Collections.sort(scheduleGroup, (s1, s2) -> {
-            try {
-                SimpleDateFormat parser = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-                Date time1 = parser.parse(s1.getFeedingTime());
-                Date time2 = parser.parse(s2.getFeedingTime());
-                return time1.compareTo(time2);
-            } catch (ParseException e) {
-                Log.e("TimeSort", "Error parsing time", e);
-                return 0;
-            }
-        });
-
         // Add existing feeding times
         for (FeedingSchedule schedule : scheduleGroup) {
             View timeScheduleItem = getLayoutInflater().inflate(R.layout.daily_schedule_item, dailySchedulesContainer, false);
@@ -462,7 +401,8 @@ public class FeedingScheduleSetup extends AppCompatActivity {
                     (view, hourOfDay, selectedMinute) -> {
                         calendar.set(Calendar.HOUR_OF_DAY, hourOfDay);
                         calendar.set(Calendar.MINUTE, selectedMinute);
-                        SimpleDateFormat sdf = new SimpleDateFormat("hh:mm a", Locale.getDefault());
+                        // Stored in English so FeedingTimes reads the same minute in any locale
+                        SimpleDateFormat sdf = new SimpleDateFormat("hh:mm a", Locale.US);
                         timeInput.setText(sdf.format(calendar.getTime()));
                     }, hour, minute, false);
             timePickerDialog.show();
@@ -577,61 +517,19 @@ public class FeedingScheduleSetup extends AppCompatActivity {
 
         if (!updatedSchedules.isEmpty()) {
             // Sort before saving
-            Collections.sort(updatedSchedules, (s1, s2) -> {
-                try {
-                    SimpleDateFormat parser = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-                    Date time1 = parser.parse(s1.getFeedingTime());
-                    Date time2 = parser.parse(s2.getFeedingTime());
-                    return time1.compareTo(time2);
-                } catch (ParseException e) {
-                    Log.e("TimeSort", "Error parsing time", e);
-                    return 0;
-                }
-            });
+            Collections.sort(updatedSchedules, FeedingSchedule.BY_FEEDING_TIME);
 
-            viewModel.updateSchedulesForDateRange(
+            LiveData<ScheduleChanges> saved = viewModel.updateSchedulesForDateRange(
                     template.getFishId(),
                     template.getStartDate(),
                     template.getEndDate(),
                     updatedSchedules
             );
-            
-            // Get fish info to send SMS notification
-            viewModel.getFishById(template.getFishId()).observe(this, fish -> {
-                if (fish != null && !TextUtils.isEmpty(fish.getPhoneNumber())) {
-                    // Send SMS notification for the updated schedule
-                    SmsUtils.sendScheduleNotification(this, fish.getPhoneNumber(), fish.getName(), updatedSchedules);
-                    Toast.makeText(this, "SMS notification sent", Toast.LENGTH_SHORT).show();
-                }
-            });
-            
-            Toast.makeText(this, "Schedule updated successfully", Toast.LENGTH_SHORT).show();
-            hideDailyScheduleEditor();
-            loadExistingSchedules();
-        }
-    }
-
-    private void updateScheduleDisplay(Map<String, List<FeedingSchedule>> schedulesByName) {
-        dailySchedulesContainer.removeAllViews();
-
-        // Convert the map values to a list for sorting
-        List<List<FeedingSchedule>> scheduleGroups = new ArrayList<>(schedulesByName.values());
-
-        // Sort the groups by start date (chronological order)
-        Collections.sort(scheduleGroups, (group1, group2) -> {
-            if (group1.isEmpty() || group2.isEmpty()) {
-                return 0;
-            }
-            long date1 = group1.get(0).getStartDate();
-            long date2 = group2.get(0).getStartDate();
-            return Long.compare(date1, date2); // Ascending order (oldest first)
-        });
-
-        // Add the sorted groups to the container
-        for (List<FeedingSchedule> scheduleGroup : scheduleGroups) {
-            if (!scheduleGroup.isEmpty()) {
-                addScheduleGroupToContainer(scheduleGroup, dailySchedulesContainer);
-            }
+            whenSchedulesSaved(saved, template.getFishId(), updatedSchedules,
+                    "Schedule updated successfully", () -> {
+                        hideDailyScheduleEditor();
+                        loadExistingSchedules();
+                    });
         }
     }
 
@@ -670,16 +568,6 @@ public class FeedingScheduleSetup extends AppCompatActivity {
         return schedules;
     }
 
-    // Also add cleanup in onDestroy
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        // Clean up observers
-        if (fishObserver != null) {
-            viewModel.getFishByName(currentFishName).removeObserver(fishObserver);
-        }
-    }
-
     // Add permission result handling
     @Override
     public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
@@ -719,24 +607,13 @@ public class FeedingScheduleSetup extends AppCompatActivity {
             FishItem selectedFish = (FishItem) fishSpinner.getSelectedItem();
 
             // Check for overlapping schedules before proceeding
-            viewModel.getAllSchedulesForFish(selectedFish.id).observe(this, existingSchedules -> {
-                if (existingSchedules != null && !existingSchedules.isEmpty()) {
-                    boolean hasOverlap = false;
-                    for (FeedingSchedule existing : existingSchedules) {
-                        Log.d("DatePicker", String.format("Checking overlap: new(%d-%d) vs existing(%d-%d)",
-                                startDate, endDate, existing.getStartDate(), existing.getEndDate()));
-
-                        // Check if date ranges overlap
-                        if (!(endDate < existing.getStartDate() || startDate > existing.getEndDate())) {
-                            hasOverlap = true;
-                            break;
-                        }
-                    }
-
-                    if (hasOverlap) {
-                        Toast.makeText(this, "Selected date range overlaps with existing schedule", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
+            viewModel.loadSchedulesForDateRange(selectedFish.id, startDate, endDate, overlapping -> {
+                if (overlapping != null && !overlapping.isEmpty()) {
+                    FeedingSchedule overlap = overlapping.get(0);
+                    Log.d("DatePicker", String.format("Overlap: new(%d-%d) vs existing(%d-%d)",
+                            startDate, endDate, overlap.getStartDate(), overlap.getEndDate()));
+                    Toast.makeText(this, "Selected date range overlaps with existing schedule", Toast.LENGTH_SHORT).show();
+                    return;
                 }
 
                 // No overlap found, proceed with schedule name dialog
@@ -814,6 +691,21 @@ public class FeedingScheduleSetup extends AppCompatActivity {
         setupDeleteButton(feedingTimeCard);
 
         dailySchedulesContainer.addView(feedingTimeCard);
+        suggestFeedQuantity(feedingTimeCard);
+    }
+
+    // Prefills a new feeding time with the growth model's ration, split over the times so far
+    private void suggestFeedQuantity(View feedingTimeCard) {
+        FishItem selectedFish = (FishItem) fishSpinner.getSelectedItem();
+        if (selectedFish == null || selectedFish.id == -1 || currentStartDate == null) return;
+
+        int feedingsPerDay = dailySchedulesContainer.getChildCount();
+        viewModel.loadSuggestedFeedQuantity(selectedFish.id, currentStartDate, feedingsPerDay, quantity -> {
+            TextInputEditText quantityInput = feedingTimeCard.findViewById(R.id.feedQuantityInput);
+            if (quantity == null || quantityInput == null || !TextUtils.isEmpty(quantityInput.getText())) return;
+            quantityInput.setText(String.format(Locale.US, "%.1f", quantity));
+            Log.d("FeedingScheduleSetup", "Suggested " + quantity + "g per fish for " + selectedFish.name);
+        });
     }
 
     private void validateAndSaveSchedule() {
@@ -846,26 +738,16 @@ public class FeedingScheduleSetup extends AppCompatActivity {
         }
         
         // Remove any duplicate times that might have been added
-        Map<String, FeedingSchedule> uniqueSchedules = new HashMap<>();
+        Map<Integer, FeedingSchedule> uniqueSchedules = new HashMap<>();
         for (FeedingSchedule schedule : schedules) {
-            uniqueSchedules.put(schedule.getFeedingTime(), schedule);
+            uniqueSchedules.put(schedule.getFeedingMinuteOfDay(), schedule);
         }
         
         // Convert back to list
         schedules = new ArrayList<>(uniqueSchedules.values());
         
         // Sort schedules by time
-        Collections.sort(schedules, (s1, s2) -> {
-            try {
-                SimpleDateFormat parser = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-                Date time1 = parser.parse(s1.getFeedingTime());
-                Date time2 = parser.parse(s2.getFeedingTime());
-                return time1.compareTo(time2);
-            } catch (ParseException e) {
-                Log.e("TimeSort", "Error parsing time", e);
-                return s1.getFeedingTime().compareTo(s2.getFeedingTime());
-            }
-        });
+        Collections.sort(schedules, FeedingSchedule.BY_FEEDING_TIME);
         
         // If we're editing an existing schedule, use updateSchedulesForDateRange
         if (isEditingExistingSchedule) {
@@ -875,24 +757,14 @@ public class FeedingScheduleSetup extends AppCompatActivity {
             }
             
             // Update existing schedules (deletes old ones and adds new ones)
-            viewModel.updateSchedulesForDateRange(
+            LiveData<ScheduleChanges> saved = viewModel.updateSchedulesForDateRange(
                 selectedFish.id,
                 currentStartDate,
                 currentEndDate,
                 schedules
             );
-            
-            // Get fish info to check for phone number
-            List<FeedingSchedule> finalSchedules = schedules;
-            viewModel.getFishById(selectedFish.id).observe(this, fish -> {
-                if (fish != null && !TextUtils.isEmpty(fish.getPhoneNumber())) {
-                    // Send SMS notification
-                    SmsUtils.sendScheduleNotification(this, fish.getPhoneNumber(), fish.getName(), finalSchedules);
-                    Toast.makeText(this, "SMS notification sent", Toast.LENGTH_SHORT).show();
-                }
-                
+            whenSchedulesSaved(saved, selectedFish.id, schedules, "Schedule updated successfully", () -> {
                 hideDailyScheduleEditor();
-                Toast.makeText(this, "Schedule updated successfully", Toast.LENGTH_SHORT).show();
                 loadExistingSchedules();
             });
         } else {
@@ -955,31 +827,48 @@ public class FeedingScheduleSetup extends AppCompatActivity {
         // Use updateSchedulesForDateRange instead of saveFeedingSchedules
         // This will first delete any existing schedules with this date range and name 
         // before inserting new ones, preventing duplication
-        viewModel.updateSchedulesForDateRange(
+        LiveData<ScheduleChanges> saved = viewModel.updateSchedulesForDateRange(
             selectedFish.id,
             currentStartDate,
             currentEndDate,
             schedules
         );
+        whenSchedulesSaved(saved, selectedFish.id, schedules, "Schedule saved successfully!", () -> {
+            hideDailyScheduleEditor();
+            // Refresh the schedule list
+            loadExistingSchedules();
+        });
+    }
 
-        // Get fish info to check for phone number
-        viewModel.getFishById(selectedFish.id).observe(this, new Observer<Fish>() {
+    /**
+     * Waits for a schedule save to commit before telling anyone about it. onSaved runs for
+     * every save that did not fail; the saved toast and the feeder SMS only follow a save
+     * that changed something.
+     */
+    public void whenSchedulesSaved(LiveData<ScheduleChanges> saved, long fishId,
+                                   List<FeedingSchedule> schedules, String savedMessage, Runnable onSaved) {
+        saved.observe(this, new Observer<ScheduleChanges>() {
             @Override
-            public void onChanged(Fish fish) {
-                if (fish != null && !TextUtils.isEmpty(fish.getPhoneNumber())) {
-                    // Send SMS notification using the utility method
-                    SmsUtils.sendScheduleNotification(FeedingScheduleSetup.this, fish.getPhoneNumber(), fish.getName(), schedules);
-                    Toast.makeText(FeedingScheduleSetup.this, "SMS notification sent", Toast.LENGTH_SHORT).show();
+            public void onChanged(ScheduleChanges changes) {
+                saved.removeObserver(this);
+                if (changes == null) {
+                    Toast.makeText(FeedingScheduleSetup.this, "Failed to save schedule", Toast.LENGTH_SHORT).show();
+                    return;
                 }
+                onSaved.run();
+                if (!changes.hasChanges()) {
+                    Toast.makeText(FeedingScheduleSetup.this, "No changes to save", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                Toast.makeText(FeedingScheduleSetup.this, savedMessage, Toast.LENGTH_SHORT).show();
 
-                hideDailyScheduleEditor();
-                Toast.makeText(FeedingScheduleSetup.this, "Schedule saved successfully!", Toast.LENGTH_SHORT).show();
-                
-                // Important: Remove the observer to prevent multiple callbacks
-                viewModel.getFishById(selectedFish.id).removeObserver(this);
-                
-                // Refresh the schedule list
-                loadExistingSchedules();
+                // Get fish info to check for phone number
+                viewModel.loadFishById(fishId, fish -> {
+                    if (fish != null && !TextUtils.isEmpty(fish.getPhoneNumber())) {
+                        SmsUtils.sendScheduleNotification(FeedingScheduleSetup.this, fish, schedules);
+                        Toast.makeText(FeedingScheduleSetup.this, "SMS notification sent", Toast.LENGTH_SHORT).show();
+                    }
+                });
             }
         });
     }
@@ -1001,7 +890,7 @@ public class FeedingScheduleSetup extends AppCompatActivity {
         }
 
         // Get the fish details including phone number
-        viewModel.getFishById(fishId).observe(this, fish -> {
+        viewModel.loadFishById(fishId, fish -> {
             if (fish != null) {
                 String phoneNumber = fish.getPhoneNumber();
 
@@ -1011,7 +900,7 @@ public class FeedingScheduleSetup extends AppCompatActivity {
                 }
 
                 // Get all schedules for this fish
-                viewModel.getAllSchedulesForFish(fishId).observe(this, schedules -> {
+                viewModel.loadSchedulesForFish(fishId, schedules -> {
                     if (schedules == null || schedules.isEmpty()) {
                         Toast.makeText(this, "No schedules found for this fish", Toast.LENGTH_SHORT).show();
                         return;
@@ -1023,7 +912,7 @@ public class FeedingScheduleSetup extends AppCompatActivity {
                             .setMessage("Send all feeding schedules for " + fish.getName() + " to " + phoneNumber + "?")
                             .setPositiveButton("Send", (dialog, which) -> {
                                 // Format the message for Arduino
-                                SmsUtils.sendScheduleNotification(this, phoneNumber, fish.getName(), schedules);
+                                SmsUtils.sendScheduleNotification(this, fish, schedules);
                             })
                             .setNegativeButton("Cancel", null)
                             .show();
@@ -1067,83 +956,39 @@ public class FeedingScheduleSetup extends AppCompatActivity {
         if (currentFishId == -1) return;
 
         Log.d("FeedingScheduleSetup", "Loading schedules for fish ID: " + currentFishId);
+        showScheduleGroups(currentFishId);
+    }
 
-        viewModel.getAllSchedulesForFish(currentFishId).observe(this, schedules -> {
-            if (schedules != null) {
-                Log.d("FeedingScheduleSetup", "Loaded schedules: " + schedules.size());
-
-                // Group schedules by name and date range (not just name)
-                Map<String, List<FeedingSchedule>> groupedSchedules = new HashMap<>();
-
-                // First deduplicate schedules by time within each group
-                Map<String, Map<String, FeedingSchedule>> deduplicatedGroups = new HashMap<>();
-
-                for (FeedingSchedule schedule : schedules) {
-                    // Create unique key using name AND date range
-                    String key = String.format("%s_%d_%d",
-                            schedule.getScheduleName(),
-                            schedule.getStartDate(),
-                            schedule.getEndDate());
-                    
-                    // Initialize inner map if needed
-                    if (!deduplicatedGroups.containsKey(key)) {
-                        deduplicatedGroups.put(key, new HashMap<>());
-                    }
-                    
-                    // Use feeding time as key to ensure uniqueness
-                    deduplicatedGroups.get(key).put(schedule.getFeedingTime(), schedule);
-                }
-                
-                // Convert deduplicated maps to lists
-                for (Map.Entry<String, Map<String, FeedingSchedule>> entry : deduplicatedGroups.entrySet()) {
-                    groupedSchedules.put(entry.getKey(), new ArrayList<>(entry.getValue().values()));
-                }
-
-                // Clear existing views
-                LinearLayout schedulesContainer = findViewById(R.id.schedulesContainer);
-                if (schedulesContainer != null) {
-                    schedulesContainer.removeAllViews();
-
-                    // Create a list of schedule groups for sorting
-                    List<List<FeedingSchedule>> scheduleGroups = new ArrayList<>(groupedSchedules.values());
+    // Shows one fish's schedule cards, replacing the previous fish's observer; -1 clears the list
+    private void showScheduleGroups(long fishId) {
+        if (scheduleGroups != null) {
+            scheduleGroups.removeObservers(this);
+            scheduleGroups = null;
+        }
 
-                    // Sort by start date (chronological order)
-                    Collections.sort(scheduleGroups, (group1, group2) -> {
-                        if (group1.isEmpty() || group2.isEmpty()) {
-                            return 0;
-                        }
-                        long date1 = group1.get(0).getStartDate();
-                        long date2 = group2.get(0).getStartDate();
-                        Log.d("SortingDebug", "Comparing dates: " + date1 + " vs " + date2);
-                        return Long.compare(date1, date2); // Ascending order (oldest first)
-                    });
-                    
-                    // Sort feeding times within each group
-                    for (List<FeedingSchedule> group : scheduleGroups) {
-                        Collections.sort(group, (s1, s2) -> {
-                            try {
-                                SimpleDateFormat parser = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-                                Date time1 = parser.parse(s1.getFeedingTime());
-                                Date time2 = parser.parse(s2.getFeedingTime());
-                                return time1.compareTo(time2);
-                            } catch (ParseException e) {
-                                Log.e("TimeSort", "Error parsing time", e);
-                                return s1.getFeedingTime().compareTo(s2.getFeedingTime());
-                            }
-                        });
-                    }
+        LinearLayout schedulesContainer = findViewById(R.id.schedulesContainer);
+        if (schedulesContainer == null) {
+            Log.e("FeedingScheduleSetup", "schedulesContainer is null");
+            return;
+        }
+        if (fishId == -1) {
+            schedulesContainer.removeAllViews();
+            return;
+        }
 
-                    // Add schedule groups to the container in sorted order
-                    for (List<FeedingSchedule> group : scheduleGroups) {
-                        if (!group.isEmpty()) {
-                            addScheduleGroupToContainer(group, schedulesContainer);
-                        }
-                    }
-                } else {
-                    Log.e("FeedingScheduleSetup", "schedulesContainer is null");
-                }
-            } else {
-                Log.e("FeedingScheduleSetup", "Loaded schedules is null");
+        // Groups arrive already sorted, deduplicated and labelled; only those not yet over
+        // are shown here, the rest are in the schedule history
+        Calendar today = Calendar.getInstance();
+        today.set(Calendar.HOUR_OF_DAY, 0);
+        today.set(Calendar.MINUTE, 0);
+        today.set(Calendar.SECOND, 0);
+        today.set(Calendar.MILLISECOND, 0);
+        scheduleGroups = viewModel.getCurrentScheduleGroupsForFish(fishId, today.getTimeInMillis());
+        scheduleGroups.observe(this, groups -> {
+            Log.d("FeedingScheduleSetup", "Loaded schedule groups: " + groups.size());
+            schedulesContainer.removeAllViews();
+            for (ScheduleGroup group : groups) {
+                addScheduleGroupToContainer(group, schedulesContainer);
             }
         });
     }
@@ -1292,15 +1137,10 @@ public class FeedingScheduleSetup extends AppCompatActivity {
 
     private void cleanupConflictingSchedules() {
         Log.d("Database", "Starting database cleanup");
-        viewModel.getAllSchedules().observe(this, schedules -> {
-            if (schedules != null) {
-                // Delete schedules with invalid fishId (-1)
-                for (FeedingSchedule schedule : schedules) {
-                    if (schedule.getFishId() == -1) {
-                        viewModel.deleteFeedingSchedule(schedule);
-                        Log.d("Database", "Deleted invalid schedule: " + schedule.getScheduleName());
-                    }
-                }
+        // Unassigned, orphaned and inverted schedules, all in one transaction
+        viewModel.runMaintenance(report -> {
+            if (report != null && report.getTotal() > 0) {
+                Toast.makeText(this, report.toString(), Toast.LENGTH_LONG).show();
             }
         });
     }
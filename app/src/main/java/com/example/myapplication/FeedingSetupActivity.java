@@ -21,12 +21,15 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.example.myapplication.database.Fish;
 import com.example.myapplication.viewmodel.AquacultureViewModel;
+import com.example.schedulecore.Schedules;
+import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.google.android.material.textfield.TextInputEditText;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -40,6 +43,7 @@ public class FeedingSetupActivity extends AppCompatActivity {
     private TextInputEditText fishWeightInput;
     private TextInputEditText feedPerFishInput;
     private TextInputEditText phoneNumberInput;
+    private SwitchMaterial compactSmsSwitch;
     private TextView aliveFishCountOutput;
     private TextView totalFeedAmountOutput;
     private Button calculateFeedButton;
@@ -121,6 +125,7 @@ public class FeedingSetupActivity extends AppCompatActivity {
         saveFeedingSetupButton = findViewById(R.id.saveFeedingSetupButton);
         fishTypeSpinner = findViewById(R.id.fish_dropdown);
         phoneNumberInput = findViewById(R.id.phoneNumberInput);
+        compactSmsSwitch = findViewById(R.id.compactSmsSwitch);
     }
     
     private void setupNavigationButtons() {
@@ -243,6 +248,7 @@ public class FeedingSetupActivity extends AppCompatActivity {
         aliveFishCountOutput.setText("Alive Fish Count: 0");
         totalFeedAmountOutput.setText("Total feed amount: 0g");
         phoneNumberInput.setText("");
+        compactSmsSwitch.setChecked(false);
     }
     
     private void loadFishData(Fish fish) {
@@ -260,13 +266,14 @@ public class FeedingSetupActivity extends AppCompatActivity {
         
         // Calculate total feed amount if feed per fish is set
         if (fish.getFeedPerFish() > 0) {
-            float totalFeed = aliveCount * fish.getFeedPerFish();
+            float totalFeed = Schedules.totalFeed(aliveCount, fish.getFeedPerFish());
             totalFeedAmountOutput.setText("Total feed amount: " + totalFeed + "g");
         }
         
         if (fish.getPhoneNumber() != null) {
             phoneNumberInput.setText(fish.getPhoneNumber());
         }
+        compactSmsSwitch.setChecked(fish.getSmsFormat() == Fish.SMS_FORMAT_COMPACT);
     }
     
     private void setupCalculationButton() {
@@ -337,16 +344,27 @@ public class FeedingSetupActivity extends AppCompatActivity {
             float feedPerFish = Float.parseFloat(feedPerFishInput.getText().toString());
             
             int aliveCount = originalCount - deadCount;
-            float totalFeedAmount = aliveCount * feedPerFish;
+            float totalFeedAmount = Schedules.totalFeed(aliveCount, feedPerFish);
             
             // Update the UI
             aliveFishCountOutput.setText("Alive Fish Count: " + aliveCount);
             totalFeedAmountOutput.setText("Total feed amount: " + totalFeedAmount + "g");
+            showGrowthModelRation(totalFeedAmount);
         } catch (NumberFormatException e) {
             Toast.makeText(this, "Please enter valid numbers", Toast.LENGTH_SHORT).show();
         }
     }
     
+    // Compares the entered ration with the growth model's for a saved fish
+    private void showGrowthModelRation(float totalFeedAmount) {
+        if (currentFishId == -1) return;
+        viewModel.loadSuggestedFeedQuantity(currentFishId, System.currentTimeMillis(), 1, perFish -> {
+            if (perFish == null) return;
+            totalFeedAmountOutput.setText(String.format(Locale.getDefault(),
+                    "Total feed amount: %.1fg (growth model: %.1fg per fish a day)", totalFeedAmount, perFish));
+        });
+    }
+    
     private boolean validateInputs() {
         boolean isValid = true;
         
@@ -402,8 +420,9 @@ public class FeedingSetupActivity extends AppCompatActivity {
             
             // Get phone number
             String phoneNumber = phoneNumberInput.getText().toString();
+            int smsFormat = compactSmsSwitch.isChecked() ? Fish.SMS_FORMAT_COMPACT : Fish.SMS_FORMAT_TEXT;
             
-            // Create or update fish record
+            // Create or update fish record; each save is also kept as a measurement sample
             Date now = new Date();
             
             if (currentFishId != -1) {
@@ -423,7 +442,8 @@ public class FeedingSetupActivity extends AppCompatActivity {
                     phoneNumber
                 );
                 updatedFish.setId(currentFishId);
-                viewModel.update(updatedFish);
+                updatedFish.setSmsFormat(smsFormat);
+                viewModel.saveMeasurement(updatedFish);
                 Toast.makeText(this, "Fish information updated", Toast.LENGTH_SHORT).show();
                 clearForm();
             } else {
@@ -442,8 +462,9 @@ public class FeedingSetupActivity extends AppCompatActivity {
                     "",
                     phoneNumber
                 );
+                newFish.setSmsFormat(smsFormat);
                 
-                viewModel.insert(newFish);
+                viewModel.saveMeasurement(newFish);
                 Toast.makeText(this, "New fish added", Toast.LENGTH_SHORT).show();
                 clearForm();
             }
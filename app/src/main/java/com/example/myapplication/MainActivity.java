@@ -2,7 +2,6 @@ package com.example.myapplication;
 
 import android.content.Intent;
 import android.graphics.Color;
-import android.graphics.Typeface;
 import android.os.Bundle;
 import android.text.InputType;
 import android.text.TextUtils;
@@ -26,22 +25,21 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.myapplication.database.FeedingSchedule;
+import com.example.myapplication.database.DashboardSummary;
+import com.example.myapplication.database.FeedLedgerWorker;
 import com.example.myapplication.database.Fish;
+import com.example.myapplication.sms.FleetBroadcastSummary;
+import com.example.myapplication.ui.schedule.DashboardScheduleAdapter;
 import com.example.myapplication.viewmodel.AquacultureViewModel;
 
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.text.SimpleDateFormat;
-import java.util.Locale;
-import java.util.Map;
-import java.util.Collections;
-import java.text.ParseException;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -50,6 +48,9 @@ public class MainActivity extends AppCompatActivity {
     private TextView aliveCountText;
     private TextView deadCountText;
     private AquacultureViewModel viewModel;
+    private LiveData<DashboardSummary> dashboardSummary;
+    private LiveData<List<DashboardScheduleAdapter.Row>> scheduleRows;
+    private DashboardScheduleAdapter scheduleAdapter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -78,6 +79,9 @@ public class MainActivity extends AppCompatActivity {
         loadFishData();
         updateTotalFeedAmount();
 
+        // Keeps the feeding ledger's planned feeds up to date
+        FeedLedgerWorker.schedule(this);
+
         // Update feed amount when fish is selected
         Spinner fishTypeSpinner = findViewById(R.id.fishTypeSpinner);
         fishTypeSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
@@ -128,6 +132,14 @@ public class MainActivity extends AppCompatActivity {
             });
         }
 
+        // Send Schedules button
+        Button broadcastSchedulesButton = findViewById(R.id.broadcastSchedulesButton);
+        if (broadcastSchedulesButton != null) {
+            broadcastSchedulesButton.setOnClickListener(view -> {
+                showBroadcastDialog();
+            });
+        }
+
         // Add Fish Type button - check for both the image and its parent layout
         View addFishButtonLayout = findViewById(R.id.addFishButtonLayout);
         if (addFishButtonLayout != null) {
@@ -282,120 +294,30 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void loadFeedingScheduleForFish(long fishId) {
-        LinearLayout scheduleContainer = findViewById(R.id.schedulesContainer);
+        RecyclerView scheduleList = findViewById(R.id.schedulesContainer);
         TextView scheduleTitle = findViewById(R.id.editTextText2);
         
-        if (scheduleContainer != null) {
-            scheduleContainer.setVisibility(View.VISIBLE);
+        if (scheduleList != null) {
+            scheduleList.setVisibility(View.VISIBLE);
+            if (scheduleAdapter == null) {
+                scheduleAdapter = new DashboardScheduleAdapter();
+                scheduleList.setAdapter(scheduleAdapter);
+            }
             
-            viewModel.getAllSchedulesForFish(fishId).observe(this, schedules -> {
-                if (schedules != null && !schedules.isEmpty()) {
-                    // Group schedules by name and date range
-                    Map<String, List<FeedingSchedule>> groupedSchedules = new HashMap<>();
-                    
-                    for (FeedingSchedule schedule : schedules) {
-                        // Create a unique key using name, start date, and end date
-                        String key = String.format("%s_%d_%d", 
-                            schedule.getScheduleName(),
-                            schedule.getStartDate(),
-                            schedule.getEndDate());
-                        
-                        if (!groupedSchedules.containsKey(key)) {
-                            groupedSchedules.put(key, new ArrayList<>());
-                        }
-                        groupedSchedules.get(key).add(schedule);
-                    }
-                    
-                    // Create a list for sorting
-                    List<Map.Entry<String, List<FeedingSchedule>>> sortedGroups = 
-                        new ArrayList<>(groupedSchedules.entrySet());
-                    
-                    // Sort by start date (chronological order)
-                    Collections.sort(sortedGroups, (entry1, entry2) -> {
-                        long date1 = entry1.getValue().get(0).getStartDate();
-                        long date2 = entry2.getValue().get(0).getStartDate();
-                        return Long.compare(date1, date2); // Ascending order (oldest first)
-                    });
-                    
-                    LinearLayout scheduleList = findViewById(R.id.schedulesContainer);
-                    
-                    if (scheduleList != null) {
-                        scheduleList.removeAllViews();
-                        
-                        // Display schedules in sorted order
-                        for (Map.Entry<String, List<FeedingSchedule>> entry : sortedGroups) {
-                            List<FeedingSchedule> scheduleGroup = entry.getValue();
-                            FeedingSchedule firstSchedule = scheduleGroup.get(0);
-                            String scheduleName = firstSchedule.getScheduleName();
-                            
-                            // Create schedule header
-                            TextView scheduleHeader = new TextView(this);
-                            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-                            
-                            String dateRange = sdf.format(new Date(firstSchedule.getStartDate())) + 
-                                             " - " + 
-                                             sdf.format(new Date(firstSchedule.getEndDate()));
-                            
-                            scheduleHeader.setText(scheduleName + "\n" + dateRange);
-                            scheduleHeader.setTextSize(16);
-                            scheduleHeader.setPadding(0, 16, 0, 8);
-                            scheduleHeader.setTypeface(null, Typeface.BOLD);
-                            scheduleHeader.setTextColor(Color.WHITE);
-                            scheduleList.addView(scheduleHeader);
-                            
-                            // Deduplicate feeding times using a Map with time as key
-                            Map<String, FeedingSchedule> uniqueSchedules = new HashMap<>();
-                            for (FeedingSchedule schedule : scheduleGroup) {
-                                uniqueSchedules.put(schedule.getFeedingTime(), schedule);
-                            }
-                            
-                            // Convert back to list for sorting
-                            List<FeedingSchedule> deduplicatedSchedules = new ArrayList<>(uniqueSchedules.values());
-                            
-                            // Sort feeding times using proper time comparison
-                            Collections.sort(deduplicatedSchedules, (s1, s2) -> {
-                                try {
-                                    SimpleDateFormat parser = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-                                    Date time1 = parser.parse(s1.getFeedingTime());
-                                    Date time2 = parser.parse(s2.getFeedingTime());
-                                    return time1.compareTo(time2);
-                                } catch (ParseException e) {
-                                    Log.e("TimeSort", "Error parsing time", e);
-                                    // Fallback to string comparison if parsing fails
-                                    return s1.getFeedingTime().compareTo(s2.getFeedingTime());
-                                }
-                            });
-                            
-                            // Add each feeding time (now deduplicated and properly sorted)
-                            for (FeedingSchedule schedule : deduplicatedSchedules) {
-                                TextView scheduleItem = new TextView(this);
-                                scheduleItem.setText("• " + schedule.getFeedingTime() + 
-                                    " - " + schedule.getFeedQuantity() + "g");
-                                scheduleItem.setPadding(16, 4, 0, 4);
-                                scheduleItem.setTextColor(Color.WHITE);
-                                scheduleList.addView(scheduleItem);
-                            }
-                        }
-                        
-                        if (scheduleTitle != null) {
-                            scheduleTitle.setText("Feeding Schedules (" + sortedGroups.size() + " schedules)");
-                        }
-                    }
-                } else {
-                    // No schedules found
-                    LinearLayout scheduleList = findViewById(R.id.schedulesContainer);
-                    if (scheduleList != null) {
-                        scheduleList.removeAllViews();
-                        TextView noScheduleText = new TextView(this);
-                        noScheduleText.setText("No feeding schedules found");
-                        noScheduleText.setPadding(16, 16, 16, 16);
-                        noScheduleText.setTextColor(Color.WHITE);
-                        scheduleList.addView(noScheduleText);
-                    }
-                    
-                    if (scheduleTitle != null) {
-                        scheduleTitle.setText("Feeding Schedules");
-                    }
+            // Follow only the selected fish; rows are grouped and formatted off the main thread
+            if (scheduleRows != null) {
+                scheduleRows.removeObservers(this);
+            }
+            scheduleRows = viewModel.mapInBackground(
+                    viewModel.getScheduleGroupsForFish(fishId), DashboardScheduleAdapter::buildRows);
+            scheduleRows.observe(this, rows -> {
+                scheduleAdapter.submitList(rows);
+                
+                if (scheduleTitle != null) {
+                    int groupCount = DashboardScheduleAdapter.countGroups(rows);
+                    scheduleTitle.setText(groupCount > 0
+                            ? "Feeding Schedules (" + groupCount + " schedules)"
+                            : "Feeding Schedules");
                 }
             });
         }
@@ -407,7 +329,7 @@ public class MainActivity extends AppCompatActivity {
             updateDashboardWithFishData(selectedFish);
             
             // Also refresh the feeding schedule
-            viewModel.getFishByName(selectedFish).observe(this, fish -> {
+            viewModel.loadFishByName(selectedFish, fish -> {
                 if (fish != null) {
                     loadFeedingScheduleForFish(fish.getId());
                 }
@@ -416,11 +338,8 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void cleanupFishDatabase() {
-        viewModel.getAllFish().observe(this, fishList -> {
+        viewModel.loadAllFish(fishList -> {
             if (fishList != null && fishList.size() > 0) {
-                // First observation, remove observer after processing
-                viewModel.getAllFish().removeObservers(this);
-                
                 // Map to store the most recent fish entry for each fish name
                 java.util.Map<String, Fish> latestFishByName = new java.util.HashMap<>();
                 
@@ -454,13 +373,14 @@ public class MainActivity extends AppCompatActivity {
                                keepCount + " records will remain (1 per fish type).\n\n" +
                                "Do you want to proceed with cleanup?")
                     .setPositiveButton("Yes, Clean Up", (dialog, which) -> {
-                        // Delete all fish first
-                        viewModel.deleteAllFish();
-                        
-                        // Then re-insert only the latest records
-                        for (Fish fish : latestFishByName.values()) {
-                            viewModel.insert(fish);
+                        // Delete only the older duplicates; their schedules go with them
+                        List<Long> duplicateIds = new ArrayList<>();
+                        for (Fish fish : fishList) {
+                            if (latestFishByName.get(fish.getName()) != fish) {
+                                duplicateIds.add(fish.getId());
+                            }
                         }
+                        viewModel.deleteFishByIds(duplicateIds);
                         
                         // Show success message
                         Toast.makeText(this, "Database cleaned up! Removed " + 
@@ -476,6 +396,58 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    private void showBroadcastDialog() {
+        viewModel.loadScheduleNames(scheduleNames -> {
+            List<String> choices = new ArrayList<>();
+            choices.add("All feeders");
+            if (scheduleNames != null) {
+                choices.addAll(scheduleNames);
+            }
+
+            new AlertDialog.Builder(this)
+                .setTitle("Send schedules to feeders")
+                .setItems(choices.toArray(new String[0]), (dialog, which) -> {
+                    if (which == 0) {
+                        // Every fish gets the schedule it is on today, or its next one
+                        viewModel.loadAllFish(fishList -> {
+                            if (fishList == null) return;
+                            List<Long> fishIds = new ArrayList<>();
+                            for (Fish fish : fishList) {
+                                fishIds.add(fish.getId());
+                            }
+                            showBroadcastProgress(viewModel.broadcastSchedules(fishIds));
+                        });
+                    } else {
+                        showBroadcastProgress(viewModel.broadcastTemplate(choices.get(which)));
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+        });
+    }
+
+    private void showBroadcastProgress(LiveData<FleetBroadcastSummary> summary) {
+        AlertDialog progressDialog = new AlertDialog.Builder(this)
+            .setTitle("Sending schedules")
+            .setMessage("Preparing messages...")
+            .setPositiveButton("Close", null)
+            .show();
+
+        // Sending goes on in the background after the dialog is closed
+        summary.observe(this, result -> {
+            if (result == null || !progressDialog.isShowing()) return;
+            String message = result.toString();
+            if (!result.getProblems().isEmpty()) {
+                message += "\n\n" + TextUtils.join("\n", result.getProblems());
+            }
+            progressDialog.setMessage(message);
+            if (result.isFinished()) {
+                progressDialog.setTitle("Schedules sent");
+            }
+        });
+        progressDialog.setOnDismissListener(dialog -> summary.removeObservers(this));
+    }
+
     private void showAddFishTypeDialog() {
         // Create an EditText for the dialog
         final EditText input = new EditText(this);
@@ -510,9 +482,8 @@ public class MainActivity extends AppCompatActivity {
             }
             
             // Check if fish type already exists
-            viewModel.getAllFish().observe(this, fishList -> {
-                // Remove the observer after first use
-                viewModel.getAllFish().removeObservers(this);
+            viewModel.loadAllFish(fishList -> {
+                if (fishList == null) return;
                 
                 boolean fishExists = false;
                 for (Fish fish : fishList) {
@@ -586,39 +557,29 @@ public class MainActivity extends AppCompatActivity {
             calendar.set(Calendar.MILLISECOND, 0);
             long currentDate = calendar.getTimeInMillis();
             
-            // Get schedules for today
-            viewModel.getFishIdByName(selectedFish).observe(this, fishId -> {
-                if (fishId != null) {
-                    viewModel.getSchedulesForDate(fishId, currentDate).observe(this, schedules -> {
-                        if (schedules != null && !schedules.isEmpty()) {
-                            // Get fish count
-                            viewModel.getFishById(fishId).observe(this, fish -> {
-                                if (fish != null) {
-                                    int fishCount = fish.getAliveCount(); // Using getAliveCount instead of getCount
-                                    
-                                    // Calculate total feed amount for the day
-                                    float totalFeedAmount = 0;
-                                    for (FeedingSchedule schedule : schedules) {
-                                        totalFeedAmount += schedule.getFeedQuantity();
-                                    }
-                                    
-                                    // Multiply by number of fish
-                                    float totalDailyFeed = totalFeedAmount * fishCount;
-                                    
-                                    // Update the TextView
-                                    String displayText = String.format("Total Feed Amount: %.1fg", totalDailyFeed);
-                                    totalFeedAmountView.setText(displayText);
-                                    
-                                    Log.d("FeedCalculation", "Fish: " + selectedFish + 
-                                        ", Count: " + fishCount + 
-                                        ", Per fish: " + totalFeedAmount + 
-                                        ", Total: " + totalDailyFeed);
-                                }
-                            });
-                        } else {
-                            totalFeedAmountView.setText("Total Feed Amount: 0g");
-                        }
-                    });
+            // Observe only the selected fish; drop the previous selection's observer
+            if (dashboardSummary != null) {
+                dashboardSummary.removeObservers(this);
+            }
+            dashboardSummary = viewModel.getDashboardSummary(selectedFish, currentDate);
+            dashboardSummary.observe(this, summary -> {
+                if (summary != null && (summary.feedingCount > 0 || summary.totalCommandedFeed > 0)) {
+                    // Update the TextView
+                    String displayText = String.format("Total Feed Amount: %.1fg", summary.totalDailyFeed);
+                    if (summary.totalCommandedFeed > 0) {
+                        displayText += String.format(" (+%.1fg fed now)", summary.totalCommandedFeed);
+                    }
+                    totalFeedAmountView.setText(displayText);
+                    
+                    Log.d("FeedCalculation", "Fish: " + summary.fishName + 
+                        ", Count: " + summary.aliveCount + 
+                        ", Per fish: " + summary.feedPerFish + 
+                        ", Total: " + summary.totalDailyFeed +
+                        ", Week: " + summary.totalWeeklyFeed +
+                        ", Month: " + summary.totalMonthlyFeed +
+                        ", Fed now: " + summary.totalCommandedFeed);
+                } else {
+                    totalFeedAmountView.setText("Total Feed Amount: 0g");
                 }
             });
         } else {
@@ -673,10 +634,10 @@ public class MainActivity extends AppCompatActivity {
                 }
                 
                 // Get fish information to send SMS
-                viewModel.getFishByName(selectedFishName).observe(this, fish -> {
+                viewModel.loadFishByName(selectedFishName, fish -> {
                     if (fish != null && !TextUtils.isEmpty(fish.getPhoneNumber())) {
                         // Send SMS command for feed now
-                        sendFeedNowSms(fish.getPhoneNumber(), fish.getName(), feedAmount);
+                        sendFeedNowSms(fish.getPhoneNumber(), fish.getId(), fish.getName(), feedAmount);
                         Toast.makeText(this, "Feed command sent via SMS", Toast.LENGTH_SHORT).show();
                         dialog.dismiss();
                     } else {
@@ -684,9 +645,6 @@ public class MainActivity extends AppCompatActivity {
                         Toast.makeText(this, "No phone number associated with this fish", Toast.LENGTH_SHORT).show();
                         dialog.dismiss();
                     }
-                    
-                    // Remove observer to avoid multiple callbacks
-                    viewModel.getFishByName(selectedFishName).removeObservers(this);
                 });
             } catch (NumberFormatException e) {
                 feedAmountInput.setError("Please enter a valid number");
@@ -697,12 +655,12 @@ public class MainActivity extends AppCompatActivity {
     /**
      * Sends an SMS with the feed now command
      */
-    private void sendFeedNowSms(String phoneNumber, String fishName, float feedAmount) {
+    private void sendFeedNowSms(String phoneNumber, long fishId, String fishName, float feedAmount) {
         // Create the SMS message for feed now command
         String message = "FEED NOW: " + fishName + "\n" +
                          "Amount: " + feedAmount + "g per fish";
         
         // Use SmsUtils to send the message
-        SmsUtils.sendFeedNowCommand(this, phoneNumber, fishName, feedAmount);
+        SmsUtils.sendFeedNowCommand(this, phoneNumber, fishId, fishName, feedAmount);
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.myapplication;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.myapplication.ui.schedule.PagedScheduleAdapter;
+import com.example.myapplication.viewmodel.AquacultureViewModel;
+
+import kotlin.Unit;
+
+/**
+ * Every saved feeding schedule of one fish, oldest date range first. Rows are loaded a page
+ * at a time as the list scrolls and pages far from the visible ones are dropped, so a fish
+ * with many seasons of schedules never has them all in memory.
+ */
+public class ScheduleHistoryActivity extends AppCompatActivity {
+    public static final String EXTRA_FISH_ID = "FISH_ID";
+    public static final String EXTRA_FISH_NAME = "FISH_NAME";
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_schedule_history);
+
+        long fishId = getIntent().getLongExtra(EXTRA_FISH_ID, -1);
+        String fishName = getIntent().getStringExtra(EXTRA_FISH_NAME);
+        if (fishName != null) {
+            ((TextView) findViewById(R.id.titleTextView)).setText(fishName + " Schedules");
+        }
+        findViewById(R.id.backButton).setOnClickListener(v -> finish());
+
+        PagedScheduleAdapter adapter = new PagedScheduleAdapter();
+        RecyclerView recyclerView = findViewById(R.id.scheduleHistoryRecyclerView);
+        recyclerView.setAdapter(adapter);
+
+        TextView emptyText = findViewById(R.id.emptyTextView);
+        adapter.addLoadStateListener(loadStates -> {
+            boolean empty = loadStates.getRefresh() instanceof LoadState.NotLoading && adapter.getItemCount() == 0;
+            emptyText.setVisibility(empty ? View.VISIBLE : View.GONE);
+            return Unit.INSTANCE;
+        });
+
+        AquacultureViewModel viewModel = new ViewModelProvider(this).get(AquacultureViewModel.class);
+        viewModel.getPagedSchedules(fishId).observe(this, pagingData -> {
+            Log.d("ScheduleHistory", "New schedule pages for fish " + fishId);
+            adapter.submitData(getLifecycle(), PagedScheduleAdapter.withHeaders(pagingData));
+        });
+    }
+}
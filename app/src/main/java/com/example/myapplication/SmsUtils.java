@@ -3,19 +3,16 @@ package com.example.myapplication;
 import android.Manifest;
 import android.content.Context;
 import android.content.pm.PackageManager;
-import android.telephony.SmsManager;
 import android.util.Log;
 import android.widget.Toast;
 
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
-import com.example.myapplication.database.FeedingSchedule;
+import com.example.myapplication.sms.SmsOutbox;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 
 public class SmsUtils {
@@ -23,61 +20,9 @@ public class SmsUtils {
     private static final String TAG = "SmsUtils";
 
     /**
-     * Sends an SMS notification about a feeding schedule
+     * Queues an SMS with a command to feed fish immediately, and records it in the feeding ledger
      */
-    public static void sendScheduleNotification(Context context, String phoneNumber, String fishName, List<FeedingSchedule> schedules) {
-        if (schedules == null || schedules.isEmpty()) {
-            Log.e(TAG, "Cannot send SMS: Schedule list is empty");
-            return;
-        }
-
-        if (!hasSmsSendPermission(context)) {
-            Log.e(TAG, "Cannot send SMS: Permission not granted");
-            Toast.makeText(context, "SMS permission not granted", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        FeedingSchedule firstSchedule = schedules.get(0);
-        SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-        String startDate = dateFormat.format(new Date(firstSchedule.getStartDate()));
-        String endDate = dateFormat.format(new Date(firstSchedule.getEndDate()));
-
-        // Build schedule message in Arduino-compatible format
-        StringBuilder messageBuilder = new StringBuilder();
-        messageBuilder.append("New feeding schedule for ").append(fishName).append("\n\n");
-        messageBuilder.append(startDate).append(" - ").append(endDate).append(":\n");
-
-        for (FeedingSchedule schedule : schedules) {
-            messageBuilder.append("- ").append(schedule.getFeedingTime())
-                    .append(" - ").append(schedule.getFeedQuantity()).append("g\n");
-        }
-
-        try {
-            SmsManager smsManager = SmsManager.getDefault();
-            String message = messageBuilder.toString();
-            
-            // Force ASCII/GSM 7-bit encoding by removing any non-ASCII characters
-            message = message.replaceAll("[^\\x00-\\x7F]", "");
-            
-            // Split long messages if needed
-            if (message.length() > 160) {
-                ArrayList<String> parts = smsManager.divideMessage(message);
-                smsManager.sendMultipartTextMessage(phoneNumber, null, parts, null, null);
-                Log.d(TAG, "Multi-part SMS sent to " + phoneNumber + " (" + parts.size() + " parts)");
-            } else {
-                smsManager.sendTextMessage(phoneNumber, null, message, null, null);
-                Log.d(TAG, "SMS sent to " + phoneNumber);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to send SMS: " + e.getMessage());
-            Toast.makeText(context, "Failed to send SMS: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-        }
-    }
-    
-    /**
-     * Sends an SMS with a command to feed fish immediately
-     */
-    public static void sendFeedNowCommand(Context context, String phoneNumber, String fishName, float feedAmount) {
+    public static void sendFeedNowCommand(Context context, String phoneNumber, long fishId, String fishName, float feedAmount) {
         if (!hasSmsSendPermission(context)) {
             Log.e(TAG, "Cannot send SMS: Permission not granted");
             Toast.makeText(context, "SMS permission not granted", Toast.LENGTH_SHORT).show();
@@ -91,14 +36,8 @@ public class SmsUtils {
         messageBuilder.append("Amount: ").append(String.format("%.1f", feedAmount)).append("g per fish\n");
         messageBuilder.append("Time: ").append(new SimpleDateFormat("hh:mm a, MMM dd", Locale.getDefault()).format(new Date()));
         
-        try {
-            SmsManager smsManager = SmsManager.getDefault();
-            smsManager.sendTextMessage(phoneNumber, null, messageBuilder.toString(), null, null);
-            Log.d(TAG, "Feed now SMS sent to " + phoneNumber);
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to send feed now SMS: " + e.getMessage());
-            Toast.makeText(context, "Failed to send SMS: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-        }
+        SmsOutbox.enqueueFeedNow(context, phoneNumber, fishId, messageBuilder.toString(), feedAmount);
+        Log.d(TAG, "Feed now SMS queued for " + phoneNumber);
     }
 
     /**
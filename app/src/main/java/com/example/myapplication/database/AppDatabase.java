@@ -10,20 +10,29 @@ import androidx.room.TypeConverters;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import java.util.Date;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
-@Database(entities = {Fish.class, FeedingSchedule.class}, version = 6, exportSchema = false)
+@Database(entities = {Fish.class, FeedingSchedule.class, OutboundSms.class, FeederSyncState.class,
+        FeederEvent.class, DailyFeedPlan.class, FeedEvent.class, FeedDailyRollup.class,
+        FeedWeeklyRollup.class, FishSample.class}, version = 17, exportSchema = true)
 @TypeConverters({Converters.class})
 public abstract class AppDatabase extends RoomDatabase {
     
     public abstract FishDao fishDao();
     public abstract FeedingScheduleDao feedingScheduleDao();
+    public abstract SmsOutboxDao smsOutboxDao();
+    public abstract FeederSyncDao feederSyncDao();
+    public abstract FeederEventDao feederEventDao();
+    public abstract DailyFeedPlanDao dailyFeedPlanDao();
+    public abstract FeedEventDao feedEventDao();
+    public abstract FishSampleDao fishSampleDao();
+    public abstract MaintenanceDao maintenanceDao();
     
     private static volatile AppDatabase INSTANCE;
-    private static final int NUMBER_OF_THREADS = 4;
-    public static final ExecutorService databaseWriteExecutor =
-        Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    // All writes share one thread, so they are applied in the order they were submitted
+    public static final DbLane writeLane = new DbLane("write", 1);
+    // Reads run in parallel, one thread per core
+    public static final DbLane readLane =
+        new DbLane("read", Math.max(2, Runtime.getRuntime().availableProcessors()));
     
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
@@ -32,7 +41,8 @@ public abstract class AppDatabase extends RoomDatabase {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                             AppDatabase.class, "aquaculture_database")
                             .addCallback(sRoomDatabaseCallback)
-                            .fallbackToDestructiveMigration()
+                            .addMigrations(Migrations.ALL)
+                            .fallbackToDestructiveMigrationFrom(Migrations.UNMIGRATABLE_VERSIONS)
                             .build();
                 }
             }
@@ -40,13 +50,14 @@ public abstract class AppDatabase extends RoomDatabase {
         return INSTANCE;
     }
     
-    // Callback to prepopulate the database with default fish
+    // Callback to prepopulate the database with default fish. Only runs when the
+    // database file is first created, never on upgrade
     private static RoomDatabase.Callback sRoomDatabaseCallback = new RoomDatabase.Callback() {
         @Override
         public void onCreate(@NonNull SupportSQLiteDatabase db) {
             super.onCreate(db);
             
-            databaseWriteExecutor.execute(() -> {
+            writeLane.execute(() -> {
                 FishDao dao = INSTANCE.fishDao();
                 
                 // Update default fish creation with phone number
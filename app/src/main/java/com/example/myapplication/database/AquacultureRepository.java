@@ -1,26 +1,79 @@
 package com.example.myapplication.database;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
+import androidx.arch.core.util.Function;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
 
+import com.example.myapplication.sms.FleetBroadcast;
+import com.example.myapplication.sms.FleetBroadcastSummary;
+
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * The single entry point to the database. Writes run on {@link AppDatabase#writeLane} in
+ * submission order; one-shot reads run on {@link AppDatabase#readLane} and are delivered on
+ * the main thread. LiveData queries are left to Room.
+ */
 public class AquacultureRepository {
+    private static final String TAG = "AquacultureRepository";
+    // Schedule history pages; at most MAX_SCHEDULE_ROWS rows are kept while scrolling
+    private static final int SCHEDULE_PAGE_SIZE = 50;
+    private static final int MAX_SCHEDULE_ROWS = 300;
+    
+    // One-shot reads submitted but not yet delivered, across all instances
+    private static final AtomicInteger pendingOneShotReads = new AtomicInteger();
+    
+    private final Application application;
+    private final AppDatabase db;
     private FishDao fishDao;
     private FeedingScheduleDao feedingScheduleDao;
+    private DailyFeedPlanDao dailyFeedPlanDao;
+    private SmsOutboxDao smsOutboxDao;
+    private FeederEventDao feederEventDao;
+    private FeedEventDao feedEventDao;
+    private FishSampleDao fishSampleDao;
+    private MaintenanceDao maintenanceDao;
+    private ScheduleIndex scheduleIndex;
+    private GrowthProjections growthProjections;
     private LiveData<List<Fish>> allFish;
+    // Grouped schedules per fish, shared by every screen of this repository's owner
+    private final Map<Long, LiveData<List<ScheduleGroup>>> scheduleGroupsByFish = new HashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     
     public AquacultureRepository(Application application) {
-        AppDatabase db = AppDatabase.getDatabase(application);
+        this.application = application;
+        db = AppDatabase.getDatabase(application);
         fishDao = db.fishDao();
         feedingScheduleDao = db.feedingScheduleDao();
+        dailyFeedPlanDao = db.dailyFeedPlanDao();
+        smsOutboxDao = db.smsOutboxDao();
+        feederEventDao = db.feederEventDao();
+        feedEventDao = db.feedEventDao();
+        fishSampleDao = db.fishSampleDao();
+        maintenanceDao = db.maintenanceDao();
+        scheduleIndex = ScheduleIndex.get(db);
+        growthProjections = GrowthProjections.get(db);
         allFish = fishDao.getAllFish();
     }
     
     // Fish methods
     public LiveData<List<Fish>> getAllFish() {
-        return fishDao.getAllFish();
+        return allFish;
     }
     
     public LiveData<Fish> getFishById(long id) {
@@ -31,62 +84,381 @@ public class AquacultureRepository {
         return fishDao.getFishByName(name);
     }
     
+    public LiveData<Long> getFishIdByName(String name) {
+        return fishDao.getFishIdByName(name);
+    }
+    
+    /**
+     * The fish's feed totals for the day containing {@code date}, its Monday-to-Sunday week
+     * and its calendar month
+     */
+    public LiveData<DashboardSummary> getDashboardSummary(String fishName, long date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(date);
+        int day = DailyFeedPlan.toDay(date);
+        int weekStart = DailyFeedPlan.weekStart(day);
+        int monthStart = day - (calendar.get(Calendar.DAY_OF_MONTH) - 1);
+        int monthEnd = monthStart + calendar.getActualMaximum(Calendar.DAY_OF_MONTH) - 1;
+        return fishDao.getDashboardSummary(fishName, day, weekStart, weekStart + 6, monthStart, monthEnd);
+    }
+    
     public void insert(Fish fish) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
+        AppDatabase.writeLane.execute(() -> {
             fishDao.insert(fish);
         });
     }
     
-    public void update(Fish fish) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            fishDao.update(fish);
+    /**
+     * Saves a new measurement of the fish: the fish row is updated to it, or inserted if
+     * new, and a fish_samples row keeps it as history. The fish keeps its original dateAdded.
+     */
+    public void saveMeasurement(Fish fish) {
+        AppDatabase.writeLane.execute(() -> {
+            db.runInTransaction(() -> {
+                Fish existing = fish.getId() != 0 ? fishDao.getFishByIdSync(fish.getId()) : null;
+                if (existing != null) {
+                    fish.setDateAdded(existing.getDateAdded());
+                    fishDao.update(fish);
+                } else {
+                    fish.setId(fishDao.insert(fish));
+                }
+                long takenAt = fish.getLastUpdated() != null
+                        ? fish.getLastUpdated().getTime() : System.currentTimeMillis();
+                fishSampleDao.insert(new FishSample(fish.getId(), fish, takenAt));
+            });
         });
     }
     
     public void delete(Fish fish) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
+        AppDatabase.writeLane.execute(() -> {
             fishDao.delete(fish);
         });
     }
-
+    
+    // Schedules of the deleted fish go with them through the foreign key
+    public void deleteFishByIds(List<Long> ids) {
+        AppDatabase.writeLane.execute(() -> {
+            int deleted = fishDao.deleteByIds(ids);
+            Log.d(TAG, "Deleted " + deleted + " fish");
+        });
+    }
+    
     public void deleteAllFish() {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
+        AppDatabase.writeLane.execute(() -> {
             fishDao.deleteAll();
         });
     }
     
-    // Updated Feeding Schedule methods
+    // Feeding Schedule methods
     public LiveData<List<FeedingSchedule>> getAllSchedulesForFish(long fishId) {
         return feedingScheduleDao.getAllSchedulesForFish(fishId);
     }
     
+    /**
+     * The fish's schedules grouped into {@link ScheduleGroup}s. Grouping runs once per
+     * database change on the read lane, however many observers there are. Main thread only.
+     */
+    public LiveData<List<ScheduleGroup>> getScheduleGroupsForFish(long fishId) {
+        LiveData<List<ScheduleGroup>> groups = scheduleGroupsByFish.get(fishId);
+        if (groups == null) {
+            groups = mapInBackground(feedingScheduleDao.getAllSchedulesForFish(fishId), ScheduleGroup::fromSchedules);
+            scheduleGroupsByFish.put(fishId, groups);
+        }
+        return groups;
+    }
+    
+    /** Groups of the fish that end on or after the date; older ones are left to the paged history */
+    public LiveData<List<ScheduleGroup>> getCurrentScheduleGroupsForFish(long fishId, long since) {
+        return mapInBackground(feedingScheduleDao.getCurrentSchedulesForFish(fishId, since),
+                ScheduleGroup::fromSchedules);
+    }
+    
     public LiveData<List<FeedingSchedule>> getSchedulesForDateRange(long fishId, long startDate, long endDate) {
         return feedingScheduleDao.getSchedulesForDateRange(fishId, startDate, endDate);
     }
     
     public LiveData<List<FeedingSchedule>> getSchedulesForDate(long fishId, long date) {
-        return feedingScheduleDao.getSchedulesForDate(fishId, date);
+        return feedingScheduleDao.getSchedulesForDay(fishId, DailyFeedPlan.toDay(date));
     }
     
     public LiveData<List<FeedingSchedule>> getSchedulesByName(long fishId, String scheduleName) {
         return feedingScheduleDao.getSchedulesByName(fishId, scheduleName);
     }
     
+    public LiveData<List<FeedingSchedule>> getAllSchedules() {
+        return feedingScheduleDao.getAllSchedules();
+    }
+    
+    // Schedule writes also rewrite the rows' daily_feed_plan days in the same transaction
     public void saveFeedingSchedule(FeedingSchedule schedule) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            feedingScheduleDao.insert(schedule);
-        });
+        saveFeedingSchedules(Collections.singletonList(schedule));
     }
     
     public void saveFeedingSchedules(List<FeedingSchedule> schedules) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            feedingScheduleDao.insertAll(schedules);
+        AppDatabase.writeLane.execute(() -> {
+            try {
+                db.runInTransaction(() -> {
+                    List<Long> ids = feedingScheduleDao.insertAll(schedules);
+                    for (int i = 0; i < schedules.size(); i++) {
+                        schedules.get(i).setId(ids.get(i));
+                    }
+                    dailyFeedPlanDao.planSchedules(schedules);
+                });
+            } catch (IllegalArgumentException e) {
+                Log.e(TAG, "Schedules not saved: " + e.getMessage(), e);
+            }
         });
     }
     
-    public void deleteSchedulesForDateRange(long fishId, long startDate, long endDate) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            feedingScheduleDao.deleteSchedulesForDateRange(fishId, startDate, endDate);
+    public void updateFeedingSchedule(FeedingSchedule schedule) {
+        AppDatabase.writeLane.execute(() -> {
+            db.runInTransaction(() -> {
+                feedingScheduleDao.update(schedule);
+                dailyFeedPlanDao.planSchedules(Collections.singletonList(schedule));
+            });
+        });
+    }
+    
+    public void deleteFeedingSchedule(FeedingSchedule schedule) {
+        AppDatabase.writeLane.execute(() -> {
+            feedingScheduleDao.delete(schedule);
+        });
+    }
+    
+    /** Runs every maintenance cleanup in one transaction; the report is null if it failed */
+    public void runMaintenance(OneShotCallback<MaintenanceReport> callback) {
+        AppDatabase.writeLane.execute(() -> {
+            MaintenanceReport report = null;
+            try {
+                report = maintenanceDao.cleanUp();
+                Log.d(TAG, report.toString());
+            } catch (Exception e) {
+                Log.e(TAG, "Database maintenance failed: " + e.getMessage(), e);
+            }
+            MaintenanceReport delivered = report;
+            mainHandler.post(() -> callback.onResult(delivered));
+        });
+    }
+    
+    public LiveData<Boolean> deleteSchedulesForDateRange(long fishId, long startDate, long endDate) {
+        MutableLiveData<Boolean> result = new MutableLiveData<>();
+        AppDatabase.writeLane.execute(() -> {
+            try {
+                feedingScheduleDao.deleteSchedulesForDateRange(fishId, startDate, endDate);
+                result.postValue(true);
+            } catch (Exception e) {
+                Log.e(TAG, "Error deleting schedules: " + e.getMessage(), e);
+                result.postValue(false);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Replaces one named schedule's feeding times in a single transaction. The returned
+     * LiveData receives the changed row counts, or null if the update failed. A save that a
+     * newer save of the same schedule overtook before it ran receives the newer one's counts.
+     */
+    public LiveData<ScheduleChanges> replaceSchedules(long fishId, long startDate, long endDate,
+                                                      List<FeedingSchedule> newSchedules) {
+        MutableLiveData<ScheduleChanges> result = new MutableLiveData<>();
+        Log.d(TAG, "Updating schedules - fishId: " + fishId +
+              ", startDate: " + startDate + ", endDate: " + endDate);
+        if (newSchedules.isEmpty()) {
+            Log.d(TAG, "No new schedules to add, aborting update");
+            result.postValue(new ScheduleChanges(0, 0, 0, 0));
+            return result;
+        }
+        
+        // Back-to-back saves of one fish's named schedule coalesce: each replaces the whole
+        // schedule, so only the last is written and every caller gets its counts
+        String scheduleName = newSchedules.get(0).getScheduleName();
+        String key = "schedule/" + fishId + "/" + scheduleName + "/" + startDate + "/" + endDate;
+        AppDatabase.writeLane.executeLatest(key, () -> {
+            try {
+                ScheduleChanges changes = db.runInTransaction(() -> {
+                    ScheduleChanges replaced = feedingScheduleDao.replaceSchedules(
+                        fishId, scheduleName, startDate, endDate, newSchedules);
+                    dailyFeedPlanDao.planSchedules(feedingScheduleDao.getSchedulesByNameAndDateRangeSync(
+                        fishId, scheduleName, startDate, endDate));
+                    return replaced;
+                });
+                Log.d(TAG, "Schedule update: " + changes);
+                return changes;
+            } catch (Exception e) {
+                Log.e(TAG, "Error updating schedules: " + e.getMessage(), e);
+                return null;
+            }
+        }, result::postValue);
+        return result;
+    }
+    
+    // Feeding ledger
+    /** Planned, commanded and acknowledged feed totals of each day between the two dates */
+    public LiveData<List<FeedDailyRollup>> getDailyFeedHistory(long fishId, long fromDate, long toDate) {
+        return feedEventDao.getDailyRollups(fishId, DailyFeedPlan.toDay(fromDate), DailyFeedPlan.toDay(toDate));
+    }
+    
+    /** The same totals per Monday-to-Sunday week, for the weeks touching the two dates */
+    public LiveData<List<FeedWeeklyRollup>> getWeeklyFeedHistory(long fishId, long fromDate, long toDate) {
+        return feedEventDao.getWeeklyRollups(fishId, DailyFeedPlan.weekStart(DailyFeedPlan.toDay(fromDate)),
+                DailyFeedPlan.weekStart(DailyFeedPlan.toDay(toDate)));
+    }
+    
+    // Measurement history
+    /**
+     * Streams the fish's samples taken between the two timestamps, oldest first, to the
+     * callback one page of {@code pageSize} at a time; at most one page is held in memory.
+     */
+    public void streamSamples(long fishId, long fromTimestamp, long toTimestamp, int pageSize,
+                              SamplePageCallback callback) {
+        readSamplePage(fishId, fromTimestamp - 1, Long.MAX_VALUE, toTimestamp, pageSize, callback);
+    }
+    
+    private void readSamplePage(long fishId, long afterTimestamp, long afterId, long toTimestamp, int pageSize,
+                                SamplePageCallback callback) {
+        AppDatabase.readLane.execute(() -> {
+            List<FishSample> page;
+            try {
+                page = fishSampleDao.getSamplePageSync(fishId, afterTimestamp, afterId, toTimestamp, pageSize);
+            } catch (Exception e) {
+                Log.e(TAG, "Sample page read failed: " + e.getMessage(), e);
+                page = Collections.emptyList();
+            }
+            List<FishSample> delivered = page;
+            boolean last = page.size() < pageSize;
+            mainHandler.post(() -> {
+                if (callback.onPage(delivered, last) && !last) {
+                    FishSample end = delivered.get(delivered.size() - 1);
+                    readSamplePage(fishId, end.getTimestamp(), end.getId(), toTimestamp, pageSize, callback);
+                }
+            });
+        });
+    }
+    
+    // Growth forecasts
+    /** Every pond's forecast over the growing cycle from today */
+    public void loadGrowthProjections(OneShotCallback<List<FishGrowth>> callback) {
+        readOnce(() -> growthProjections.projectAll(DailyFeedPlan.toDay(System.currentTimeMillis())), callback);
+    }
+    
+    /** Grams per fish for each feeding on the date, from the fish's growth forecast; null if it has none */
+    public void loadSuggestedFeedQuantity(long fishId, long date, int feedingsPerDay,
+                                          OneShotCallback<Float> callback) {
+        readOnce(() -> {
+            FishGrowth growth = growthProjections.forFish(fishId, DailyFeedPlan.toDay(System.currentTimeMillis()));
+            return growth != null ? growth.feedPerFeeding(DailyFeedPlan.toDay(date), feedingsPerDay) : null;
+        }, callback);
+    }
+    
+    // SMS outbox
+    /** Per-feeder counts and latencies of the messages queued since the given time */
+    public LiveData<List<FeederSmsStats>> getFeederSmsStats(long since) {
+        return smsOutboxDao.getFeederSmsStats(since);
+    }
+    
+    /** Per-feeder reply counts and round-trip times of the replies received since the given time */
+    public LiveData<List<FeederReplyStats>> getFeederReplyStats(long since) {
+        return feederEventDao.getFeederReplyStats(since);
+    }
+    
+    /** Queues the current schedule of each given fish for its feeder; see {@link FleetBroadcast} */
+    public LiveData<FleetBroadcastSummary> broadcastSchedules(Collection<Long> fishIds) {
+        return FleetBroadcast.sendToFish(application, fishIds);
+    }
+    
+    /** Queues the named schedule for the feeder of every fish that has it */
+    public LiveData<FleetBroadcastSummary> broadcastTemplate(String scheduleName) {
+        return FleetBroadcast.sendTemplate(application, scheduleName);
+    }
+    
+    // One-shot reads
+    public void loadFishById(long id, OneShotCallback<Fish> callback) {
+        readOnce(() -> fishDao.getFishByIdSync(id), callback);
+    }
+    
+    public void loadFishByName(String name, OneShotCallback<Fish> callback) {
+        readOnce(() -> fishDao.getFishByNameSync(name), callback);
+    }
+    
+    public void loadAllFish(OneShotCallback<List<Fish>> callback) {
+        readOnce(fishDao::getAllFishSync, callback);
+    }
+    
+    public void loadSchedulesForFish(long fishId, OneShotCallback<List<FeedingSchedule>> callback) {
+        readOnce(() -> feedingScheduleDao.getAllSchedulesForFishSync(fishId), callback);
+    }
+    
+    /** One fish's schedule rows by start date, a page at a time; -1 pages every fish's rows */
+    public Pager<Integer, FeedingSchedule> pageSchedules(long fishId) {
+        PagingConfig config = new PagingConfig(SCHEDULE_PAGE_SIZE, SCHEDULE_PAGE_SIZE, false,
+                2 * SCHEDULE_PAGE_SIZE, MAX_SCHEDULE_ROWS);
+        return new Pager<>(config, () -> fishId == -1
+                ? feedingScheduleDao.getAllSchedulesPaged()
+                : feedingScheduleDao.getSchedulesForFishPaged(fishId));
+    }
+    
+    // Rows overlapping the range, ordered by start date; answered from the fish's ScheduleIndex tree
+    public void loadSchedulesForDateRange(long fishId, long startDate, long endDate,
+                                          OneShotCallback<List<FeedingSchedule>> callback) {
+        readOnce(() -> scheduleIndex.findOverlapping(fishId, startDate, endDate), callback);
+    }
+    
+    public void loadSchedulesActiveOn(long fishId, long date, OneShotCallback<List<FeedingSchedule>> callback) {
+        readOnce(() -> scheduleIndex.activeOn(fishId, date), callback);
+    }
+    
+    public void loadScheduleNames(OneShotCallback<List<String>> callback) {
+        readOnce(feedingScheduleDao::getScheduleNamesSync, callback);
+    }
+    
+    /**
+     * Like Transformations.map, but runs the mapper on the read lane so grouping and
+     * formatting stay off the main thread. A result that finishes after a newer source
+     * value has arrived is discarded.
+     */
+    public <S, T> LiveData<T> mapInBackground(LiveData<S> source, Function<S, T> mapper) {
+        MediatorLiveData<T> result = new MediatorLiveData<>();
+        AtomicInteger latest = new AtomicInteger();
+        result.addSource(source, value -> {
+            int generation = latest.incrementAndGet();
+            AppDatabase.readLane.execute(() -> {
+                T mapped = mapper.apply(value);
+                synchronized (latest) {
+                    if (generation == latest.get()) {
+                        result.postValue(mapped);
+                    }
+                }
+            });
+        });
+        return result;
+    }
+    
+    /** Number of one-shot reads still in flight; returns to zero once every callback has run */
+    public static int getPendingOneShotReads() {
+        return pendingOneShotReads.get();
+    }
+    
+    /** Queue depth and wait time figures for both lanes, for logging */
+    public static String getLaneMetrics() {
+        return AppDatabase.writeLane + "; " + AppDatabase.readLane;
+    }
+    
+    // Runs the query on the read lane and posts the result to the main thread once
+    private <T> void readOnce(Callable<T> query, OneShotCallback<T> callback) {
+        pendingOneShotReads.incrementAndGet();
+        AppDatabase.readLane.execute(() -> {
+            T result = null;
+            try {
+                result = query.call();
+            } catch (Exception e) {
+                Log.e(TAG, "One-shot read failed: " + e.getMessage(), e);
+            }
+            T delivered = result;
+            mainHandler.post(() -> {
+                pendingOneShotReads.decrementAndGet();
+                callback.onResult(delivered);
+            });
         });
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.example.myapplication.database;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import com.example.schedulecore.CompactScheduleCodec;
+
+/**
+ * One feeding time of one fish on one day, written out from the feeding_schedules rows so
+ * day, week and month totals are index lookups instead of date range scans. Rows are
+ * written by {@link DailyFeedPlanDao#planSchedules} whenever schedules are saved, and go
+ * with their schedule row through the foreign key when it is deleted or replaced.
+ */
+@Entity(tableName = "daily_feed_plan",
+        primaryKeys = {"scheduleId", "day"},
+        foreignKeys = @ForeignKey(entity = FeedingSchedule.class,
+                parentColumns = "id",
+                childColumns = "scheduleId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {
+                // Totals for one fish and a day or a run of days
+                @Index(value = {"fishId", "day"}),
+                // Every fish's feeds for a run of days, for the feeding ledger
+                @Index(value = {"day"})
+        })
+public class DailyFeedPlan {
+    // Longest run of days one schedule row is written out for, about ten years
+    static final int MAX_DAYS = 3660;
+    
+    private long scheduleId;
+    // Local calendar day, counted as the feeder does; see toDay
+    private int day;
+    private long fishId;
+    private int feedingMinuteOfDay;
+    private float feedQuantity;
+    
+    public DailyFeedPlan() {
+    }
+    
+    @Ignore
+    public DailyFeedPlan(FeedingSchedule schedule, int day) {
+        this.scheduleId = schedule.getId();
+        this.day = day;
+        this.fishId = schedule.getFishId();
+        this.feedingMinuteOfDay = schedule.getFeedingMinuteOfDay();
+        this.feedQuantity = schedule.getFeedQuantity();
+    }
+    
+    /** The day column for a timestamp: its local calendar date as a day number since 2000 */
+    public static int toDay(long millis) {
+        return CompactScheduleCodec.toEpochDay(millis);
+    }
+    
+    /** The Monday of the week containing the given day number; day 0 was a Saturday */
+    public static int weekStart(int day) {
+        return day - Math.floorMod(day + 5, 7);
+    }
+    
+    /** The last day to write out for a date range whose first day is given */
+    static int lastDay(int firstDay, long endDate) {
+        return Math.min(toDay(endDate), firstDay + MAX_DAYS - 1);
+    }
+    
+    // Getters and Setters
+    public long getScheduleId() { return scheduleId; }
+    public void setScheduleId(long scheduleId) { this.scheduleId = scheduleId; }
+    
+    public int getDay() { return day; }
+    public void setDay(int day) { this.day = day; }
+    
+    public long getFishId() { return fishId; }
+    public void setFishId(long fishId) { this.fishId = fishId; }
+    
+    public int getFeedingMinuteOfDay() { return feedingMinuteOfDay; }
+    public void setFeedingMinuteOfDay(int feedingMinuteOfDay) { this.feedingMinuteOfDay = feedingMinuteOfDay; }
+    
+    public float getFeedQuantity() { return feedQuantity; }
+    public void setFeedQuantity(float feedQuantity) { this.feedQuantity = feedQuantity; }
+}
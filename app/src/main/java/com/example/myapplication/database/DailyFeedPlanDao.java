@@ -0,0 +1,44 @@
+package com.example.myapplication.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps daily_feed_plan in step with feeding_schedules. Deleted schedule rows take their
+ * plan rows with them through the foreign key; saved ones are written out again here.
+ */
+@Dao
+public interface DailyFeedPlanDao {
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<DailyFeedPlan> rows);
+    
+    @Query("DELETE FROM daily_feed_plan WHERE scheduleId = :scheduleId")
+    int deleteForSchedule(long scheduleId);
+    
+    /**
+     * Rewrites the plan rows of saved schedule rows, one per day of each row's date range.
+     * The rows must carry their database ids.
+     */
+    @Transaction
+    default int planSchedules(List<FeedingSchedule> schedules) {
+        List<DailyFeedPlan> rows = new ArrayList<>();
+        for (FeedingSchedule schedule : schedules) {
+            deleteForSchedule(schedule.getId());
+            int firstDay = DailyFeedPlan.toDay(schedule.getStartDate());
+            int lastDay = DailyFeedPlan.lastDay(firstDay, schedule.getEndDate());
+            for (int day = firstDay; day <= lastDay; day++) {
+                rows.add(new DailyFeedPlan(schedule, day));
+            }
+        }
+        if (!rows.isEmpty()) {
+            insertAll(rows);
+        }
+        return rows.size();
+    }
+}
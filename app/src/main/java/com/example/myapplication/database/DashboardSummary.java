@@ -0,0 +1,22 @@
+package com.example.myapplication.database;
+
+/**
+ * One fish's dashboard figures for a day and its week and month, read in a single query by
+ * {@link FishDao#getDashboardSummary}.
+ */
+public class DashboardSummary {
+    public long fishId;
+    public String fishName;
+    public int aliveCount;
+    // Feeding times scheduled for the day
+    public int feedingCount;
+    // Sum of the day's feed quantities, per fish
+    public float feedPerFish;
+    // feedPerFish multiplied by the alive count
+    public float totalDailyFeed;
+    // The same total over the day's week and calendar month
+    public float totalWeeklyFeed;
+    public float totalMonthlyFeed;
+    // Sent with feed now commands on the day, from the feeding ledger
+    public float totalCommandedFeed;
+}
@@ -0,0 +1,197 @@
+package com.example.myapplication.database;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named pool of database threads that records how deep its queue gets and how long
+ * tasks wait before they start. A lane with one thread runs its tasks strictly in order.
+ */
+public class DbLane {
+    private final String name;
+    private final ExecutorService executor;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong totalWaitMs = new AtomicLong();
+    private final AtomicLong maxWaitMs = new AtomicLong();
+
+    // Keyed tasks still waiting to start; a newer task with the same key replaces the older one
+    private final Map<String, Runnable> pendingByKey = new HashMap<>();
+    // Keyed tasks with a result still waiting to start; see executeLatest
+    private final Map<String, Latest<?>> latestByKey = new HashMap<>();
+
+    public DbLane(String name, int threads) {
+        this.name = name;
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "db-" + name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), factory);
+    }
+
+    public void execute(Runnable task) {
+        long queuedAt = SystemClock.elapsedRealtime();
+        recordQueued();
+        executor.execute(() -> {
+            recordStarted(queuedAt);
+            try {
+                task.run();
+            } finally {
+                completed.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Runs the task on the lane and waits for its result, for callers such as workers that
+     * already run on a background thread. Never call it from one of the lane's own threads.
+     */
+    public <T> T call(Callable<T> task) throws InterruptedException {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Runs the task unless another task with the same key is still queued, in which case
+     * the queued one is replaced by this one and keeps its place in the queue. Only use
+     * for writes where the latest value fully supersedes the earlier ones.
+     */
+    public void executeCoalesced(String key, Runnable task) {
+        synchronized (pendingByKey) {
+            if (pendingByKey.put(key, task) != null) {
+                coalesced.incrementAndGet();
+                return;
+            }
+        }
+        execute(() -> {
+            Runnable latest;
+            synchronized (pendingByKey) {
+                latest = pendingByKey.remove(key);
+            }
+            if (latest != null) {
+                latest.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the task, unless a newer task with the same key is submitted before it starts.
+     * Then only the newer one runs, and every superseded callback gets its result on the lane
+     * thread. Unlike {@link #executeCoalesced}, the task runs in the newest submission's
+     * place, so it never jumps ahead of writes submitted in between. Only use for writes
+     * whose latest value fully supersedes the earlier ones, with one result type per key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void executeLatest(String key, Callable<T> task, OneShotCallback<T> callback) {
+        Latest<T> latest = new Latest<>(task);
+        synchronized (latestByKey) {
+            Latest<T> superseded = (Latest<T>) latestByKey.put(key, latest);
+            if (superseded != null) {
+                latest.callbacks.addAll(superseded.callbacks);
+                coalesced.incrementAndGet();
+            }
+            latest.callbacks.add(callback);
+        }
+        execute(() -> {
+            synchronized (latestByKey) {
+                // A newer task took over this one's callbacks
+                if (latestByKey.get(key) != latest) return;
+                latestByKey.remove(key);
+            }
+            T result;
+            try {
+                result = task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            for (OneShotCallback<T> waiting : latest.callbacks) {
+                waiting.onResult(result);
+            }
+        });
+    }
+
+    private static final class Latest<T> {
+        final Callable<T> task;
+        final List<OneShotCallback<T>> callbacks = new ArrayList<>();
+
+        Latest(Callable<T> task) {
+            this.task = task;
+        }
+    }
+
+    private void recordQueued() {
+        int depth = queueDepth.incrementAndGet();
+        int max;
+        while (depth > (max = maxQueueDepth.get())) {
+            if (maxQueueDepth.compareAndSet(max, depth)) break;
+        }
+    }
+
+    private void recordStarted(long queuedAt) {
+        queueDepth.decrementAndGet();
+        started.incrementAndGet();
+        long waited = SystemClock.elapsedRealtime() - queuedAt;
+        totalWaitMs.addAndGet(waited);
+        long max;
+        while (waited > (max = maxWaitMs.get())) {
+            if (maxWaitMs.compareAndSet(max, waited)) break;
+        }
+    }
+
+    public String getName() { return name; }
+
+    /** Tasks submitted but not yet started */
+    public int getQueueDepth() { return queueDepth.get(); }
+
+    public int getMaxQueueDepth() { return maxQueueDepth.get(); }
+
+    public long getCompletedCount() { return completed.get(); }
+
+    /** Keyed tasks that were replaced by a newer one before they ran */
+    public long getCoalescedCount() { return coalesced.get(); }
+
+    public long getAverageWaitMs() {
+        long count = started.get();
+        return count == 0 ? 0 : totalWaitMs.get() / count;
+    }
+
+    public long getMaxWaitMs() { return maxWaitMs.get(); }
+
+    @Override
+    public String toString() {
+        return name + ": depth=" + getQueueDepth() + " (max " + getMaxQueueDepth() + ")"
+                + ", completed=" + getCompletedCount() + ", coalesced=" + getCoalescedCount()
+                + ", wait avg=" + getAverageWaitMs() + "ms max=" + getMaxWaitMs() + "ms";
+    }
+}
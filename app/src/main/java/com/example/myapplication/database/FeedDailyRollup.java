@@ -0,0 +1,15 @@
+package com.example.myapplication.database;
+
+import androidx.room.Entity;
+
+/**
+ * {@link FeedEvent} totals per fish, day and kind, kept up to date as events are recorded.
+ */
+@Entity(tableName = "feed_daily_rollup", primaryKeys = {"fishId", "day", "kind"})
+public class FeedDailyRollup extends FeedRollup {
+    // DailyFeedPlan day number
+    private int day;
+    
+    public int getDay() { return day; }
+    public void setDay(int day) { this.day = day; }
+}
@@ -0,0 +1,104 @@
+package com.example.myapplication.database;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.util.Calendar;
+
+/**
+ * One entry in the append-only feeding ledger: a feed the schedule called for, one sent
+ * to the feeder as a feed now command, or one the network confirmed reaching the feeder.
+ * Rows are only ever inserted, through {@link FeedEventDao#record}, which also adds them
+ * to the daily and weekly rollups.
+ */
+@Entity(tableName = "feed_events",
+        indices = {
+                // One fish's history
+                @Index(value = {"fishId", "day"}),
+                // Finding the command a delivery report confirms
+                @Index(value = {"smsId"})
+        })
+public class FeedEvent {
+    // A feeding time of the fish's schedule, recorded once its day is over
+    public static final String KIND_PLANNED = "PLANNED";
+    // A feed now command queued for the feeder
+    public static final String KIND_COMMANDED = "COMMANDED";
+    // A feed now command the carrier reported delivered to the feeder
+    public static final String KIND_ACKNOWLEDGED = "ACKNOWLEDGED";
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    private long fishId;
+    private String kind;
+    // DailyFeedPlan day number of the feed
+    private int day;
+    // Minutes since midnight of the feed, -1 if unknown
+    private int minuteOfDay;
+    private float gramsPerFish;
+    // Live fish when the event was recorded
+    private int fishCount;
+    private float totalGrams;
+    // Outbox message of a command and its acknowledgement, 0 otherwise
+    private long smsId;
+    private long recordedAt;
+    
+    public FeedEvent() {
+    }
+    
+    @Ignore
+    public FeedEvent(long fishId, String kind, int day, int minuteOfDay, float gramsPerFish,
+                     int fishCount, long smsId, long recordedAt) {
+        this.fishId = fishId;
+        this.kind = kind;
+        this.day = day;
+        this.minuteOfDay = minuteOfDay;
+        this.gramsPerFish = gramsPerFish;
+        this.fishCount = fishCount;
+        this.totalGrams = gramsPerFish * fishCount;
+        this.smsId = smsId;
+        this.recordedAt = recordedAt;
+    }
+    
+    /** A feed now command of {@code gramsPerFish}, queued at {@code now} as outbox message {@code smsId} */
+    public static FeedEvent commanded(long fishId, float gramsPerFish, int fishCount, long smsId, long now) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
+        int minuteOfDay = calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+        return new FeedEvent(fishId, KIND_COMMANDED, DailyFeedPlan.toDay(now), minuteOfDay,
+                gramsPerFish, fishCount, smsId, now);
+    }
+    
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public long getFishId() { return fishId; }
+    public void setFishId(long fishId) { this.fishId = fishId; }
+    
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+    
+    public int getDay() { return day; }
+    public void setDay(int day) { this.day = day; }
+    
+    public int getMinuteOfDay() { return minuteOfDay; }
+    public void setMinuteOfDay(int minuteOfDay) { this.minuteOfDay = minuteOfDay; }
+    
+    public float getGramsPerFish() { return gramsPerFish; }
+    public void setGramsPerFish(float gramsPerFish) { this.gramsPerFish = gramsPerFish; }
+    
+    public int getFishCount() { return fishCount; }
+    public void setFishCount(int fishCount) { this.fishCount = fishCount; }
+    
+    public float getTotalGrams() { return totalGrams; }
+    public void setTotalGrams(float totalGrams) { this.totalGrams = totalGrams; }
+    
+    public long getSmsId() { return smsId; }
+    public void setSmsId(long smsId) { this.smsId = smsId; }
+    
+    public long getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(long recordedAt) { this.recordedAt = recordedAt; }
+}
@@ -0,0 +1,120 @@
+package com.example.myapplication.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+/**
+ * The feeding ledger. Events are appended with {@link #record}, which adds each one to its
+ * day's and week's rollup in the same transaction, so history screens read a handful of
+ * rollup rows however many events lie behind them.
+ */
+@Dao
+public interface FeedEventDao {
+    @Insert
+    long insert(FeedEvent event);
+    
+    @Query("INSERT OR IGNORE INTO feed_daily_rollup (fishId, kind, eventCount, gramsPerFish, totalGrams, day)"
+            + " VALUES (:fishId, :kind, 0, 0, 0, :day)")
+    void ensureDailyRollup(long fishId, String kind, int day);
+    
+    @Query("UPDATE feed_daily_rollup SET eventCount = eventCount + 1,"
+            + " gramsPerFish = gramsPerFish + :gramsPerFish, totalGrams = totalGrams + :totalGrams"
+            + " WHERE fishId = :fishId AND day = :day AND kind = :kind")
+    void addToDailyRollup(long fishId, String kind, int day, float gramsPerFish, float totalGrams);
+    
+    @Query("INSERT OR IGNORE INTO feed_weekly_rollup (fishId, kind, eventCount, gramsPerFish, totalGrams, weekStart)"
+            + " VALUES (:fishId, :kind, 0, 0, 0, :weekStart)")
+    void ensureWeeklyRollup(long fishId, String kind, int weekStart);
+    
+    @Query("UPDATE feed_weekly_rollup SET eventCount = eventCount + 1,"
+            + " gramsPerFish = gramsPerFish + :gramsPerFish, totalGrams = totalGrams + :totalGrams"
+            + " WHERE fishId = :fishId AND weekStart = :weekStart AND kind = :kind")
+    void addToWeeklyRollup(long fishId, String kind, int weekStart, float gramsPerFish, float totalGrams);
+    
+    /** Appends the event and adds it to its rollups; returns the event's id */
+    @Transaction
+    default long record(FeedEvent event) {
+        long id = insert(event);
+        ensureDailyRollup(event.getFishId(), event.getKind(), event.getDay());
+        addToDailyRollup(event.getFishId(), event.getKind(), event.getDay(),
+                event.getGramsPerFish(), event.getTotalGrams());
+        int weekStart = DailyFeedPlan.weekStart(event.getDay());
+        ensureWeeklyRollup(event.getFishId(), event.getKind(), weekStart);
+        addToWeeklyRollup(event.getFishId(), event.getKind(), weekStart,
+                event.getGramsPerFish(), event.getTotalGrams());
+        return id;
+    }
+    
+    // Planned feeds
+    @Query("SELECT MAX(day) FROM feed_events WHERE kind = '" + FeedEvent.KIND_PLANNED + "'")
+    Integer getLastPlannedDaySync();
+    
+    @Query("SELECT MIN(day) FROM daily_feed_plan")
+    Integer getFirstPlanDaySync();
+    
+    @Query("SELECT p.fishId, p.day, p.feedingMinuteOfDay, p.feedQuantity, f.aliveCount"
+            + " FROM daily_feed_plan p JOIN fish f ON f.id = p.fishId"
+            + " WHERE p.day BETWEEN :firstDay AND :lastDay ORDER BY p.day, p.fishId, p.feedingMinuteOfDay")
+    List<PlannedFeed> getPlannedFeedsSync(int firstDay, int lastDay);
+    
+    /**
+     * Records the planned feeds of every day after the last one recorded, up to and
+     * including {@code lastDay}. Schedules changed after their day was recorded are not
+     * recorded again. Returns the number of events added.
+     */
+    @Transaction
+    default int recordPlannedFeeds(int lastDay, long now) {
+        Integer lastRecorded = getLastPlannedDaySync();
+        Integer firstDay = lastRecorded != null ? Integer.valueOf(lastRecorded + 1) : getFirstPlanDaySync();
+        if (firstDay == null || firstDay > lastDay) return 0;
+        
+        List<PlannedFeed> feeds = getPlannedFeedsSync(firstDay, lastDay);
+        for (PlannedFeed feed : feeds) {
+            record(new FeedEvent(feed.fishId, FeedEvent.KIND_PLANNED, feed.day, feed.feedingMinuteOfDay,
+                    feed.feedQuantity, feed.aliveCount, 0, now));
+        }
+        return feeds.size();
+    }
+    
+    // Acknowledgements
+    @Query("SELECT * FROM feed_events WHERE smsId = :smsId AND kind = :kind LIMIT 1")
+    FeedEvent getBySmsSync(long smsId, String kind);
+    
+    @Query("SELECT status FROM sms_outbox WHERE id = :smsId")
+    Integer getSmsStatusSync(long smsId);
+    
+    /**
+     * Records the acknowledgement of a feed now command once its message has been
+     * delivered; does nothing for other messages or if it is already recorded.
+     */
+    @Transaction
+    default boolean acknowledgeIfDelivered(long smsId, long now) {
+        Integer status = getSmsStatusSync(smsId);
+        if (status == null || status != OutboundSms.STATUS_DELIVERED) return false;
+        FeedEvent command = getBySmsSync(smsId, FeedEvent.KIND_COMMANDED);
+        if (command == null || getBySmsSync(smsId, FeedEvent.KIND_ACKNOWLEDGED) != null) return false;
+        record(new FeedEvent(command.getFishId(), FeedEvent.KIND_ACKNOWLEDGED, command.getDay(),
+                command.getMinuteOfDay(), command.getGramsPerFish(), command.getFishCount(), smsId, now));
+        return true;
+    }
+    
+    /** Feed actually given: planned feeds plus delivered feed now commands */
+    @Query("SELECT COALESCE(SUM(totalGrams), 0) FROM feed_daily_rollup"
+            + " WHERE fishId = :fishId AND day BETWEEN :firstDay AND :lastDay"
+            + " AND kind IN ('" + FeedEvent.KIND_PLANNED + "', '" + FeedEvent.KIND_ACKNOWLEDGED + "')")
+    float getFedGramsSync(long fishId, int firstDay, int lastDay);
+    
+    // History
+    @Query("SELECT * FROM feed_daily_rollup WHERE fishId = :fishId AND day BETWEEN :firstDay AND :lastDay"
+            + " ORDER BY day, kind")
+    LiveData<List<FeedDailyRollup>> getDailyRollups(long fishId, int firstDay, int lastDay);
+    
+    @Query("SELECT * FROM feed_weekly_rollup WHERE fishId = :fishId AND weekStart BETWEEN :firstWeek AND :lastWeek"
+            + " ORDER BY weekStart, kind")
+    LiveData<List<FeedWeeklyRollup>> getWeeklyRollups(long fishId, int firstWeek, int lastWeek);
+}
@@ -0,0 +1,53 @@
+package com.example.myapplication.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records each finished day's planned feeds in the feeding ledger, once a day. A run that
+ * was missed is caught up by the next one: every day after the last one recorded is added.
+ */
+public class FeedLedgerWorker extends Worker {
+    private static final String TAG = "FeedLedgerWorker";
+    private static final String WORK_NAME = "feed-ledger";
+
+    public FeedLedgerWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** Starts the daily run unless it is already scheduled */
+    public static void schedule(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(FeedLedgerWorker.class, 1, TimeUnit.DAYS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        AppDatabase db = AppDatabase.getDatabase(getApplicationContext());
+        long now = System.currentTimeMillis();
+        try {
+            // Up to yesterday; today's feeds are still to come. Written on the write lane, like every write
+            int recorded = AppDatabase.writeLane.call(
+                    () -> db.feedEventDao().recordPlannedFeeds(DailyFeedPlan.toDay(now) - 1, now));
+            Log.d(TAG, "Recorded " + recorded + " planned feeds");
+            return Result.success();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to record planned feeds: " + e.getMessage(), e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.myapplication.database;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Running totals of one kind of {@link FeedEvent} for one fish over a period; the columns
+ * shared by {@link FeedDailyRollup} and {@link FeedWeeklyRollup}.
+ */
+public abstract class FeedRollup {
+    private long fishId;
+    @NonNull
+    private String kind = "";
+    private int eventCount;
+    private float gramsPerFish;
+    private float totalGrams;
+    
+    public long getFishId() { return fishId; }
+    public void setFishId(long fishId) { this.fishId = fishId; }
+    
+    @NonNull
+    public String getKind() { return kind; }
+    public void setKind(@NonNull String kind) { this.kind = kind; }
+    
+    public int getEventCount() { return eventCount; }
+    public void setEventCount(int eventCount) { this.eventCount = eventCount; }
+    
+    public float getGramsPerFish() { return gramsPerFish; }
+    public void setGramsPerFish(float gramsPerFish) { this.gramsPerFish = gramsPerFish; }
+    
+    public float getTotalGrams() { return totalGrams; }
+    public void setTotalGrams(float totalGrams) { this.totalGrams = totalGrams; }
+}
@@ -0,0 +1,16 @@
+package com.example.myapplication.database;
+
+import androidx.room.Entity;
+
+/**
+ * {@link FeedEvent} totals per fish, Monday-to-Sunday week and kind, kept up to date as
+ * events are recorded.
+ */
+@Entity(tableName = "feed_weekly_rollup", primaryKeys = {"fishId", "weekStart", "kind"})
+public class FeedWeeklyRollup extends FeedRollup {
+    // DailyFeedPlan day number of the week's Monday
+    private int weekStart;
+    
+    public int getWeekStart() { return weekStart; }
+    public void setWeekStart(int weekStart) { this.weekStart = weekStart; }
+}
@@ -0,0 +1,78 @@
+package com.example.myapplication.database;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One SMS reply from a feeder. Replies that answer a schedule message carry its outbox id,
+ * so the feeder's round trip can be reported alongside the outbox figures.
+ */
+@Entity(tableName = "feeder_events",
+        indices = {
+                // Per-feeder history and statistics
+                @Index(value = {"phoneNumber", "receivedAt"}),
+                // Which outbox messages have been answered
+                @Index(value = {"smsId"})
+        })
+public class FeederEvent {
+    // "Schedule updated! Added N feeding times."; value is N
+    public static final String KIND_SCHEDULE_ACK = "SCHEDULE_ACK";
+    // "Schedule version mismatch, have vN"; value is N
+    public static final String KIND_VERSION_MISMATCH = "VERSION_MISMATCH";
+    // Anything else from a feeder we are waiting on
+    public static final String KIND_OTHER = "OTHER";
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    // The outbox's number for the feeder when matched, otherwise the sender as received
+    private String phoneNumber;
+    private String kind;
+    private String body;
+    // The number in the reply, -1 if it has none
+    private int value;
+    private long receivedAt;
+    // The outbox message this answers, 0 if none was found
+    private long smsId;
+    // Sent to reply received, 0 when unmatched
+    private long roundTripMs;
+    
+    public FeederEvent() {
+    }
+    
+    @Ignore
+    public FeederEvent(String phoneNumber, String kind, String body, int value, long receivedAt) {
+        this.phoneNumber = phoneNumber;
+        this.kind = kind;
+        this.body = body;
+        this.value = value;
+        this.receivedAt = receivedAt;
+    }
+    
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+    
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+    
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+    
+    public int getValue() { return value; }
+    public void setValue(int value) { this.value = value; }
+    
+    public long getReceivedAt() { return receivedAt; }
+    public void setReceivedAt(long receivedAt) { this.receivedAt = receivedAt; }
+    
+    public long getSmsId() { return smsId; }
+    public void setSmsId(long smsId) { this.smsId = smsId; }
+    
+    public long getRoundTripMs() { return roundTripMs; }
+    public void setRoundTripMs(long roundTripMs) { this.roundTripMs = roundTripMs; }
+}
@@ -0,0 +1,38 @@
+package com.example.myapplication.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Replies received from feeders, and the outbox messages they may answer.
+ */
+@Dao
+public interface FeederEventDao {
+    @Insert
+    long insert(FeederEvent event);
+    
+    // Schedule messages fully sent in the window that no reply has been matched to yet, oldest first
+    @Query("SELECT * FROM sms_outbox WHERE kind = '" + OutboundSms.KIND_SCHEDULE + "'"
+            + " AND sentAt > 0 AND sentAt BETWEEN :since AND :until"
+            + " AND id NOT IN (SELECT smsId FROM feeder_events WHERE smsId != 0)"
+            + " ORDER BY sentAt, id")
+    List<OutboundSms> getUnansweredSync(long since, long until);
+    
+    @Query("SELECT * FROM feeder_events WHERE phoneNumber = :phoneNumber ORDER BY receivedAt DESC LIMIT :limit")
+    LiveData<List<FeederEvent>> getRecentEvents(String phoneNumber, int limit);
+    
+    @Query("SELECT phoneNumber, COUNT(*) AS replyCount,"
+            + " SUM(CASE WHEN smsId != 0 THEN 1 ELSE 0 END) AS matchedCount,"
+            + " SUM(CASE WHEN kind = '" + FeederEvent.KIND_SCHEDULE_ACK + "' THEN 1 ELSE 0 END) AS ackCount,"
+            + " SUM(CASE WHEN kind = '" + FeederEvent.KIND_VERSION_MISMATCH + "' THEN 1 ELSE 0 END) AS mismatchCount,"
+            + " AVG(CASE WHEN smsId != 0 THEN roundTripMs END) AS avgRoundTripMs,"
+            + " MAX(CASE WHEN smsId != 0 THEN roundTripMs END) AS maxRoundTripMs,"
+            + " MAX(receivedAt) AS lastReplyAt"
+            + " FROM feeder_events WHERE receivedAt >= :since"
+            + " GROUP BY phoneNumber ORDER BY phoneNumber")
+    LiveData<List<FeederReplyStats>> getFeederReplyStats(long since);
+}
@@ -0,0 +1,18 @@
+package com.example.myapplication.database;
+
+/**
+ * Reply figures for one feeder phone number, read by {@link FeederEventDao#getFeederReplyStats}.
+ * Round trips run from the schedule message being fully sent to the feeder's reply, and
+ * are null until a reply has been matched to one.
+ */
+public class FeederReplyStats {
+    public String phoneNumber;
+    public int replyCount;
+    // Replies matched to an outbox message
+    public int matchedCount;
+    public int ackCount;
+    public int mismatchCount;
+    public Double avgRoundTripMs;
+    public Long maxRoundTripMs;
+    public long lastReplyAt;
+}
@@ -0,0 +1,32 @@
+package com.example.myapplication.database;
+
+/**
+ * Outbox figures for one feeder phone number, read by {@link SmsOutboxDao#getFeederSmsStats}.
+ * Latencies are null until at least one message has been sent or delivered.
+ */
+public class FeederSmsStats {
+    public String phoneNumber;
+    public int messageCount;
+    // Sent or delivered
+    public int sentCount;
+    public int deliveredCount;
+    public int failedCount;
+    // Queued or waiting for the sent broadcast
+    public int pendingCount;
+    public int attemptCount;
+    public int partsSent;
+    // Queued to fully sent, including pacing and retries
+    public Double avgSendLatencyMs;
+    // Fully sent to delivery report
+    public Double avgDeliveryLatencyMs;
+    public Long firstSentAt;
+    public Long lastSentAt;
+    
+    /** Messages sent per hour between the first and last send; 0 with fewer than two sends */
+    public double getMessagesPerHour() {
+        if (sentCount < 2 || firstSentAt == null || lastSentAt == null || lastSentAt <= firstSentAt) {
+            return 0;
+        }
+        return (sentCount - 1) * 3_600_000.0 / (lastSentAt - firstSentAt);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.myapplication.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+/**
+ * Per-feeder sync state. {@link #settle} is called whenever an outbox message changes
+ * status, and promotes or drops the pending schedule once its message is delivered or
+ * has failed for good.
+ */
+@Dao
+public interface FeederSyncDao {
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(FeederSyncState state);
+    
+    @Query("SELECT * FROM feeder_sync_state WHERE phoneNumber = :phoneNumber")
+    FeederSyncState getSync(String phoneNumber);
+    
+    @Query("UPDATE feeder_sync_state SET ackedVersion = pendingVersion, ackedSchedule = pendingSchedule,"
+            + " pendingSchedule = NULL, pendingSmsId = 0, updatedAt = :now"
+            + " WHERE pendingSmsId = :smsId AND (SELECT status FROM sms_outbox WHERE id = :smsId) = "
+            + OutboundSms.STATUS_DELIVERED)
+    int promoteDelivered(long smsId, long now);
+    
+    // The feeder's own reply confirms it, whether or not a delivery report came back
+    @Query("UPDATE feeder_sync_state SET ackedVersion = pendingVersion, ackedSchedule = pendingSchedule,"
+            + " pendingSchedule = NULL, pendingSmsId = 0, updatedAt = :now WHERE pendingSmsId = :smsId")
+    int promoteAcknowledged(long smsId, long now);
+    
+    // The feeder may or may not have applied it, so its schedule is no longer known
+    @Query("UPDATE feeder_sync_state SET ackedSchedule = NULL,"
+            + " pendingSchedule = NULL, pendingSmsId = 0, updatedAt = :now"
+            + " WHERE pendingSmsId = :smsId AND (SELECT status FROM sms_outbox WHERE id = :smsId) = "
+            + OutboundSms.STATUS_FAILED)
+    int forgetFailed(long smsId, long now);
+    
+    // After a text schedule, whose effect on the feeder's delta version is not tracked
+    @Query("UPDATE feeder_sync_state SET ackedSchedule = NULL, pendingSchedule = NULL, pendingSmsId = 0,"
+            + " updatedAt = :now WHERE phoneNumber = :phoneNumber")
+    int forget(String phoneNumber, long now);
+    
+    /** Applies the outcome of the message, if it carried a pending schedule and has settled */
+    @Transaction
+    default void settle(long smsId, long now) {
+        if (promoteDelivered(smsId, now) == 0) {
+            forgetFailed(smsId, now);
+        }
+    }
+}
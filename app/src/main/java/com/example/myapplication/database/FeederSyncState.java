@@ -0,0 +1,58 @@
+package com.example.myapplication.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * What one feeder is known to hold, so only the changes need to be sent. Schedules are
+ * stored in the compact SMS encoding. The pending columns describe a schedule message that
+ * has been queued but not yet confirmed; it replaces the acknowledged one once delivered.
+ */
+@Entity(tableName = "feeder_sync_state")
+public class FeederSyncState {
+    @PrimaryKey
+    @NonNull
+    private String phoneNumber;
+    
+    // The fish whose schedule the feeder holds
+    private long fishId;
+    private int ackedVersion;
+    // Null when the feeder's schedule is unknown; the next sync then sends it in full
+    private String ackedSchedule;
+    private int pendingVersion;
+    private String pendingSchedule;
+    // Outbox row carrying the pending schedule, 0 if none
+    private long pendingSmsId;
+    private long updatedAt;
+    
+    public FeederSyncState(@NonNull String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+    
+    // Getters and Setters
+    @NonNull
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(@NonNull String phoneNumber) { this.phoneNumber = phoneNumber; }
+    
+    public long getFishId() { return fishId; }
+    public void setFishId(long fishId) { this.fishId = fishId; }
+    
+    public int getAckedVersion() { return ackedVersion; }
+    public void setAckedVersion(int ackedVersion) { this.ackedVersion = ackedVersion; }
+    
+    public String getAckedSchedule() { return ackedSchedule; }
+    public void setAckedSchedule(String ackedSchedule) { this.ackedSchedule = ackedSchedule; }
+    
+    public int getPendingVersion() { return pendingVersion; }
+    public void setPendingVersion(int pendingVersion) { this.pendingVersion = pendingVersion; }
+    
+    public String getPendingSchedule() { return pendingSchedule; }
+    public void setPendingSchedule(String pendingSchedule) { this.pendingSchedule = pendingSchedule; }
+    
+    public long getPendingSmsId() { return pendingSmsId; }
+    public void setPendingSmsId(long pendingSmsId) { this.pendingSmsId = pendingSmsId; }
+    
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -1,10 +1,30 @@
 package com.example.myapplication.database;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "feeding_schedules")
-public class FeedingSchedule {
+import com.example.schedulecore.FeedingTimes;
+import com.example.schedulecore.ScheduleEntry;
+
+@Entity(tableName = "feeding_schedules",
+        // Deleting a fish deletes its schedules
+        foreignKeys = @ForeignKey(entity = Fish.class,
+                parentColumns = "id",
+                childColumns = "fishId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {
+                @Index(value = {"fishId", "feedingMinuteOfDay"}),
+                // Date range lookups and deletes for one fish
+                @Index(value = {"fishId", "startDate", "endDate"}),
+                // One row per feeding time in a schedule; also serves the named-schedule lookups.
+                // Inserts use REPLACE, so saving an existing slot again overwrites it in place
+                @Index(value = {"fishId", "scheduleName", "startDate", "endDate", "feedingMinuteOfDay"},
+                        unique = true)
+        })
+public class FeedingSchedule implements ScheduleEntry {
     @PrimaryKey(autoGenerate = true)
     private long id;
     
@@ -13,6 +33,9 @@ public class FeedingSchedule {
     private long startDate;
     private long endDate;
     private String feedingTime;
+    // Minutes since midnight (0-1439), derived from feedingTime so rows can be ordered in SQL
+    @ColumnInfo(defaultValue = "-1")
+    private int feedingMinuteOfDay;
     private float feedQuantity;
     
     // Constructor
@@ -23,6 +46,7 @@ public class FeedingSchedule {
         this.startDate = startDate;
         this.endDate = endDate;
         this.feedingTime = feedingTime;
+        this.feedingMinuteOfDay = FeedingTimes.toMinuteOfDay(feedingTime);
         this.feedQuantity = feedQuantity;
     }
     
@@ -43,8 +67,14 @@ public class FeedingSchedule {
     public void setEndDate(long endDate) { this.endDate = endDate; }
     
     public String getFeedingTime() { return feedingTime; }
-    public void setFeedingTime(String feedingTime) { this.feedingTime = feedingTime; }
+    public void setFeedingTime(String feedingTime) {
+        this.feedingTime = feedingTime;
+        this.feedingMinuteOfDay = FeedingTimes.toMinuteOfDay(feedingTime);
+    }
+    
+    public int getFeedingMinuteOfDay() { return feedingMinuteOfDay; }
+    public void setFeedingMinuteOfDay(int feedingMinuteOfDay) { this.feedingMinuteOfDay = feedingMinuteOfDay; }
     
     public float getFeedQuantity() { return feedQuantity; }
     public void setFeedQuantity(float feedQuantity) { this.feedQuantity = feedQuantity; }
-} 
\ No newline at end of file
+}
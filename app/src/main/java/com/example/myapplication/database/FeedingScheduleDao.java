@@ -1,36 +1,72 @@
 package com.example.myapplication.database;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Dao
 public interface FeedingScheduleDao {
+    // Upserts: a row for an existing (fish, schedule, date range, time) slot replaces it.
+    // Call insert/insertAll, which first reject times that cannot be read
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    long insert(FeedingSchedule schedule);
+    List<Long> insertRows(List<FeedingSchedule> schedules);
     
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    List<Long> insertAll(List<FeedingSchedule> schedules);
+    default long insert(FeedingSchedule schedule) {
+        return insertAll(Collections.singletonList(schedule)).get(0);
+    }
+    
+    /**
+     * Throws IllegalArgumentException, writing nothing, if a feeding time cannot be read.
+     * Every such row has minute -1, so within one schedule they would replace one another.
+     */
+    default List<Long> insertAll(List<FeedingSchedule> schedules) {
+        requireReadableTimes(schedules);
+        return insertRows(schedules);
+    }
+    
+    default void requireReadableTimes(List<FeedingSchedule> schedules) {
+        for (FeedingSchedule schedule : schedules) {
+            if (schedule.getFeedingMinuteOfDay() < 0) {
+                throw new IllegalArgumentException("Unreadable feeding time: " + schedule.getFeedingTime());
+            }
+        }
+    }
     
     @Update
     void update(FeedingSchedule schedule);
     
+    @Update
+    int updateAll(List<FeedingSchedule> schedules);
+    
     @Delete
     void delete(FeedingSchedule schedule);
     
-    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId")
+    @Delete
+    int deleteAll(List<FeedingSchedule> schedules);
+    
+    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId ORDER BY startDate, endDate, scheduleName, feedingMinuteOfDay")
     LiveData<List<FeedingSchedule>> getAllSchedulesForFish(long fishId);
     
-    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId AND ((startDate <= :endDate AND endDate >= :startDate))")
+    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId ORDER BY startDate, endDate, scheduleName, feedingMinuteOfDay")
+    List<FeedingSchedule> getAllSchedulesForFishSync(long fishId);
+    
+    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId AND ((startDate <= :endDate AND endDate >= :startDate)) ORDER BY startDate, endDate, scheduleName, feedingMinuteOfDay")
     LiveData<List<FeedingSchedule>> getSchedulesForDateRange(long fishId, long startDate, long endDate);
     
-    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId AND ((startDate <= :endDate AND endDate >= :startDate))")
+    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId AND ((startDate <= :endDate AND endDate >= :startDate)) ORDER BY startDate, endDate, scheduleName, feedingMinuteOfDay")
     List<FeedingSchedule> getSchedulesForDateRangeSync(long fishId, long startDate, long endDate);
 
     @Query("DELETE FROM feeding_schedules WHERE fishId = :fishId AND startDate = :startDate AND endDate = :endDate")
@@ -39,18 +75,81 @@ public interface FeedingScheduleDao {
     @Query("DELETE FROM feeding_schedules WHERE fishId = :fishId AND scheduleName = :scheduleName AND startDate = :startDate AND endDate = :endDate")
     int deleteSchedulesByNameAndDateRange(long fishId, String scheduleName, long startDate, long endDate);
     
-    @Query("DELETE FROM feeding_schedules WHERE id NOT IN (SELECT MIN(id) FROM feeding_schedules GROUP BY fishId, scheduleName, startDate, endDate, feedingTime)")
-    int removeDuplicateSchedules();
+    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId AND scheduleName = :scheduleName AND startDate = :startDate AND endDate = :endDate")
+    List<FeedingSchedule> getSchedulesByNameAndDateRangeSync(long fishId, String scheduleName, long startDate, long endDate);
     
-    @Query("DELETE FROM feeding_schedules WHERE fishId = :fishId AND id NOT IN (SELECT MIN(id) FROM feeding_schedules WHERE fishId = :fishId GROUP BY scheduleName, startDate, endDate, feedingTime)")
-    int removeDuplicateSchedulesForFish(long fishId);
+    /**
+     * Replaces the feeding times of one named schedule with {@code newSchedules} in a single
+     * transaction. Rows are matched by time of day, so only times that were added, removed
+     * or given a new quantity are written; observers never see the schedule half-replaced.
+     * Like insertAll, it rejects the whole list if a feeding time cannot be read.
+     */
+    @Transaction
+    default ScheduleChanges replaceSchedules(long fishId, String scheduleName, long startDate, long endDate,
+                                             List<FeedingSchedule> newSchedules) {
+        requireReadableTimes(newSchedules);
+        Map<Integer, FeedingSchedule> existing = new LinkedHashMap<>();
+        for (FeedingSchedule schedule : getSchedulesByNameAndDateRangeSync(fishId, scheduleName, startDate, endDate)) {
+            existing.put(schedule.getFeedingMinuteOfDay(), schedule);
+        }
+        
+        // A time listed twice keeps its last entry, as the unique index would on insert
+        Map<Integer, FeedingSchedule> wanted = new LinkedHashMap<>();
+        for (FeedingSchedule schedule : newSchedules) {
+            wanted.put(schedule.getFeedingMinuteOfDay(), schedule);
+        }
+        
+        List<FeedingSchedule> toInsert = new ArrayList<>();
+        List<FeedingSchedule> toUpdate = new ArrayList<>();
+        int unchanged = 0;
+        for (FeedingSchedule schedule : wanted.values()) {
+            FeedingSchedule current = existing.remove(schedule.getFeedingMinuteOfDay());
+            if (current == null) {
+                toInsert.add(schedule);
+            } else if (current.getFeedQuantity() != schedule.getFeedQuantity()
+                    || !Objects.equals(current.getFeedingTime(), schedule.getFeedingTime())) {
+                schedule.setId(current.getId());
+                toUpdate.add(schedule);
+            } else {
+                schedule.setId(current.getId());
+                unchanged++;
+            }
+        }
+        List<FeedingSchedule> toDelete = new ArrayList<>(existing.values());
+        
+        int deleted = toDelete.isEmpty() ? 0 : deleteAll(toDelete);
+        int updated = toUpdate.isEmpty() ? 0 : updateAll(toUpdate);
+        if (!toInsert.isEmpty()) {
+            insertAll(toInsert);
+        }
+        return new ScheduleChanges(toInsert.size(), updated, deleted, unchanged);
+    }
     
-    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId AND :date BETWEEN startDate AND endDate")
-    LiveData<List<FeedingSchedule>> getSchedulesForDate(long fishId, long date);
+    // Rows in effect on a DailyFeedPlan day number
+    @Query("SELECT s.* FROM daily_feed_plan p JOIN feeding_schedules s ON s.id = p.scheduleId"
+            + " WHERE p.fishId = :fishId AND p.day = :day"
+            + " ORDER BY s.startDate, s.endDate, s.scheduleName, s.feedingMinuteOfDay")
+    LiveData<List<FeedingSchedule>> getSchedulesForDay(long fishId, int day);
     
-    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId AND scheduleName = :scheduleName")
+    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId AND scheduleName = :scheduleName ORDER BY startDate, endDate, scheduleName, feedingMinuteOfDay")
     LiveData<List<FeedingSchedule>> getSchedulesByName(long fishId, String scheduleName);
     
-    @Query("SELECT * FROM feeding_schedules")
+    @Query("SELECT * FROM feeding_schedules ORDER BY startDate, endDate, scheduleName, feedingMinuteOfDay")
     LiveData<List<FeedingSchedule>> getAllSchedules();
+    
+    // Schedules still running or yet to start on the given date; the setup screen's cards
+    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId AND endDate >= :since"
+            + " ORDER BY startDate, endDate, scheduleName, feedingMinuteOfDay")
+    LiveData<List<FeedingSchedule>> getCurrentSchedulesForFish(long fishId, long since);
+    
+    // Paged versions of the two lists above, for histories too long to hold in memory
+    @Query("SELECT * FROM feeding_schedules WHERE fishId = :fishId ORDER BY startDate, endDate, scheduleName, feedingMinuteOfDay, id")
+    PagingSource<Integer, FeedingSchedule> getSchedulesForFishPaged(long fishId);
+    
+    // fishId keeps two fish's same-named schedules from interleaving slot by slot
+    @Query("SELECT * FROM feeding_schedules ORDER BY startDate, endDate, scheduleName, fishId, feedingMinuteOfDay, id")
+    PagingSource<Integer, FeedingSchedule> getAllSchedulesPaged();
+    
+    @Query("SELECT DISTINCT scheduleName FROM feeding_schedules WHERE scheduleName IS NOT NULL ORDER BY scheduleName")
+    List<String> getScheduleNamesSync();
 } 
\ No newline at end of file
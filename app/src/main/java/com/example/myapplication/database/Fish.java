@@ -1,5 +1,6 @@
 package com.example.myapplication.database;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 import java.util.Date;
@@ -9,6 +10,10 @@ import android.widget.TextView;
 
 @Entity(tableName = "fish")
 public class Fish {
+    // How schedule SMS to this fish's feeder are written; see SmsUtils
+    public static final int SMS_FORMAT_TEXT = 0;
+    public static final int SMS_FORMAT_COMPACT = 1;
+    
     @PrimaryKey(autoGenerate = true)
     private long id;
     
@@ -24,6 +29,8 @@ public class Fish {
     private Date lastUpdated;
     private String notes;
     private String phoneNumber;
+    @ColumnInfo(defaultValue = "0")
+    private int smsFormat;
     
     // Constructor
     public Fish(String name, int totalCount, int aliveCount, int deadCount, 
@@ -84,6 +91,9 @@ public class Fish {
     public String getPhoneNumber() { return phoneNumber; }
     public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
 
+    public int getSmsFormat() { return smsFormat; }
+    public void setSmsFormat(int smsFormat) { this.smsFormat = smsFormat; }
+
     @Override
     public String toString() {
         return name;
@@ -24,15 +24,53 @@ public interface FishDao {
     @Query("SELECT * FROM fish WHERE id = :id")
     LiveData<Fish> getFishById(long id);
     
+    @Query("SELECT * FROM fish WHERE id = :id")
+    Fish getFishByIdSync(long id);
+    
     @Query("SELECT * FROM fish")
     LiveData<List<Fish>> getAllFish();
     
+    @Query("SELECT * FROM fish")
+    List<Fish> getAllFishSync();
+    
+    // Newest first, so a fish sharing a feeder with an older entry takes precedence
+    @Query("SELECT * FROM fish WHERE id IN (:ids) ORDER BY lastUpdated DESC, id DESC")
+    List<Fish> getFishByIdsSync(List<Long> ids);
+    
+    @Query("SELECT * FROM fish WHERE id IN (SELECT fishId FROM feeding_schedules WHERE scheduleName = :scheduleName)"
+            + " ORDER BY lastUpdated DESC, id DESC")
+    List<Fish> getFishWithScheduleSync(String scheduleName);
+    
     @Query("SELECT * FROM fish WHERE name = :name LIMIT 1")
     LiveData<Fish> getFishByName(String name);
     
+    @Query("SELECT * FROM fish WHERE name = :name LIMIT 1")
+    Fish getFishByNameSync(String name);
+    
     @Query("DELETE FROM fish")
     void deleteAll();
     
+    @Query("DELETE FROM fish WHERE id IN (:ids)")
+    int deleteByIds(List<Long> ids);
+    
     @Query("SELECT id FROM fish WHERE name = :fishName LIMIT 1")
     LiveData<Long> getFishIdByName(String fishName);
+    
+    // The dashboard's feed totals, read from daily_feed_plan by day number; fish with no
+    // schedule on the day still get a row
+    @Query("SELECT f.id AS fishId, f.name AS fishName, f.aliveCount AS aliveCount, "
+            + "COUNT(p.scheduleId) AS feedingCount, "
+            + "COALESCE(SUM(p.feedQuantity), 0) AS feedPerFish, "
+            + "COALESCE(SUM(p.feedQuantity), 0) * f.aliveCount AS totalDailyFeed, "
+            + "(SELECT COALESCE(SUM(w.feedQuantity), 0) FROM daily_feed_plan w "
+            + "WHERE w.fishId = f.id AND w.day BETWEEN :weekStart AND :weekEnd) * f.aliveCount AS totalWeeklyFeed, "
+            + "(SELECT COALESCE(SUM(m.feedQuantity), 0) FROM daily_feed_plan m "
+            + "WHERE m.fishId = f.id AND m.day BETWEEN :monthStart AND :monthEnd) * f.aliveCount AS totalMonthlyFeed, "
+            + "(SELECT COALESCE(SUM(r.totalGrams), 0) FROM feed_daily_rollup r WHERE r.fishId = f.id "
+            + "AND r.day = :day AND r.kind = '" + FeedEvent.KIND_COMMANDED + "') AS totalCommandedFeed "
+            + "FROM fish f LEFT JOIN daily_feed_plan p ON p.fishId = f.id AND p.day = :day "
+            + "WHERE f.id = (SELECT id FROM fish WHERE name = :fishName LIMIT 1) "
+            + "GROUP BY f.id")
+    LiveData<DashboardSummary> getDashboardSummary(String fishName, int day, int weekStart, int weekEnd,
+                                                   int monthStart, int monthEnd);
 } 
\ No newline at end of file
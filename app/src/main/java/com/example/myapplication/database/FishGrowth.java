@@ -0,0 +1,32 @@
+package com.example.myapplication.database;
+
+import com.example.schedulecore.BiomassProjection;
+import com.example.schedulecore.GrowthModel;
+
+/**
+ * One pond's growth forecast: the fitted model, its projection over the growing cycle and
+ * the feed conversion ratio between the pond's first and last weight samples.
+ */
+public class FishGrowth {
+    public final long fishId;
+    public final String fishName;
+    public final GrowthModel model;
+    public final BiomassProjection projection;
+    // NaN until two samples with a weight gain between them exist
+    public final float feedConversionRatio;
+
+    public FishGrowth(long fishId, String fishName, GrowthModel model, BiomassProjection projection,
+                      float feedConversionRatio) {
+        this.fishId = fishId;
+        this.fishName = fishName;
+        this.model = model;
+        this.projection = projection;
+        this.feedConversionRatio = feedConversionRatio;
+    }
+
+    /** Suggested grams per fish for each of the day's feedings */
+    public float feedPerFeeding(int day, int feedingsPerDay) {
+        if (projection.covers(day)) return projection.feedPerFeeding(day, feedingsPerDay);
+        return GrowthModel.dailyRationPerFish(model.weightOn(day)) / Math.max(1, feedingsPerDay);
+    }
+}
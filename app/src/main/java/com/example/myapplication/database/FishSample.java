@@ -0,0 +1,74 @@
+package com.example.myapplication.database;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One measurement of a fish's pond, kept as history. Rows are appended whenever the fish
+ * is measured; the fish row itself only caches the latest one. Like the feeding ledger,
+ * samples are not tied to the fish row by a foreign key, so re-inserting a fish row keeps
+ * its history.
+ */
+@Entity(tableName = "fish_samples",
+        indices = {
+                // One fish's history by time, for trends and the growth model
+                @Index(value = {"fishId", "timestamp"})
+        })
+public class FishSample {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    private long fishId;
+    private long timestamp;
+    private int totalCount;
+    private int deadCount;
+    private float averageLength;
+    private float averageWidth;
+    private float averageWeight;
+    
+    public FishSample() {
+    }
+    
+    /** The fish's current measurement, taken at {@code timestamp} */
+    @Ignore
+    public FishSample(long fishId, Fish fish, long timestamp) {
+        this.fishId = fishId;
+        this.timestamp = timestamp;
+        this.totalCount = fish.getTotalCount();
+        this.deadCount = fish.getDeadCount();
+        this.averageLength = fish.getAverageLength();
+        this.averageWidth = fish.getAverageWidth();
+        this.averageWeight = fish.getAverageWeight();
+    }
+    
+    public int getAliveCount() {
+        return Math.max(0, totalCount - deadCount);
+    }
+    
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public long getFishId() { return fishId; }
+    public void setFishId(long fishId) { this.fishId = fishId; }
+    
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+    
+    public int getTotalCount() { return totalCount; }
+    public void setTotalCount(int totalCount) { this.totalCount = totalCount; }
+    
+    public int getDeadCount() { return deadCount; }
+    public void setDeadCount(int deadCount) { this.deadCount = deadCount; }
+    
+    public float getAverageLength() { return averageLength; }
+    public void setAverageLength(float averageLength) { this.averageLength = averageLength; }
+    
+    public float getAverageWidth() { return averageWidth; }
+    public void setAverageWidth(float averageWidth) { this.averageWidth = averageWidth; }
+    
+    public float getAverageWeight() { return averageWeight; }
+    public void setAverageWeight(float averageWeight) { this.averageWeight = averageWeight; }
+}
@@ -0,0 +1,37 @@
+package com.example.myapplication.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Measurement history. Trend charts read it a page at a time with
+ * {@link #getSamplePageSync}, which continues after the last row of the previous page
+ * instead of skipping an offset, so every page is one index range read however deep
+ * into the history it is.
+ */
+@Dao
+public interface FishSampleDao {
+    @Insert
+    long insert(FishSample sample);
+    
+    @Query("SELECT * FROM fish_samples WHERE fishId = :fishId ORDER BY timestamp, id")
+    List<FishSample> getSamplesForFishSync(long fishId);
+    
+    /**
+     * Up to {@code limit} samples of the fish taken no later than {@code toTimestamp}, oldest
+     * first, that come after the sample ({@code afterTimestamp}, {@code afterId}). Start with
+     * the range's first timestamp minus one and {@link Long#MAX_VALUE}, which nothing at that
+     * earlier timestamp comes after.
+     */
+    @Query("SELECT * FROM fish_samples WHERE fishId = :fishId"
+            + " AND (timestamp > :afterTimestamp OR (timestamp = :afterTimestamp AND id > :afterId))"
+            + " AND timestamp <= :toTimestamp"
+            + " ORDER BY timestamp, id LIMIT :limit")
+    List<FishSample> getSamplePageSync(long fishId, long afterTimestamp, long afterId, long toTimestamp, int limit);
+    
+    @Query("SELECT COUNT(*) FROM fish_samples WHERE fishId = :fishId")
+    int countSamplesSync(long fishId);
+}
@@ -0,0 +1,152 @@
+package com.example.myapplication.database;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import com.example.schedulecore.BiomassProjection;
+import com.example.schedulecore.GrowthModel;
+import com.example.schedulecore.WeightSample;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Growth forecasts for every pond over a {@link #CYCLE_DAYS} day cycle. The ponds are
+ * fitted and projected in parallel on a small pool of their own, so a forecast never
+ * waits behind, or holds up, the database lanes. The forecasts are cached for the day
+ * and dropped when Room reports a change to the fish, their samples or the feeding
+ * ledger. Lookups block; call them off the main thread.
+ */
+public final class GrowthProjections {
+    private static final String TAG = "GrowthProjections";
+    public static final int CYCLE_DAYS = 180;
+
+    private static volatile GrowthProjections INSTANCE;
+
+    private final FishDao fishDao;
+    private final FeedEventDao feedEventDao;
+    private final FishSampleDao fishSampleDao;
+    private final ExecutorService workers;
+    private List<FishGrowth> cached;
+    private int cachedDay;
+    // Bumped on every change, so forecasts built from rows read before it are not cached
+    private long generation;
+
+    public static GrowthProjections get(AppDatabase db) {
+        if (INSTANCE == null) {
+            synchronized (GrowthProjections.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new GrowthProjections(db);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private GrowthProjections(AppDatabase db) {
+        fishDao = db.fishDao();
+        feedEventDao = db.feedEventDao();
+        fishSampleDao = db.fishSampleDao();
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "growth-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        db.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("fish", "fish_samples", "feed_daily_rollup") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        });
+    }
+
+    /** Every pond's forecast from {@code today}, in the fish list's order */
+    public List<FishGrowth> projectAll(int today) throws Exception {
+        long readGeneration;
+        synchronized (this) {
+            if (cached != null && cachedDay == today) return cached;
+            readGeneration = generation;
+        }
+
+        List<Callable<FishGrowth>> tasks = new ArrayList<>();
+        for (Fish fish : fishDao.getAllFishSync()) {
+            tasks.add(() -> project(fish, today));
+        }
+        List<FishGrowth> forecasts = new ArrayList<>();
+        for (Future<FishGrowth> future : workers.invokeAll(tasks)) {
+            FishGrowth growth = future.get();
+            if (growth != null) forecasts.add(growth);
+        }
+        forecasts = Collections.unmodifiableList(forecasts);
+
+        synchronized (this) {
+            if (generation == readGeneration) {
+                cached = forecasts;
+                cachedDay = today;
+            } else {
+                Log.d(TAG, "Fish, samples or ledger changed while projecting; not caching");
+            }
+        }
+        return forecasts;
+    }
+
+    /** The pond's forecast, or null if it has no weight to project from */
+    public FishGrowth forFish(long fishId, int today) throws Exception {
+        for (FishGrowth growth : projectAll(today)) {
+            if (growth.fishId == fishId) return growth;
+        }
+        return null;
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        cached = null;
+    }
+
+    private FishGrowth project(Fish fish, int today) {
+        List<WeightSample> samples = samplesFor(fish);
+        int stockedDay = fish.getDateAdded() != null ? DailyFeedPlan.toDay(fish.getDateAdded().getTime()) : today;
+        GrowthModel model = GrowthModel.fit(samples, fish.getTotalCount(), fish.getAliveCount(),
+                today - stockedDay, today);
+        if (model == null) return null;
+
+        BiomassProjection projection = model.project(today, CYCLE_DAYS);
+        return new FishGrowth(fish.getId(), fish.getName(), model, projection, feedConversionRatio(fish, samples));
+    }
+
+    // The fish's measurement history; a fish saved before samples were kept has only its row
+    private List<WeightSample> samplesFor(Fish fish) {
+        List<WeightSample> samples = new ArrayList<>();
+        for (FishSample sample : fishSampleDao.getSamplesForFishSync(fish.getId())) {
+            samples.add(new WeightSample(DailyFeedPlan.toDay(sample.getTimestamp()),
+                    sample.getAliveCount(), sample.getAverageWeight()));
+        }
+        if (!samples.isEmpty()) return samples;
+
+        Date measured = fish.getLastUpdated() != null ? fish.getLastUpdated() : fish.getDateAdded();
+        if (measured == null) return Collections.emptyList();
+        return Collections.singletonList(new WeightSample(DailyFeedPlan.toDay(measured.getTime()),
+                fish.getAliveCount(), fish.getAverageWeight()));
+    }
+
+    // Feed given between the first and last samples, against the weight gained between them
+    private float feedConversionRatio(Fish fish, List<WeightSample> samples) {
+        if (samples.size() < 2) return Float.NaN;
+        WeightSample first = samples.get(0);
+        WeightSample last = samples.get(samples.size() - 1);
+        float fedGrams = feedEventDao.getFedGramsSync(fish.getId(), first.getDay(), last.getDay() - 1);
+        return GrowthModel.feedConversionRatio(fedGrams, first.getBiomassGrams(), last.getBiomassGrams());
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.myapplication.database;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+/**
+ * Set-based cleanup of schedule rows no screen can show and no feeder can be sent. Each
+ * query removes every bad row in one statement, and {@link #cleanUp} runs them all in
+ * one transaction. Deleted schedules take their daily_feed_plan days with them.
+ */
+@Dao
+public interface MaintenanceDao {
+    // Rows saved before a fish was picked
+    @Query("DELETE FROM feeding_schedules WHERE fishId = -1")
+    int deleteUnassignedSchedules();
+    
+    // Rows of fish deleted before the foreign key cascaded them
+    @Query("DELETE FROM feeding_schedules WHERE fishId != -1 AND fishId NOT IN (SELECT id FROM fish)")
+    int deleteOrphanSchedules();
+    
+    @Query("DELETE FROM feeding_schedules WHERE endDate < startDate")
+    int deleteInvertedSchedules();
+    
+    @Transaction
+    default MaintenanceReport cleanUp() {
+        int unassigned = deleteUnassignedSchedules();
+        int orphans = deleteOrphanSchedules();
+        int inverted = deleteInvertedSchedules();
+        return new MaintenanceReport(unassigned, orphans, inverted);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.myapplication.database;
+
+/**
+ * What one {@link MaintenanceDao#cleanUp} pass removed.
+ */
+public final class MaintenanceReport {
+    public final int unassignedSchedules;
+    public final int orphanSchedules;
+    public final int invertedSchedules;
+
+    public MaintenanceReport(int unassignedSchedules, int orphanSchedules, int invertedSchedules) {
+        this.unassignedSchedules = unassignedSchedules;
+        this.orphanSchedules = orphanSchedules;
+        this.invertedSchedules = invertedSchedules;
+    }
+
+    public int getTotal() {
+        return unassignedSchedules + orphanSchedules + invertedSchedules;
+    }
+
+    @Override
+    public String toString() {
+        return "Removed " + getTotal() + " schedules: " + unassignedSchedules + " with no fish, "
+                + orphanSchedules + " of deleted fish, " + invertedSchedules + " ending before they start";
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.myapplication.database;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.schedulecore.FeedingTimes;
+
+/**
+ * Schema migrations for {@link AppDatabase}.
+ *
+ * Every released version from 6 onward upgrades in place. Versions 1 to 5 were
+ * development builds whose schemas were never exported, so they cannot be migrated
+ * reliably and are the only versions still rebuilt from scratch.
+ *
+ * When bumping the database version, add a MIGRATION_N_N+1 here, append it to
+ * {@link #ALL} and commit the schema JSON that the build writes to app/schemas.
+ */
+public final class Migrations {
+
+    /** Versions that predate exported schemas and are recreated instead of migrated */
+    static final int[] UNMIGRATABLE_VERSIONS = {1, 2, 3, 4, 5};
+
+    // Adds feedingMinuteOfDay and backfills it from the time strings already stored. Those were
+    // formatted in the phone's locale, so they are read here with the same parser the entity uses
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE feeding_schedules ADD COLUMN feedingMinuteOfDay INTEGER NOT NULL DEFAULT -1");
+            SupportSQLiteStatement update = db.compileStatement(
+                    "UPDATE feeding_schedules SET feedingMinuteOfDay = ? WHERE id = ?");
+            try (Cursor cursor = db.query("SELECT id, feedingTime FROM feeding_schedules")) {
+                while (cursor.moveToNext()) {
+                    update.bindLong(1, FeedingTimes.toMinuteOfDay(cursor.getString(1)));
+                    update.bindLong(2, cursor.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            }
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_feeding_schedules_fishId_feedingMinuteOfDay "
+                    + "ON feeding_schedules (fishId, feedingMinuteOfDay)");
+        }
+    };
+
+    // Composite indices for the per-fish date range and schedule name queries
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_feeding_schedules_fishId_startDate_endDate "
+                    + "ON feeding_schedules (fishId, startDate, endDate)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS "
+                    + "index_feeding_schedules_fishId_scheduleName_startDate_endDate_feedingTime "
+                    + "ON feeding_schedules (fishId, scheduleName, startDate, endDate, feedingTime)");
+        }
+    };
+
+    // Enforces one row per feeding time slot so duplicates can no longer be inserted
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // One last sweep, keeping the oldest row of each slot as the old cleanup did
+            db.execSQL("DELETE FROM feeding_schedules WHERE EXISTS (SELECT 1 FROM feeding_schedules older"
+                    + " WHERE older.fishId = feeding_schedules.fishId"
+                    + " AND older.scheduleName IS feeding_schedules.scheduleName"
+                    + " AND older.startDate = feeding_schedules.startDate"
+                    + " AND older.endDate = feeding_schedules.endDate"
+                    + " AND older.feedingMinuteOfDay = feeding_schedules.feedingMinuteOfDay"
+                    + " AND older.id < feeding_schedules.id)");
+            db.execSQL("DROP INDEX IF EXISTS "
+                    + "index_feeding_schedules_fishId_scheduleName_startDate_endDate_feedingTime");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS "
+                    + "index_feeding_schedules_fishId_scheduleName_startDate_endDate_feedingMinuteOfDay "
+                    + "ON feeding_schedules (fishId, scheduleName, startDate, endDate, feedingMinuteOfDay)");
+        }
+    };
+
+    // Outbound SMS queue with per-message send and delivery tracking
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sms_outbox` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `phoneNumber` TEXT,"
+                    + " `fishId` INTEGER NOT NULL, `kind` TEXT, `body` TEXT, `partCount` INTEGER NOT NULL,"
+                    + " `status` INTEGER NOT NULL, `attempts` INTEGER NOT NULL, `partsSent` INTEGER NOT NULL,"
+                    + " `partsDelivered` INTEGER NOT NULL, `createdAt` INTEGER NOT NULL,"
+                    + " `nextAttemptAt` INTEGER NOT NULL, `lastAttemptAt` INTEGER NOT NULL,"
+                    + " `sentAt` INTEGER NOT NULL, `deliveredAt` INTEGER NOT NULL, `lastError` TEXT)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_sms_outbox_status_nextAttemptAt "
+                    + "ON sms_outbox (status, nextAttemptAt)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_sms_outbox_phoneNumber_createdAt "
+                    + "ON sms_outbox (phoneNumber, createdAt)");
+        }
+    };
+
+    // Per-fish choice between the text and compact schedule SMS formats
+    public static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE fish ADD COLUMN smsFormat INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    // What each feeder last acknowledged, for delta schedule sync
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `feeder_sync_state` ("
+                    + "`phoneNumber` TEXT NOT NULL, `fishId` INTEGER NOT NULL, `ackedVersion` INTEGER NOT NULL,"
+                    + " `ackedSchedule` TEXT, `pendingVersion` INTEGER NOT NULL, `pendingSchedule` TEXT,"
+                    + " `pendingSmsId` INTEGER NOT NULL, `updatedAt` INTEGER NOT NULL,"
+                    + " PRIMARY KEY(`phoneNumber`))");
+        }
+    };
+
+    // Replies received from the feeders
+    public static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `feeder_events` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `phoneNumber` TEXT, `kind` TEXT,"
+                    + " `body` TEXT, `value` INTEGER NOT NULL, `receivedAt` INTEGER NOT NULL,"
+                    + " `smsId` INTEGER NOT NULL, `roundTripMs` INTEGER NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_feeder_events_phoneNumber_receivedAt "
+                    + "ON feeder_events (phoneNumber, receivedAt)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_feeder_events_smsId ON feeder_events (smsId)");
+        }
+    };
+
+    // Writes every schedule row out day by day for the dashboard totals
+    public static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `daily_feed_plan` ("
+                    + "`scheduleId` INTEGER NOT NULL, `day` INTEGER NOT NULL, `fishId` INTEGER NOT NULL,"
+                    + " `feedingMinuteOfDay` INTEGER NOT NULL, `feedQuantity` REAL NOT NULL,"
+                    + " PRIMARY KEY(`scheduleId`, `day`), FOREIGN KEY(`scheduleId`) REFERENCES"
+                    + " `feeding_schedules`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_daily_feed_plan_fishId_day ON daily_feed_plan (fishId, day)");
+
+            // Day numbers follow the phone's calendar, which SQL cannot see, so rows are written from here
+            SupportSQLiteStatement insert = db.compileStatement(
+                    "INSERT OR REPLACE INTO daily_feed_plan VALUES (?, ?, ?, ?, ?)");
+            try (Cursor cursor = db.query("SELECT id, fishId, startDate, endDate, feedingMinuteOfDay, feedQuantity"
+                    + " FROM feeding_schedules")) {
+                while (cursor.moveToNext()) {
+                    int firstDay = DailyFeedPlan.toDay(cursor.getLong(2));
+                    int lastDay = DailyFeedPlan.lastDay(firstDay, cursor.getLong(3));
+                    for (int day = firstDay; day <= lastDay; day++) {
+                        insert.bindLong(1, cursor.getLong(0));
+                        insert.bindLong(2, day);
+                        insert.bindLong(3, cursor.getLong(1));
+                        insert.bindLong(4, cursor.getInt(4));
+                        insert.bindDouble(5, cursor.getFloat(5));
+                        insert.executeInsert();
+                    }
+                }
+            }
+        }
+    };
+
+    // The feeding ledger and its rollups; the ledger starts empty
+    public static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `feed_events` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `fishId` INTEGER NOT NULL, `kind` TEXT,"
+                    + " `day` INTEGER NOT NULL, `minuteOfDay` INTEGER NOT NULL, `gramsPerFish` REAL NOT NULL,"
+                    + " `fishCount` INTEGER NOT NULL, `totalGrams` REAL NOT NULL, `smsId` INTEGER NOT NULL,"
+                    + " `recordedAt` INTEGER NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_feed_events_fishId_day ON feed_events (fishId, day)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_feed_events_smsId ON feed_events (smsId)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `feed_daily_rollup` ("
+                    + "`fishId` INTEGER NOT NULL, `kind` TEXT NOT NULL, `eventCount` INTEGER NOT NULL,"
+                    + " `gramsPerFish` REAL NOT NULL, `totalGrams` REAL NOT NULL, `day` INTEGER NOT NULL,"
+                    + " PRIMARY KEY(`fishId`, `day`, `kind`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `feed_weekly_rollup` ("
+                    + "`fishId` INTEGER NOT NULL, `kind` TEXT NOT NULL, `eventCount` INTEGER NOT NULL,"
+                    + " `gramsPerFish` REAL NOT NULL, `totalGrams` REAL NOT NULL, `weekStart` INTEGER NOT NULL,"
+                    + " PRIMARY KEY(`fishId`, `weekStart`, `kind`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_daily_feed_plan_day ON daily_feed_plan (day)");
+        }
+    };
+
+    // Measurement history; each fish's current measurement becomes its first sample
+    public static final Migration MIGRATION_15_16 = new Migration(15, 16) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `fish_samples` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `fishId` INTEGER NOT NULL,"
+                    + " `timestamp` INTEGER NOT NULL, `totalCount` INTEGER NOT NULL, `deadCount` INTEGER NOT NULL,"
+                    + " `averageLength` REAL NOT NULL, `averageWidth` REAL NOT NULL, `averageWeight` REAL NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_fish_samples_fishId_timestamp"
+                    + " ON fish_samples (fishId, timestamp)");
+            db.execSQL("INSERT INTO fish_samples (fishId, timestamp, totalCount, deadCount,"
+                    + " averageLength, averageWidth, averageWeight)"
+                    + " SELECT id, COALESCE(lastUpdated, dateAdded, 0), totalCount, deadCount,"
+                    + " averageLength, averageWidth, averageWeight FROM fish");
+        }
+    };
+
+    // feeding_schedules gains a foreign key to fish, which SQLite can only add by rebuilding the
+    // table. Rows of missing fish and rows ending before they start are not carried over. Columns
+    // are listed because feedingMinuteOfDay was appended to older tables by ALTER TABLE
+    public static final Migration MIGRATION_16_17 = new Migration(16, 17) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            String columns = "id, fishId, scheduleName, startDate, endDate, feedingTime, feedingMinuteOfDay, feedQuantity";
+            db.execSQL("CREATE TABLE IF NOT EXISTS `feeding_schedules_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `fishId` INTEGER NOT NULL,"
+                    + " `scheduleName` TEXT, `startDate` INTEGER NOT NULL, `endDate` INTEGER NOT NULL,"
+                    + " `feedingTime` TEXT, `feedingMinuteOfDay` INTEGER NOT NULL DEFAULT -1,"
+                    + " `feedQuantity` REAL NOT NULL, FOREIGN KEY(`fishId`) REFERENCES `fish`(`id`)"
+                    + " ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO feeding_schedules_new (" + columns + ") SELECT " + columns
+                    + " FROM feeding_schedules WHERE fishId IN (SELECT id FROM fish) AND endDate >= startDate");
+            db.execSQL("DROP TABLE feeding_schedules");
+            db.execSQL("ALTER TABLE feeding_schedules_new RENAME TO feeding_schedules");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_feeding_schedules_fishId_feedingMinuteOfDay"
+                    + " ON feeding_schedules (fishId, feedingMinuteOfDay)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_feeding_schedules_fishId_startDate_endDate"
+                    + " ON feeding_schedules (fishId, startDate, endDate)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS"
+                    + " index_feeding_schedules_fishId_scheduleName_startDate_endDate_feedingMinuteOfDay"
+                    + " ON feeding_schedules (fishId, scheduleName, startDate, endDate, feedingMinuteOfDay)");
+            // Days of the rows left behind
+            db.execSQL("DELETE FROM daily_feed_plan WHERE scheduleId NOT IN (SELECT id FROM feeding_schedules)");
+        }
+    };
+
+    /** All migrations, in order; passed to the database builder and the migration tests */
+    public static final Migration[] ALL = {
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+            MIGRATION_11_12,
+            MIGRATION_12_13,
+            MIGRATION_13_14,
+            MIGRATION_14_15,
+            MIGRATION_15_16,
+            MIGRATION_16_17
+    };
+
+    private Migrations() {
+    }
+}
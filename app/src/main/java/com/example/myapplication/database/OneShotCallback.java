@@ -0,0 +1,9 @@
+package com.example.myapplication.database;
+
+/**
+ * Receives the result of a one-off database read on the main thread. Called exactly once;
+ * the result is null if the row does not exist or the query failed.
+ */
+public interface OneShotCallback<T> {
+    void onResult(T result);
+}
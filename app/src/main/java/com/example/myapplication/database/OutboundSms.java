@@ -0,0 +1,125 @@
+package com.example.myapplication.database;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One text message waiting in, or sent through, the SMS outbox. Rows are kept after
+ * delivery so send and delivery latency can be reported per feeder.
+ */
+@Entity(tableName = "sms_outbox",
+        indices = {
+                // The dispatcher's "what is due next" scan
+                @Index(value = {"status", "nextAttemptAt"}),
+                // Per-feeder pacing and statistics
+                @Index(value = {"phoneNumber", "createdAt"})
+        })
+public class OutboundSms {
+    public static final int STATUS_QUEUED = 0;
+    // Handed to SmsManager; waiting for the sent broadcast of every part
+    public static final int STATUS_SENDING = 1;
+    public static final int STATUS_SENT = 2;
+    public static final int STATUS_DELIVERED = 3;
+    // Gave up after MAX_ATTEMPTS, or never sent because it was too long
+    public static final int STATUS_FAILED = 4;
+    
+    public static final String KIND_SCHEDULE = "SCHEDULE";
+    public static final String KIND_FEED_NOW = "FEED_NOW";
+    
+    public static final int MAX_ATTEMPTS = 5;
+    private static final long FIRST_RETRY_DELAY_MS = 30_000L;
+    private static final long MAX_RETRY_DELAY_MS = 30 * 60_000L;
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    private String phoneNumber;
+    // 0 when the message is not about one fish
+    private long fishId;
+    private String kind;
+    private String body;
+    private int partCount;
+    private int status;
+    private int attempts;
+    private int partsSent;
+    private int partsDelivered;
+    private long createdAt;
+    private long nextAttemptAt;
+    private long lastAttemptAt;
+    // 0 until every part of the latest attempt has been sent / delivered
+    private long sentAt;
+    private long deliveredAt;
+    private String lastError;
+    
+    public OutboundSms() {
+    }
+    
+    @Ignore
+    public OutboundSms(String phoneNumber, long fishId, String kind, String body, int partCount, long now) {
+        this.phoneNumber = phoneNumber;
+        this.fishId = fishId;
+        this.kind = kind;
+        this.body = body;
+        this.partCount = partCount;
+        this.status = STATUS_QUEUED;
+        this.createdAt = now;
+        this.nextAttemptAt = now;
+    }
+    
+    /** Wait before the next attempt after the given number of failed ones: 30s, 1m, 2m... up to 30m */
+    public static long retryDelayMs(int failedAttempts) {
+        int doublings = Math.min(Math.max(failedAttempts - 1, 0), 10);
+        return Math.min(FIRST_RETRY_DELAY_MS << doublings, MAX_RETRY_DELAY_MS);
+    }
+    
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+    
+    public long getFishId() { return fishId; }
+    public void setFishId(long fishId) { this.fishId = fishId; }
+    
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+    
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+    
+    public int getPartCount() { return partCount; }
+    public void setPartCount(int partCount) { this.partCount = partCount; }
+    
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+    
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    
+    public int getPartsSent() { return partsSent; }
+    public void setPartsSent(int partsSent) { this.partsSent = partsSent; }
+    
+    public int getPartsDelivered() { return partsDelivered; }
+    public void setPartsDelivered(int partsDelivered) { this.partsDelivered = partsDelivered; }
+    
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+    
+    public long getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(long nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    
+    public long getLastAttemptAt() { return lastAttemptAt; }
+    public void setLastAttemptAt(long lastAttemptAt) { this.lastAttemptAt = lastAttemptAt; }
+    
+    public long getSentAt() { return sentAt; }
+    public void setSentAt(long sentAt) { this.sentAt = sentAt; }
+    
+    public long getDeliveredAt() { return deliveredAt; }
+    public void setDeliveredAt(long deliveredAt) { this.deliveredAt = deliveredAt; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
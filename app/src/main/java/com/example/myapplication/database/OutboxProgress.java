@@ -0,0 +1,15 @@
+package com.example.myapplication.database;
+
+/**
+ * Where a set of outbox messages stands, read by {@link SmsOutboxDao#getOutboxProgress}.
+ * Rows withdrawn from the queue before sending are no longer counted.
+ */
+public class OutboxProgress {
+    public int messageCount;
+    // Queued or waiting for the sent broadcast
+    public int pendingCount;
+    // Sent or delivered
+    public int sentCount;
+    public int deliveredCount;
+    public int failedCount;
+}
@@ -0,0 +1,13 @@
+package com.example.myapplication.database;
+
+/**
+ * One daily_feed_plan row with its fish's live count, read by
+ * {@link FeedEventDao#getPlannedFeedsSync} to record planned feeds.
+ */
+public class PlannedFeed {
+    public long fishId;
+    public int day;
+    public int feedingMinuteOfDay;
+    public float feedQuantity;
+    public int aliveCount;
+}
@@ -0,0 +1,11 @@
+package com.example.myapplication.database;
+
+import java.util.List;
+
+/**
+ * Receives a streamed read one page at a time on the main thread. The next page is read
+ * only after this returns true; {@code last} is set on the final page, which may be empty.
+ */
+public interface SamplePageCallback {
+    boolean onPage(List<FishSample> page, boolean last);
+}
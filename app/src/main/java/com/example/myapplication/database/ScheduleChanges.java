@@ -0,0 +1,37 @@
+package com.example.myapplication.database;
+
+/**
+ * Row counts from {@link FeedingScheduleDao#replaceSchedules}: how many feeding times
+ * were added, changed, removed or left as they were.
+ */
+public class ScheduleChanges {
+    private final int inserted;
+    private final int updated;
+    private final int deleted;
+    private final int unchanged;
+
+    public ScheduleChanges(int inserted, int updated, int deleted, int unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.deleted = deleted;
+        this.unchanged = unchanged;
+    }
+
+    public int getInserted() { return inserted; }
+
+    public int getUpdated() { return updated; }
+
+    public int getDeleted() { return deleted; }
+
+    public int getUnchanged() { return unchanged; }
+
+    public boolean hasChanges() {
+        return inserted + updated + deleted > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "inserted=" + inserted + ", updated=" + updated
+                + ", deleted=" + deleted + ", unchanged=" + unchanged;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.myapplication.database;
+
+import com.example.schedulecore.Schedules;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One named schedule of a fish: the feeding times sharing a (scheduleName, startDate,
+ * endDate), sorted by time of day with one row per time, plus the labels the schedule
+ * cards show. Built off the main thread by {@link #fromSchedules} and never modified.
+ */
+public final class ScheduleGroup {
+    private final long fishId;
+    private final String scheduleName;
+    private final long startDate;
+    private final long endDate;
+    private final List<FeedingSchedule> schedules;
+    private final String startDateLabel;
+    private final String endDateLabel;
+
+    private ScheduleGroup(long fishId, String scheduleName, long startDate, long endDate,
+                          List<FeedingSchedule> schedules, SimpleDateFormat dateFormat) {
+        this.fishId = fishId;
+        this.scheduleName = scheduleName;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.schedules = Collections.unmodifiableList(schedules);
+        this.startDateLabel = dateFormat.format(new Date(startDate));
+        this.endDateLabel = dateFormat.format(new Date(endDate));
+    }
+
+    /**
+     * Groups schedule rows by name and date range. Feeding times within a group are sorted
+     * and a time listed twice keeps its last row. Groups come back ordered by date range.
+     */
+    public static List<ScheduleGroup> fromSchedules(List<FeedingSchedule> schedules) {
+        List<ScheduleGroup> groups = new ArrayList<>();
+        if (schedules == null || schedules.isEmpty()) return groups;
+
+        // SimpleDateFormat is not thread-safe, so each call gets its own
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+        for (List<FeedingSchedule> times : Schedules.group(schedules)) {
+            FeedingSchedule first = times.get(0);
+            groups.add(new ScheduleGroup(first.getFishId(), first.getScheduleName(),
+                    first.getStartDate(), first.getEndDate(), times, dateFormat));
+        }
+        return groups;
+    }
+
+    public long getFishId() { return fishId; }
+
+    public String getScheduleName() { return scheduleName; }
+
+    public long getStartDate() { return startDate; }
+
+    public long getEndDate() { return endDate; }
+
+    /** The group's feeding times, sorted by time of day; unmodifiable */
+    public List<FeedingSchedule> getSchedules() { return schedules; }
+
+    public String getStartDateLabel() { return startDateLabel; }
+
+    public String getEndDateLabel() { return endDateLabel; }
+
+    /** e.g. "Aug 24, 2025 - Aug 30, 2025" */
+    public String getDateRangeLabel() { return startDateLabel + " - " + endDateLabel; }
+
+    /** Stable identity of the group across reloads */
+    public String getKey() { return scheduleName + "_" + startDate + "_" + endDate; }
+}
@@ -0,0 +1,86 @@
+package com.example.myapplication.database;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import com.example.schedulecore.IntervalTree;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-fish {@link IntervalTree}s over the feeding schedules' date ranges, for overlap and
+ * "active on day D" lookups without a scan. A tree is built from the fish's rows on first
+ * use and every tree is dropped when Room reports a change to feeding_schedules. Room
+ * reports changes shortly after the writing transaction commits, so a lookup racing a
+ * write may still see the rows from before it. Lookups block; call them off the main thread.
+ */
+public final class ScheduleIndex {
+    private static final String TAG = "ScheduleIndex";
+
+    private static volatile ScheduleIndex INSTANCE;
+
+    private final FeedingScheduleDao feedingScheduleDao;
+    private final Map<Long, IntervalTree<FeedingSchedule>> treesByFish = new HashMap<>();
+    // Bumped on every change, so a tree built from rows read before it is not cached
+    private long generation;
+
+    public static ScheduleIndex get(AppDatabase db) {
+        if (INSTANCE == null) {
+            synchronized (ScheduleIndex.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ScheduleIndex(db);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private ScheduleIndex(AppDatabase db) {
+        feedingScheduleDao = db.feedingScheduleDao();
+        db.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("feeding_schedules") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        });
+    }
+
+    /** Schedule rows of the fish whose date range overlaps the given one, by start date */
+    public List<FeedingSchedule> findOverlapping(long fishId, long startDate, long endDate) {
+        return treeFor(fishId).findOverlapping(startDate, endDate);
+    }
+
+    /** Schedule rows of the fish that are in effect at the given instant, by start date */
+    public List<FeedingSchedule> activeOn(long fishId, long date) {
+        return treeFor(fishId).activeOn(date);
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        treesByFish.clear();
+    }
+
+    private IntervalTree<FeedingSchedule> treeFor(long fishId) {
+        long readGeneration;
+        synchronized (this) {
+            IntervalTree<FeedingSchedule> tree = treesByFish.get(fishId);
+            if (tree != null) return tree;
+            readGeneration = generation;
+        }
+
+        IntervalTree<FeedingSchedule> tree = new IntervalTree<>(feedingScheduleDao.getAllSchedulesForFishSync(fishId));
+        synchronized (this) {
+            if (generation == readGeneration) {
+                treesByFish.put(fishId, tree);
+            } else {
+                Log.d(TAG, "Schedules changed while indexing fish " + fishId + "; not caching");
+            }
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.myapplication.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+
+import java.util.List;
+
+/**
+ * Queue operations for {@link OutboundSms}. Status callbacks carry the attempt they belong
+ * to, so a late broadcast from an earlier attempt never changes a message that has since
+ * been retried.
+ */
+@Dao
+public interface SmsOutboxDao {
+    @Insert
+    long insert(OutboundSms sms);
+    
+    @Update
+    void update(OutboundSms sms);
+    
+    @Query("SELECT * FROM sms_outbox WHERE id = :id")
+    OutboundSms getByIdSync(long id);
+    
+    // A message of this kind for the fish that has not been picked up by the dispatcher yet
+    @Query("SELECT * FROM sms_outbox WHERE status = " + OutboundSms.STATUS_QUEUED
+            + " AND kind = :kind AND phoneNumber = :phoneNumber AND fishId = :fishId"
+            + " ORDER BY id DESC LIMIT 1")
+    OutboundSms getQueuedSync(String kind, String phoneNumber, long fishId);
+    
+    // Withdraws a message the dispatcher has not picked up yet
+    @Query("DELETE FROM sms_outbox WHERE id = :id AND status = " + OutboundSms.STATUS_QUEUED)
+    int deleteQueued(long id);
+    
+    @Query("SELECT * FROM sms_outbox WHERE status = " + OutboundSms.STATUS_QUEUED
+            + " AND nextAttemptAt <= :now ORDER BY nextAttemptAt, id LIMIT :limit")
+    List<OutboundSms> getDueSync(long now, int limit);
+    
+    // Earliest retry time of anything still queued, or null when the queue is empty
+    @Query("SELECT MIN(nextAttemptAt) FROM sms_outbox WHERE status = " + OutboundSms.STATUS_QUEUED)
+    Long getNextAttemptAtSync();
+    
+    @Query("SELECT MAX(lastAttemptAt) FROM sms_outbox WHERE phoneNumber = :phoneNumber")
+    Long getLastAttemptAtSync(String phoneNumber);
+    
+    // Message parts handed to the radio since the given time, for the carrier rate limit
+    @Query("SELECT COALESCE(SUM(partCount), 0) FROM sms_outbox WHERE lastAttemptAt >= :since")
+    int countPartsAttemptedSince(long since);
+    
+    // Attempts whose sent broadcasts never came back, e.g. because the process was killed
+    @Query("SELECT * FROM sms_outbox WHERE status = " + OutboundSms.STATUS_SENDING
+            + " AND lastAttemptAt < :before")
+    List<OutboundSms> getStaleSendingSync(long before);
+    
+    @Query("SELECT phoneNumber, COUNT(*) AS messageCount,"
+            + " SUM(CASE WHEN status IN (" + OutboundSms.STATUS_SENT + ", " + OutboundSms.STATUS_DELIVERED
+            + ") THEN 1 ELSE 0 END) AS sentCount,"
+            + " SUM(CASE WHEN status = " + OutboundSms.STATUS_DELIVERED + " THEN 1 ELSE 0 END) AS deliveredCount,"
+            + " SUM(CASE WHEN status = " + OutboundSms.STATUS_FAILED + " THEN 1 ELSE 0 END) AS failedCount,"
+            + " SUM(CASE WHEN status IN (" + OutboundSms.STATUS_QUEUED + ", " + OutboundSms.STATUS_SENDING
+            + ") THEN 1 ELSE 0 END) AS pendingCount,"
+            + " SUM(attempts) AS attemptCount,"
+            + " SUM(CASE WHEN sentAt > 0 THEN partCount ELSE 0 END) AS partsSent,"
+            + " AVG(CASE WHEN sentAt > 0 THEN sentAt - createdAt END) AS avgSendLatencyMs,"
+            + " AVG(CASE WHEN deliveredAt > 0 THEN deliveredAt - sentAt END) AS avgDeliveryLatencyMs,"
+            + " MIN(CASE WHEN sentAt > 0 THEN sentAt END) AS firstSentAt,"
+            + " MAX(sentAt) AS lastSentAt"
+            + " FROM sms_outbox WHERE createdAt >= :since"
+            + " GROUP BY phoneNumber ORDER BY phoneNumber")
+    LiveData<List<FeederSmsStats>> getFeederSmsStats(long since);
+    
+    @Query("SELECT COUNT(*) AS messageCount,"
+            + " SUM(CASE WHEN status IN (" + OutboundSms.STATUS_QUEUED + ", " + OutboundSms.STATUS_SENDING
+            + ") THEN 1 ELSE 0 END) AS pendingCount,"
+            + " SUM(CASE WHEN status IN (" + OutboundSms.STATUS_SENT + ", " + OutboundSms.STATUS_DELIVERED
+            + ") THEN 1 ELSE 0 END) AS sentCount,"
+            + " SUM(CASE WHEN status = " + OutboundSms.STATUS_DELIVERED + " THEN 1 ELSE 0 END) AS deliveredCount,"
+            + " SUM(CASE WHEN status = " + OutboundSms.STATUS_FAILED + " THEN 1 ELSE 0 END) AS failedCount"
+            + " FROM sms_outbox WHERE id IN (:ids)")
+    LiveData<OutboxProgress> getOutboxProgress(List<Long> ids);
+    
+    /**
+     * Queues a message, or folds it into a still-queued message of the same kind for the same
+     * fish and feeder. The feeder replaces its whole table on every schedule SMS, so only the
+     * newest schedule needs to go out. Returns the id of the row that will be sent.
+     */
+    @Transaction
+    default long enqueue(OutboundSms sms, boolean replaceQueued) {
+        if (replaceQueued) {
+            OutboundSms queued = getQueuedSync(sms.getKind(), sms.getPhoneNumber(), sms.getFishId());
+            if (queued != null) {
+                queued.setBody(sms.getBody());
+                queued.setPartCount(sms.getPartCount());
+                update(queued);
+                return queued.getId();
+            }
+        }
+        return insert(sms);
+    }
+    
+    // Starts a new attempt, but only if the message is still queued
+    @Query("UPDATE sms_outbox SET status = " + OutboundSms.STATUS_SENDING + ", attempts = attempts + 1,"
+            + " lastAttemptAt = :now, partsSent = 0, partsDelivered = 0, sentAt = 0, deliveredAt = 0"
+            + " WHERE id = :id AND status = " + OutboundSms.STATUS_QUEUED)
+    int claimQueued(long id, long now);
+    
+    /**
+     * Claims a queued message for SmsManager and returns it as it stands now, with its new
+     * attempt number and the latest body folded into it. Returns null if the message was
+     * withdrawn or already claimed since the caller read it.
+     */
+    @Transaction
+    default OutboundSms markSending(long id, long now) {
+        if (claimQueued(id, now) == 0) return null;
+        return getByIdSync(id);
+    }
+    
+    // Gives up on a queued message without sending it
+    @Query("UPDATE sms_outbox SET status = " + OutboundSms.STATUS_FAILED + ", lastError = :error"
+            + " WHERE id = :id AND status = " + OutboundSms.STATUS_QUEUED)
+    int failQueued(long id, String error);
+    
+    /** Records one part's sent broadcast; returns false if the attempt is no longer current */
+    @Transaction
+    default boolean markPartSent(long id, int attempt, long now) {
+        OutboundSms sms = getByIdSync(id);
+        if (sms == null || sms.getAttempts() != attempt || sms.getStatus() != OutboundSms.STATUS_SENDING) {
+            return false;
+        }
+        sms.setPartsSent(sms.getPartsSent() + 1);
+        if (sms.getPartsSent() >= sms.getPartCount()) {
+            sms.setStatus(OutboundSms.STATUS_SENT);
+            sms.setSentAt(now);
+            // Delivery reports can overtake the last sent broadcast
+            if (sms.getPartsDelivered() >= sms.getPartCount()) {
+                sms.setStatus(OutboundSms.STATUS_DELIVERED);
+                sms.setDeliveredAt(now);
+            }
+        }
+        update(sms);
+        return true;
+    }
+    
+    /** Records one part's delivery report; returns false if the attempt is no longer current */
+    @Transaction
+    default boolean markPartDelivered(long id, int attempt, long now) {
+        OutboundSms sms = getByIdSync(id);
+        if (sms == null || sms.getAttempts() != attempt
+                || (sms.getStatus() != OutboundSms.STATUS_SENDING && sms.getStatus() != OutboundSms.STATUS_SENT)) {
+            return false;
+        }
+        sms.setPartsDelivered(sms.getPartsDelivered() + 1);
+        if (sms.getStatus() == OutboundSms.STATUS_SENT && sms.getPartsDelivered() >= sms.getPartCount()) {
+            sms.setStatus(OutboundSms.STATUS_DELIVERED);
+            sms.setDeliveredAt(now);
+        }
+        update(sms);
+        return true;
+    }
+    
+    /**
+     * Puts a failed attempt back in the queue with exponential backoff, or marks the message
+     * failed after {@link OutboundSms#MAX_ATTEMPTS}. The whole message is sent again: the
+     * parts of a concatenated SMS cannot be resent on their own. Returns false if the
+     * attempt is no longer current.
+     */
+    @Transaction
+    default boolean markAttemptFailed(long id, int attempt, String error, long now) {
+        OutboundSms sms = getByIdSync(id);
+        if (sms == null || sms.getAttempts() != attempt || sms.getStatus() != OutboundSms.STATUS_SENDING) {
+            return false;
+        }
+        retryOrFail(sms, error, now);
+        return true;
+    }
+    
+    /**
+     * Like {@link #markAttemptFailed}, for a failed delivery report. Those usually arrive after
+     * the sent broadcasts have moved the attempt to SENT, so SENT is accepted as well.
+     */
+    @Transaction
+    default boolean markDeliveryFailed(long id, int attempt, String error, long now) {
+        OutboundSms sms = getByIdSync(id);
+        if (sms == null || sms.getAttempts() != attempt
+                || (sms.getStatus() != OutboundSms.STATUS_SENDING && sms.getStatus() != OutboundSms.STATUS_SENT)) {
+            return false;
+        }
+        retryOrFail(sms, error, now);
+        return true;
+    }
+    
+    // Back to the queue with backoff, or failed for good after the last attempt
+    default void retryOrFail(OutboundSms sms, String error, long now) {
+        sms.setLastError(error);
+        if (sms.getAttempts() >= OutboundSms.MAX_ATTEMPTS) {
+            sms.setStatus(OutboundSms.STATUS_FAILED);
+        } else {
+            sms.setStatus(OutboundSms.STATUS_QUEUED);
+            sms.setNextAttemptAt(now + OutboundSms.retryDelayMs(sms.getAttempts()));
+        }
+        update(sms);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.myapplication.sms;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.telephony.PhoneNumberUtils;
+import android.util.Log;
+
+import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.FeederEvent;
+import com.example.myapplication.database.OutboundSms;
+import com.example.schedulecore.CompactSchedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records feeder replies as {@link FeederEvent}s and applies what they say to the sync state:
+ * an acknowledged schedule becomes the one the feeder is known to hold, and a refused delta
+ * is sent again in full. Replies are written in batches, one transaction per write-lane turn,
+ * so a burst of answers to a broadcast does not queue a write per message.
+ */
+public final class FeederReplies {
+    private static final String TAG = "FeederReplies";
+    private static final String DRAIN_KEY = "feeder-replies";
+
+    // How long after a schedule message was sent a reply is still taken to answer it
+    static final long REPLY_WINDOW_MS = 30 * 60_000L;
+
+    private static final ConcurrentLinkedQueue<Reply> pending = new ConcurrentLinkedQueue<>();
+
+    private static final class Reply {
+        final String sender;
+        final String body;
+        final long receivedAt;
+        // Finished once the reply has been written
+        final BroadcastReceiver.PendingResult pendingResult;
+
+        Reply(String sender, String body, long receivedAt, BroadcastReceiver.PendingResult pendingResult) {
+            this.sender = sender;
+            this.body = body;
+            this.receivedAt = receivedAt;
+            this.pendingResult = pendingResult;
+        }
+    }
+
+    /** Queues a reply for the next batch; the pending result, if any, is finished after it is written */
+    public static void record(Context context, String sender, String body, long receivedAt,
+                              BroadcastReceiver.PendingResult pendingResult) {
+        Context appContext = context.getApplicationContext();
+        pending.add(new Reply(sender, body, receivedAt, pendingResult));
+        AppDatabase.writeLane.executeCoalesced(DRAIN_KEY, () -> drain(appContext));
+    }
+
+    private static void drain(Context appContext) {
+        List<Reply> batch = new ArrayList<>();
+        for (Reply reply = pending.poll(); reply != null; reply = pending.poll()) {
+            batch.add(reply);
+        }
+        if (batch.isEmpty()) return;
+        int[] resent = new int[1];
+        try {
+            AppDatabase db = AppDatabase.getDatabase(appContext);
+            db.runInTransaction(() -> {
+                for (Reply reply : batch) {
+                    try {
+                        if (apply(db, reply.sender, reply.body, reply.receivedAt) != 0) resent[0]++;
+                    } catch (RuntimeException e) {
+                        Log.e(TAG, "Failed to record reply from " + reply.sender + ": " + e.getMessage(), e);
+                    }
+                }
+            });
+            if (resent[0] > 0) {
+                SmsDispatchWorker.schedule(appContext, 0);
+            }
+            Log.d(TAG, "Recorded " + batch.size() + " feeder replies, " + resent[0] + " schedules resent");
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to record feeder replies: " + e.getMessage(), e);
+        } finally {
+            for (Reply reply : batch) {
+                if (reply.pendingResult != null) reply.pendingResult.finish();
+            }
+        }
+    }
+
+    /**
+     * Records one reply inside the caller's transaction on the write lane. Returns the id of a
+     * schedule queued again because the feeder refused a delta, otherwise 0. Messages that are
+     * not feeder replies and answer nothing we sent are ignored.
+     */
+    static long apply(AppDatabase db, String sender, String body, long receivedAt) {
+        String kind = FeederReplyParser.parseKind(body);
+        int value = FeederReplyParser.parseValue(body, kind);
+        OutboundSms answered = findAnswered(db, sender, receivedAt);
+        if (answered == null && FeederEvent.KIND_OTHER.equals(kind)) return 0;
+
+        FeederEvent event = new FeederEvent(sender, kind, body, value, receivedAt);
+        if (answered != null) {
+            event.setPhoneNumber(answered.getPhoneNumber());
+            event.setSmsId(answered.getId());
+            event.setRoundTripMs(receivedAt - answered.getSentAt());
+        }
+        db.feederEventDao().insert(event);
+        if (answered == null) {
+            Log.d(TAG, "Unmatched " + kind + " from " + sender);
+            return 0;
+        }
+
+        String phoneNumber = answered.getPhoneNumber();
+        if (FeederEvent.KIND_SCHEDULE_ACK.equals(kind)) {
+            acknowledge(db, answered, value, receivedAt);
+        } else if (FeederEvent.KIND_VERSION_MISMATCH.equals(kind)) {
+            Log.d(TAG, "Feeder " + phoneNumber + " refused #" + answered.getId() + ", holds v" + value);
+            return SmsOutbox.resendInFull(db, answered, receivedAt);
+        }
+        return 0;
+    }
+
+    // The oldest unanswered schedule message to this feeder; replies come back in the order sent
+    private static OutboundSms findAnswered(AppDatabase db, String sender, long receivedAt) {
+        List<OutboundSms> unanswered = db.feederEventDao().getUnansweredSync(receivedAt - REPLY_WINDOW_MS, receivedAt);
+        for (OutboundSms sms : unanswered) {
+            if (PhoneNumberUtils.compare(sender, sms.getPhoneNumber())) return sms;
+        }
+        return null;
+    }
+
+    private static void acknowledge(AppDatabase db, OutboundSms answered, int feedingTimes, long now) {
+        String phoneNumber = answered.getPhoneNumber();
+        CompactSchedule sent = SmsOutbox.sentSchedule(db.feederSyncDao().getSync(phoneNumber), answered);
+        // Text schedules carry no sync state
+        if (sent == null) return;
+        int expected = sent.getSlots().size();
+        if (feedingTimes == expected) {
+            // Already done if the delivery report came first
+            db.feederSyncDao().promoteAcknowledged(answered.getId(), now);
+        } else {
+            // The feeder holds something other than what was meant, so the next sync sends it in full
+            Log.e(TAG, "Feeder " + phoneNumber + " reports " + feedingTimes + " feeding times, expected " + expected);
+            db.feederSyncDao().forget(phoneNumber, now);
+        }
+    }
+
+    private FeederReplies() {
+    }
+}
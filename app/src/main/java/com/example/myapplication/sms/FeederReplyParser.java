@@ -0,0 +1,62 @@
+package com.example.myapplication.sms;
+
+import com.example.myapplication.database.FeederEvent;
+
+/**
+ * Reads the replies FFARD.ino sends back (see finishSchedules() and processDeltaSms()).
+ * Works on the CharSequence in place, without regular expressions or substrings, since
+ * many feeders answer a broadcast within the same few seconds.
+ */
+public final class FeederReplyParser {
+    static final String SCHEDULE_ACK = "Schedule updated! Added ";
+    static final String VERSION_MISMATCH = "Schedule version mismatch, have v";
+
+    /** One of the FeederEvent kinds */
+    public static String parseKind(CharSequence body) {
+        int start = skipSpaces(body, 0);
+        if (startsWith(body, start, SCHEDULE_ACK)) return FeederEvent.KIND_SCHEDULE_ACK;
+        if (startsWith(body, start, VERSION_MISMATCH)) return FeederEvent.KIND_VERSION_MISMATCH;
+        return FeederEvent.KIND_OTHER;
+    }
+
+    /** The feeding time count or version in a reply of the given kind, -1 if there is none */
+    public static int parseValue(CharSequence body, String kind) {
+        int start = skipSpaces(body, 0);
+        if (FeederEvent.KIND_SCHEDULE_ACK.equals(kind)) {
+            return parseNumber(body, start + SCHEDULE_ACK.length());
+        }
+        if (FeederEvent.KIND_VERSION_MISMATCH.equals(kind)) {
+            return parseNumber(body, start + VERSION_MISMATCH.length());
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(CharSequence body, int from, String prefix) {
+        if (body.length() - from < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (body.charAt(from + i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // Unsigned decimal at the position; -1 if there is no digit or it does not fit an int
+    private static int parseNumber(CharSequence body, int from) {
+        int value = -1;
+        for (int i = from; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c < '0' || c > '9') break;
+            int digit = c - '0';
+            if (value > (Integer.MAX_VALUE - digit) / 10) return -1;
+            value = (value < 0 ? 0 : value * 10) + digit;
+        }
+        return value;
+    }
+
+    private static int skipSpaces(CharSequence body, int from) {
+        while (from < body.length() && Character.isWhitespace(body.charAt(from))) from++;
+        return from;
+    }
+
+    private FeederReplyParser() {
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.myapplication.sms;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.DbLane;
+import com.example.myapplication.database.Fish;
+import com.example.myapplication.database.OutboxProgress;
+import com.example.myapplication.database.ScheduleGroup;
+import com.example.schedulecore.CompactSchedule;
+import com.example.schedulecore.CompactScheduleCodec;
+import com.example.schedulecore.ScheduleMessageFormat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the current schedule of many feeders in one go. Each fish's message is built on a
+ * small pool of its own, all of them are queued in one transaction, and
+ * {@link SmsDispatchWorker} sends them at its usual pace. Progress and the outcome come
+ * back as a single {@link FleetBroadcastSummary}.
+ */
+public final class FleetBroadcast {
+    private static final String TAG = "FleetBroadcast";
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    // Building reads one fish's schedules and formats a message; more threads would only
+    // contend for the database
+    static final int BUILD_THREADS = 4;
+    private static final DbLane buildLane = new DbLane("fleet-build", BUILD_THREADS);
+
+    /** Sends each of the given fish the schedule it is on today, or its next one */
+    public static LiveData<FleetBroadcastSummary> sendToFish(Context context, Collection<Long> fishIds) {
+        return sendToFish(context, AppDatabase.getDatabase(context), fishIds);
+    }
+
+    // Tests pass an in-memory database
+    static LiveData<FleetBroadcastSummary> sendToFish(Context context, AppDatabase db, Collection<Long> fishIds) {
+        List<Long> ids = new ArrayList<>(fishIds);
+        return start(context, db, fleetDb -> fleetDb.fishDao().getFishByIdsSync(ids), null);
+    }
+
+    /** Sends every fish with a schedule of the given name that schedule's current or next date range */
+    public static LiveData<FleetBroadcastSummary> sendTemplate(Context context, String scheduleName) {
+        return start(context, AppDatabase.getDatabase(context),
+                db -> db.fishDao().getFishWithScheduleSync(scheduleName), scheduleName);
+    }
+
+    private interface FleetQuery {
+        List<Fish> load(AppDatabase db);
+    }
+
+    private static LiveData<FleetBroadcastSummary> start(Context context, AppDatabase db, FleetQuery query,
+                                                         String scheduleName) {
+        Context appContext = context.getApplicationContext();
+        MediatorLiveData<FleetBroadcastSummary> result = new MediatorLiveData<>();
+        AppDatabase.readLane.execute(() -> {
+            List<Fish> fleet;
+            try {
+                fleet = query.load(db);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load fish for broadcast: " + e.getMessage(), e);
+                fleet = new ArrayList<>();
+            }
+            Progress progress = new Progress(fleet.size());
+            result.postValue(progress.snapshot());
+            if (fleet.isEmpty()) {
+                queueAll(appContext, db, new ScheduleMessage[0], progress, result);
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            long startedAt = SystemClock.elapsedRealtime();
+            ScheduleMessage[] messages = new ScheduleMessage[fleet.size()];
+            AtomicInteger remaining = new AtomicInteger(fleet.size());
+            for (int i = 0; i < fleet.size(); i++) {
+                int index = i;
+                Fish fish = fleet.get(i);
+                buildLane.execute(() -> {
+                    try {
+                        messages[index] = build(db, fish, scheduleName, now, progress);
+                    } catch (Exception e) {
+                        Log.e(TAG, "Failed to build schedule for " + fish.getName() + ": " + e.getMessage(), e);
+                        progress.failed(fish.getName() + ": " + e.getMessage());
+                    }
+                    result.postValue(progress.snapshot());
+                    // The last build hands everything to the write lane; the counter orders the array writes before it
+                    if (remaining.decrementAndGet() == 0) {
+                        Log.d(TAG, "Built " + messages.length + " messages in "
+                                + (SystemClock.elapsedRealtime() - startedAt) + "ms; " + buildLane);
+                        queueAll(appContext, db, messages, progress, result);
+                    }
+                });
+            }
+        });
+        return result;
+    }
+
+    // The fish's message, or null if it is skipped
+    private static ScheduleMessage build(AppDatabase db, Fish fish, String scheduleName, long now, Progress progress) {
+        String phoneNumber = fish.getPhoneNumber();
+        if (TextUtils.isEmpty(phoneNumber)) {
+            progress.skipped(fish.getName() + ": no phone number");
+            return null;
+        }
+        ScheduleGroup group = pickGroup(
+                ScheduleGroup.fromSchedules(db.feedingScheduleDao().getAllSchedulesForFishSync(fish.getId())),
+                scheduleName, now);
+        if (group == null) {
+            progress.skipped(fish.getName() + ": no current or upcoming schedule");
+            return null;
+        }
+
+        ScheduleMessage message;
+        if (fish.getSmsFormat() == Fish.SMS_FORMAT_COMPACT) {
+            CompactSchedule target = ScheduleMessageFormat.toCompactSchedule(group.getSchedules());
+            // Throws if the schedule does not fit the format
+            CompactScheduleCodec.encode(target);
+            message = ScheduleMessage.compact(fish.getId(), fish.getName(), phoneNumber, target);
+        } else {
+            String body = ScheduleMessageFormat.buildTextMessage(fish.getName(), new ArrayList<>(group.getSchedules()));
+            message = ScheduleMessage.text(fish.getId(), fish.getName(), phoneNumber, body);
+        }
+        progress.built();
+        return message;
+    }
+
+    // Groups are sorted by date range, so the first one not yet over is the current or next one
+    private static ScheduleGroup pickGroup(List<ScheduleGroup> groups, String scheduleName, long now) {
+        for (ScheduleGroup group : groups) {
+            if (scheduleName != null && !scheduleName.equals(group.getScheduleName())) continue;
+            if (group.getEndDate() + DAY_MS > now) return group;
+        }
+        return null;
+    }
+
+    private static void queueAll(Context appContext, AppDatabase db, ScheduleMessage[] messages,
+                                 Progress progress, MediatorLiveData<FleetBroadcastSummary> result) {
+        AppDatabase.writeLane.execute(() -> {
+            long now = System.currentTimeMillis();
+            List<Long> ids = new ArrayList<>();
+            List<String> sharedFeeders = new ArrayList<>();
+            int[] unchanged = new int[1];
+            try {
+                db.runInTransaction(() -> {
+                    // Fish come newest first; an older fish on the same feeder would overwrite it
+                    Set<String> phoneNumbers = new HashSet<>();
+                    for (ScheduleMessage message : messages) {
+                        if (message == null) continue;
+                        if (!phoneNumbers.add(message.getPhoneNumber())) {
+                            sharedFeeders.add(message.getFishName() + ": shares feeder "
+                                    + message.getPhoneNumber() + " with a newer fish");
+                            continue;
+                        }
+                        long id = SmsOutbox.queueSchedule(db, message, now);
+                        if (id == 0) {
+                            unchanged[0]++;
+                        } else {
+                            ids.add(id);
+                        }
+                    }
+                });
+                progress.queued(ids.size(), unchanged[0], sharedFeeders);
+                if (!ids.isEmpty()) {
+                    SmsDispatchWorker.schedule(appContext, 0);
+                }
+                Log.d(TAG, "Broadcast queued " + ids.size() + " messages, " + unchanged[0] + " feeders up to date");
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to queue broadcast: " + e.getMessage(), e);
+                ids.clear();
+                progress.queueFailed("Queuing failed: " + e.getMessage());
+            }
+
+            FleetBroadcastSummary queued = progress.snapshot();
+            new Handler(Looper.getMainLooper()).post(() -> {
+                result.setValue(queued);
+                if (!ids.isEmpty()) {
+                    result.addSource(db.smsOutboxDao().getOutboxProgress(ids),
+                            sending -> result.setValue(progress.withSending(sending)));
+                }
+            });
+        });
+    }
+
+    // Counters shared by the build threads
+    private static final class Progress {
+        private final int fishCount;
+        private int builtCount;
+        private int queuedCount;
+        private int unchangedCount;
+        private int skippedCount;
+        private int failedCount;
+        private final List<String> problems = new ArrayList<>();
+        private boolean queuingDone;
+        private OutboxProgress sending;
+
+        Progress(int fishCount) {
+            this.fishCount = fishCount;
+        }
+
+        synchronized void built() {
+            builtCount++;
+        }
+
+        synchronized void skipped(String problem) {
+            builtCount++;
+            skippedCount++;
+            problems.add(problem);
+        }
+
+        synchronized void failed(String problem) {
+            builtCount++;
+            failedCount++;
+            problems.add(problem);
+        }
+
+        synchronized void queued(int queued, int unchanged, List<String> sharedFeeders) {
+            queuedCount = queued;
+            unchangedCount = unchanged;
+            skippedCount += sharedFeeders.size();
+            problems.addAll(sharedFeeders);
+            queuingDone = true;
+        }
+
+        // Nothing was queued: every message that was built counts as failed
+        synchronized void queueFailed(String problem) {
+            failedCount = builtCount - skippedCount;
+            problems.add(problem);
+            queuingDone = true;
+        }
+
+        synchronized FleetBroadcastSummary withSending(OutboxProgress sending) {
+            this.sending = sending;
+            return snapshot();
+        }
+
+        synchronized FleetBroadcastSummary snapshot() {
+            // Before the first outbox read everything queued is still pending
+            int pending = sending != null ? sending.pendingCount : queuedCount;
+            return new FleetBroadcastSummary(fishCount, builtCount, queuedCount, unchangedCount,
+                    skippedCount, failedCount, new ArrayList<>(problems), queuingDone, pending,
+                    sending != null ? sending.sentCount : 0,
+                    sending != null ? sending.deliveredCount : 0,
+                    sending != null ? sending.failedCount : 0);
+        }
+    }
+
+    private FleetBroadcast() {
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.myapplication.sms;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Progress and outcome of one {@link FleetBroadcast}: how many fish have had their message
+ * built, what happened to each, and once queued, how far the messages have got.
+ */
+public final class FleetBroadcastSummary {
+    private final int fishCount;
+    private final int builtCount;
+    private final int queuedCount;
+    private final int unchangedCount;
+    private final int skippedCount;
+    private final int failedCount;
+    private final List<String> problems;
+    private final boolean queuingDone;
+    private final int pendingCount;
+    private final int sentCount;
+    private final int deliveredCount;
+    private final int sendFailedCount;
+
+    FleetBroadcastSummary(int fishCount, int builtCount, int queuedCount, int unchangedCount,
+                          int skippedCount, int failedCount, List<String> problems, boolean queuingDone,
+                          int pendingCount, int sentCount, int deliveredCount, int sendFailedCount) {
+        this.fishCount = fishCount;
+        this.builtCount = builtCount;
+        this.queuedCount = queuedCount;
+        this.unchangedCount = unchangedCount;
+        this.skippedCount = skippedCount;
+        this.failedCount = failedCount;
+        this.problems = Collections.unmodifiableList(problems);
+        this.queuingDone = queuingDone;
+        this.pendingCount = pendingCount;
+        this.sentCount = sentCount;
+        this.deliveredCount = deliveredCount;
+        this.sendFailedCount = sendFailedCount;
+    }
+
+    public int getFishCount() { return fishCount; }
+
+    /** Fish whose message has been built, skipped or has failed so far */
+    public int getBuiltCount() { return builtCount; }
+
+    /** Messages added to the outbox */
+    public int getQueuedCount() { return queuedCount; }
+
+    /** Feeders that already hold their schedule, so nothing was sent */
+    public int getUnchangedCount() { return unchangedCount; }
+
+    /** Fish without a phone number or a current schedule, or sharing a feeder with another fish */
+    public int getSkippedCount() { return skippedCount; }
+
+    /** Fish whose message could not be built or queued */
+    public int getFailedCount() { return failedCount; }
+
+    /** One line per skipped or failed fish, e.g. "Koi: no phone number" */
+    public List<String> getProblems() { return problems; }
+
+    /** Whether building and queuing are over; sending may still be in progress */
+    public boolean isQueuingDone() { return queuingDone; }
+
+    /** Queued messages not yet sent, including those waiting for a retry */
+    public int getPendingCount() { return pendingCount; }
+
+    public int getSentCount() { return sentCount; }
+
+    public int getDeliveredCount() { return deliveredCount; }
+
+    /** Queued messages that ran out of attempts */
+    public int getSendFailedCount() { return sendFailedCount; }
+
+    /** Nothing left to build, queue or send */
+    public boolean isFinished() {
+        return queuingDone && pendingCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("Built ").append(builtCount).append(" of ").append(fishCount);
+        if (queuingDone) {
+            text.append("\nQueued ").append(queuedCount)
+                    .append(", up to date ").append(unchangedCount)
+                    .append(", skipped ").append(skippedCount)
+                    .append(", failed ").append(failedCount);
+            if (queuedCount > 0) {
+                text.append("\nSent ").append(sentCount)
+                        .append(", delivered ").append(deliveredCount)
+                        .append(", waiting ").append(pendingCount)
+                        .append(", not sent ").append(sendFailedCount);
+            }
+        }
+        return text.toString();
+    }
+}
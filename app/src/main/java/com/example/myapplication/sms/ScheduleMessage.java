@@ -0,0 +1,44 @@
+package com.example.myapplication.sms;
+
+import com.example.schedulecore.CompactSchedule;
+
+/**
+ * One feeder's schedule, built and ready to queue: either a compact target for
+ * {@link SmsOutbox#syncSchedule} to send as a delta or in full, or a finished text message.
+ */
+final class ScheduleMessage {
+    private final long fishId;
+    private final String fishName;
+    private final String phoneNumber;
+    private final CompactSchedule compactTarget;
+    private final String textBody;
+
+    private ScheduleMessage(long fishId, String fishName, String phoneNumber,
+                            CompactSchedule compactTarget, String textBody) {
+        this.fishId = fishId;
+        this.fishName = fishName;
+        this.phoneNumber = phoneNumber;
+        this.compactTarget = compactTarget;
+        this.textBody = textBody;
+    }
+
+    static ScheduleMessage compact(long fishId, String fishName, String phoneNumber, CompactSchedule target) {
+        return new ScheduleMessage(fishId, fishName, phoneNumber, target, null);
+    }
+
+    static ScheduleMessage text(long fishId, String fishName, String phoneNumber, String body) {
+        return new ScheduleMessage(fishId, fishName, phoneNumber, null, body);
+    }
+
+    long getFishId() { return fishId; }
+
+    String getFishName() { return fishName; }
+
+    String getPhoneNumber() { return phoneNumber; }
+
+    /** Null for a text message */
+    CompactSchedule getCompactTarget() { return compactTarget; }
+
+    /** Null for a compact schedule */
+    String getTextBody() { return textBody; }
+}
@@ -0,0 +1,187 @@
+package com.example.myapplication.sms;
+
+import android.Manifest;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.SystemClock;
+import android.telephony.SmsManager;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.OutboundSms;
+import com.example.myapplication.database.SmsOutboxDao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends whatever is due in the SMS outbox, as fast as the limits below allow, then
+ * schedules itself for the next message that had to wait. Only one run is ever pending.
+ * Its outbox and sync state writes go through {@link AppDatabase#writeLane} like every
+ * other write, and the run waits for each of them.
+ */
+public class SmsDispatchWorker extends Worker {
+    private static final String TAG = "SmsDispatchWorker";
+    private static final String WORK_NAME = "sms-dispatch";
+
+    // Android asks the user to confirm once an app sends more than 30 parts in 30 minutes
+    static final int WINDOW_PARTS = 30;
+    static final long WINDOW_MS = 30 * 60_000L;
+    // The feeder joins messages from one sender arriving within 5 s into a single message,
+    // so two messages to the same feeder must be further apart than that
+    static final long PER_FEEDER_GAP_MS = 10_000L;
+    // Between any two sends, to avoid handing the carrier a burst
+    static final long SEND_GAP_MS = 2_000L;
+    // An attempt whose sent broadcasts have not all arrived by then is retried
+    static final long SEND_TIMEOUT_MS = 5 * 60_000L;
+    private static final int BATCH_SIZE = 10;
+
+    public SmsDispatchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Replaces any pending run with one that starts after the delay. A run cancelled mid-batch
+     * may overlap its replacement, so every message is claimed before it is sent and a message
+     * the other run claimed first is skipped.
+     */
+    public static void schedule(Context context, long delayMs) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SmsDispatchWorker.class)
+                .setInitialDelay(delayMs, TimeUnit.MILLISECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.REPLACE, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        if (ContextCompat.checkSelfPermission(context, Manifest.permission.SEND_SMS)
+                != PackageManager.PERMISSION_GRANTED) {
+            // Left queued; the next message queued after the permission is granted sends them
+            Log.e(TAG, "Cannot send SMS: Permission not granted");
+            return Result.success();
+        }
+
+        try {
+            return dispatch(context);
+        } catch (InterruptedException e) {
+            // Stopped while waiting for the write lane. A claim that still runs after this is
+            // retried once its attempt goes stale, like any attempt without a sent report
+            Thread.currentThread().interrupt();
+            return Result.success();
+        }
+    }
+
+    private Result dispatch(Context context) throws InterruptedException {
+        AppDatabase db = AppDatabase.getDatabase(context);
+        SmsOutboxDao dao = db.smsOutboxDao();
+        long startedAt = System.currentTimeMillis();
+        AppDatabase.writeLane.call(() -> {
+            for (OutboundSms stale : dao.getStaleSendingSync(startedAt - SEND_TIMEOUT_MS)) {
+                dao.markAttemptFailed(stale.getId(), stale.getAttempts(), "No sent report", startedAt);
+                db.feederSyncDao().settle(stale.getId(), startedAt);
+            }
+            return null;
+        });
+
+        long now = startedAt;
+
+        int partBudget = WINDOW_PARTS - dao.countPartsAttemptedSince(now - WINDOW_MS);
+        List<OutboundSms> due = dao.getDueSync(now, BATCH_SIZE);
+        long wakeAt = Long.MAX_VALUE;
+        int sent = 0;
+        for (OutboundSms sms : due) {
+            if (isStopped()) return Result.success();
+            if (sms.getPartCount() > WINDOW_PARTS) {
+                // No window could ever hold it, and waiting for one would hold up everything after it
+                String error = sms.getPartCount() + " parts, more than " + WINDOW_PARTS + " per window";
+                long failedAt = now;
+                AppDatabase.writeLane.call(() -> {
+                    if (dao.failQueued(sms.getId(), error) > 0) {
+                        db.feederSyncDao().settle(sms.getId(), failedAt);
+                    }
+                    return null;
+                });
+                Log.e(TAG, "SMS #" + sms.getId() + " not sent: " + error);
+                continue;
+            }
+            if (sms.getPartCount() > partBudget) {
+                // Wait for enough of the window to slide by
+                wakeAt = Math.min(wakeAt, now + WINDOW_MS / WINDOW_PARTS * sms.getPartCount());
+                break;
+            }
+            Long lastAttemptAt = dao.getLastAttemptAtSync(sms.getPhoneNumber());
+            if (lastAttemptAt != null && lastAttemptAt + PER_FEEDER_GAP_MS > now) {
+                wakeAt = Math.min(wakeAt, lastAttemptAt + PER_FEEDER_GAP_MS);
+                continue;
+            }
+            if (sent > 0) {
+                SystemClock.sleep(SEND_GAP_MS);
+                if (isStopped()) return Result.success();
+                now = System.currentTimeMillis();
+            }
+            long claimAt = now;
+            OutboundSms claimed = AppDatabase.writeLane.call(() -> dao.markSending(sms.getId(), claimAt));
+            if (claimed == null) {
+                // Withdrawn, or claimed by a run that overlapped this one
+                Log.d(TAG, "SMS #" + sms.getId() + " is no longer queued; skipped");
+                continue;
+            }
+            send(context, db, claimed);
+            partBudget -= claimed.getPartCount();
+            sent++;
+        }
+
+        if (sent > 0 && due.size() == BATCH_SIZE) {
+            // There may be more due than one batch
+            wakeAt = Math.min(wakeAt, now);
+        }
+        Long nextAttemptAt = dao.getNextAttemptAtSync();
+        if (nextAttemptAt != null && nextAttemptAt > now) {
+            wakeAt = Math.min(wakeAt, nextAttemptAt);
+        }
+        Log.d(TAG, "Sent " + sent + " of " + due.size() + " due, " + partBudget + " parts left in window");
+        if (wakeAt != Long.MAX_VALUE) {
+            schedule(context, Math.max(0, wakeAt - System.currentTimeMillis()));
+        }
+        return Result.success();
+    }
+
+    // Sends the claimed message as it stood when claimed, not the batch's earlier copy of it
+    private static void send(Context context, AppDatabase db, OutboundSms sms) throws InterruptedException {
+        int attempt = sms.getAttempts();
+        long now = sms.getLastAttemptAt();
+        try {
+            SmsManager smsManager = SmsManager.getDefault();
+            ArrayList<String> parts = smsManager.divideMessage(sms.getBody());
+            ArrayList<PendingIntent> sentIntents = new ArrayList<>(parts.size());
+            ArrayList<PendingIntent> deliveryIntents = new ArrayList<>(parts.size());
+            for (int part = 0; part < parts.size(); part++) {
+                sentIntents.add(SmsStatusReceiver.sentIntent(context, sms.getId(), attempt, part));
+                deliveryIntents.add(SmsStatusReceiver.deliveredIntent(context, sms.getId(), attempt, part));
+            }
+            smsManager.sendMultipartTextMessage(sms.getPhoneNumber(), null, parts, sentIntents, deliveryIntents);
+            Log.d(TAG, "SMS #" + sms.getId() + " attempt " + attempt + " sent to "
+                    + sms.getPhoneNumber() + " with " + parts.size() + " parts");
+        } catch (Exception e) {
+            Log.e(TAG, "SMS send error", e);
+            String error = e.getMessage();
+            AppDatabase.writeLane.call(() -> {
+                db.smsOutboxDao().markAttemptFailed(sms.getId(), attempt, error, now);
+                db.feederSyncDao().settle(sms.getId(), now);
+                return null;
+            });
+        }
+    }
+}
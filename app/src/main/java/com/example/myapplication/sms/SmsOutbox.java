@@ -0,0 +1,224 @@
+package com.example.myapplication.sms;
+
+import android.content.Context;
+import android.telephony.SmsManager;
+import android.util.Log;
+
+import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.FeedEvent;
+import com.example.myapplication.database.FeederSyncDao;
+import com.example.myapplication.database.FeederSyncState;
+import com.example.myapplication.database.Fish;
+import com.example.myapplication.database.OutboundSms;
+import com.example.myapplication.database.SmsOutboxDao;
+import com.example.schedulecore.CompactSchedule;
+import com.example.schedulecore.CompactScheduleCodec;
+import com.example.schedulecore.ScheduleDelta;
+
+/**
+ * Entry point for outgoing SMS. Messages are written to the outbox table on the write lane
+ * and sent later by {@link SmsDispatchWorker}, which paces them and tracks delivery.
+ */
+public final class SmsOutbox {
+    private static final String TAG = "SmsOutbox";
+
+    /**
+     * Queues a schedule for a feeder. A schedule for the same fish and number that has not
+     * been sent yet is replaced rather than sent twice.
+     */
+    public static void enqueueSchedule(Context context, String phoneNumber, long fishId, String body) {
+        enqueue(context, phoneNumber, fishId, OutboundSms.KIND_SCHEDULE, body, true);
+    }
+
+    /**
+     * Brings a compact-format feeder to the given schedule. When the feeder's current schedule
+     * is known and no other schedule to it is still unconfirmed, only the changes are sent,
+     * as a versioned delta; otherwise, or if the delta would be longer, the full schedule.
+     * Nothing is sent if the feeder already holds the schedule.
+     */
+    public static void syncSchedule(Context context, String phoneNumber, long fishId, CompactSchedule target) {
+        Context appContext = context.getApplicationContext();
+        long now = System.currentTimeMillis();
+        AppDatabase.writeLane.execute(() -> {
+            try {
+                AppDatabase db = AppDatabase.getDatabase(appContext);
+                long id = db.runInTransaction(() -> planSync(db, phoneNumber, fishId, target, now));
+                if (id != 0) {
+                    SmsDispatchWorker.schedule(appContext, 0);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to queue schedule sync: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Queues one schedule of a broadcast inside the caller's transaction on the write lane.
+     * Returns the outbox id, or 0 if the feeder already holds the schedule. The caller wakes
+     * the dispatcher once the transaction has committed.
+     */
+    static long queueSchedule(AppDatabase db, ScheduleMessage message, long now) {
+        if (message.getCompactTarget() != null) {
+            return planSync(db, message.getPhoneNumber(), message.getFishId(), message.getCompactTarget(), now);
+        }
+        String body = message.getTextBody();
+        OutboundSms sms = new OutboundSms(message.getPhoneNumber(), message.getFishId(),
+                OutboundSms.KIND_SCHEDULE, body, partCount(body), now);
+        long id = db.smsOutboxDao().enqueue(sms, true);
+        // The feeder resets its delta version on a text schedule
+        db.feederSyncDao().forget(message.getPhoneNumber(), now);
+        return id;
+    }
+
+    /**
+     * Called in a transaction on the write lane when a feeder refuses a delta because it holds
+     * another version. Its schedule is then unknown, so the schedule the delta was meant to
+     * bring it to, or a schedule queued for it since, is queued in full. Returns the new
+     * outbox id, or 0 if that schedule is no longer known.
+     */
+    static long resendInFull(AppDatabase db, OutboundSms refused, long now) {
+        String phoneNumber = refused.getPhoneNumber();
+        FeederSyncDao syncDao = db.feederSyncDao();
+        FeederSyncState state = syncDao.getSync(phoneNumber);
+        long fishId = refused.getFishId();
+        CompactSchedule target = sentSchedule(state, refused);
+        // A schedule queued since is newer than the one refused
+        if (state != null && state.getPendingSmsId() != 0 && state.getPendingSmsId() != refused.getId()
+                && state.getPendingSchedule() != null) {
+            fishId = state.getFishId();
+            target = CompactScheduleCodec.decode(state.getPendingSchedule());
+        }
+        if (target == null) {
+            syncDao.forget(phoneNumber, now);
+            return 0;
+        }
+        if (state != null) {
+            state.setAckedSchedule(null);
+            syncDao.upsert(state);
+        }
+        return planSync(db, phoneNumber, fishId, target, now);
+    }
+
+    /**
+     * The schedule a compact message brings its feeder to, or null for a text schedule or a
+     * delta whose outcome is no longer on record. A delivery report usually comes before the
+     * feeder's reply and moves the schedule from the pending columns to the acknowledged
+     * ones, where the delta's new version still identifies it.
+     */
+    static CompactSchedule sentSchedule(FeederSyncState state, OutboundSms sms) {
+        if (state != null && state.getPendingSmsId() == sms.getId() && state.getPendingSchedule() != null) {
+            return CompactScheduleCodec.decode(state.getPendingSchedule());
+        }
+        String body = sms.getBody();
+        if (CompactScheduleCodec.isCompact(body)) return CompactScheduleCodec.decode(body);
+        if (CompactScheduleCodec.isDelta(body) && state != null && state.getAckedSchedule() != null
+                && state.getFishId() == sms.getFishId()
+                && state.getAckedVersion() == CompactScheduleCodec.decodeDelta(body).getNewVersion()) {
+            return CompactScheduleCodec.decode(state.getAckedSchedule());
+        }
+        return null;
+    }
+
+    // Runs in a transaction on the write lane; returns the id of the queued message, or 0 if none was needed
+    private static long planSync(AppDatabase db, String phoneNumber, long fishId,
+                                    CompactSchedule target, long now) {
+        SmsOutboxDao outboxDao = db.smsOutboxDao();
+        FeederSyncDao syncDao = db.feederSyncDao();
+        FeederSyncState state = syncDao.getSync(phoneNumber);
+        if (state == null) state = new FeederSyncState(phoneNumber);
+        OutboundSms queued = outboxDao.getQueuedSync(OutboundSms.KIND_SCHEDULE, phoneNumber, fishId);
+
+        // A pending schedule that has not left the phone yet is simply replaced
+        boolean unconfirmed = state.getPendingSmsId() != 0
+                && (queued == null || queued.getId() != state.getPendingSmsId());
+        String fullBody = CompactScheduleCodec.encode(target);
+        String body = fullBody;
+        int version = 0;
+        if (state.getAckedSchedule() != null && state.getFishId() == fishId && !unconfirmed) {
+            CompactSchedule acked = CompactScheduleCodec.decode(state.getAckedSchedule());
+            ScheduleDelta delta = ScheduleDelta.between(acked, target, state.getAckedVersion());
+            if (delta.isEmptyFor(acked)) {
+                if (queued != null) outboxDao.deleteQueued(queued.getId());
+                state.setPendingSchedule(null);
+                state.setPendingSmsId(0);
+                syncDao.upsert(state);
+                Log.d(TAG, "Feeder " + phoneNumber + " already holds this schedule");
+                return 0;
+            }
+            String deltaBody = CompactScheduleCodec.encodeDelta(delta);
+            if (deltaBody.length() < fullBody.length()) {
+                body = deltaBody;
+                version = delta.getNewVersion();
+            }
+        }
+
+        OutboundSms sms = new OutboundSms(phoneNumber, fishId, OutboundSms.KIND_SCHEDULE, body, partCount(body), now);
+        long id = outboxDao.enqueue(sms, true);
+        state.setFishId(fishId);
+        state.setPendingVersion(version);
+        state.setPendingSchedule(fullBody);
+        state.setPendingSmsId(id);
+        state.setUpdatedAt(now);
+        syncDao.upsert(state);
+        Log.d(TAG, "Queued " + (version == 0 ? "full schedule" : "delta v" + version) + " #" + id
+                + " for " + phoneNumber + " (" + body.length() + " chars)");
+        return id;
+    }
+
+    /**
+     * Queues a feed now command; never merged with other messages. The command is recorded
+     * in the feeding ledger in the same transaction, and acknowledged there once delivered.
+     */
+    public static void enqueueFeedNow(Context context, String phoneNumber, long fishId, String body,
+                                      float gramsPerFish) {
+        Context appContext = context.getApplicationContext();
+        long now = System.currentTimeMillis();
+        AppDatabase.writeLane.execute(() -> {
+            try {
+                int partCount = partCount(body);
+                AppDatabase db = AppDatabase.getDatabase(appContext);
+                long id = db.runInTransaction(() -> {
+                    long smsId = db.smsOutboxDao().enqueue(new OutboundSms(phoneNumber, fishId,
+                            OutboundSms.KIND_FEED_NOW, body, partCount, now), false);
+                    Fish fish = db.fishDao().getFishByIdSync(fishId);
+                    db.feedEventDao().record(FeedEvent.commanded(fishId, gramsPerFish,
+                            fish != null ? fish.getAliveCount() : 0, smsId, now));
+                    return smsId;
+                });
+                Log.d(TAG, "Queued feed now #" + id + " for " + phoneNumber + " (" + partCount + " parts)");
+                SmsDispatchWorker.schedule(appContext, 0);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to queue feed now: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private static void enqueue(Context context, String phoneNumber, long fishId, String kind,
+                                String body, boolean replaceQueued) {
+        Context appContext = context.getApplicationContext();
+        long now = System.currentTimeMillis();
+        AppDatabase.writeLane.execute(() -> {
+            try {
+                int partCount = partCount(body);
+                OutboundSms sms = new OutboundSms(phoneNumber, fishId, kind, body, partCount, now);
+                AppDatabase db = AppDatabase.getDatabase(appContext);
+                long id = db.smsOutboxDao().enqueue(sms, replaceQueued);
+                if (OutboundSms.KIND_SCHEDULE.equals(kind)) {
+                    // The feeder resets its delta version on a text schedule
+                    db.feederSyncDao().forget(phoneNumber, now);
+                }
+                Log.d(TAG, "Queued " + kind + " #" + id + " for " + phoneNumber + " (" + partCount + " parts)");
+                SmsDispatchWorker.schedule(appContext, 0);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to queue SMS: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private static int partCount(String body) {
+        return SmsManager.getDefault().divideMessage(body).size();
+    }
+
+    private SmsOutbox() {
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.myapplication.sms;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.provider.Telephony;
+import android.telephony.SmsMessage;
+import android.util.Log;
+
+/**
+ * Receives incoming SMS and hands them to {@link FeederReplies}, which keeps the ones that
+ * come from feeders. The parts of a long message arrive in one broadcast and are joined
+ * per sender.
+ */
+public class SmsReplyReceiver extends BroadcastReceiver {
+    private static final String TAG = "SmsReplyReceiver";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!Telephony.Sms.Intents.SMS_RECEIVED_ACTION.equals(intent.getAction())) return;
+        SmsMessage[] messages = Telephony.Sms.Intents.getMessagesFromIntent(intent);
+        if (messages == null || messages.length == 0) return;
+
+        long now = System.currentTimeMillis();
+        String sender = null;
+        StringBuilder body = new StringBuilder();
+        for (SmsMessage message : messages) {
+            if (message == null) continue;
+            String from = message.getOriginatingAddress();
+            if (sender != null && !sender.equals(from)) {
+                FeederReplies.record(context, sender, body.toString(), now, null);
+                body.setLength(0);
+            }
+            sender = from;
+            body.append(message.getMessageBody());
+        }
+        if (sender == null) return;
+
+        Log.d(TAG, "SMS from " + sender + " (" + messages.length + " parts)");
+        // Keeps the process alive until the reply is written; the batch finishes it
+        FeederReplies.record(context, sender, body.toString(), now, goAsync());
+    }
+}
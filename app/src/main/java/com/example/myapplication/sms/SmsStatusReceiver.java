@@ -0,0 +1,112 @@
+package com.example.myapplication.sms;
+
+import android.app.Activity;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Build;
+import android.telephony.SmsMessage;
+import android.util.Log;
+
+import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.SmsOutboxDao;
+
+/**
+ * Receives the per-part sent and delivery broadcasts of {@link SmsDispatchWorker}'s messages
+ * and records them in the outbox. A failed part sends the message back to the queue.
+ */
+public class SmsStatusReceiver extends BroadcastReceiver {
+    private static final String TAG = "SmsStatusReceiver";
+
+    static final String ACTION_SENT = "com.example.myapplication.sms.SENT";
+    static final String ACTION_DELIVERED = "com.example.myapplication.sms.DELIVERED";
+    private static final String EXTRA_ID = "smsId";
+    private static final String EXTRA_ATTEMPT = "attempt";
+
+    // GSM TP-Status: below 0x20 delivered, 0x20-0x3F still trying, 0x40 and up failed
+    private static final int STATUS_PENDING_MIN = 0x20;
+    private static final int STATUS_FAILED_MIN = 0x40;
+
+    static PendingIntent sentIntent(Context context, long id, int attempt, int part) {
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            flags |= PendingIntent.FLAG_IMMUTABLE;
+        }
+        return PendingIntent.getBroadcast(context, 0, intent(context, ACTION_SENT, id, attempt, part), flags);
+    }
+
+    static PendingIntent deliveredIntent(Context context, long id, int attempt, int part) {
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            // The radio adds the status report to the intent; it is explicit, so this is safe
+            flags |= PendingIntent.FLAG_MUTABLE;
+        }
+        return PendingIntent.getBroadcast(context, 0, intent(context, ACTION_DELIVERED, id, attempt, part), flags);
+    }
+
+    private static Intent intent(Context context, String action, long id, int attempt, int part) {
+        return new Intent(context, SmsStatusReceiver.class)
+                .setAction(action)
+                // Gives every part its own PendingIntent instead of one shared by all of them
+                .setData(Uri.parse("sms-outbox://" + id + "/" + attempt + "/" + part))
+                .putExtra(EXTRA_ID, id)
+                .putExtra(EXTRA_ATTEMPT, attempt);
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        long id = intent.getLongExtra(EXTRA_ID, -1);
+        int attempt = intent.getIntExtra(EXTRA_ATTEMPT, -1);
+        if (id < 0 || attempt < 0) return;
+
+        int resultCode = getResultCode();
+        int deliveryStatus = ACTION_DELIVERED.equals(action) ? readDeliveryStatus(intent) : 0;
+        Context appContext = context.getApplicationContext();
+        PendingResult pendingResult = goAsync();
+        AppDatabase.writeLane.execute(() -> {
+            try {
+                SmsOutboxDao dao = AppDatabase.getDatabase(appContext).smsOutboxDao();
+                long now = System.currentTimeMillis();
+                if (ACTION_SENT.equals(action)) {
+                    if (resultCode == Activity.RESULT_OK) {
+                        dao.markPartSent(id, attempt, now);
+                    } else if (dao.markAttemptFailed(id, attempt, "Send failed, result " + resultCode, now)) {
+                        Log.e(TAG, "SMS #" + id + " attempt " + attempt + " failed with result " + resultCode);
+                        SmsDispatchWorker.schedule(appContext, 0);
+                    }
+                } else if (ACTION_DELIVERED.equals(action)) {
+                    if (deliveryStatus >= STATUS_FAILED_MIN) {
+                        if (dao.markDeliveryFailed(id, attempt, "Delivery failed, status " + deliveryStatus, now)) {
+                            Log.e(TAG, "SMS #" + id + " attempt " + attempt + " was not delivered");
+                            SmsDispatchWorker.schedule(appContext, 0);
+                        }
+                    } else if (deliveryStatus < STATUS_PENDING_MIN) {
+                        dao.markPartDelivered(id, attempt, now);
+                    }
+                }
+                // A delivered or finally failed schedule updates what the feeder is known to hold
+                AppDatabase.getDatabase(appContext).feederSyncDao().settle(id, now);
+                // A delivered feed now command is the feeder's acknowledgement in the feeding ledger
+                AppDatabase.getDatabase(appContext).feedEventDao().acknowledgeIfDelivered(id, now);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to record SMS status: " + e.getMessage(), e);
+            } finally {
+                pendingResult.finish();
+            }
+        });
+    }
+
+    // Status of a GSM delivery report; 0 (delivered) when the report cannot be read
+    private static int readDeliveryStatus(Intent intent) {
+        byte[] pdu = intent.getByteArrayExtra("pdu");
+        String format = intent.getStringExtra("format");
+        if (pdu == null || (format != null && !"3gpp".equals(format))) return 0;
+        SmsMessage report = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M
+                ? SmsMessage.createFromPdu(pdu, format != null ? format : "3gpp")
+                : SmsMessage.createFromPdu(pdu);
+        return report != null ? report.getStatus() : 0;
+    }
+}
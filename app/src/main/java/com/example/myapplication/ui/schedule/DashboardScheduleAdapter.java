@@ -0,0 +1,124 @@
+package com.example.myapplication.ui.schedule;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.myapplication.R;
+import com.example.myapplication.database.FeedingSchedule;
+import com.example.myapplication.database.ScheduleGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows the dashboard's feeding schedules as a flat list of group headers and feeding
+ * times. Rows are built with {@link #buildRows} off the main thread, and ListAdapter diffs
+ * each new list in the background so only changed rows are rebound.
+ */
+public class DashboardScheduleAdapter extends ListAdapter<DashboardScheduleAdapter.Row, DashboardScheduleAdapter.ViewHolder> {
+    static final int TYPE_HEADER = 0;
+    static final int TYPE_TIME = 1;
+    static final int TYPE_EMPTY = 2;
+
+    /**
+     * One line of the list. The key identifies the row across updates; the text is
+     * everything it displays, so equal text means nothing to rebind.
+     */
+    public static final class Row {
+        final int type;
+        final String key;
+        final String text;
+
+        Row(int type, String key, String text) {
+            this.type = type;
+            this.key = key;
+            this.text = text;
+        }
+
+        public boolean isHeader() {
+            return type == TYPE_HEADER;
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<Row> DIFF_CALLBACK = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.type == newItem.type && oldItem.key.equals(newItem.key);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.text.equals(newItem.text);
+        }
+    };
+
+    public DashboardScheduleAdapter() {
+        super(DIFF_CALLBACK);
+    }
+
+    /**
+     * Flattens schedule groups into header and time rows. Safe to call on any thread.
+     */
+    public static List<Row> buildRows(List<ScheduleGroup> groups) {
+        List<Row> rows = new ArrayList<>();
+        if (groups == null || groups.isEmpty()) {
+            rows.add(new Row(TYPE_EMPTY, "empty", "No feeding schedules found"));
+            return rows;
+        }
+
+        for (ScheduleGroup group : groups) {
+            String key = group.getKey();
+            rows.add(new Row(TYPE_HEADER, key, group.getScheduleName() + "\n" + group.getDateRangeLabel()));
+            for (FeedingSchedule schedule : group.getSchedules()) {
+                rows.add(new Row(TYPE_TIME, key + "_" + schedule.getFeedingMinuteOfDay(),
+                        "• " + schedule.getFeedingTime() + " - " + schedule.getFeedQuantity() + "g"));
+            }
+        }
+        return rows;
+    }
+
+    /** Number of schedule groups in a list made by {@link #buildRows} */
+    public static int countGroups(List<Row> rows) {
+        int groups = 0;
+        for (Row row : rows) {
+            if (row.isHeader()) groups++;
+        }
+        return groups;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return getItem(position).type;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        int layout = viewType == TYPE_HEADER
+                ? R.layout.item_dashboard_schedule_header
+                : R.layout.item_dashboard_schedule_time;
+        View view = LayoutInflater.from(parent.getContext()).inflate(layout, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.textView.setText(getItem(position).text);
+    }
+
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView textView;
+
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            textView = (TextView) itemView;
+        }
+    }
+}
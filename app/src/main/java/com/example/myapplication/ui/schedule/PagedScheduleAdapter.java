@@ -0,0 +1,122 @@
+package com.example.myapplication.ui.schedule;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataAdapter;
+import androidx.paging.PagingDataTransforms;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.example.myapplication.R;
+import com.example.myapplication.database.FeedingSchedule;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Shows schedule rows loaded a page at a time, with a header above each named date range.
+ * Headers are inserted between loaded rows by {@link #withHeaders}, so a schedule whose
+ * feeding times span two pages still gets a single header.
+ */
+public class PagedScheduleAdapter extends PagingDataAdapter<PagedScheduleAdapter.Item, DashboardScheduleAdapter.ViewHolder> {
+    // Header and row text are built off the main thread, one page at a time
+    private static final Executor TRANSFORMS = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "schedule-pages");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A header or a feeding time; the key identifies it across reloads and the group key
+     * names the fish's schedule and date range it belongs to.
+     */
+    public static final class Item {
+        final boolean header;
+        final String key;
+        final String groupKey;
+        final String text;
+        final String scheduleName;
+        final long startDate;
+        final long endDate;
+
+        Item(boolean header, String key, String groupKey, String text, String scheduleName,
+             long startDate, long endDate) {
+            this.header = header;
+            this.key = key;
+            this.groupKey = groupKey;
+            this.text = text;
+            this.scheduleName = scheduleName;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<Item> DIFF_CALLBACK = new DiffUtil.ItemCallback<Item>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.header == newItem.header && oldItem.key.equals(newItem.key);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.text.equals(newItem.text);
+        }
+    };
+
+    public PagedScheduleAdapter() {
+        super(DIFF_CALLBACK);
+    }
+
+    /** Turns schedule rows into feeding time items with a header wherever the date range changes */
+    public static PagingData<Item> withHeaders(PagingData<FeedingSchedule> schedules) {
+        PagingData<Item> times = PagingDataTransforms.map(schedules, TRANSFORMS, schedule -> {
+            String groupKey = schedule.getFishId() + "_" + schedule.getScheduleName() + "_"
+                    + schedule.getStartDate() + "_" + schedule.getEndDate();
+            return new Item(false, String.valueOf(schedule.getId()), groupKey,
+                    "• " + schedule.getFeedingTime() + " - " + schedule.getFeedQuantity() + "g",
+                    schedule.getScheduleName(), schedule.getStartDate(), schedule.getEndDate());
+        });
+        return PagingDataTransforms.insertSeparators(times, TRANSFORMS, (before, after) -> {
+            if (after == null || (before != null && before.groupKey.equals(after.groupKey))) return null;
+            return header(after);
+        });
+    }
+
+    // The header for the group the first item belongs to
+    private static Item header(Item first) {
+        // SimpleDateFormat is not thread-safe, so each header gets its own
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+        String range = dateFormat.format(new Date(first.startDate)) + " - "
+                + dateFormat.format(new Date(first.endDate));
+        return new Item(true, first.groupKey, first.groupKey, first.scheduleName + "\n" + range,
+                first.scheduleName, first.startDate, first.endDate);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        Item item = getItem(position);
+        return item != null && item.header ? DashboardScheduleAdapter.TYPE_HEADER : DashboardScheduleAdapter.TYPE_TIME;
+    }
+
+    @NonNull
+    @Override
+    public DashboardScheduleAdapter.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        int layout = viewType == DashboardScheduleAdapter.TYPE_HEADER
+                ? R.layout.item_dashboard_schedule_header
+                : R.layout.item_dashboard_schedule_time;
+        View view = LayoutInflater.from(parent.getContext()).inflate(layout, parent, false);
+        return new DashboardScheduleAdapter.ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull DashboardScheduleAdapter.ViewHolder holder, int position) {
+        Item item = getItem(position);
+        holder.textView.setText(item != null ? item.text : "");
+    }
+}
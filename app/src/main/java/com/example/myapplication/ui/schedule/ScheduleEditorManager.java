@@ -17,13 +17,9 @@ import com.example.myapplication.utils.SmsUtils;
 import com.example.myapplication.viewmodel.AquacultureViewModel;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * Manages the schedule editor functionality
@@ -128,8 +124,8 @@ public class ScheduleEditorManager {
         }
 
         // Only check for existing schedules if creating a new schedule
-        viewModel.getSchedulesForDateRange(selectedFish.id, currentStartDate, currentEndDate)
-            .observe(activity, existingSchedules -> {
+        viewModel.loadSchedulesForDateRange(selectedFish.id, currentStartDate, currentEndDate,
+            existingSchedules -> {
                 if (existingSchedules != null && !existingSchedules.isEmpty()) {
                     Toast.makeText(activity, "A schedule already exists for this date range", Toast.LENGTH_SHORT).show();
                 } else {
@@ -223,17 +219,7 @@ public class ScheduleEditorManager {
         }
         
         // Sort schedules by time
-        Collections.sort(schedules, (s1, s2) -> {
-            try {
-                SimpleDateFormat parser = new SimpleDateFormat("h:mm a", Locale.getDefault());
-                Date time1 = parser.parse(s1.getFeedingTime());
-                Date time2 = parser.parse(s2.getFeedingTime());
-                return time1.compareTo(time2);
-            } catch (ParseException e) {
-                Log.e("TimeSort", "Error parsing time", e);
-                return 0;
-            }
-        });
+        Collections.sort(schedules, FeedingSchedule.BY_FEEDING_TIME);
         
         return schedules;
     }
@@ -252,27 +238,26 @@ public class ScheduleEditorManager {
         
         // If editing existing schedule, use updateSchedulesForDateRange instead of saveFeedingSchedules
         if (isEditingExistingSchedule) {
-            viewModel.updateSchedulesForDateRange(
+            // Toasted and sent once the update has committed and changed something
+            activity.whenSchedulesSaved(viewModel.updateSchedulesForDateRange(
                 selectedFish.id,
                 currentStartDate,
                 currentEndDate,
                 schedules
-            );
-        } else {
-            viewModel.saveFeedingSchedules(schedules);
+            ), selectedFish.id, schedules, "Schedule updated successfully!", this::hideDailyScheduleEditor);
+            return;
         }
+        viewModel.saveFeedingSchedules(schedules);
         
         // Get fish info to check for phone number
-        viewModel.getFishById(selectedFish.id).observe(activity, fish -> {
+        viewModel.loadFishById(selectedFish.id, fish -> {
             if (fish != null && !TextUtils.isEmpty(fish.getPhoneNumber())) {
                 // Send SMS notification for the schedule (both new and edited)
-                SmsUtils.sendScheduleNotification(activity, fish.getPhoneNumber(), fish.getName(), schedules);
+                SmsUtils.sendScheduleNotification(activity, fish, schedules);
             }
             
             hideDailyScheduleEditor();
-            Toast.makeText(activity, isEditingExistingSchedule ? 
-                "Schedule updated successfully!" : 
-                "Schedule saved successfully!", Toast.LENGTH_SHORT).show();
+            Toast.makeText(activity, "Schedule saved successfully!", Toast.LENGTH_SHORT).show();
         });
     }
 
@@ -3,204 +3,252 @@ package com.example.myapplication.viewmodel;
 import android.app.Application;
 import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
+import androidx.arch.core.util.Function;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
-import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.AquacultureRepository;
+import com.example.myapplication.database.DashboardSummary;
+import com.example.myapplication.database.FeedDailyRollup;
+import com.example.myapplication.database.FeedWeeklyRollup;
+import com.example.myapplication.database.FeederReplyStats;
+import com.example.myapplication.database.FeederSmsStats;
 import com.example.myapplication.database.Fish;
-import com.example.myapplication.database.FishDao;
+import com.example.myapplication.database.FishGrowth;
 import com.example.myapplication.database.FeedingSchedule;
-import com.example.myapplication.database.FeedingScheduleDao;
+import com.example.myapplication.database.MaintenanceReport;
+import com.example.myapplication.database.OneShotCallback;
+import com.example.myapplication.database.SamplePageCallback;
+import com.example.myapplication.database.ScheduleChanges;
+import com.example.myapplication.database.ScheduleGroup;
+import com.example.myapplication.sms.FleetBroadcastSummary;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class AquacultureViewModel extends AndroidViewModel {
-    private FishDao fishDao;
-    private FeedingScheduleDao feedingScheduleDao;
-    private LiveData<List<Fish>> allFish;
-    private ExecutorService executor;
+    private AquacultureRepository repository;
+    private volatile boolean cleared;
+    // The schedule history's pages for one fish, kept across configuration changes
+    private long pagedFishId;
+    private LiveData<PagingData<FeedingSchedule>> pagedSchedules;
     
     public AquacultureViewModel(Application application) {
         super(application);
-        AppDatabase db = AppDatabase.getDatabase(application);
-        fishDao = db.fishDao();
-        feedingScheduleDao = db.feedingScheduleDao();
-        allFish = fishDao.getAllFish();
-        executor = Executors.newSingleThreadExecutor();
+        repository = new AquacultureRepository(application);
     }
     
     // Fish operations
     public LiveData<List<Fish>> getAllFish() {
-        return allFish;
+        return repository.getAllFish();
     }
     
     public LiveData<Fish> getFishById(long id) {
-        return fishDao.getFishById(id);
+        return repository.getFishById(id);
     }
     
     public LiveData<Fish> getFishByName(String name) {
-        return fishDao.getFishByName(name);
+        return repository.getFishByName(name);
     }
     
     public void insert(Fish fish) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            fishDao.insert(fish);
-        });
-    }
-    
-    public void update(Fish fish) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            fishDao.update(fish);
-        });
+        repository.insert(fish);
     }
     
     public void delete(Fish fish) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            fishDao.delete(fish);
-        });
+        repository.delete(fish);
     }
     
     public void deleteAllFish() {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            fishDao.deleteAll();
-        });
+        repository.deleteAllFish();
+    }
+    
+    public void deleteFishByIds(List<Long> ids) {
+        repository.deleteFishByIds(ids);
     }
     
     // Updated Feeding Schedule operations
     public LiveData<List<FeedingSchedule>> getAllSchedulesForFish(long fishId) {
-        return feedingScheduleDao.getAllSchedulesForFish(fishId);
+        return repository.getAllSchedulesForFish(fishId);
+    }
+    
+    public LiveData<List<ScheduleGroup>> getScheduleGroupsForFish(long fishId) {
+        return repository.getScheduleGroupsForFish(fishId);
+    }
+    
+    public LiveData<List<ScheduleGroup>> getCurrentScheduleGroupsForFish(long fishId, long since) {
+        return repository.getCurrentScheduleGroupsForFish(fishId, since);
+    }
+    
+    /** The fish's schedule rows by start date, loaded a page at a time; -1 for every fish */
+    public LiveData<PagingData<FeedingSchedule>> getPagedSchedules(long fishId) {
+        if (pagedSchedules == null || pagedFishId != fishId) {
+            pagedFishId = fishId;
+            pagedSchedules = PagingLiveData.cachedIn(PagingLiveData.getLiveData(repository.pageSchedules(fishId)),
+                    ViewModelKt.getViewModelScope(this));
+        }
+        return pagedSchedules;
     }
     
     public LiveData<List<FeedingSchedule>> getSchedulesForDateRange(long fishId, long startDate, long endDate) {
-        return feedingScheduleDao.getSchedulesForDateRange(fishId, startDate, endDate);
+        return repository.getSchedulesForDateRange(fishId, startDate, endDate);
     }
     
     public LiveData<List<FeedingSchedule>> getSchedulesForDate(long fishId, long date) {
-        return feedingScheduleDao.getSchedulesForDate(fishId, date);
+        return repository.getSchedulesForDate(fishId, date);
     }
     
     public LiveData<List<FeedingSchedule>> getSchedulesByName(long fishId, String scheduleName) {
-        return feedingScheduleDao.getSchedulesByName(fishId, scheduleName);
+        return repository.getSchedulesByName(fishId, scheduleName);
     }
     
     public void saveFeedingSchedule(FeedingSchedule schedule) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            feedingScheduleDao.insert(schedule);
-        });
+        repository.saveFeedingSchedule(schedule);
     }
     
     public void saveFeedingSchedules(List<FeedingSchedule> schedules) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            feedingScheduleDao.insertAll(schedules);
-        });
+        repository.saveFeedingSchedules(schedules);
     }
     
     public LiveData<Boolean> deleteSchedulesForDateRange(long fishId, long startDate, long endDate) {
-        MutableLiveData<Boolean> result = new MutableLiveData<>();
-        executor.execute(() -> {
-            try {
-                feedingScheduleDao.deleteSchedulesForDateRange(fishId, startDate, endDate);
-                result.postValue(true);
-            } catch (Exception e) {
-                result.postValue(false);
-            }
-        });
-        return result;
+        return repository.deleteSchedulesForDateRange(fishId, startDate, endDate);
     }
     
     public LiveData<List<FeedingSchedule>> getAllSchedules() {
-        return feedingScheduleDao.getAllSchedules();
+        return repository.getAllSchedules();
     }
     
     public void deleteFeedingSchedule(FeedingSchedule schedule) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            feedingScheduleDao.delete(schedule);
-        });
+        repository.deleteFeedingSchedule(schedule);
     }
     
-    public void updateFeedingSchedule(FeedingSchedule schedule) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            feedingScheduleDao.update(schedule);
-        });
-    }
-    
-    public void updateSchedulesForDateRange(long fishId, long startDate, long endDate, List<FeedingSchedule> newSchedules) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            try {
-                // Log deletion parameters for debugging
-                Log.d("AquacultureViewModel", "Updating schedules - fishId: " + fishId + 
-                      ", startDate: " + startDate + ", endDate: " + endDate);
-                
-                if (newSchedules.isEmpty()) {
-                    Log.d("AquacultureViewModel", "No new schedules to add, aborting update");
-                    return;
-                }
-                
-                String scheduleName = newSchedules.get(0).getScheduleName();
-                
-                // Use more specific deletion query
-                int deletedCount = feedingScheduleDao.deleteSchedulesByNameAndDateRange(
-                    fishId, scheduleName, startDate, endDate);
-                Log.d("AquacultureViewModel", "Deleted " + deletedCount + " schedules");
-                
-                // Then insert new schedules
-                Log.d("AquacultureViewModel", "Inserting " + newSchedules.size() + " new schedules");
-                feedingScheduleDao.insertAll(newSchedules);
-                
-                // Clean up any duplicates that might have been created
-                int removedDuplicates = feedingScheduleDao.removeDuplicateSchedulesForFish(fishId);
-                Log.d("AquacultureViewModel", "Removed " + removedDuplicates + " duplicate schedules");
-                
-            } catch (Exception e) {
-                Log.e("AquacultureViewModel", "Error updating schedules: " + e.getMessage(), e);
-            }
-        });
+    public void runMaintenance(OneShotCallback<MaintenanceReport> callback) {
+        repository.runMaintenance(untilCleared(callback));
     }
     
-    /**
-     * Cleans up duplicate schedules for a specific fish
-     */
-    public LiveData<Integer> cleanupDuplicateSchedulesForFish(long fishId) {
-        MutableLiveData<Integer> result = new MutableLiveData<>();
-        executor.execute(() -> {
-            try {
-                int count = feedingScheduleDao.removeDuplicateSchedulesForFish(fishId);
-                result.postValue(count);
-            } catch (Exception e) {
-                Log.e("AquacultureViewModel", "Error cleaning up duplicates: " + e.getMessage(), e);
-                result.postValue(0);
-            }
-        });
-        return result;
+    public void updateFeedingSchedule(FeedingSchedule schedule) {
+        repository.updateFeedingSchedule(schedule);
     }
     
     /**
-     * Cleans up all duplicate schedules in the database
+     * Replaces one named schedule's feeding times in a single transaction. The returned
+     * LiveData receives the changed row counts, or null if the update failed.
      */
-    public LiveData<Integer> cleanupAllDuplicateSchedules() {
-        MutableLiveData<Integer> result = new MutableLiveData<>();
-        executor.execute(() -> {
-            try {
-                int count = feedingScheduleDao.removeDuplicateSchedules();
-                result.postValue(count);
-            } catch (Exception e) {
-                Log.e("AquacultureViewModel", "Error cleaning up all duplicates: " + e.getMessage(), e);
-                result.postValue(0);
-            }
-        });
-        return result;
+    public LiveData<ScheduleChanges> updateSchedulesForDateRange(long fishId, long startDate, long endDate,
+                                                                 List<FeedingSchedule> newSchedules) {
+        return repository.replaceSchedules(fishId, startDate, endDate, newSchedules);
     }
     
     public LiveData<Long> getFishIdByName(String name) {
-        return fishDao.getFishIdByName(name);
+        return repository.getFishIdByName(name);
+    }
+    
+    public LiveData<DashboardSummary> getDashboardSummary(String fishName, long date) {
+        return repository.getDashboardSummary(fishName, date);
+    }
+    
+    public void saveMeasurement(Fish fish) {
+        repository.saveMeasurement(fish);
+    }
+    
+    public void streamSamples(long fishId, long fromTimestamp, long toTimestamp, int pageSize,
+                              SamplePageCallback callback) {
+        // A page arriving after the ViewModel is cleared is dropped, which ends the stream
+        repository.streamSamples(fishId, fromTimestamp, toTimestamp, pageSize,
+                (page, last) -> !cleared && callback.onPage(page, last));
+    }
+    
+    public void loadGrowthProjections(OneShotCallback<List<FishGrowth>> callback) {
+        repository.loadGrowthProjections(untilCleared(callback));
+    }
+    
+    public void loadSuggestedFeedQuantity(long fishId, long date, int feedingsPerDay,
+                                          OneShotCallback<Float> callback) {
+        repository.loadSuggestedFeedQuantity(fishId, date, feedingsPerDay, untilCleared(callback));
+    }
+    
+    public LiveData<List<FeedDailyRollup>> getDailyFeedHistory(long fishId, long fromDate, long toDate) {
+        return repository.getDailyFeedHistory(fishId, fromDate, toDate);
+    }
+    
+    public LiveData<List<FeedWeeklyRollup>> getWeeklyFeedHistory(long fishId, long fromDate, long toDate) {
+        return repository.getWeeklyFeedHistory(fishId, fromDate, toDate);
+    }
+    
+    public LiveData<List<FeederSmsStats>> getFeederSmsStats(long since) {
+        return repository.getFeederSmsStats(since);
+    }
+    
+    public LiveData<List<FeederReplyStats>> getFeederReplyStats(long since) {
+        return repository.getFeederReplyStats(since);
+    }
+    
+    public LiveData<FleetBroadcastSummary> broadcastSchedules(Collection<Long> fishIds) {
+        return repository.broadcastSchedules(fishIds);
+    }
+    
+    public LiveData<FleetBroadcastSummary> broadcastTemplate(String scheduleName) {
+        return repository.broadcastTemplate(scheduleName);
+    }
+    
+    // One-shot reads: use these instead of observing a fresh LiveData for a single value
+    public void loadFishById(long id, OneShotCallback<Fish> callback) {
+        repository.loadFishById(id, untilCleared(callback));
+    }
+    
+    public void loadFishByName(String name, OneShotCallback<Fish> callback) {
+        repository.loadFishByName(name, untilCleared(callback));
+    }
+    
+    public void loadAllFish(OneShotCallback<List<Fish>> callback) {
+        repository.loadAllFish(untilCleared(callback));
+    }
+    
+    public void loadSchedulesForFish(long fishId, OneShotCallback<List<FeedingSchedule>> callback) {
+        repository.loadSchedulesForFish(fishId, untilCleared(callback));
+    }
+    
+    public void loadSchedulesForDateRange(long fishId, long startDate, long endDate,
+                                          OneShotCallback<List<FeedingSchedule>> callback) {
+        repository.loadSchedulesForDateRange(fishId, startDate, endDate, untilCleared(callback));
+    }
+    
+    public void loadSchedulesActiveOn(long fishId, long date, OneShotCallback<List<FeedingSchedule>> callback) {
+        repository.loadSchedulesActiveOn(fishId, date, untilCleared(callback));
+    }
+    
+    public void loadScheduleNames(OneShotCallback<List<String>> callback) {
+        repository.loadScheduleNames(untilCleared(callback));
+    }
+    
+    /** Maps each value of the source on a background thread; see the repository */
+    public <S, T> LiveData<T> mapInBackground(LiveData<S> source, Function<S, T> mapper) {
+        return repository.mapInBackground(source, mapper);
+    }
+    
+    /** Number of one-shot reads still in flight; returns to zero once every callback has run */
+    @VisibleForTesting
+    public static int getPendingOneShotReads() {
+        return AquacultureRepository.getPendingOneShotReads();
+    }
+    
+    // Results arriving after the ViewModel is cleared are dropped with their callback
+    private <T> OneShotCallback<T> untilCleared(OneShotCallback<T> callback) {
+        return result -> {
+            if (!cleared) {
+                callback.onResult(result);
+            }
+        };
     }
     
     @Override
     protected void onCleared() {
         super.onCleared();
-        executor.shutdown();
+        cleared = true;
+        Log.d("AquacultureViewModel", "Database lanes - " + AquacultureRepository.getLaneMetrics());
     }
-} 
\ No newline at end of file
+}
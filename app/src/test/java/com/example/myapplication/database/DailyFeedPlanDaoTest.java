@@ -0,0 +1,77 @@
+package com.example.myapplication.database;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static com.example.myapplication.database.TestDatabases.count;
+import static com.example.myapplication.database.TestDatabases.date;
+import static com.example.myapplication.database.TestDatabases.sum;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that daily_feed_plan follows the schedule rows it is written from.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class DailyFeedPlanDaoTest {
+    private AppDatabase db;
+    private FeedingScheduleDao schedules;
+    private DailyFeedPlanDao plan;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+        schedules = db.feedingScheduleDao();
+        plan = db.dailyFeedPlanDao();
+        // Fish 1, which the schedules below belong to
+        db.fishDao().insert(new Fish("Tilapia", 100, 100, 0, 0f, 0f, 0f, 1f, new Date(), new Date(), "", ""));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void planSchedules_writesOneRowPerDayAndRewritesOnUpdate() {
+        FeedingSchedule morning = save(new FeedingSchedule(1, "Week 1", date(5), date(11), "06:00 AM", 10f));
+        FeedingSchedule evening = save(new FeedingSchedule(1, "Week 1", date(5), date(11), "06:00 PM", 5f));
+
+        assertEquals(14, plan.planSchedules(Arrays.asList(morning, evening)));
+        assertEquals(15f, sum(db, "SELECT SUM(feedQuantity) FROM daily_feed_plan WHERE fishId = 1 AND day = "
+                + DailyFeedPlan.toDay(date(8))), 0.001f);
+
+        morning.setFeedQuantity(20f);
+        morning.setEndDate(date(6));
+        schedules.update(morning);
+        plan.planSchedules(Collections.singletonList(morning));
+
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM daily_feed_plan WHERE scheduleId = " + morning.getId()));
+        assertEquals(25f, sum(db, "SELECT SUM(feedQuantity) FROM daily_feed_plan WHERE fishId = 1 AND day = "
+                + DailyFeedPlan.toDay(date(6))), 0.001f);
+    }
+
+    @Test
+    public void deletingSchedule_removesItsDays() {
+        FeedingSchedule morning = save(new FeedingSchedule(1, "Week 1", date(5), date(11), "06:00 AM", 10f));
+        plan.planSchedules(Collections.singletonList(morning));
+
+        schedules.deleteSchedulesForDateRange(1, date(5), date(11));
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM daily_feed_plan"));
+    }
+
+    private FeedingSchedule save(FeedingSchedule schedule) {
+        schedule.setId(schedules.insert(schedule));
+        return schedule;
+    }
+}
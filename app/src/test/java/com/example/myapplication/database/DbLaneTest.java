@@ -0,0 +1,54 @@
+package com.example.myapplication.database;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that keyed writes on a lane run once, in the place of the newest submission.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class DbLaneTest {
+
+    @Test
+    public void executeLatest_runsOnlyTheNewestAndAnswersEveryCaller() throws Exception {
+        DbLane lane = new DbLane("test", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        List<String> answers = Collections.synchronizedList(new ArrayList<>());
+
+        lane.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        lane.executeLatest("fish/1", () -> record(ran, "first"), answers::add);
+        lane.execute(() -> ran.add("between"));
+        lane.executeLatest("fish/1", () -> record(ran, "second"), answers::add);
+        lane.executeLatest("fish/2", () -> record(ran, "other fish"), answers::add);
+        release.countDown();
+        lane.call(() -> null);
+
+        assertEquals(Arrays.asList("between", "second", "other fish"), ran);
+        assertEquals(Arrays.asList("second", "second", "other fish"), answers);
+        assertEquals(1, lane.getCoalescedCount());
+    }
+
+    private static String record(List<String> ran, String name) {
+        ran.add(name);
+        return name;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.myapplication.database;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static com.example.myapplication.database.TestDatabases.count;
+import static com.example.myapplication.database.TestDatabases.date;
+import static com.example.myapplication.database.TestDatabases.sum;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the feeding ledger's rollups follow the events appended to it.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class FeedEventDaoTest {
+    private AppDatabase db;
+    private FeedEventDao ledger;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+        ledger = db.feedEventDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void record_addsToDayAndWeekRollups() {
+        // May 5 2025 was a Monday; the 11th is the Sunday of the same week
+        int monday = DailyFeedPlan.toDay(date(5));
+        int sunday = DailyFeedPlan.toDay(date(11));
+        assertEquals(monday, DailyFeedPlan.weekStart(sunday));
+
+        ledger.record(new FeedEvent(1, FeedEvent.KIND_COMMANDED, monday, 360, 2f, 100, 0, 0));
+        ledger.record(new FeedEvent(1, FeedEvent.KIND_COMMANDED, monday, 720, 1f, 100, 0, 0));
+        ledger.record(new FeedEvent(1, FeedEvent.KIND_COMMANDED, sunday, 360, 2f, 100, 0, 0));
+
+        assertEquals(2, count(db, "SELECT eventCount FROM feed_daily_rollup WHERE day = " + monday));
+        assertEquals(300f, sum(db, "SELECT totalGrams FROM feed_daily_rollup WHERE day = " + monday), 0.001f);
+        assertEquals(3, count(db, "SELECT eventCount FROM feed_weekly_rollup WHERE weekStart = " + monday));
+        assertEquals(500f, sum(db, "SELECT totalGrams FROM feed_weekly_rollup WHERE weekStart = " + monday), 0.001f);
+        assertEquals(3, count(db, "SELECT COUNT(*) FROM feed_events"));
+    }
+
+    @Test
+    public void recordPlannedFeeds_recordsEachDayOnce() {
+        long fishId = db.fishDao().insert(new Fish("Tilapia", 100, 80, 20, 0f, 0f, 0f, 1f,
+                new Date(), new Date(), "", ""));
+        FeedingSchedule morning = new FeedingSchedule(fishId, "Week 1", date(5), date(11), "06:00 AM", 2f);
+        FeedingSchedule evening = new FeedingSchedule(fishId, "Week 1", date(5), date(11), "06:00 PM", 1f);
+        morning.setId(db.feedingScheduleDao().insert(morning));
+        evening.setId(db.feedingScheduleDao().insert(evening));
+        db.dailyFeedPlanDao().planSchedules(Arrays.asList(morning, evening));
+
+        assertEquals(6, ledger.recordPlannedFeeds(DailyFeedPlan.toDay(date(7)), 0));
+        assertEquals(0, ledger.recordPlannedFeeds(DailyFeedPlan.toDay(date(7)), 0));
+        assertEquals(8, ledger.recordPlannedFeeds(DailyFeedPlan.toDay(date(20)), 0));
+
+        assertEquals(240f, sum(db, "SELECT totalGrams FROM feed_daily_rollup WHERE kind = 'PLANNED' AND day = "
+                + DailyFeedPlan.toDay(date(6))), 0.001f);
+    }
+
+    @Test
+    public void acknowledgeIfDelivered_recordsOnceAfterDelivery() {
+        OutboundSms sms = new OutboundSms("09170000000", 1, OutboundSms.KIND_FEED_NOW, "FEED 2.0", 1, 0);
+        long smsId = db.smsOutboxDao().insert(sms);
+        ledger.record(FeedEvent.commanded(1, 2f, 100, smsId, 0));
+
+        assertFalse(ledger.acknowledgeIfDelivered(smsId, 0));
+
+        sms.setId(smsId);
+        sms.setStatus(OutboundSms.STATUS_DELIVERED);
+        db.smsOutboxDao().update(sms);
+
+        assertTrue(ledger.acknowledgeIfDelivered(smsId, 0));
+        assertFalse(ledger.acknowledgeIfDelivered(smsId, 0));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feed_events WHERE kind = 'ACKNOWLEDGED'"));
+        assertEquals(200f, sum(db, "SELECT totalGrams FROM feed_daily_rollup WHERE kind = 'ACKNOWLEDGED'"), 0.001f);
+    }
+}
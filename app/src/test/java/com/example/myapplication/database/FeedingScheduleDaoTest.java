@@ -0,0 +1,124 @@
+package com.example.myapplication.database;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static com.example.myapplication.database.TestDatabases.count;
+import static org.junit.Assert.*;
+
+/**
+ * Checks how schedule rows are written: one row per feeding time of a named schedule.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class FeedingScheduleDaoTest {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private AppDatabase db;
+    private FeedingScheduleDao schedules;
+    private long fishId;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+        schedules = db.feedingScheduleDao();
+        fishId = db.fishDao().insert(new Fish("Tilapia", 100, 100, 0, 0f, 0f, 0f, 1f, new Date(), new Date(), "", ""));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void replaceSchedules_writesOnlyTheDifference() {
+        schedules.insertAll(Arrays.asList(slot("06:00 AM", 10f), slot("12:00 PM", 8f), slot("06:00 PM", 5f)));
+        long noonId = idAt(12 * 60);
+        long eveningId = idAt(18 * 60);
+
+        // Noon requantified, evening unchanged, morning removed, night added
+        ScheduleChanges changes = schedules.replaceSchedules(fishId, "Week 1", 0, 6 * DAY_MS,
+                Arrays.asList(slot("12:00 PM", 9f), slot("06:00 PM", 5f), slot("09:00 PM", 2f)));
+
+        assertEquals(1, changes.getInserted());
+        assertEquals(1, changes.getUpdated());
+        assertEquals(1, changes.getDeleted());
+        assertEquals(1, changes.getUnchanged());
+        assertEquals(noonId, idAt(12 * 60));
+        assertEquals(eveningId, idAt(18 * 60));
+        assertEquals(9f, quantityAt(12 * 60), 0f);
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM feeding_schedules WHERE feedingMinuteOfDay = 360"));
+        assertEquals(3, count(db, "SELECT COUNT(*) FROM feeding_schedules"));
+
+        // The same list again changes nothing
+        assertFalse(schedules.replaceSchedules(fishId, "Week 1", 0, 6 * DAY_MS,
+                Arrays.asList(slot("12:00 PM", 9f), slot("06:00 PM", 5f), slot("09:00 PM", 2f))).hasChanges());
+    }
+
+    @Test
+    public void replaceSchedules_keepsTheLastEntryForARepeatedTime() {
+        schedules.insert(slot("06:00 AM", 10f));
+        long morningId = idAt(6 * 60);
+
+        // "6:00 AM" and "06:00 AM" are the same slot
+        ScheduleChanges changes = schedules.replaceSchedules(fishId, "Week 1", 0, 6 * DAY_MS,
+                Arrays.asList(slot("06:00 AM", 11f), slot("6:00 AM", 12f)));
+
+        assertEquals(0, changes.getInserted());
+        assertEquals(1, changes.getUpdated());
+        assertEquals(0, changes.getDeleted());
+        assertEquals(morningId, idAt(6 * 60));
+        assertEquals(12f, quantityAt(6 * 60), 0f);
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feeding_schedules"));
+    }
+
+    @Test
+    public void unreadableTimes_areRejectedBeforeAnyWrite() {
+        schedules.insert(slot("06:00 AM", 10f));
+
+        // Both would be minute -1 and so the same slot; neither may replace the other
+        try {
+            schedules.insertAll(Arrays.asList(slot("6 PM", 5f), slot("evening", 5f)));
+            fail("Unreadable times were inserted");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            schedules.replaceSchedules(fishId, "Week 1", 0, 6 * DAY_MS,
+                    Arrays.asList(slot("06:00 AM", 12f), slot("6 PM", 5f)));
+            fail("Unreadable times were saved");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feeding_schedules"));
+        assertEquals(10f, schedules.getSchedulesByNameAndDateRangeSync(fishId, "Week 1", 0, 6 * DAY_MS)
+                .get(0).getFeedQuantity(), 0f);
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM feeding_schedules WHERE feedingMinuteOfDay = -1"));
+    }
+
+    private long idAt(int minuteOfDay) {
+        return rowAt(minuteOfDay).getId();
+    }
+
+    private float quantityAt(int minuteOfDay) {
+        return rowAt(minuteOfDay).getFeedQuantity();
+    }
+
+    private FeedingSchedule rowAt(int minuteOfDay) {
+        for (FeedingSchedule schedule : schedules.getSchedulesByNameAndDateRangeSync(fishId, "Week 1", 0, 6 * DAY_MS)) {
+            if (schedule.getFeedingMinuteOfDay() == minuteOfDay) return schedule;
+        }
+        throw new AssertionError("No row at minute " + minuteOfDay);
+    }
+
+    private FeedingSchedule slot(String time, float grams) {
+        return new FeedingSchedule(fishId, "Week 1", 0, 6 * DAY_MS, time, grams);
+    }
+}
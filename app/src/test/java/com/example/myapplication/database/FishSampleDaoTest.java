@@ -0,0 +1,72 @@
+package com.example.myapplication.database;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that paging through fish_samples visits every sample in the range exactly once.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class FishSampleDaoTest {
+    private AppDatabase db;
+    private FishSampleDao samples;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+        samples = db.fishSampleDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void samplePages_continueAfterLastRowIncludingTies() {
+        Fish fish = new Fish("Tilapia", 100, 100, 0, 0f, 0f, 10f, 1f, new Date(), new Date(), "", "");
+        // Two samples per timestamp, so pages split rows that tie on time
+        for (int i = 0; i < 25; i++) {
+            samples.insert(new FishSample(1, fish, 1000 + i / 2));
+        }
+        samples.insert(new FishSample(2, fish, 1005));
+        // Just before the range
+        samples.insert(new FishSample(1, fish, 999));
+
+        List<Long> seen = new ArrayList<>();
+        long afterTimestamp = 1000 - 1;
+        long afterId = Long.MAX_VALUE;
+        int pages = 0;
+        while (true) {
+            List<FishSample> page = samples.getSamplePageSync(1, afterTimestamp, afterId, 1009, 4);
+            pages++;
+            for (FishSample sample : page) {
+                assertEquals(1, sample.getFishId());
+                seen.add(sample.getId());
+            }
+            if (page.size() < 4) break;
+            afterTimestamp = page.get(page.size() - 1).getTimestamp();
+            afterId = page.get(page.size() - 1).getId();
+        }
+
+        // Timestamps 1000 to 1009, two samples each
+        assertEquals(20, seen.size());
+        assertEquals(6, pages);
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1) < seen.get(i));
+        }
+        assertEquals(26, samples.countSamplesSync(1));
+    }
+}
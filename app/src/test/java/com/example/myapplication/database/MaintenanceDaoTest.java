@@ -0,0 +1,75 @@
+package com.example.myapplication.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static com.example.myapplication.database.TestDatabases.count;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the maintenance pass and the cascade from fish to their schedules.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class MaintenanceDaoTest {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private AppDatabase db;
+    private FeedingScheduleDao schedules;
+    private long fishId;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+        schedules = db.feedingScheduleDao();
+        fishId = db.fishDao().insert(new Fish("Tilapia", 100, 100, 0, 0f, 0f, 0f, 1f, new Date(), new Date(), "", ""));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void cleanUp_countsEachKindOfBadRow() {
+        schedules.insert(new FeedingSchedule(fishId, "Week 1", 10 * DAY_MS, 16 * DAY_MS, "06:00 AM", 10f));
+        schedules.insert(new FeedingSchedule(fishId, "Backwards", 16 * DAY_MS, 10 * DAY_MS, "06:00 AM", 10f));
+        // Rows the foreign key now rejects, as older databases still hold them
+        SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+        sql.execSQL("PRAGMA foreign_keys = OFF");
+        sql.execSQL("INSERT INTO feeding_schedules (fishId, scheduleName, startDate, endDate, feedingTime,"
+                + " feedingMinuteOfDay, feedQuantity) VALUES (-1, 'Draft', 0, 0, '06:00 AM', 360, 1)");
+        sql.execSQL("INSERT INTO feeding_schedules (fishId, scheduleName, startDate, endDate, feedingTime,"
+                + " feedingMinuteOfDay, feedQuantity) VALUES (999, 'Gone', 0, 0, '06:00 AM', 360, 1)");
+        sql.execSQL("PRAGMA foreign_keys = ON");
+
+        MaintenanceReport report = db.maintenanceDao().cleanUp();
+
+        assertEquals(1, report.unassignedSchedules);
+        assertEquals(1, report.orphanSchedules);
+        assertEquals(1, report.invertedSchedules);
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feeding_schedules"));
+        assertEquals(0, db.maintenanceDao().cleanUp().getTotal());
+    }
+
+    @Test
+    public void deletingFish_removesItsSchedulesAndPlannedDays() {
+        FeedingSchedule morning = new FeedingSchedule(fishId, "Week 1", 10 * DAY_MS, 16 * DAY_MS, "06:00 AM", 10f);
+        morning.setId(schedules.insert(morning));
+        db.dailyFeedPlanDao().planSchedules(Collections.singletonList(morning));
+
+        assertEquals(1, db.fishDao().deleteByIds(Collections.singletonList(fishId)));
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM feeding_schedules"));
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM daily_feed_plan"));
+    }
+}
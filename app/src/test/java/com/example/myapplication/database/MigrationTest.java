@@ -0,0 +1,247 @@
+package com.example.myapplication.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.room.migration.Migration;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the Room migrations on the JVM (Robolectric) against the schema JSON
+ * exported to app/schemas.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+    private static final int FIRST_MIGRATABLE_VERSION = 6;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrate6To7_backfillsFeedingMinuteOfDay() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 6);
+        long fishId = insertFish(db, "Tilapia");
+        insertSchedule(db, fishId, "5:00 AM");
+        insertSchedule(db, fishId, "09:30 PM");
+        insertSchedule(db, fishId, "12:15 AM");
+        insertSchedule(db, fishId, "12:45 PM");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 7, true, Migrations.MIGRATION_6_7);
+
+        assertEquals(300, minuteOfDay(db, "5:00 AM"));
+        assertEquals(21 * 60 + 30, minuteOfDay(db, "09:30 PM"));
+        assertEquals(15, minuteOfDay(db, "12:15 AM"));
+        assertEquals(12 * 60 + 45, minuteOfDay(db, "12:45 PM"));
+        db.close();
+    }
+
+    @Test
+    public void migrate8To9_keepsOneRowPerFeedingSlot() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 8);
+        long fishId = insertFish(db, "Tilapia");
+        db.execSQL("INSERT INTO feeding_schedules (fishId, scheduleName, startDate, endDate, feedingTime, "
+                + "feedingMinuteOfDay, feedQuantity) VALUES "
+                + "(" + fishId + ", 'Week 1', 1, 2, '5:00 AM', 300, 10),"
+                + "(" + fishId + ", 'Week 1', 1, 2, '5:00 AM', 300, 10),"
+                + "(" + fishId + ", 'Week 1', 1, 2, '6:00 AM', 360, 12)");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 9, true, Migrations.MIGRATION_8_9);
+
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM feeding_schedules"));
+        db.close();
+    }
+
+    @Test
+    public void migrate9To10_addsSmsOutbox() throws Exception {
+        helper.createDatabase(TEST_DB, 9).close();
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 10, true, Migrations.MIGRATION_9_10);
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM sms_outbox"));
+        db.close();
+    }
+
+    @Test
+    public void migrate10To11_defaultsFishToTextSms() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 10);
+        insertFish(db, "Tilapia");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 11, true, Migrations.MIGRATION_10_11);
+
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM fish WHERE smsFormat = " + Fish.SMS_FORMAT_TEXT));
+        db.close();
+    }
+
+    @Test
+    public void migrate11To12_addsFeederSyncState() throws Exception {
+        helper.createDatabase(TEST_DB, 11).close();
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 12, true, Migrations.MIGRATION_11_12);
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM feeder_sync_state"));
+        db.close();
+    }
+
+    @Test
+    public void migrate12To13_addsFeederEvents() throws Exception {
+        helper.createDatabase(TEST_DB, 12).close();
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 13, true, Migrations.MIGRATION_12_13);
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM feeder_events"));
+        db.close();
+    }
+
+    @Test
+    public void migrate13To14_writesOutScheduleDays() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 13);
+        long fishId = insertFish(db, "Bangus");
+        insertSchedule(db, fishId, "6:00 AM");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 14, true, Migrations.MIGRATION_13_14);
+
+        // Aug 24 to Aug 30, both included
+        assertEquals(7, count(db, "SELECT COUNT(*) FROM daily_feed_plan WHERE fishId = " + fishId));
+        assertEquals(7, count(db, "SELECT COUNT(DISTINCT day) FROM daily_feed_plan"));
+        db.close();
+    }
+
+    @Test
+    public void migrate14To15_addsFeedLedger() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 14);
+        long fishId = insertFish(db, "Bangus");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 15, true, Migrations.MIGRATION_14_15);
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM feed_events"));
+        db.execSQL("INSERT INTO feed_daily_rollup (fishId, kind, eventCount, gramsPerFish, totalGrams, day)"
+                + " VALUES (" + fishId + ", 'COMMANDED', 1, 2, 200, 9000)");
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feed_daily_rollup"));
+        db.close();
+    }
+
+    @Test
+    public void migrate15To16_keepsCurrentMeasurementAsFirstSample() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 15);
+        long fishId = insertFish(db, "Bangus");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 16, true, Migrations.MIGRATION_15_16);
+
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM fish_samples WHERE fishId = " + fishId));
+        db.close();
+    }
+
+    @Test
+    public void migrate16To17_dropsInvalidSchedulesAndAddsForeignKey() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 16);
+        long fishId = insertFish(db, "Bangus");
+        insertSchedule(db, fishId, "6:00 AM");
+        insertSchedule(db, 999, "7:00 AM");
+        db.execSQL("INSERT INTO feeding_schedules (fishId, scheduleName, startDate, endDate, feedingTime,"
+                + " feedQuantity) VALUES (" + fishId + ", 'Backwards', 1724976000000, 1724457600000, '8:00 AM', 10)");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 17, true, Migrations.MIGRATION_16_17);
+
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feeding_schedules"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feeding_schedules WHERE fishId = " + fishId
+                + " AND feedingTime = '6:00 AM' AND feedQuantity = 10"));
+        db.execSQL("PRAGMA foreign_keys = ON");
+        db.execSQL("DELETE FROM fish WHERE id = " + fishId);
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM feeding_schedules"));
+        db.close();
+    }
+
+    @Test
+    public void migrateFirstVersionToLatest_keepsFishAndSchedules() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, FIRST_MIGRATABLE_VERSION);
+        long fishId = insertFish(db, "Bangus");
+        insertSchedule(db, fishId, "6:00 AM");
+        db.close();
+
+        // Opening through Room runs every migration and validates the final schema
+        AppDatabase appDatabase = Room.databaseBuilder(
+                        ApplicationProvider.getApplicationContext(), AppDatabase.class, TEST_DB)
+                .addMigrations(Migrations.ALL)
+                .allowMainThreadQueries()
+                .build();
+        SupportSQLiteDatabase migrated = appDatabase.getOpenHelper().getWritableDatabase();
+
+        assertEquals(1, count(migrated, "SELECT COUNT(*) FROM fish WHERE name = 'Bangus'"));
+        assertEquals(1, count(migrated, "SELECT COUNT(*) FROM feeding_schedules WHERE fishId = " + fishId));
+        appDatabase.close();
+    }
+
+    @Test
+    public void migrationsAreContiguous() {
+        int expectedStart = FIRST_MIGRATABLE_VERSION;
+        for (Migration migration : Migrations.ALL) {
+            assertEquals(expectedStart, migration.startVersion);
+            assertEquals(expectedStart + 1, migration.endVersion);
+            expectedStart = migration.endVersion;
+        }
+    }
+
+    private static long insertFish(SupportSQLiteDatabase db, String name) {
+        ContentValues values = new ContentValues();
+        values.put("name", name);
+        values.put("totalCount", 100);
+        values.put("aliveCount", 95);
+        values.put("deadCount", 5);
+        values.put("averageLength", 0f);
+        values.put("averageWidth", 0f);
+        values.put("averageWeight", 0f);
+        values.put("feedPerFish", 0f);
+        values.put("notes", "");
+        values.put("phoneNumber", "");
+        return db.insert("fish", SQLiteDatabase.CONFLICT_NONE, values);
+    }
+
+    private static void insertSchedule(SupportSQLiteDatabase db, long fishId, String feedingTime) {
+        ContentValues values = new ContentValues();
+        values.put("fishId", fishId);
+        values.put("scheduleName", "Week 1");
+        values.put("startDate", 1724457600000L);
+        values.put("endDate", 1724976000000L);
+        values.put("feedingTime", feedingTime);
+        values.put("feedQuantity", 10f);
+        db.insert("feeding_schedules", SQLiteDatabase.CONFLICT_NONE, values);
+    }
+
+    private static int minuteOfDay(SupportSQLiteDatabase db, String feedingTime) {
+        try (Cursor cursor = db.query("SELECT feedingMinuteOfDay FROM feeding_schedules WHERE feedingTime = ?",
+                new Object[]{feedingTime})) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getInt(0);
+        }
+    }
+
+    private static int count(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getInt(0);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.myapplication.database;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the outbox state changes behind SMS dispatch: batching of queued schedules,
+ * per-part tracking, retries with backoff and stale status broadcasts.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class SmsOutboxDaoTest {
+    private static final String PHONE = "+639170000000";
+
+    private AppDatabase db;
+    private SmsOutboxDao dao;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+        dao = db.smsOutboxDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void enqueue_replacesQueuedScheduleForSameFish() {
+        long first = dao.enqueue(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE, "old", 1, 100), true);
+        long second = dao.enqueue(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE, "new", 2, 200), true);
+        long otherFish = dao.enqueue(new OutboundSms(PHONE, 2, OutboundSms.KIND_SCHEDULE, "other", 1, 300), true);
+
+        assertEquals(first, second);
+        assertNotEquals(first, otherFish);
+        OutboundSms sms = dao.getByIdSync(first);
+        assertEquals("new", sms.getBody());
+        assertEquals(2, sms.getPartCount());
+        assertEquals(100, sms.getCreatedAt());
+    }
+
+    @Test
+    public void allPartsSentAndDelivered_recordsTimestamps() {
+        long id = dao.insert(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE, "body", 2, 1000));
+        int attempt = dao.markSending(id, 2000).getAttempts();
+
+        assertTrue(dao.markPartSent(id, attempt, 2100));
+        assertEquals(OutboundSms.STATUS_SENDING, dao.getByIdSync(id).getStatus());
+        assertTrue(dao.markPartSent(id, attempt, 2200));
+        assertTrue(dao.markPartDelivered(id, attempt, 5000));
+        assertTrue(dao.markPartDelivered(id, attempt, 6000));
+
+        OutboundSms sms = dao.getByIdSync(id);
+        assertEquals(OutboundSms.STATUS_DELIVERED, sms.getStatus());
+        assertEquals(2200, sms.getSentAt());
+        assertEquals(6000, sms.getDeliveredAt());
+    }
+
+    @Test
+    public void failedAttempt_requeuesWithBackoffAndIgnoresStaleReports() {
+        long id = dao.insert(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE, "body", 1, 0));
+        int first = dao.markSending(id, 1000).getAttempts();
+        assertTrue(dao.markAttemptFailed(id, first, "radio off", 1000));
+
+        OutboundSms sms = dao.getByIdSync(id);
+        assertEquals(OutboundSms.STATUS_QUEUED, sms.getStatus());
+        assertEquals(1000 + OutboundSms.retryDelayMs(1), sms.getNextAttemptAt());
+
+        int second = dao.markSending(id, 40_000).getAttempts();
+        // A late broadcast from the first attempt changes nothing
+        assertFalse(dao.markPartSent(id, first, 40_100));
+        assertTrue(dao.markPartSent(id, second, 40_200));
+        assertEquals(OutboundSms.STATUS_SENT, dao.getByIdSync(id).getStatus());
+    }
+
+    @Test
+    public void deliveryFailureAfterSent_requeuesMessage() {
+        long id = dao.insert(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE, "body", 1, 0));
+        int attempt = dao.markSending(id, 1000).getAttempts();
+        assertTrue(dao.markPartSent(id, attempt, 1100));
+
+        // The sent broadcast came first, so only the delivery transition still applies
+        assertFalse(dao.markAttemptFailed(id, attempt, "late", 5000));
+        assertTrue(dao.markDeliveryFailed(id, attempt, "Delivery failed", 5000));
+
+        OutboundSms sms = dao.getByIdSync(id);
+        assertEquals(OutboundSms.STATUS_QUEUED, sms.getStatus());
+        assertEquals(5000 + OutboundSms.retryDelayMs(1), sms.getNextAttemptAt());
+    }
+
+    @Test
+    public void lastAttemptFailure_marksMessageFailed() {
+        long id = dao.insert(new OutboundSms(PHONE, 1, OutboundSms.KIND_FEED_NOW, "feed", 1, 0));
+        for (int i = 0; i < OutboundSms.MAX_ATTEMPTS; i++) {
+            int attempt = dao.markSending(id, i).getAttempts();
+            dao.markAttemptFailed(id, attempt, "error", i);
+        }
+
+        assertEquals(OutboundSms.STATUS_FAILED, dao.getByIdSync(id).getStatus());
+        assertNull(dao.getNextAttemptAtSync());
+    }
+
+    @Test
+    public void markSending_claimsOnlyQueuedMessagesAndReturnsLatestBody() {
+        long id = dao.enqueue(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE, "old", 1, 0), true);
+        // Folded in after the dispatcher read the queue
+        dao.enqueue(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE, "new", 1, 10), true);
+
+        OutboundSms claimed = dao.markSending(id, 1000);
+        assertEquals("new", claimed.getBody());
+        assertEquals(1, claimed.getAttempts());
+        // A second run reading the same snapshot cannot send it again
+        assertNull(dao.markSending(id, 1000));
+
+        long withdrawn = dao.insert(new OutboundSms(PHONE, 2, OutboundSms.KIND_SCHEDULE, "gone", 1, 0));
+        dao.deleteQueued(withdrawn);
+        assertNull(dao.markSending(withdrawn, 1000));
+    }
+
+    @Test
+    public void failQueued_failsOnlyMessagesNotYetClaimed() {
+        long tooLong = dao.insert(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE, "long", 31, 0));
+        long sending = dao.insert(new OutboundSms(PHONE, 2, OutboundSms.KIND_SCHEDULE, "body", 1, 0));
+        dao.markSending(sending, 1000);
+
+        assertEquals(1, dao.failQueued(tooLong, "31 parts"));
+        assertEquals(0, dao.failQueued(sending, "31 parts"));
+
+        OutboundSms sms = dao.getByIdSync(tooLong);
+        assertEquals(OutboundSms.STATUS_FAILED, sms.getStatus());
+        assertEquals("31 parts", sms.getLastError());
+        assertEquals(OutboundSms.STATUS_SENDING, dao.getByIdSync(sending).getStatus());
+        assertTrue(dao.getDueSync(Long.MAX_VALUE, 10).isEmpty());
+    }
+
+    @Test
+    public void retryDelay_doublesUpToCap() {
+        assertEquals(30_000L, OutboundSms.retryDelayMs(1));
+        assertEquals(60_000L, OutboundSms.retryDelayMs(2));
+        assertEquals(120_000L, OutboundSms.retryDelayMs(3));
+        assertEquals(30 * 60_000L, OutboundSms.retryDelayMs(20));
+    }
+}
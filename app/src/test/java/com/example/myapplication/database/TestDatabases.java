@@ -0,0 +1,46 @@
+package com.example.myapplication.database;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * In-memory databases for the Room tests, and single-value queries against them.
+ */
+public final class TestDatabases {
+    private TestDatabases() {
+    }
+
+    public static AppDatabase inMemory() {
+        return Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    // Midnight of the given day in May 2025
+    public static long date(int dayOfMonth) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2025, Calendar.MAY, dayOfMonth);
+        return calendar.getTimeInMillis();
+    }
+
+    public static int count(AppDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql, null)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getInt(0);
+        }
+    }
+
+    public static float sum(AppDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql, null)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getFloat(0);
+        }
+    }
+}
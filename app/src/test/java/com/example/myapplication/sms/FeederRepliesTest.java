@@ -0,0 +1,175 @@
+package com.example.myapplication.sms;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.FeederEvent;
+import com.example.myapplication.database.FeederSyncState;
+import com.example.myapplication.database.OutboundSms;
+import com.example.myapplication.database.TestDatabases;
+import com.example.schedulecore.CompactSchedule;
+import com.example.schedulecore.CompactScheduleCodec;
+import com.example.schedulecore.ScheduleDelta;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.example.myapplication.database.TestDatabases.count;
+import static org.junit.Assert.*;
+
+/**
+ * Parsing of the firmware's replies, and matching them to the schedule messages they answer.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class FeederRepliesTest {
+    private static final String PHONE = "+639170000000";
+    private static final String ACK_2 = "Schedule updated! Added 2 feeding times.";
+    private static final CompactSchedule SCHEDULE = new CompactSchedule(9367, 9373, Arrays.asList(
+            new CompactSchedule.Slot(5 * 60, 1180),
+            new CompactSchedule.Slot(21 * 60, 1150)));
+
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void parser_readsFirmwareReplies() {
+        assertEquals(FeederEvent.KIND_SCHEDULE_ACK, FeederReplyParser.parseKind(ACK_2));
+        assertEquals(2, FeederReplyParser.parseValue(ACK_2, FeederEvent.KIND_SCHEDULE_ACK));
+        String mismatch = " Schedule version mismatch, have v65535";
+        assertEquals(FeederEvent.KIND_VERSION_MISMATCH, FeederReplyParser.parseKind(mismatch));
+        assertEquals(65535, FeederReplyParser.parseValue(mismatch, FeederEvent.KIND_VERSION_MISMATCH));
+        assertEquals(FeederEvent.KIND_OTHER, FeederReplyParser.parseKind("Schedule updated"));
+        assertEquals(-1, FeederReplyParser.parseValue("Schedule updated! Added many", FeederEvent.KIND_SCHEDULE_ACK));
+        assertEquals(-1, FeederReplyParser.parseValue("Schedule updated! Added 99999999999", FeederEvent.KIND_SCHEDULE_ACK));
+    }
+
+    @Test
+    public void ack_promotesPendingScheduleAndRecordsRoundTrip() {
+        long id = sentSchedule(1_000);
+        pending(id);
+
+        FeederReplies.apply(db, PHONE, ACK_2, 5_000);
+
+        FeederSyncState state = db.feederSyncDao().getSync(PHONE);
+        assertEquals(CompactScheduleCodec.encode(SCHEDULE), state.getAckedSchedule());
+        assertEquals(0, state.getPendingSmsId());
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feeder_events WHERE smsId = " + id + " AND roundTripMs = 4000"));
+    }
+
+    @Test
+    public void ackWithOtherCount_forgetsFeederSchedule() {
+        long id = sentSchedule(1_000);
+        pending(id);
+
+        FeederReplies.apply(db, PHONE, "Schedule updated! Added 1 feeding times.", 5_000);
+
+        assertNull(db.feederSyncDao().getSync(PHONE).getAckedSchedule());
+        assertNull(db.feederSyncDao().getSync(PHONE).getPendingSchedule());
+    }
+
+    @Test
+    public void ackWithOtherCount_afterDelivery_forgetsFeederSchedule() {
+        long id = sentSchedule(1_000);
+        pending(id);
+        delivered(id, 2_000);
+        assertEquals(CompactScheduleCodec.encode(SCHEDULE), db.feederSyncDao().getSync(PHONE).getAckedSchedule());
+
+        FeederReplies.apply(db, PHONE, "Schedule updated! Added 1 feeding times.", 5_000);
+
+        assertNull(db.feederSyncDao().getSync(PHONE).getAckedSchedule());
+    }
+
+    @Test
+    public void refusedDelta_afterDelivery_isResentInFull() {
+        CompactSchedule base = new CompactSchedule(9367, 9373,
+                Collections.singletonList(new CompactSchedule.Slot(5 * 60, 1180)));
+        long id = sent(1_000, CompactScheduleCodec.encodeDelta(ScheduleDelta.between(base, SCHEDULE, 3)));
+        FeederSyncState state = new FeederSyncState(PHONE);
+        state.setFishId(1);
+        state.setAckedSchedule(CompactScheduleCodec.encode(base));
+        state.setAckedVersion(3);
+        state.setPendingSchedule(CompactScheduleCodec.encode(SCHEDULE));
+        state.setPendingVersion(4);
+        state.setPendingSmsId(id);
+        db.feederSyncDao().upsert(state);
+        delivered(id, 2_000);
+
+        long resent = FeederReplies.apply(db, PHONE, "Schedule version mismatch, have v2", 5_000);
+
+        assertNotEquals(0, resent);
+        assertEquals(CompactScheduleCodec.encode(SCHEDULE), db.smsOutboxDao().getByIdSync(resent).getBody());
+        state = db.feederSyncDao().getSync(PHONE);
+        assertNull(state.getAckedSchedule());
+        assertEquals(resent, state.getPendingSmsId());
+        assertEquals(0, state.getPendingVersion());
+    }
+
+    @Test
+    public void replies_answerOldestUnansweredMessageFirst() {
+        long first = sentSchedule(1_000);
+        long second = sentSchedule(2_000);
+
+        FeederReplies.apply(db, PHONE, ACK_2, 3_000);
+        FeederReplies.apply(db, PHONE, ACK_2, 4_000);
+        // Nothing is left to answer, and a reply outside the window answers nothing
+        FeederReplies.apply(db, PHONE, ACK_2, 4_000 + FeederReplies.REPLY_WINDOW_MS);
+
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feeder_events WHERE smsId = " + first + " AND receivedAt = 3000"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feeder_events WHERE smsId = " + second + " AND receivedAt = 4000"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM feeder_events WHERE smsId = 0"));
+    }
+
+    @Test
+    public void unrelatedSms_isNotRecorded() {
+        sentSchedule(1_000);
+
+        FeederReplies.apply(db, "+15550001111", "See you at 5?", 2_000);
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM feeder_events"));
+    }
+
+    private long sentSchedule(long sentAt) {
+        return sent(sentAt, CompactScheduleCodec.encode(SCHEDULE));
+    }
+
+    // A schedule message to PHONE whose parts were all sent at the given time
+    private long sent(long sentAt, String body) {
+        long id = db.smsOutboxDao().insert(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE,
+                body, 1, sentAt - 100));
+        int attempt = db.smsOutboxDao().markSending(id, sentAt - 50).getAttempts();
+        db.smsOutboxDao().markPartSent(id, attempt, sentAt);
+        return id;
+    }
+
+    // The delivery report, which settles the sync state before the feeder replies
+    private void delivered(long smsId, long at) {
+        int attempt = db.smsOutboxDao().getByIdSync(smsId).getAttempts();
+        assertTrue(db.smsOutboxDao().markPartDelivered(smsId, attempt, at));
+        db.feederSyncDao().settle(smsId, at);
+        assertEquals(0, db.feederSyncDao().getSync(PHONE).getPendingSmsId());
+    }
+
+    private void pending(long smsId) {
+        FeederSyncState state = new FeederSyncState(PHONE);
+        state.setFishId(1);
+        state.setPendingSchedule(CompactScheduleCodec.encode(SCHEDULE));
+        state.setPendingSmsId(smsId);
+        db.feederSyncDao().upsert(state);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.myapplication.sms;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.FeederSyncState;
+import com.example.myapplication.database.FeedingSchedule;
+import com.example.myapplication.database.Fish;
+import com.example.myapplication.database.OutboundSms;
+import com.example.myapplication.database.TestDatabases;
+import com.example.schedulecore.CompactScheduleCodec;
+import com.example.schedulecore.ScheduleMessageFormat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static com.example.myapplication.database.TestDatabases.count;
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Runs broadcasts from loading the fleet to queuing its messages, and checks what each fish
+ * is counted as in the summary.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class FleetBroadcastTest {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final String FEEDER_1 = "+639170000001";
+    private static final String FEEDER_2 = "+639170000002";
+    private static final String FEEDER_3 = "+639170000003";
+
+    private Context context;
+    private AppDatabase db;
+    private long now;
+    private long today;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        WorkManagerTestInitHelper.initializeTestWorkManager(context);
+        db = TestDatabases.inMemory();
+        now = System.currentTimeMillis();
+        today = now - now % DAY_MS;
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void broadcast_queuesEachFeederOnceAndCountsTheRest() throws Exception {
+        long tilapia = fish("Tilapia", FEEDER_1, now);
+        schedule(tilapia, "Week 1", -14, -8);
+        schedule(tilapia, "Week 2", -1, 5);
+        long bangus = fish("Bangus", FEEDER_2, now);
+        schedule(bangus, "Week 3", 7, 13);
+        // Older than Tilapia, which takes the feeder
+        long koi = fish("Koi", FEEDER_1, now - DAY_MS);
+        schedule(koi, "Week 2", -1, 5);
+        long carp = fish("Carp", FEEDER_3, now);
+        schedule(carp, "Week 2", -1, 5);
+        FeederSyncState held = new FeederSyncState(FEEDER_3);
+        held.setFishId(carp);
+        held.setAckedSchedule(CompactScheduleCodec.encode(ScheduleMessageFormat.toCompactSchedule(
+                db.feedingScheduleDao().getAllSchedulesForFishSync(carp))));
+        db.feederSyncDao().upsert(held);
+        long milkfish = fish("Milkfish", "", now);
+        schedule(milkfish, "Week 2", -1, 5);
+
+        FleetBroadcastSummary summary = awaitQueued(FleetBroadcast.sendToFish(context, db,
+                Arrays.asList(tilapia, bangus, koi, carp, milkfish)));
+
+        assertEquals(5, summary.getFishCount());
+        assertEquals(5, summary.getBuiltCount());
+        assertEquals(2, summary.getQueuedCount());
+        assertEquals(1, summary.getUnchangedCount());
+        assertEquals(2, summary.getSkippedCount());
+        assertEquals(0, summary.getFailedCount());
+        assertTrue(summary.getProblems().contains("Milkfish: no phone number"));
+        assertTrue(summary.getProblems().contains("Koi: shares feeder " + FEEDER_1 + " with a newer fish"));
+
+        // The current range for Tilapia, the upcoming one for Bangus
+        assertEquals(CompactScheduleCodec.toEpochDay(today - DAY_MS), queuedStartDay(FEEDER_1, tilapia));
+        assertEquals(CompactScheduleCodec.toEpochDay(today + 7 * DAY_MS), queuedStartDay(FEEDER_2, bangus));
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM sms_outbox WHERE fishId = " + koi));
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM sms_outbox"));
+    }
+
+    @Test
+    public void failedQueuing_countsEveryBuiltMessageAsFailed() throws Exception {
+        long tilapia = fish("Tilapia", FEEDER_1, now);
+        schedule(tilapia, "Week 2", -1, 5);
+        long bangus = fish("Bangus", FEEDER_2, now);
+        schedule(bangus, "Week 2", -1, 5);
+        long milkfish = fish("Milkfish", "", now);
+        schedule(milkfish, "Week 2", -1, 5);
+        db.getOpenHelper().getWritableDatabase().execSQL("CREATE TEMP TRIGGER outbox_full BEFORE INSERT"
+                + " ON sms_outbox BEGIN SELECT RAISE(ABORT, 'outbox full'); END");
+
+        FleetBroadcastSummary summary = awaitQueued(FleetBroadcast.sendToFish(context, db,
+                Arrays.asList(tilapia, bangus, milkfish)));
+
+        assertEquals(3, summary.getBuiltCount());
+        assertEquals(0, summary.getQueuedCount());
+        assertEquals(1, summary.getSkippedCount());
+        assertEquals(2, summary.getFailedCount());
+        assertTrue(summary.getProblems().get(summary.getProblems().size() - 1).startsWith("Queuing failed: "));
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM sms_outbox"));
+    }
+
+    private long fish(String name, String phoneNumber, long lastUpdated) {
+        Fish fish = new Fish(name, 100, 100, 0, 0f, 0f, 0f, 1f, new Date(lastUpdated), new Date(lastUpdated),
+                "", phoneNumber);
+        fish.setSmsFormat(Fish.SMS_FORMAT_COMPACT);
+        return db.fishDao().insert(fish);
+    }
+
+    // One feeding time a day, from and to the given days counted from today
+    private void schedule(long fishId, String name, int fromDay, int toDay) {
+        db.feedingScheduleDao().insertAll(Collections.singletonList(new FeedingSchedule(fishId, name,
+                today + fromDay * DAY_MS, today + toDay * DAY_MS, "07:00 AM", 12f)));
+    }
+
+    private int queuedStartDay(String phoneNumber, long fishId) {
+        OutboundSms sms = db.smsOutboxDao().getQueuedSync(OutboundSms.KIND_SCHEDULE, phoneNumber, fishId);
+        assertNotNull(sms);
+        return CompactScheduleCodec.decode(sms.getBody()).getStartDay();
+    }
+
+    // Runs main-thread work until the broadcast reports that queuing is over
+    private static FleetBroadcastSummary awaitQueued(LiveData<FleetBroadcastSummary> broadcast) throws Exception {
+        List<FleetBroadcastSummary> seen = new ArrayList<>();
+        Observer<FleetBroadcastSummary> observer = seen::add;
+        broadcast.observeForever(observer);
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (System.currentTimeMillis() < deadline) {
+                shadowOf(Looper.getMainLooper()).idle();
+                for (FleetBroadcastSummary summary : seen) {
+                    if (summary.isQueuingDone()) return summary;
+                }
+                Thread.sleep(5);
+            }
+        } finally {
+            broadcast.removeObserver(observer);
+        }
+        throw new AssertionError("Broadcast did not finish queuing: " + seen);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.myapplication.sms;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.FeederSyncState;
+import com.example.myapplication.database.OutboundSms;
+import com.example.myapplication.database.TestDatabases;
+import com.example.schedulecore.CompactSchedule;
+import com.example.schedulecore.CompactScheduleCodec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.example.myapplication.database.TestDatabases.count;
+import static org.junit.Assert.*;
+
+/**
+ * Checks when a compact feeder is sent a delta, when the full schedule, and when nothing.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class SmsOutboxTest {
+    private static final String PHONE = "+639170000000";
+    private static final CompactSchedule SCHEDULE = new CompactSchedule(9367, 9373, Arrays.asList(
+            new CompactSchedule.Slot(5 * 60, 1180),
+            new CompactSchedule.Slot(9 * 60, 1180),
+            new CompactSchedule.Slot(13 * 60, 1180),
+            new CompactSchedule.Slot(17 * 60, 1150)));
+    // SCHEDULE with the evening feed re-weighed
+    private static final CompactSchedule REWEIGHED = new CompactSchedule(9367, 9373, Arrays.asList(
+            new CompactSchedule.Slot(5 * 60, 1180),
+            new CompactSchedule.Slot(9 * 60, 1180),
+            new CompactSchedule.Slot(13 * 60, 1180),
+            new CompactSchedule.Slot(17 * 60, 1200)));
+
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void knownSchedule_isChangedByDelta() {
+        acked(1, SCHEDULE, 5);
+
+        long id = queue(1, REWEIGHED);
+
+        assertTrue(CompactScheduleCodec.isDelta(bodyOf(id)));
+        FeederSyncState state = db.feederSyncDao().getSync(PHONE);
+        assertEquals(id, state.getPendingSmsId());
+        assertEquals(6, state.getPendingVersion());
+        assertEquals(CompactScheduleCodec.encode(REWEIGHED), state.getPendingSchedule());
+    }
+
+    @Test
+    public void deltaLongerThanFull_sendsFull() {
+        acked(1, SCHEDULE, 5);
+        // Four removals and an addition take more room than the one new feeding time
+        CompactSchedule target = new CompactSchedule(9367, 9373,
+                Collections.singletonList(new CompactSchedule.Slot(21 * 60, 1150)));
+
+        long id = queue(1, target);
+
+        assertEquals(CompactScheduleCodec.encode(target), bodyOf(id));
+        assertEquals(0, db.feederSyncDao().getSync(PHONE).getPendingVersion());
+    }
+
+    @Test
+    public void unconfirmedMessage_sendsFull() {
+        acked(1, SCHEDULE, 5);
+        // A delta already on its way, which the feeder may or may not have applied
+        long sending = db.smsOutboxDao().insert(new OutboundSms(PHONE, 1, OutboundSms.KIND_SCHEDULE,
+                "delta", 1, 500));
+        db.smsOutboxDao().markSending(sending, 600);
+        FeederSyncState state = db.feederSyncDao().getSync(PHONE);
+        state.setPendingVersion(6);
+        state.setPendingSchedule(CompactScheduleCodec.encode(SCHEDULE));
+        state.setPendingSmsId(sending);
+        db.feederSyncDao().upsert(state);
+
+        long id = queue(1, REWEIGHED);
+
+        assertNotEquals(sending, id);
+        assertEquals(CompactScheduleCodec.encode(REWEIGHED), bodyOf(id));
+        assertEquals(0, db.feederSyncDao().getSync(PHONE).getPendingVersion());
+    }
+
+    @Test
+    public void otherFishOnSamePhone_sendsFull() {
+        acked(2, SCHEDULE, 5);
+
+        long id = queue(1, REWEIGHED);
+
+        assertEquals(CompactScheduleCodec.encode(REWEIGHED), bodyOf(id));
+        FeederSyncState state = db.feederSyncDao().getSync(PHONE);
+        assertEquals(1, state.getFishId());
+        assertEquals(0, state.getPendingVersion());
+    }
+
+    @Test
+    public void heldSchedule_withdrawsQueuedMessage() {
+        acked(1, SCHEDULE, 5);
+        long id = queue(1, REWEIGHED);
+
+        // Changed back before the delta left the phone
+        assertEquals(0, queue(1, SCHEDULE));
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM sms_outbox WHERE id = " + id));
+        FeederSyncState state = db.feederSyncDao().getSync(PHONE);
+        assertEquals(0, state.getPendingSmsId());
+        assertNull(state.getPendingSchedule());
+        assertEquals(CompactScheduleCodec.encode(SCHEDULE), state.getAckedSchedule());
+        assertEquals(5, state.getAckedVersion());
+    }
+
+    private long queue(long fishId, CompactSchedule target) {
+        return SmsOutbox.queueSchedule(db, ScheduleMessage.compact(fishId, "Tilapia", PHONE, target), 1_000);
+    }
+
+    private String bodyOf(long smsId) {
+        return db.smsOutboxDao().getByIdSync(smsId).getBody();
+    }
+
+    private void acked(long fishId, CompactSchedule schedule, int version) {
+        FeederSyncState state = new FeederSyncState(PHONE);
+        state.setFishId(fishId);
+        state.setAckedSchedule(CompactScheduleCodec.encode(schedule));
+        state.setAckedVersion(version);
+        db.feederSyncDao().upsert(state);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.myapplication.utils;
+
+import com.example.feedersimulator.FeederSimulator;
+import com.example.feedersimulator.FeederSlot;
+import com.example.feedersimulator.MessageCheck;
+import com.example.myapplication.database.FeedingSchedule;
+import com.example.schedulecore.CompactSchedule;
+import com.example.schedulecore.CompactScheduleCodec;
+import com.example.schedulecore.ScheduleDelta;
+import com.example.schedulecore.ScheduleMessageFormat;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sends the messages the app builds to a fleet of simulated feeders (see :feeder-simulator,
+ * a copy of the FFARD.ino parser) and checks that every feeder ends up with the schedule
+ * the app meant, or that the simulator flags why it would not.
+ */
+public class FeederFleetSimulationTest {
+    private static final int FLEET_SIZE = 2000;
+    private static final int DELTA_ROUNDS = 6;
+    private static final String[] FISH_NAMES = {"Tilapia", "Bangus", "Catfish", "Koi"};
+    private static final Comparator<FeederSlot> BY_TIME = (s1, s2) -> Integer.compare(s1.getMinuteOfDay(), s2.getMinuteOfDay());
+
+    @Test
+    public void compactSchedules_reachEveryFeederIntact() {
+        Random random = new Random(1401);
+        for (int i = 0; i < FLEET_SIZE; i++) {
+            List<FeedingSchedule> schedules = randomSchedules(random, 1 + random.nextInt(FeederSimulator.MAX_SCHEDULES));
+            String body = CompactScheduleCodec.encode(ScheduleMessageFormat.toCompactSchedule(schedules));
+            FeederSimulator feeder = new FeederSimulator();
+
+            feeder.receive(phone(i), body);
+
+            assertTrue(body, MessageCheck.check(body).isOk());
+            assertEquals(body, expectedSlots(schedules), feeder.getSavedSchedules());
+            assertEquals(0, feeder.getSyncVersion());
+        }
+    }
+
+    @Test
+    public void textSchedules_arriveIntactOrAreFlagged() {
+        Random random = new Random(1402);
+        int flagged = 0;
+        for (int i = 0; i < FLEET_SIZE; i++) {
+            List<FeedingSchedule> schedules = randomSchedules(random, 1 + random.nextInt(FeederSimulator.MAX_SCHEDULES));
+            String body = ScheduleMessageFormat.buildTextMessage(FISH_NAMES[i % FISH_NAMES.length], schedules);
+            MessageCheck check = MessageCheck.check(body);
+            FeederSimulator feeder = new FeederSimulator();
+
+            feeder.receive(phone(i), body);
+
+            // The feeder looks for "Jan" before "Dec", finds it in the end date and loses the range
+            if (crossesNewYear(schedules)) {
+                assertTrue(body, check.getIssues().contains(MessageCheck.Issue.NOTHING_PARSED));
+                continue;
+            }
+            // Otherwise, read whole, every text message says what the app meant
+            assertEquals(body, expectedSlots(schedules), check.getSchedules());
+            if (check.isOk()) {
+                assertEquals(body, expectedSlots(schedules), feeder.getSavedSchedules());
+            } else {
+                assertEquals(body, Collections.singleton(MessageCheck.Issue.SPLIT_ACROSS_SEGMENTS), check.getIssues());
+                assertTrue(body, check.getSegments().size() > 1);
+                flagged++;
+            }
+        }
+        // Ten times do not fit in one segment, so some messages must have been flagged
+        assertTrue(flagged > 0);
+    }
+
+    @Test
+    public void textSchedules_withMoreThanTenTimesOverflow() {
+        Random random = new Random(1403);
+        for (int i = 0; i < FLEET_SIZE / 10; i++) {
+            int times = FeederSimulator.MAX_SCHEDULES + 1 + random.nextInt(5);
+            List<FeedingSchedule> schedules = randomSchedules(random, times);
+            if (crossesNewYear(schedules)) continue;
+            String body = ScheduleMessageFormat.buildTextMessage("Tilapia", schedules);
+
+            MessageCheck check = MessageCheck.check(body);
+
+            assertTrue(body, check.getIssues().contains(MessageCheck.Issue.SLOT_OVERFLOW));
+            assertEquals(times - FeederSimulator.MAX_SCHEDULES, check.getDroppedSlots());
+        }
+    }
+
+    @Test
+    public void deltas_keepEveryFeederInStep() {
+        Random random = new Random(1404);
+        for (int i = 0; i < FLEET_SIZE / 4; i++) {
+            CompactSchedule held = ScheduleMessageFormat.toCompactSchedule(
+                    randomSchedules(random, 1 + random.nextInt(FeederSimulator.MAX_SCHEDULES)));
+            FeederSimulator feeder = new FeederSimulator();
+            feeder.receive(phone(i), CompactScheduleCodec.encode(held));
+            int version = 0;
+
+            for (int round = 0; round < DELTA_ROUNDS; round++) {
+                CompactSchedule target = ScheduleMessageFormat.toCompactSchedule(
+                        randomSchedules(random, 1 + random.nextInt(FeederSimulator.MAX_SCHEDULES), held));
+                ScheduleDelta delta = ScheduleDelta.between(held, target, version);
+                if (delta.isEmptyFor(held)) continue;
+                String body = CompactScheduleCodec.encodeDelta(delta);
+
+                feeder.receive(phone(i), body);
+                if (random.nextInt(4) == 0) feeder.reboot();
+
+                assertEquals(body, FeederSimulator.Outcome.SAVED, feeder.getLastOutcome());
+                assertEquals(body, delta.getNewVersion(), feeder.getSyncVersion());
+                List<FeederSlot> slots = new ArrayList<>(feeder.getSchedules());
+                Collections.sort(slots, BY_TIME);
+                assertEquals(body, toSlots(target), slots);
+                held = target;
+                version = delta.getNewVersion();
+            }
+        }
+    }
+
+    private static List<FeedingSchedule> randomSchedules(Random random, int count) {
+        return randomSchedules(random, count, null);
+    }
+
+    // Distinct feeding times over one date range; when given, reuses the date range and some times of a held schedule
+    private static List<FeedingSchedule> randomSchedules(Random random, int count, CompactSchedule near) {
+        long startDate;
+        long endDate;
+        if (near != null && random.nextBoolean()) {
+            startDate = CompactScheduleCodec.fromEpochDay(near.getStartDay());
+            endDate = CompactScheduleCodec.fromEpochDay(near.getEndDay());
+        } else {
+            Calendar date = Calendar.getInstance();
+            date.clear();
+            date.set(2025 + random.nextInt(5), random.nextInt(12), 1 + random.nextInt(28));
+            startDate = date.getTimeInMillis();
+            date.add(Calendar.DAY_OF_MONTH, random.nextInt(60));
+            endDate = date.getTimeInMillis();
+        }
+
+        TreeSet<Integer> minutes = new TreeSet<>();
+        if (near != null) {
+            for (CompactSchedule.Slot slot : near.getSlots()) {
+                if (minutes.size() < count && random.nextBoolean()) minutes.add(slot.getMinuteOfDay());
+            }
+        }
+        while (minutes.size() < count) {
+            minutes.add(random.nextInt(24 * 60));
+        }
+
+        SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm a", Locale.US);
+        Calendar time = Calendar.getInstance();
+        List<FeedingSchedule> schedules = new ArrayList<>();
+        for (int minute : minutes) {
+            time.clear();
+            time.set(2025, Calendar.JANUARY, 1, minute / 60, minute % 60);
+            float grams = (1 + random.nextInt(CompactScheduleCodec.MAX_DECIGRAMS)) / 10.0f;
+            schedules.add(new FeedingSchedule(1, "Schedule", startDate, endDate,
+                    timeFormat.format(time.getTime()), grams));
+        }
+        return schedules;
+    }
+
+    // What the feeder should hold: one slot per time, in time order, over the schedules' date range
+    private static List<FeederSlot> expectedSlots(List<FeedingSchedule> schedules) {
+        return toSlots(ScheduleMessageFormat.toCompactSchedule(schedules));
+    }
+
+    private static List<FeederSlot> toSlots(CompactSchedule schedule) {
+        List<FeederSlot> slots = new ArrayList<>();
+        for (CompactSchedule.Slot slot : schedule.getSlots()) {
+            slots.add(new FeederSlot(slot.getMinuteOfDay() / 60, slot.getMinuteOfDay() % 60,
+                    slot.getDecigrams() / 10.0f, true, schedule.getStartDay(), schedule.getEndDay()));
+        }
+        return slots;
+    }
+
+    private static boolean crossesNewYear(List<FeedingSchedule> schedules) {
+        Calendar start = Calendar.getInstance();
+        start.setTimeInMillis(schedules.get(0).getStartDate());
+        Calendar end = Calendar.getInstance();
+        end.setTimeInMillis(schedules.get(0).getEndDate());
+        return start.get(Calendar.YEAR) != end.get(Calendar.YEAR);
+    }
+
+    private static String phone(int feeder) {
+        return "+6391" + String.format(Locale.US, "%08d", feeder);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.myapplication.viewmodel;
+
+import android.app.Application;
+import android.os.Looper;
+
+import androidx.lifecycle.ViewModelProvider;
+import androidx.lifecycle.ViewModelStore;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.myapplication.database.AppDatabase;
+import com.example.myapplication.database.Fish;
+import com.example.myapplication.database.FeedingSchedule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Checks that the one-shot reads on {@link AquacultureViewModel} call back exactly once,
+ * leave nothing in flight afterwards, and never call back into a cleared ViewModel.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 33)
+public class OneShotReadTest {
+    private static final int READS = 20;
+
+    private AppDatabase db;
+    private ViewModelStore store;
+    private AquacultureViewModel viewModel;
+
+    @Before
+    public void setUp() {
+        Application application = ApplicationProvider.getApplicationContext();
+        db = AppDatabase.getDatabase(application);
+        store = new ViewModelStore();
+        viewModel = new ViewModelProvider(store, ViewModelProvider.AndroidViewModelFactory.getInstance(application))
+                .get(AquacultureViewModel.class);
+    }
+
+    @After
+    public void tearDown() {
+        store.clear();
+    }
+
+    @Test
+    public void oneShotReads_fireOnceAndDrain() throws Exception {
+        long fishId = AppDatabase.writeLane.call(() -> db.fishDao().insert(fish("Bangus", 100)));
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger found = new AtomicInteger();
+
+        for (int i = 0; i < READS; i++) {
+            viewModel.loadFishByName("Bangus", fish -> {
+                calls.incrementAndGet();
+                if (fish != null) found.incrementAndGet();
+            });
+            viewModel.loadSchedulesForFish(fishId, schedules -> calls.incrementAndGet());
+        }
+        drainReads();
+
+        assertEquals(2 * READS, calls.get());
+        assertEquals(READS, found.get());
+        assertEquals(0, AquacultureViewModel.getPendingOneShotReads());
+
+        // Writes to the tables they read must not call any of them again
+        AppDatabase.writeLane.call(() -> {
+            Fish bangus = db.fishDao().getFishByIdSync(fishId);
+            bangus.setAliveCount(90);
+            db.fishDao().update(bangus);
+            return db.feedingScheduleDao().insert(
+                    new FeedingSchedule(fishId, "Week 1", 0, 0, "06:00 AM", 10f));
+        });
+        drainReads();
+        assertEquals(2 * READS, calls.get());
+    }
+
+    @Test
+    public void clearedViewModel_dropsReadsStillInFlight() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        viewModel.loadAllFish(fish -> calls.incrementAndGet());
+        drainReads();
+        assertEquals(1, calls.get());
+
+        // The result is posted to the main thread, which does not run until drainReads
+        viewModel.loadAllFish(fish -> calls.incrementAndGet());
+        viewModel.loadFishByName("Bangus", fish -> calls.incrementAndGet());
+        store.clear();
+        drainReads();
+
+        assertEquals(1, calls.get());
+        assertEquals(0, AquacultureViewModel.getPendingOneShotReads());
+    }
+
+    private static Fish fish(String name, int quantity) {
+        return new Fish(name, quantity, quantity, 0, 0f, 0f, 0f, 1f, new Date(), new Date(), "", "");
+    }
+
+    // Runs main-thread work until no read is in flight, then a little longer so that any
+    // observer left behind by a read would have had its chance to fire
+    private static void drainReads() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        do {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(5);
+        } while (AquacultureViewModel.getPendingOneShotReads() > 0 && System.currentTimeMillis() < deadline);
+        for (int i = 0; i < 20; i++) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.myapplication.benchmarks;
+
+import com.example.schedulecore.BiomassProjection;
+import com.example.schedulecore.GrowthModel;
+import com.example.schedulecore.WeightSample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting and projecting every pond over the 180 day cycle, one pond after another and
+ * spread over a pool the way GrowthProjections does it. Each pond has a season of weekly
+ * weight samples.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class GrowthBenchmark {
+    private static final int CYCLE_DAYS = 180;
+    private static final int TODAY = 9600;
+
+    @Param({"10", "200"})
+    public int pondCount;
+
+    List<List<WeightSample>> samplesByPond;
+    ExecutorService workers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(22);
+        samplesByPond = new ArrayList<>(pondCount);
+        for (int pond = 0; pond < pondCount; pond++) {
+            List<WeightSample> samples = new ArrayList<>();
+            float weight = 5f + random.nextFloat() * 20f;
+            for (int week = 0; week < 26; week++) {
+                samples.add(new WeightSample(TODAY - 7 * (26 - week), 1000 - week * 5, weight));
+                weight *= 1.08f + random.nextFloat() * 0.04f;
+            }
+            samplesByPond.add(samples);
+        }
+        workers = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workers.shutdown();
+    }
+
+    @Benchmark
+    public List<BiomassProjection> projectSequential() {
+        List<BiomassProjection> projections = new ArrayList<>(pondCount);
+        for (List<WeightSample> samples : samplesByPond) {
+            projections.add(project(samples));
+        }
+        return projections;
+    }
+
+    @Benchmark
+    public List<BiomassProjection> projectParallel() throws Exception {
+        List<Callable<BiomassProjection>> tasks = new ArrayList<>(pondCount);
+        for (List<WeightSample> samples : samplesByPond) {
+            tasks.add(() -> project(samples));
+        }
+        List<BiomassProjection> projections = new ArrayList<>(pondCount);
+        for (Future<BiomassProjection> future : workers.invokeAll(tasks)) {
+            projections.add(future.get());
+        }
+        return projections;
+    }
+
+    private static BiomassProjection project(List<WeightSample> samples) {
+        return GrowthModel.fit(samples, 1000, 870, 182, TODAY).project(TODAY, CYCLE_DAYS);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.myapplication.benchmarks;
+
+import com.example.schedulecore.IntervalTree;
+import com.example.schedulecore.ScheduleRow;
+import com.example.schedulecore.Schedules;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date range lookups against a fish's schedules: the linear scan the setup screen used to do
+ * against the interval tree ScheduleIndex now keeps. "Conflict" asks for a new range after
+ * every schedule, the common case when adding one, which a scan must check row by row;
+ * "active" lists the rows in effect on one day. Building the tree is what every schedule
+ * change costs the next lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OverlapBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Index {
+        IntervalTree<ScheduleRow> tree;
+        long freeStart;
+        long freeEnd;
+        long day;
+
+        @Setup(Level.Trial)
+        public void setUp(ScheduleData data) {
+            tree = new IntervalTree<>(data.schedules);
+            Calendar date = Calendar.getInstance();
+            date.clear();
+            date.set(2026, Calendar.MARCH, 2);
+            freeStart = date.getTimeInMillis();
+            date.add(Calendar.DAY_OF_MONTH, 6);
+            freeEnd = date.getTimeInMillis();
+            date.clear();
+            date.set(2025, Calendar.MAY, 14);
+            day = date.getTimeInMillis();
+        }
+    }
+
+    @Benchmark
+    public ScheduleRow conflictLinearScan(ScheduleData data, Index index) {
+        return Schedules.findOverlap(index.freeStart, index.freeEnd, data.schedules);
+    }
+
+    @Benchmark
+    public ScheduleRow conflictIntervalTree(Index index) {
+        return index.tree.findOverlap(index.freeStart, index.freeEnd);
+    }
+
+    @Benchmark
+    public List<ScheduleRow> activeLinearScan(ScheduleData data, Index index) {
+        List<ScheduleRow> active = new ArrayList<>();
+        for (ScheduleRow row : data.schedules) {
+            if (Schedules.overlaps(index.day, index.day, row.getStartDate(), row.getEndDate())) active.add(row);
+        }
+        return active;
+    }
+
+    @Benchmark
+    public List<ScheduleRow> activeIntervalTree(Index index) {
+        return index.tree.activeOn(index.day);
+    }
+
+    @Benchmark
+    public IntervalTree<ScheduleRow> buildIntervalTree(ScheduleData data) {
+        return new IntervalTree<>(data.schedules);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.myapplication.benchmarks;
+
+import com.example.schedulecore.FeedingTimes;
+import com.example.schedulecore.ScheduleEntry;
+import com.example.schedulecore.ScheduleRow;
+import com.example.schedulecore.Schedules;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The schedule list work done on every load: sorting by time of day (the setup screens and
+ * the dashboard), reading "hh:mm a" times into minutes (every row saved), and grouping rows
+ * into named schedules (the schedule cards, the dashboard and fleet broadcasts).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScheduleBenchmark {
+
+    // Includes copying the list, since the sort works in place
+    @Benchmark
+    public List<ScheduleRow> sortByFeedingTime(ScheduleData data) {
+        List<ScheduleRow> sorted = new ArrayList<>(data.schedules);
+        Collections.sort(sorted, ScheduleEntry.BY_FEEDING_TIME);
+        return sorted;
+    }
+
+    @Benchmark
+    public void parseFeedingTimes(ScheduleData data, Blackhole blackhole) {
+        for (String feedingTime : data.feedingTimes) {
+            blackhole.consume(FeedingTimes.toMinuteOfDay(feedingTime));
+        }
+    }
+
+    @Benchmark
+    public List<List<ScheduleRow>> groupSchedules(ScheduleData data) {
+        return Schedules.group(data.schedules);
+    }
+}
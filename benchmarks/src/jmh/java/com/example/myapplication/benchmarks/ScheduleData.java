@@ -0,0 +1,59 @@
+package com.example.myapplication.benchmarks;
+
+import com.example.schedulecore.ScheduleRow;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Schedule rows shaped like a fish's saved schedules: weekly named date ranges of up to ten
+ * feeding times each, in random row order as they come back from an unordered query.
+ */
+@State(Scope.Benchmark)
+public class ScheduleData {
+    static final int TIMES_PER_SCHEDULE = 10;
+
+    @Param({"10", "1000", "100000"})
+    public int scheduleCount;
+
+    List<ScheduleRow> schedules;
+    String[] feedingTimes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(17);
+        SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm a", Locale.US);
+        Calendar date = Calendar.getInstance();
+        Calendar time = Calendar.getInstance();
+        schedules = new ArrayList<>(scheduleCount);
+        feedingTimes = new String[scheduleCount];
+        for (int i = 0; i < scheduleCount; i++) {
+            int week = i / TIMES_PER_SCHEDULE;
+            date.clear();
+            date.set(2025, Calendar.JANUARY, 6);
+            date.add(Calendar.DAY_OF_MONTH, 7 * (week % 52));
+            long startDate = date.getTimeInMillis();
+            date.add(Calendar.DAY_OF_MONTH, 6);
+            long endDate = date.getTimeInMillis();
+
+            time.clear();
+            time.set(2025, Calendar.JANUARY, 1, random.nextInt(24), random.nextInt(60));
+            String feedingTime = timeFormat.format(time.getTime());
+            feedingTimes[i] = feedingTime;
+            schedules.add(new ScheduleRow(1, "Week " + (week + 1), startDate, endDate,
+                    feedingTime, (1 + random.nextInt(2000)) / 10.0f));
+        }
+        Collections.shuffle(schedules, random);
+    }
+}
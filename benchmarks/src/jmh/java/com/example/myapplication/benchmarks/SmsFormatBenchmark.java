@@ -0,0 +1,39 @@
+package com.example.myapplication.benchmarks;
+
+import com.example.schedulecore.CompactSchedule;
+import com.example.schedulecore.CompactScheduleCodec;
+import com.example.schedulecore.ScheduleMessageFormat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building schedule SMS bodies. The text format sorts, groups by time and amount, formats
+ * dates and strips non-ASCII characters with a regex; the compact format collects one slot
+ * per minute and encodes it. Real messages hold at most ten times, so the larger sizes are
+ * there to make the per-row cost visible; the compact message encodes the first ten.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SmsFormatBenchmark {
+
+    // Includes copying the list, since the message builder sorts it in place
+    @Benchmark
+    public String buildTextMessage(ScheduleData data) {
+        return ScheduleMessageFormat.buildTextMessage("Tilapia", new ArrayList<>(data.schedules));
+    }
+
+    @Benchmark
+    public String buildCompactMessage(ScheduleData data) {
+        CompactSchedule schedule = ScheduleMessageFormat.toCompactSchedule(data.schedules);
+        List<CompactSchedule.Slot> slots = schedule.getSlots();
+        return CompactScheduleCodec.encode(new CompactSchedule(schedule.getStartDay(), schedule.getEndDay(),
+                slots.subList(0, Math.min(slots.size(), CompactScheduleCodec.MAX_SLOTS))));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.feedersimulator;
+
+/**
+ * The Arduino String and avr-libc conversions the firmware relies on, with AVR integer
+ * widths: {@code int} is 16 bits and {@code long} 32 bits.
+ */
+final class ArduinoString {
+
+    /** String::trim(); strips what isspace() accepts */
+    static String trim(String s) {
+        int start = 0;
+        int end = s.length();
+        while (start < end && isSpace(s.charAt(start))) start++;
+        while (end > start && isSpace(s.charAt(end - 1))) end--;
+        return s.substring(start, end);
+    }
+
+    /** String::toInt(), i.e. atol(): leading digits, 0 if none, wrapping at 32 bits */
+    static int toLong(String s) {
+        int i = 0;
+        while (i < s.length() && isSpace(s.charAt(i))) i++;
+        boolean negative = false;
+        if (i < s.length() && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        int value = 0;
+        while (i < s.length() && isDigit(s.charAt(i))) {
+            value = value * 10 + (s.charAt(i) - '0');
+            i++;
+        }
+        return negative ? -value : value;
+    }
+
+    /** toInt() stored into an AVR int */
+    static short toInt(String s) {
+        return (short) toLong(s);
+    }
+
+    /**
+     * String::toFloat(), i.e. atof() with 32-bit AVR doubles: the longest numeric prefix.
+     * Rounded correctly here; avr-libc may differ in the last bit on long inputs.
+     */
+    static float toFloat(String s) {
+        int i = 0;
+        while (i < s.length() && isSpace(s.charAt(i))) i++;
+        int start = i;
+        if (i < s.length() && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+        // avr-libc strtod also reads INF, INFINITY and NAN in any case
+        String rest = toUpperCase(s.substring(i));
+        if (rest.startsWith("INF")) {
+            return s.charAt(start) == '-' ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+        }
+        if (rest.startsWith("NAN")) return Float.NaN;
+        int mantissaStart = i;
+        while (i < s.length() && isDigit(s.charAt(i))) i++;
+        if (i < s.length() && s.charAt(i) == '.') {
+            i++;
+            while (i < s.length() && isDigit(s.charAt(i))) i++;
+        }
+        String mantissa = s.substring(mantissaStart, i);
+        if (mantissa.isEmpty() || mantissa.equals(".")) return 0f;
+        int end = i;
+        if (i < s.length() && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            int j = i + 1;
+            if (j < s.length() && (s.charAt(j) == '+' || s.charAt(j) == '-')) j++;
+            if (j < s.length() && isDigit(s.charAt(j))) {
+                while (j < s.length() && isDigit(s.charAt(j))) j++;
+                end = j;
+            }
+        }
+        return Float.parseFloat(s.substring(start, end));
+    }
+
+    /** String::replace(find, replacement), every occurrence */
+    static String replace(String s, String find, String replacement) {
+        return s.replace(find, replacement);
+    }
+
+    /** String::toUpperCase(), ASCII only as in toupper() */
+    static String toUpperCase(String s) {
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            out.append(c >= 'a' && c <= 'z' ? (char) (c - 32) : c);
+        }
+        return out.toString();
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private ArduinoString() {
+    }
+}
@@ -0,0 +1,655 @@
+package com.example.feedersimulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A host-side copy of the SMS handling in Arduino_Setup/Fish_Feeder_ARD/FFARD.ino: modem line
+ * assembly (checkSMS, readSMSByIndex), processSMS with the text, compact and delta formats,
+ * parseDate/dateToDays, and the EEPROM layout byte for byte. It follows the sketch statement
+ * by statement, quirks included, with AVR integer widths. Change both together.
+ *
+ * Not thread-safe; one instance is one feeder.
+ */
+public class FeederSimulator {
+    public static final int MAX_SCHEDULES = 10;
+    public static final int EEPROM_SIZE = 1024;
+    public static final int EEPROM_BASE_ADDR = 0;
+    public static final int EEPROM_VERSION_ADDR = EEPROM_BASE_ADDR + 1 + MAX_SCHEDULES * FeederSlot.SIZE;
+    public static final int VERSION_UNKNOWN = 0xFFFF;
+
+    /** checkSMS() processes an assembled message after this much modem silence */
+    public static final long AGGREGATION_MS = 5000;
+
+    private static final String[] MONTHS =
+            {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+    /** How the modem hands over incoming messages */
+    public enum Delivery {
+        /** AT+CNMI=2,1 as setupGSM() configures it: stored, announced by +CMTI, each segment read on its own */
+        STORED,
+        /** +CMT pushed to the serial line; segments from one sender within 5 s are joined */
+        DIRECT
+    }
+
+    /** What the last processSMS() call did */
+    public enum Outcome {
+        /** Schedules replaced and saved, confirmation sent */
+        SAVED,
+        /** A message that yielded no schedules; the empty table is saved and confirmed */
+        NOTHING_PARSED,
+        /** Not a schedule message, or a compact message that failed its checks */
+        REJECTED,
+        /** A delta for another base version; the sender was told which one this feeder has */
+        VERSION_MISMATCH
+    }
+
+    private final byte[] eeprom;
+    private final FeederSlot[] schedules = new FeederSlot[MAX_SCHEDULES];
+    private int scheduleCount;
+    private int syncVersion = VERSION_UNKNOWN;
+    private String lastSender = "";
+    private final List<Reply> replies = new ArrayList<>();
+
+    private Outcome lastOutcome;
+    private int lastDroppedSlots;
+    private int processedCount;
+
+    // SMS assembly state
+    private String pendingSmsHeader = "";
+    private String pendingSmsBody = "";
+    private boolean awaitingSmsBody;
+    private long smsLastByteMs;
+    private String aggSender = "";
+
+    // Modem-side state: stored messages by index, and the clock used by receive()
+    private final List<String[]> simStorage = new ArrayList<>();
+    private long clockMs;
+
+    /** A feeder with a blank EEPROM (every byte 0xFF), just powered on */
+    public FeederSimulator() {
+        this(blankEeprom());
+    }
+
+    /** A feeder powered on with the given EEPROM contents */
+    public FeederSimulator(byte[] eeprom) {
+        if (eeprom.length != EEPROM_SIZE) {
+            throw new IllegalArgumentException("EEPROM must be " + EEPROM_SIZE + " bytes");
+        }
+        this.eeprom = eeprom.clone();
+        loadSchedules();
+    }
+
+    public static byte[] blankEeprom() {
+        byte[] bytes = new byte[EEPROM_SIZE];
+        Arrays.fill(bytes, (byte) 0xFF);
+        return bytes;
+    }
+
+    // Delivery
+
+    /** Sends the message from the given number as a phone would, segmenting it, through setupGSM()'s mode */
+    public void receive(String sender, String body) {
+        receive(sender, body, Delivery.STORED);
+    }
+
+    /** Sends the message from the given number as a phone would, segmenting it */
+    public void receive(String sender, String body, Delivery delivery) {
+        List<String> segments = SmsSegmenter.split(body);
+        if (delivery == Delivery.STORED) {
+            for (String segment : segments) {
+                simStorage.add(new String[]{sender, segment});
+                modemLine("+CMTI: \"SM\"," + simStorage.size(), clockMs);
+            }
+        } else {
+            for (String segment : segments) {
+                modemLine("+CMT: \"" + sender + "\",\"\",\"25/08/24,15:00:00+32\"", clockMs);
+                for (String line : segment.split("\n", -1)) {
+                    modemLine(line, clockMs);
+                }
+                clockMs += 1000;
+            }
+            clockMs += AGGREGATION_MS + 1;
+            poll(clockMs);
+        }
+        clockMs += AGGREGATION_MS + 1;
+    }
+
+    /** Runs processSMS() directly, as TEST_MODE in setup() does */
+    public void process(String sender, String body) {
+        lastSender = sender;
+        processSms(body);
+    }
+
+    /** One line of modem output as readStringUntil('\n') returns it, read at the given time */
+    public void modemLine(String rawLine, long nowMs) {
+        String line = ArduinoString.trim(rawLine);
+        if (line.isEmpty()) return;
+
+        if (line.startsWith("+CMTI:")) {
+            handleCmti(line);
+            return;
+        }
+
+        if (line.startsWith("+CMT:")) {
+            int p1 = line.indexOf('"');
+            int p2 = line.indexOf('"', p1 + 1);
+            String newSender = "";
+            if (p1 >= 0 && p2 > p1) {
+                newSender = line.substring(p1 + 1, p2);
+            }
+
+            if (awaitingSmsBody) {
+                if (!newSender.isEmpty() && newSender.equals(aggSender)) {
+                    smsLastByteMs = nowMs;
+                    if (!pendingSmsBody.isEmpty() && pendingSmsBody.charAt(pendingSmsBody.length() - 1) != '\n') {
+                        pendingSmsBody += '\n';
+                    }
+                } else {
+                    String msg = ArduinoString.trim(pendingSmsBody);
+                    if (!msg.isEmpty()) {
+                        processSms(msg);
+                    }
+                    awaitingSmsBody = false;
+                    pendingSmsHeader = "";
+                    pendingSmsBody = "";
+                    aggSender = "";
+                }
+            }
+
+            pendingSmsHeader = line;
+            awaitingSmsBody = true;
+            if (aggSender.isEmpty()) aggSender = newSender;
+            lastSender = newSender;
+            smsLastByteMs = nowMs;
+        } else if (awaitingSmsBody) {
+            pendingSmsBody += line;
+            pendingSmsBody += '\n';
+            smsLastByteMs = nowMs;
+        }
+    }
+
+    /** The end of checkSMS(): processes an assembled message once the modem has been quiet long enough */
+    public void poll(long nowMs) {
+        // millis() is an unsigned long
+        if (awaitingSmsBody && ((nowMs - smsLastByteMs) & 0xFFFFFFFFL) > AGGREGATION_MS) {
+            String msg = ArduinoString.trim(pendingSmsBody);
+            if (!msg.isEmpty()) {
+                processSms(msg);
+            }
+            awaitingSmsBody = false;
+            pendingSmsHeader = "";
+            pendingSmsBody = "";
+            aggSender = "";
+        }
+    }
+
+    private void handleCmti(String line) {
+        int comma = line.lastIndexOf(',');
+        if (comma < 0) return;
+        int idx = ArduinoString.toInt(line.substring(comma + 1));
+        if (idx <= 0) return;
+        readSmsByIndex(idx);
+    }
+
+    // The modem's reply to AT+CMGR, fed through the sketch's reading loop
+    private void readSmsByIndex(int index) {
+        List<String> lines = new ArrayList<>();
+        if (index <= simStorage.size() && simStorage.get(index - 1) != null) {
+            String[] stored = simStorage.get(index - 1);
+            lines.add("+CMGR: \"REC UNREAD\",\"" + stored[0] + "\",\"\",\"25/08/24,15:00:00+32\"");
+            lines.addAll(Arrays.asList(stored[1].split("\n", -1)));
+            // AT+CMGD
+            simStorage.set(index - 1, null);
+        }
+        lines.add("OK");
+
+        String body = "";
+        boolean headerSeen = false;
+        for (String rawLine : lines) {
+            String line = ArduinoString.trim(rawLine);
+            if (line.isEmpty()) continue;
+            if (!headerSeen) {
+                if (line.startsWith("+CMGR:")) {
+                    headerSeen = true;
+                    int[] q = new int[8];
+                    int qi = 0;
+                    int pos = -1;
+                    while (qi < 8) {
+                        pos = line.indexOf('"', pos + 1);
+                        if (pos < 0) break;
+                        q[qi++] = pos;
+                    }
+                    if (qi >= 4) {
+                        String sender = line.substring(q[2] + 1, q[3]);
+                        if (!sender.isEmpty()) {
+                            lastSender = sender;
+                        }
+                    }
+                }
+            } else {
+                if (line.equals("OK")) break;
+                body += line;
+                body += '\n';
+            }
+        }
+
+        body = ArduinoString.trim(body);
+        if (!body.isEmpty()) {
+            processSms(body);
+        }
+    }
+
+    // processSMS()
+
+    private void processSms(String msg) {
+        processedCount++;
+        lastOutcome = null;
+        lastDroppedSlots = 0;
+
+        String msgUpper = ArduinoString.trim(msg);
+        if (msgUpper.startsWith("FS")) {
+            if (!processCompactSms(msgUpper)) lastOutcome = Outcome.REJECTED;
+            return;
+        }
+        if (msgUpper.startsWith("FD")) {
+            if (!processDeltaSms(msgUpper) && lastOutcome != Outcome.VERSION_MISMATCH) {
+                lastOutcome = Outcome.REJECTED;
+            }
+            return;
+        }
+        msgUpper = ArduinoString.toUpperCase(msgUpper);
+        if (!msgUpper.startsWith("NEW FEEDING")) {
+            lastOutcome = Outcome.REJECTED;
+            return;
+        }
+
+        scheduleCount = 0;
+        syncVersion = VERSION_UNKNOWN;
+        String text = ArduinoString.replace(msg, "\r", "");
+
+        // The first month name found anywhere in the text, in calendar order
+        int dateStart = -1;
+        for (int i = 0; i < 12; i++) {
+            int idx = text.indexOf(MONTHS[i]);
+            if (idx >= 0) {
+                dateStart = idx;
+                break;
+            }
+        }
+
+        int dateEnd = -1;
+        if (dateStart >= 0) {
+            int searchPos = dateStart;
+            while (searchPos < text.length()) {
+                int lineEnd = text.indexOf('\n', searchPos);
+                if (lineEnd < 0) lineEnd = text.length();
+
+                String line = ArduinoString.trim(text.substring(searchPos, lineEnd));
+                if (line.endsWith(":")) {
+                    dateEnd = lineEnd;
+                    break;
+                }
+                searchPos = lineEnd + 1;
+            }
+        }
+
+        if (dateStart >= 0 && dateEnd > dateStart) {
+            String dateLine = text.substring(dateStart, dateEnd);
+            dateLine = ArduinoString.trim(ArduinoString.replace(dateLine, ":", ""));
+
+            int dashPos = dateLine.indexOf("-");
+            if (dashPos > 0) {
+                long startDay = parseDate(ArduinoString.trim(dateLine.substring(0, dashPos)));
+                long endDay = parseDate(ArduinoString.trim(dateLine.substring(dashPos + 1)));
+
+                int searchPos = dateEnd + 1;
+                while (searchPos < text.length()) {
+                    int lineEnd = text.indexOf('\n', searchPos);
+                    if (lineEnd < 0) lineEnd = text.length();
+
+                    FeederSlot slot = parseScheduleLine(text.substring(searchPos, lineEnd), startDay, endDay);
+                    if (slot != null) {
+                        // The sketch stops reading once the table is full; count what it leaves behind
+                        if (scheduleCount < MAX_SCHEDULES) {
+                            schedules[scheduleCount++] = slot;
+                        } else {
+                            lastDroppedSlots++;
+                        }
+                    }
+                    searchPos = lineEnd + 1;
+                }
+            }
+        }
+
+        lastOutcome = scheduleCount > 0 ? Outcome.SAVED : Outcome.NOTHING_PARSED;
+        finishSchedules();
+    }
+
+    // One "- 5:00 AM - 118.0g" line, or null where the sketch skips it
+    private static FeederSlot parseScheduleLine(String rawLine, long startDay, long endDay) {
+        String line = ArduinoString.trim(rawLine);
+        if (!line.startsWith("- ")) return null;
+        line = ArduinoString.trim(line.substring(2));
+
+        int timeDashPos = line.indexOf(" - ");
+        if (timeDashPos <= 0) return null;
+        String timePart = ArduinoString.trim(line.substring(0, timeDashPos));
+        String amountPart = ArduinoString.trim(line.substring(timeDashPos + 3));
+
+        String upperTime = ArduinoString.toUpperCase(timePart);
+        boolean isPm = upperTime.contains("PM");
+        boolean isAm = upperTime.contains("AM");
+
+        timePart = ArduinoString.replace(timePart, " PM", "");
+        timePart = ArduinoString.replace(timePart, " AM", "");
+        timePart = ArduinoString.replace(timePart, " pm", "");
+        timePart = ArduinoString.replace(timePart, " am", "");
+        timePart = ArduinoString.trim(timePart);
+
+        int colonPos = timePart.indexOf(':');
+        if (colonPos < 0) return null;
+        short hour = ArduinoString.toInt(timePart.substring(0, colonPos));
+        short minute = ArduinoString.toInt(timePart.substring(colonPos + 1));
+
+        if (isPm && hour != 12) hour += 12;
+        if (isAm && hour == 12) hour = 0;
+
+        amountPart = ArduinoString.replace(amountPart, "g", "");
+        float amount = ArduinoString.toFloat(amountPart);
+        if (!(amount > 0)) return null;
+
+        return new FeederSlot(hour, minute, amount, true, startDay, endDay);
+    }
+
+    // An empty table is saved and confirmed as well
+    private void finishSchedules() {
+        saveSchedules();
+        if (!lastSender.isEmpty()) {
+            sendSms(lastSender, "Schedule updated! Added " + scheduleCount + " feeding times.");
+        }
+    }
+
+    // Compact formats
+
+    static int compactDigit(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        if (c >= 'a' && c <= 'z') return c - 'a' + 36;
+        if (c == '+') return 62;
+        if (c == '/') return 63;
+        return -1;
+    }
+
+    // Arduino's String::operator[] reads past the end as '\0', which is not a digit
+    private static long readCompact(String s, int pos, int digits) {
+        long value = 0;
+        for (int i = 0; i < digits; i++) {
+            int index = pos + i;
+            int d = index >= 0 && index < s.length() ? compactDigit(s.charAt(index)) : -1;
+            if (d < 0) return -1;
+            value = (value * 64 + d) & 0xFFFFFFFFL;
+        }
+        return value;
+    }
+
+    private static String stripCompact(String msg) {
+        StringBuilder text = new StringBuilder(msg.length());
+        for (int i = 0; i < msg.length(); i++) {
+            char c = msg.charAt(i);
+            if (c != '\n' && c != '\r' && c != ' ') text.append(c);
+        }
+        return text.toString();
+    }
+
+    private static boolean compactChecksumOk(String text) {
+        int len = text.length();
+        int sum = 0;
+        for (int i = 0; i < len - 1; i++) {
+            int d = compactDigit(text.charAt(i));
+            if (d < 0) return false;
+            sum = (sum + d) & 0xFFFF;
+        }
+        return compactDigit(text.charAt(len - 1)) == sum % 64;
+    }
+
+    private boolean processCompactSms(String msg) {
+        String text = stripCompact(msg);
+        int len = text.length();
+        if (len < 9 || text.charAt(2) != '1' || (len - 9) % 5 != 0) return false;
+        if (!compactChecksumOk(text)) return false;
+
+        long startDay = readCompact(text, 3, 3);
+        long span = readCompact(text, 6, 2);
+
+        FeederSlot[] parsed = new FeederSlot[MAX_SCHEDULES];
+        int count = 0;
+        int dropped = 0;
+        for (int pos = 8; pos < len - 1; pos += 5) {
+            long minute = readCompact(text, pos, 2);
+            long decigrams = readCompact(text, pos + 2, 3);
+            if (count == MAX_SCHEDULES) {
+                // Past the sketch's loop condition; nothing after this is looked at
+                if (decigrams != 0) dropped++;
+                continue;
+            }
+            if (minute >= 1440) return false;
+            if (decigrams == 0) continue;
+            parsed[count++] = new FeederSlot((int) (minute / 60), (int) (minute % 60),
+                    decigrams / 10.0f, true, startDay, startDay + span);
+        }
+
+        System.arraycopy(parsed, 0, schedules, 0, count);
+        scheduleCount = count;
+        syncVersion = 0;
+        lastOutcome = count > 0 ? Outcome.SAVED : Outcome.NOTHING_PARSED;
+        lastDroppedSlots = dropped;
+        finishSchedules();
+        return true;
+    }
+
+    private boolean processDeltaSms(String msg) {
+        String text = stripCompact(msg);
+        int len = text.length();
+        if (len < 14 || text.charAt(2) != '1') return false;
+        if (!compactChecksumOk(text)) return false;
+
+        long baseVersion = readCompact(text, 3, 2);
+        long newVersion = readCompact(text, 5, 2);
+        long startDay = readCompact(text, 7, 3);
+        long span = readCompact(text, 10, 2);
+        long removedCount = readCompact(text, 12, 1);
+        int pos = 13;
+        int slotChars = len - 1 - pos - (int) removedCount * 2;
+        if (slotChars < 0 || slotChars % 5 != 0) return false;
+        if (baseVersion != syncVersion) {
+            if (!lastSender.isEmpty()) {
+                sendSms(lastSender, "Schedule version mismatch, have v" + syncVersion);
+            }
+            lastOutcome = Outcome.VERSION_MISMATCH;
+            return false;
+        }
+
+        FeederSlot[] parsed = new FeederSlot[MAX_SCHEDULES];
+        int count = scheduleCount;
+        System.arraycopy(schedules, 0, parsed, 0, count);
+
+        for (long r = 0; r < removedCount; r++, pos += 2) {
+            long minute = readCompact(text, pos, 2);
+            for (int i = 0; i < count; i++) {
+                if (parsed[i].getMinuteOfDay() == minute) {
+                    System.arraycopy(parsed, i + 1, parsed, i, count - i - 1);
+                    count--;
+                    break;
+                }
+            }
+        }
+        for (; pos < len - 1; pos += 5) {
+            long minute = readCompact(text, pos, 2);
+            long decigrams = readCompact(text, pos + 2, 3);
+            if (minute >= 1440) return false;
+            int i = 0;
+            while (i < count && parsed[i].getMinuteOfDay() != minute) i++;
+            if (i == count) {
+                if (count == MAX_SCHEDULES) return false;
+                count++;
+            }
+            parsed[i] = new FeederSlot((int) (minute / 60), (int) (minute % 60),
+                    decigrams / 10.0f, true, startDay, startDay + span);
+        }
+        for (int i = 0; i < count; i++) {
+            parsed[i] = parsed[i].withDays(startDay, startDay + span);
+        }
+
+        System.arraycopy(parsed, 0, schedules, 0, count);
+        scheduleCount = count;
+        syncVersion = (int) newVersion;
+        lastOutcome = Outcome.SAVED;
+        finishSchedules();
+        return true;
+    }
+
+    // EEPROM
+
+    private void saveSchedules() {
+        eeprom[EEPROM_BASE_ADDR] = (byte) scheduleCount;
+        for (int i = 0; i < scheduleCount; i++) {
+            schedules[i].writeTo(eeprom, EEPROM_BASE_ADDR + 1 + i * FeederSlot.SIZE);
+        }
+        FeederSlot.writeLittleEndian(eeprom, EEPROM_VERSION_ADDR, syncVersion, 2);
+    }
+
+    private void loadSchedules() {
+        scheduleCount = eeprom[EEPROM_BASE_ADDR] & 0xFF;
+        if (scheduleCount > MAX_SCHEDULES) scheduleCount = 0;
+        for (int i = 0; i < scheduleCount; i++) {
+            schedules[i] = FeederSlot.readFrom(eeprom, EEPROM_BASE_ADDR + 1 + i * FeederSlot.SIZE);
+        }
+        syncVersion = (int) FeederSlot.readLittleEndian(eeprom, EEPROM_VERSION_ADDR, 2);
+    }
+
+    /** Power cycle: RAM state is lost and setup() reloads the schedules from EEPROM */
+    public void reboot() {
+        Arrays.fill(schedules, null);
+        lastSender = "";
+        pendingSmsHeader = "";
+        pendingSmsBody = "";
+        awaitingSmsBody = false;
+        aggSender = "";
+        loadSchedules();
+    }
+
+    // Dates
+
+    static long dateToDays(int y, int m, int d) {
+        long days = 0;
+        for (int year = 2000; year < y; year++) {
+            if ((year % 4 == 0 && year % 100 != 0) || (year % 400 == 0)) {
+                days += 366;
+            } else {
+                days += 365;
+            }
+        }
+
+        int[] daysInMonth = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+        if ((y % 4 == 0 && y % 100 != 0) || (y % 400 == 0)) {
+            daysInMonth[1] = 29;
+        }
+
+        for (int month = 1; month < m; month++) {
+            days += daysInMonth[month - 1];
+        }
+
+        // d - 1 is a 16-bit int, sign-extended into the uint32_t
+        days += (short) (d - 1);
+        return days & 0xFFFFFFFFL;
+    }
+
+    static long parseDate(String s) {
+        String str = ArduinoString.trim(s);
+
+        int mon = 1;
+        int monPos = -1;
+        for (int i = 0; i < 12; i++) {
+            int pos = str.indexOf(MONTHS[i]);
+            if (pos >= 0) {
+                mon = i + 1;
+                monPos = pos;
+                break;
+            }
+        }
+
+        int i = (monPos >= 0) ? monPos + 3 : 0;
+        while (i < str.length() && (str.charAt(i) == ' ' || str.charAt(i) == ',')) i++;
+        int dayStart = i;
+        while (i < str.length() && ArduinoString.isDigit(str.charAt(i))) i++;
+        short day = ArduinoString.toInt(str.substring(dayStart, i));
+
+        while (i < str.length() && !ArduinoString.isDigit(str.charAt(i))) i++;
+        int yearStart = i;
+        while (i < str.length() && ArduinoString.isDigit(str.charAt(i))) i++;
+        short year = ArduinoString.toInt(str.substring(yearStart, i));
+
+        if (day <= 0 || year <= 0) return 0;
+
+        return dateToDays(year, mon, day);
+    }
+
+    private void sendSms(String to, String text) {
+        replies.add(new Reply(to, text));
+    }
+
+    // State
+
+    public int getScheduleCount() { return scheduleCount; }
+
+    /** The schedule table in RAM, which is what the feeder runs on until it reboots */
+    public List<FeederSlot> getSchedules() {
+        return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(schedules).subList(0, scheduleCount)));
+    }
+
+    /** The table setup() would load: what survives a power cycle */
+    public List<FeederSlot> getSavedSchedules() {
+        return new FeederSimulator(eeprom).getSchedules();
+    }
+
+    public int getSyncVersion() { return syncVersion; }
+
+    public String getLastSender() { return lastSender; }
+
+    public byte[] getEeprom() { return eeprom.clone(); }
+
+    /** Confirmations and mismatch replies sent so far, oldest first */
+    public List<Reply> getReplies() { return Collections.unmodifiableList(replies); }
+
+    /** Outcome of the last processSMS() call, or null if none has run */
+    public Outcome getLastOutcome() { return lastOutcome; }
+
+    /** Schedule lines or slots in the last message that parsed but found the table already full */
+    public int getLastDroppedSlots() { return lastDroppedSlots; }
+
+    /** Number of processSMS() calls so far; more than the messages sent when segments are read on their own */
+    public int getProcessedCount() { return processedCount; }
+
+    /** An SMS the feeder sent */
+    public static final class Reply {
+        private final String to;
+        private final String text;
+
+        Reply(String to, String text) {
+            this.to = to;
+            this.text = text;
+        }
+
+        public String getTo() { return to; }
+
+        public String getText() { return text; }
+
+        @Override
+        public String toString() {
+            return to + ": " + text;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.feedersimulator;
+
+/**
+ * One entry of the firmware's schedule table, as the AVR struct holds it: hour and minute
+ * are uint8_t, amount a 32-bit float and the days uint32_t (kept here as non-negative longs).
+ */
+public final class FeederSlot {
+    /** sizeof(FeedingSchedule) on AVR: no padding */
+    public static final int SIZE = 15;
+
+    private final int hour;
+    private final int minute;
+    private final float amount;
+    private final boolean active;
+    private final long startDay;
+    private final long endDay;
+
+    public FeederSlot(int hour, int minute, float amount, boolean active, long startDay, long endDay) {
+        this.hour = hour & 0xFF;
+        this.minute = minute & 0xFF;
+        this.amount = amount;
+        this.active = active;
+        this.startDay = startDay & 0xFFFFFFFFL;
+        this.endDay = endDay & 0xFFFFFFFFL;
+    }
+
+    public int getHour() { return hour; }
+
+    public int getMinute() { return minute; }
+
+    /** hour * 60 + minute, as the delta handler compares it */
+    public int getMinuteOfDay() { return hour * 60 + minute; }
+
+    public float getAmount() { return amount; }
+
+    public boolean isActive() { return active; }
+
+    public long getStartDay() { return startDay; }
+
+    public long getEndDay() { return endDay; }
+
+    FeederSlot withDays(long startDay, long endDay) {
+        return new FeederSlot(hour, minute, amount, active, startDay, endDay);
+    }
+
+    void writeTo(byte[] eeprom, int address) {
+        eeprom[address] = (byte) hour;
+        eeprom[address + 1] = (byte) minute;
+        writeLittleEndian(eeprom, address + 2, Float.floatToRawIntBits(amount), 4);
+        eeprom[address + 6] = (byte) (active ? 1 : 0);
+        writeLittleEndian(eeprom, address + 7, startDay, 4);
+        writeLittleEndian(eeprom, address + 11, endDay, 4);
+    }
+
+    static FeederSlot readFrom(byte[] eeprom, int address) {
+        return new FeederSlot(
+                eeprom[address] & 0xFF,
+                eeprom[address + 1] & 0xFF,
+                Float.intBitsToFloat((int) readLittleEndian(eeprom, address + 2, 4)),
+                eeprom[address + 6] != 0,
+                readLittleEndian(eeprom, address + 7, 4),
+                readLittleEndian(eeprom, address + 11, 4));
+    }
+
+    static void writeLittleEndian(byte[] bytes, int address, long value, int size) {
+        for (int i = 0; i < size; i++) {
+            bytes[address + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    static long readLittleEndian(byte[] bytes, int address, int size) {
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            value |= (bytes[address + i] & 0xFFL) << (8 * i);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FeederSlot)) return false;
+        FeederSlot other = (FeederSlot) o;
+        return hour == other.hour && minute == other.minute
+                && Float.floatToIntBits(amount) == Float.floatToIntBits(other.amount)
+                && active == other.active && startDay == other.startDay && endDay == other.endDay;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hour;
+        result = 31 * result + minute;
+        result = 31 * result + Float.floatToIntBits(amount);
+        result = 31 * result + (active ? 1 : 0);
+        result = 31 * result + (int) (startDay ^ (startDay >>> 32));
+        result = 31 * result + (int) (endDay ^ (endDay >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return hour + ":" + (minute < 10 ? "0" : "") + minute + " " + amount + "g [day "
+                + startDay + " to " + endDay + "]" + (active ? "" : " inactive");
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.feedersimulator;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs one message through simulated feeders and reports what would go wrong on a real one:
+ * the message read whole, as TEST_MODE does, is compared with the same message segmented by
+ * the phone and reassembled by the sketch in each {@link FeederSimulator.Delivery} mode.
+ */
+public final class MessageCheck {
+    static final String SENDER = "+10000000000";
+
+    public enum Issue {
+        /** The feeder ignores or refuses the message */
+        REJECTED,
+        /** A text message with no schedule line the feeder can read */
+        NOTHING_PARSED,
+        /** A delta written for a different base version than the feeder has */
+        VERSION_MISMATCH,
+        /** More feeding times than the feeder's 10 slots; the rest are silently dropped */
+        SLOT_OVERFLOW,
+        /** Segmenting changes what the feeder ends up with, e.g. a line cut between two parts */
+        SPLIT_ACROSS_SEGMENTS
+    }
+
+    private final List<String> segments;
+    private final FeederSimulator whole;
+    private final Set<FeederSimulator.Delivery> brokenDeliveries;
+    private final Set<Issue> issues;
+
+    private MessageCheck(List<String> segments, FeederSimulator whole,
+                         Set<FeederSimulator.Delivery> brokenDeliveries, Set<Issue> issues) {
+        this.segments = segments;
+        this.whole = whole;
+        this.brokenDeliveries = brokenDeliveries;
+        this.issues = issues;
+    }
+
+    /** Checks the message against a feeder with a blank EEPROM */
+    public static MessageCheck check(String body) {
+        return check(body, FeederSimulator.blankEeprom());
+    }
+
+    /** Checks the message against a feeder booting from the given EEPROM contents */
+    public static MessageCheck check(String body, byte[] eeprom) {
+        FeederSimulator whole = new FeederSimulator(eeprom);
+        whole.process(SENDER, body);
+
+        Set<Issue> issues = EnumSet.noneOf(Issue.class);
+        FeederSimulator.Outcome outcome = whole.getLastOutcome();
+        if (outcome == null || outcome == FeederSimulator.Outcome.REJECTED) {
+            issues.add(Issue.REJECTED);
+        } else if (outcome == FeederSimulator.Outcome.NOTHING_PARSED) {
+            issues.add(Issue.NOTHING_PARSED);
+        } else if (outcome == FeederSimulator.Outcome.VERSION_MISMATCH) {
+            issues.add(Issue.VERSION_MISMATCH);
+        }
+        if (whole.getLastDroppedSlots() > 0) {
+            issues.add(Issue.SLOT_OVERFLOW);
+        }
+
+        Set<FeederSimulator.Delivery> broken = EnumSet.noneOf(FeederSimulator.Delivery.class);
+        for (FeederSimulator.Delivery delivery : FeederSimulator.Delivery.values()) {
+            FeederSimulator feeder = new FeederSimulator(eeprom);
+            feeder.receive(SENDER, body, delivery);
+            if (!feeder.getSchedules().equals(whole.getSchedules())
+                    || feeder.getSyncVersion() != whole.getSyncVersion()) {
+                broken.add(delivery);
+            }
+        }
+        if (!broken.isEmpty()) {
+            issues.add(Issue.SPLIT_ACROSS_SEGMENTS);
+        }
+
+        return new MessageCheck(SmsSegmenter.split(body), whole,
+                Collections.unmodifiableSet(broken), Collections.unmodifiableSet(issues));
+    }
+
+    public boolean isOk() { return issues.isEmpty(); }
+
+    public Set<Issue> getIssues() { return issues; }
+
+    public List<String> getSegments() { return segments; }
+
+    /** The delivery modes in which the feeder ends up with something other than the whole message gives */
+    public Set<FeederSimulator.Delivery> getBrokenDeliveries() { return brokenDeliveries; }
+
+    /** The schedule table the message produces when read whole */
+    public List<FeederSlot> getSchedules() { return whole.getSchedules(); }
+
+    /** Feeding times that parsed but did not fit in the table */
+    public int getDroppedSlots() { return whole.getLastDroppedSlots(); }
+
+    @Override
+    public String toString() {
+        return segments.size() + " segment(s), " + whole.getScheduleCount() + " slot(s), issues " + issues
+                + (brokenDeliveries.isEmpty() ? "" : " when " + brokenDeliveries);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.feedersimulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a message into the SMS segments a phone sends: GSM 7-bit when every character is
+ * in the GSM alphabet (160 septets, or 153 per part of a longer message; extension
+ * characters take two and are never split), UCS-2 otherwise (70, or 67 per part).
+ */
+public final class SmsSegmenter {
+    private static final String GSM_BASIC =
+            "@£$¥èéùìòÇ\nØø\rÅå"
+            + "Δ_ΦΓΛΩΠΨΣΘΞÆæßÉ"
+            + " !\"#¤%&'()*+,-./0123456789:;<=>?"
+            + "¡ABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÑÜ§"
+            + "¿abcdefghijklmnopqrstuvwxyzäöñüà";
+    private static final String GSM_EXTENSION = "\f^{}\\[~]|€";
+
+    static final int GSM_SINGLE = 160;
+    static final int GSM_PART = 153;
+    static final int UCS2_SINGLE = 70;
+    static final int UCS2_PART = 67;
+
+    public static boolean isGsm7(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (GSM_BASIC.indexOf(c) < 0 && GSM_EXTENSION.indexOf(c) < 0) return false;
+        }
+        return true;
+    }
+
+    /** The segments in sending order; a single segment when the message fits in one */
+    public static List<String> split(String text) {
+        List<String> parts = new ArrayList<>();
+        if (isGsm7(text)) {
+            if (septets(text, 0, text.length()) <= GSM_SINGLE) {
+                parts.add(text);
+                return parts;
+            }
+            int start = 0;
+            while (start < text.length()) {
+                int end = start;
+                int used = 0;
+                while (end < text.length()) {
+                    int width = GSM_EXTENSION.indexOf(text.charAt(end)) >= 0 ? 2 : 1;
+                    if (used + width > GSM_PART) break;
+                    used += width;
+                    end++;
+                }
+                parts.add(text.substring(start, end));
+                start = end;
+            }
+        } else {
+            if (text.length() <= UCS2_SINGLE) {
+                parts.add(text);
+                return parts;
+            }
+            int start = 0;
+            while (start < text.length()) {
+                int end = Math.min(start + UCS2_PART, text.length());
+                // Keep surrogate pairs together
+                if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) end--;
+                parts.add(text.substring(start, end));
+                start = end;
+            }
+        }
+        return parts;
+    }
+
+    private static int septets(String text, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            count += GSM_EXTENSION.indexOf(text.charAt(i)) >= 0 ? 2 : 1;
+        }
+        return count;
+    }
+
+    private SmsSegmenter() {
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.feedersimulator;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The simulator against the sketch's own TEST_MODE message and README examples, the EEPROM
+ * byte layout, and the failure modes MessageCheck reports.
+ */
+public class FeederSimulatorTest {
+    private static final String SENDER = "+1234567890";
+    private static final String TEST_MODE_MESSAGE =
+            "New feeding schedule for Tilapia\n\n"
+            + "Aug 24, 2025 - Aug 30, 2025:\n"
+            + "- 5:00 AM - 118.0g\n"
+            + "- 9:00 PM - 115.0g";
+    private static final String COMPACT_EXAMPLE = "FS12IN064i0ISJi0H+9";
+    private static final List<FeederSlot> EXAMPLE_SLOTS = Arrays.asList(
+            new FeederSlot(5, 0, 118.0f, true, 9367, 9373),
+            new FeederSlot(21, 0, 115.0f, true, 9367, 9373));
+
+    @Test
+    public void testModeMessage_isParsedAndConfirmed() {
+        FeederSimulator feeder = new FeederSimulator();
+
+        feeder.process(SENDER, TEST_MODE_MESSAGE);
+
+        assertEquals(FeederSimulator.Outcome.SAVED, feeder.getLastOutcome());
+        assertEquals(EXAMPLE_SLOTS, feeder.getSchedules());
+        assertEquals(FeederSimulator.VERSION_UNKNOWN, feeder.getSyncVersion());
+        assertEquals("Schedule updated! Added 2 feeding times.", feeder.getReplies().get(0).getText());
+        assertEquals(SENDER, feeder.getReplies().get(0).getTo());
+    }
+
+    @Test
+    public void compactExample_matchesTextExample() {
+        FeederSimulator feeder = new FeederSimulator();
+
+        feeder.receive(SENDER, COMPACT_EXAMPLE);
+
+        assertEquals(EXAMPLE_SLOTS, feeder.getSchedules());
+        assertEquals(0, feeder.getSyncVersion());
+    }
+
+    @Test
+    public void eeprom_holdsPackedLittleEndianStructs() {
+        FeederSimulator feeder = new FeederSimulator();
+        feeder.receive(SENDER, COMPACT_EXAMPLE);
+        byte[] eeprom = feeder.getEeprom();
+
+        assertEquals(2, eeprom[0]);
+        // 5:00, 118.0f = 0x42EC0000, active, day 9367 = 0x2497, day 9373 = 0x249D
+        byte[] first = {5, 0, 0x00, 0x00, (byte) 0xEC, 0x42, 1, (byte) 0x97, 0x24, 0, 0, (byte) 0x9D, 0x24, 0, 0};
+        assertArrayEquals(first, Arrays.copyOfRange(eeprom, 1, 1 + FeederSlot.SIZE));
+        assertEquals(21, eeprom[1 + FeederSlot.SIZE]);
+        // syncVersion 0 right after the ten-slot table; the unused slots keep their 0xFF
+        assertEquals(151, FeederSimulator.EEPROM_VERSION_ADDR);
+        assertEquals(0, eeprom[151]);
+        assertEquals(0, eeprom[152]);
+        assertEquals((byte) 0xFF, eeprom[1 + 2 * FeederSlot.SIZE]);
+    }
+
+    @Test
+    public void reboot_reloadsSavedTableAndVersion() {
+        FeederSimulator feeder = new FeederSimulator();
+        feeder.receive(SENDER, COMPACT_EXAMPLE);
+
+        feeder.reboot();
+
+        assertEquals(EXAMPLE_SLOTS, feeder.getSchedules());
+        assertEquals(0, feeder.getSyncVersion());
+        assertEquals(EXAMPLE_SLOTS, new FeederSimulator(feeder.getEeprom()).getSchedules());
+    }
+
+    @Test
+    public void textWithoutSchedules_savesAndConfirmsEmptyTable() {
+        FeederSimulator feeder = new FeederSimulator();
+        feeder.receive(SENDER, COMPACT_EXAMPLE);
+
+        feeder.receive(SENDER, "New feeding schedule for Tilapia\n\nAug 24, 2025 - Aug 30, 2025:\n- 5:00 AM - 0g");
+
+        assertEquals(FeederSimulator.Outcome.NOTHING_PARSED, feeder.getLastOutcome());
+        assertTrue(feeder.getSchedules().isEmpty());
+        assertTrue(feeder.getSavedSchedules().isEmpty());
+        assertEquals("Schedule updated! Added 0 feeding times.", feeder.getReplies().get(1).getText());
+    }
+
+    @Test
+    public void compactWithoutUsableSlots_isSavedAndConfirmed() {
+        FeederSimulator feeder = new FeederSimulator();
+        feeder.receive(SENDER, COMPACT_EXAMPLE);
+
+        // The example's range with one 5:00 AM slot of 0 dg, which the feeder skips
+        feeder.receive(SENDER, "FS12IN064i000D");
+        feeder.reboot();
+
+        assertEquals(FeederSimulator.Outcome.NOTHING_PARSED, feeder.getLastOutcome());
+        assertTrue(feeder.getSchedules().isEmpty());
+        assertEquals(0, feeder.getSyncVersion());
+        assertEquals(2, feeder.getReplies().size());
+        assertEquals("Schedule updated! Added 0 feeding times.", feeder.getReplies().get(1).getText());
+    }
+
+    @Test
+    public void dates_countDaysSince2000() {
+        assertEquals(0, FeederSimulator.dateToDays(2000, 1, 1));
+        assertEquals(9367, FeederSimulator.parseDate("Aug 24, 2025"));
+        assertEquals(60, FeederSimulator.parseDate("Mar 1, 2000"));
+        // No range checks: Feb 30 is Mar 2, and a day that overflows an AVR int is no date
+        assertEquals(FeederSimulator.parseDate("Mar 2, 2025"), FeederSimulator.parseDate("Feb 30, 2025"));
+        assertEquals(0, FeederSimulator.parseDate("Aug 40000, 2025"));
+    }
+
+    @Test
+    public void monthSearch_takesFirstMonthInCalendarOrder() {
+        FeederSimulator feeder = new FeederSimulator();
+
+        // "Dec" comes after "Aug" in the month list, so the fish name is never looked at
+        feeder.process(SENDER, TEST_MODE_MESSAGE.replace("Tilapia", "Decorated Catfish"));
+        assertEquals(EXAMPLE_SLOTS, feeder.getSchedules());
+
+        // "May" comes before "Aug": the date line then starts at the fish name and the start day is lost
+        feeder.process(SENDER, TEST_MODE_MESSAGE.replace("Tilapia", "Mayan Cichlid"));
+        assertEquals(0, feeder.getSchedules().get(0).getStartDay());
+    }
+
+    @Test
+    public void elevenTimes_overflowTheTable() {
+        StringBuilder message = new StringBuilder("New feeding schedule for Tilapia\n\nAug 24, 2025 - Aug 30, 2025:\n");
+        for (int hour = 1; hour <= 11; hour++) {
+            message.append("- ").append(hour).append(":00 AM - 10.0g\n");
+        }
+
+        MessageCheck check = MessageCheck.check(message.toString());
+
+        assertTrue(check.getIssues().contains(MessageCheck.Issue.SLOT_OVERFLOW));
+        assertEquals(1, check.getDroppedSlots());
+        assertEquals(FeederSimulator.MAX_SCHEDULES, check.getSchedules().size());
+    }
+
+    @Test
+    public void longText_isCutBetweenSegments() {
+        StringBuilder message = new StringBuilder("New feeding schedule for Tilapia\n\nAug 24, 2025 - Aug 30, 2025:\n");
+        for (int hour = 1; hour <= 8; hour++) {
+            message.append("- ").append(hour).append(":30 AM - 12.25g\n");
+        }
+        FeederSimulator feeder = new FeederSimulator();
+
+        MessageCheck check = MessageCheck.check(message.toString());
+        feeder.receive(SENDER, message.toString());
+
+        assertEquals(2, check.getSegments().size());
+        assertTrue(check.getIssues().contains(MessageCheck.Issue.SPLIT_ACROSS_SEGMENTS));
+        // The fifth time is cut after "12": joined back, it reads as 12 g; read per segment, it is lost
+        assertEquals(2, check.getBrokenDeliveries().size());
+        // Read on its own, the second segment does not start with "New feeding" and is ignored
+        assertEquals(2, feeder.getProcessedCount());
+        assertTrue(feeder.getScheduleCount() < 8);
+    }
+
+    @Test
+    public void compactExample_passesCheck() {
+        MessageCheck check = MessageCheck.check(COMPACT_EXAMPLE);
+
+        assertTrue(check.toString(), check.isOk());
+    }
+
+    @Test
+    public void deltaOnOtherVersion_isRefusedWithReply() {
+        FeederSimulator feeder = new FeederSimulator();
+        feeder.receive(SENDER, TEST_MODE_MESSAGE);
+
+        // "FD1" base 0, new 1, day 9367, span 6, nothing removed, 6:00 AM 5.5 g, check digit
+        String delta = "FD1" + "00" + "01" + "2IN" + "06" + "0" + "5e" + "00t";
+        delta += checkDigit(delta);
+        feeder.receive(SENDER, delta);
+
+        assertEquals(FeederSimulator.Outcome.VERSION_MISMATCH, feeder.getLastOutcome());
+        assertEquals("Schedule version mismatch, have v65535", feeder.getReplies().get(1).getText());
+
+        feeder.receive(SENDER, COMPACT_EXAMPLE);
+        feeder.receive(SENDER, delta);
+
+        assertEquals(FeederSimulator.Outcome.SAVED, feeder.getLastOutcome());
+        assertEquals(1, feeder.getSyncVersion());
+        assertEquals(new FeederSlot(6, 0, 5.5f, true, 9367, 9373), feeder.getSchedules().get(2));
+    }
+
+    @Test
+    public void badAmounts_followAtof() {
+        assertEquals(118.0f, ArduinoString.toFloat("118.0"), 0f);
+        assertEquals(12.0f, ArduinoString.toFloat("12kg"), 0f);
+        assertEquals(0f, ArduinoString.toFloat("abc"), 0f);
+        assertEquals(1500f, ArduinoString.toFloat("1.5e3"), 0f);
+        assertTrue(Float.isInfinite(ArduinoString.toFloat("inf")));
+        assertEquals(-31073, ArduinoString.toInt("99999 "));
+    }
+
+    @Test
+    public void segmenter_usesGsmPartSizes() {
+        assertEquals(1, SmsSegmenter.split(repeat('a', 160)).size());
+        assertEquals(Arrays.asList(repeat('a', 153), "aaaaaaaa"), SmsSegmenter.split(repeat('a', 161)));
+        // An extension character takes two septets and is not split from its escape
+        List<String> parts = SmsSegmenter.split(repeat('a', 152) + "{" + repeat('a', 10));
+        assertEquals(152, parts.get(0).length());
+        assertEquals(3, SmsSegmenter.split(repeat('ç', 135)).size());
+    }
+
+    @Test
+    public void randomMessages_neverCrashTheParser() {
+        Random random = new Random(14);
+        String alphabet = "New feding schdulforTAPJ0123456789:- .,gAMPamp\n\r\tFSD+/";
+        for (int i = 0; i < 5000; i++) {
+            FeederSimulator feeder = new FeederSimulator();
+            StringBuilder message = new StringBuilder(i % 3 == 0 ? "New feeding " : i % 3 == 1 ? "FS1" : "FD1");
+            int length = random.nextInt(300);
+            for (int j = 0; j < length; j++) {
+                message.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            feeder.receive(SENDER, message.toString(), FeederSimulator.Delivery.DIRECT);
+            feeder.reboot();
+
+            assertTrue(feeder.getScheduleCount() <= FeederSimulator.MAX_SCHEDULES);
+        }
+    }
+
+    private static char checkDigit(String text) {
+        int sum = 0;
+        for (int i = 0; i < text.length(); i++) sum += FeederSimulator.compactDigit(text.charAt(i));
+        return "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz+/".charAt(sum % 64);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.schedulecore;
+
+/**
+ * A {@link GrowthModel}'s day by day forecast for one pond: average weight, live fish and
+ * the feeding table's ration for each day of the cycle.
+ */
+public final class BiomassProjection {
+    private final int firstDay;
+    private final float[] weight;
+    private final float[] count;
+
+    BiomassProjection(int firstDay, float[] weight, float[] count) {
+        this.firstDay = firstDay;
+        this.weight = weight;
+        this.count = count;
+    }
+
+    public int getFirstDay() { return firstDay; }
+
+    public int getDays() { return weight.length; }
+
+    /** Whether the projection has a value for the day */
+    public boolean covers(int day) {
+        return day >= firstDay && day < firstDay + weight.length;
+    }
+
+    public float weightOn(int day) { return weight[index(day)]; }
+
+    public float countOn(int day) { return count[index(day)]; }
+
+    /** Live weight of the pond on the day */
+    public float biomassOn(int day) {
+        int i = index(day);
+        return weight[i] * count[i];
+    }
+
+    /** Feed for one fish on the day, split evenly over its feedings */
+    public float feedPerFeeding(int day, int feedingsPerDay) {
+        return GrowthModel.dailyRationPerFish(weightOn(day)) / Math.max(1, feedingsPerDay);
+    }
+
+    /** Feed for the whole pond on the day */
+    public float pondRationOn(int day) {
+        return GrowthModel.dailyRationPerFish(weightOn(day)) * countOn(day);
+    }
+
+    private int index(int day) {
+        if (!covers(day)) {
+            throw new IllegalArgumentException("Day " + day + " is outside the projection");
+        }
+        return day - firstDay;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.schedulecore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A feeding schedule as it travels in the compact SMS format: a date range in days since
+ * 2000-01-01 (the feeder's day numbers) and feeding slots in minutes of the day and
+ * decigrams. See {@link CompactScheduleCodec}.
+ */
+public final class CompactSchedule {
+    private final int startDay;
+    private final int endDay;
+    private final List<Slot> slots;
+
+    public CompactSchedule(int startDay, int endDay, List<Slot> slots) {
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.slots = Collections.unmodifiableList(new ArrayList<>(slots));
+    }
+
+    public int getStartDay() { return startDay; }
+
+    public int getEndDay() { return endDay; }
+
+    public List<Slot> getSlots() { return slots; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompactSchedule)) return false;
+        CompactSchedule other = (CompactSchedule) o;
+        return startDay == other.startDay && endDay == other.endDay && slots.equals(other.slots);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = startDay;
+        result = 31 * result + endDay;
+        result = 31 * result + slots.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "days " + startDay + "-" + endDay + " " + slots;
+    }
+
+    /** One feeding time and amount */
+    public static final class Slot {
+        private final int minuteOfDay;
+        private final int decigrams;
+
+        public Slot(int minuteOfDay, int decigrams) {
+            this.minuteOfDay = minuteOfDay;
+            this.decigrams = decigrams;
+        }
+
+        public int getMinuteOfDay() { return minuteOfDay; }
+
+        public int getDecigrams() { return decigrams; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Slot)) return false;
+            Slot other = (Slot) o;
+            return minuteOfDay == other.minuteOfDay && decigrams == other.decigrams;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * minuteOfDay + decigrams;
+        }
+
+        @Override
+        public String toString() {
+            return minuteOfDay + "m:" + decigrams + "dg";
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.schedulecore;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Encodes a schedule into the compact SMS format read by the feeder firmware, and back.
+ *
+ * Layout, all in base-64 digits from {@link #ALPHABET}:
+ * "FS", a version digit, the start day (3 digits), the number of days to the end day (2),
+ * then per slot the minute of the day (2) and the amount in decigrams (3), and finally a
+ * check digit: the sum of every preceding digit value, mod 64. Ten slots fit in 59
+ * characters, well inside one 160-character segment. The feeder holds at most
+ * {@link #MAX_SLOTS} slots and skips slots of 0 decigrams, so neither is encoded.
+ *
+ * A {@link ScheduleDelta} uses the same digits: "FD", a version digit, the base and new
+ * schedule versions (2 each), the start day (3) and span (2), the number of removed times (1),
+ * the removed minutes of the day (2 each), the added or changed slots (5 each, as above) and
+ * the check digit.
+ *
+ * Whitespace is ignored on decode, since the feeder and some phones insert line breaks
+ * where the segments of a message were joined.
+ */
+public final class CompactScheduleCodec {
+    public static final int VERSION = 1;
+    static final String PREFIX = "FS";
+    static final String DELTA_PREFIX = "FD";
+    // Characters of the GSM 03.38 basic set that need no escape and survive every modem
+    static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz+/";
+    private static final int BASE = 64;
+
+    private static final int DAY_DIGITS = 3;
+    private static final int SPAN_DIGITS = 2;
+    private static final int MINUTE_DIGITS = 2;
+    private static final int AMOUNT_DIGITS = 3;
+    private static final int HEADER_LENGTH = PREFIX.length() + 1 + DAY_DIGITS + SPAN_DIGITS;
+    private static final int SLOT_LENGTH = MINUTE_DIGITS + AMOUNT_DIGITS;
+    private static final int VERSION_DIGITS = 2;
+    private static final int DELTA_HEADER_LENGTH =
+            DELTA_PREFIX.length() + 1 + 2 * VERSION_DIGITS + DAY_DIGITS + SPAN_DIGITS + 1;
+
+    public static final int MAX_DAY = BASE * BASE * BASE - 1;
+    public static final int MAX_SPAN_DAYS = BASE * BASE - 1;
+    public static final int MAX_DECIGRAMS = BASE * BASE * BASE - 1;
+    // The firmware's MAX_SCHEDULES
+    public static final int MAX_SLOTS = 10;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    // 2000-01-01T00:00Z, day 0 of the feeder's dateToDays()
+    private static final long EPOCH_2000_UTC_MS = 946_684_800_000L;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    /**
+     * Encodes the schedule; throws IllegalArgumentException if a field is out of range or the
+     * feeder could not hold it as sent
+     */
+    public static String encode(CompactSchedule schedule) {
+        int span = schedule.getEndDay() - schedule.getStartDay();
+        checkRange("start day", schedule.getStartDay(), MAX_DAY);
+        checkRange("day span", span, MAX_SPAN_DAYS);
+        if (schedule.getSlots().size() > MAX_SLOTS) {
+            throw new IllegalArgumentException("More than " + MAX_SLOTS + " feeding times: "
+                    + schedule.getSlots().size());
+        }
+
+        StringBuilder out = new StringBuilder(HEADER_LENGTH + schedule.getSlots().size() * SLOT_LENGTH + 1);
+        out.append(PREFIX).append(ALPHABET.charAt(VERSION));
+        appendDigits(out, schedule.getStartDay(), DAY_DIGITS);
+        appendDigits(out, span, SPAN_DIGITS);
+        for (CompactSchedule.Slot slot : schedule.getSlots()) {
+            checkRange("minute of day", slot.getMinuteOfDay(), MINUTES_PER_DAY - 1);
+            checkAmount(slot);
+            appendDigits(out, slot.getMinuteOfDay(), MINUTE_DIGITS);
+            appendDigits(out, slot.getDecigrams(), AMOUNT_DIGITS);
+        }
+        out.append(ALPHABET.charAt(checksum(out, out.length())));
+        return out.toString();
+    }
+
+    /**
+     * Decodes a compact message. Throws IllegalArgumentException if the text is not a
+     * compact schedule of a known version, is truncated, or fails the check digit.
+     */
+    public static CompactSchedule decode(String text) {
+        StringBuilder compact = stripWhitespace(text);
+        if (!isCompact(compact)) throw new IllegalArgumentException("Not a compact schedule");
+        int version = digit(compact, PREFIX.length());
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported version " + version);
+        int length = compact.length();
+        if (length < HEADER_LENGTH + 1 || (length - HEADER_LENGTH - 1) % SLOT_LENGTH != 0) {
+            throw new IllegalArgumentException("Bad length " + length);
+        }
+        if (digit(compact, length - 1) != checksum(compact, length - 1)) {
+            throw new IllegalArgumentException("Check digit mismatch");
+        }
+
+        int pos = PREFIX.length() + 1;
+        int startDay = readDigits(compact, pos, DAY_DIGITS);
+        pos += DAY_DIGITS;
+        int span = readDigits(compact, pos, SPAN_DIGITS);
+        pos += SPAN_DIGITS;
+        List<CompactSchedule.Slot> slots = new ArrayList<>((length - pos - 1) / SLOT_LENGTH);
+        while (pos < length - 1) {
+            int minute = readDigits(compact, pos, MINUTE_DIGITS);
+            int decigrams = readDigits(compact, pos + MINUTE_DIGITS, AMOUNT_DIGITS);
+            checkRange("minute of day", minute, MINUTES_PER_DAY - 1);
+            slots.add(new CompactSchedule.Slot(minute, decigrams));
+            pos += SLOT_LENGTH;
+        }
+        return new CompactSchedule(startDay, startDay + span, slots);
+    }
+
+    /** Encodes a delta; throws IllegalArgumentException if a field is out of range */
+    public static String encodeDelta(ScheduleDelta delta) {
+        checkRange("base version", delta.getBaseVersion(), ScheduleDelta.MAX_VERSION);
+        checkRange("new version", delta.getNewVersion(), ScheduleDelta.MAX_VERSION);
+        checkRange("start day", delta.getStartDay(), MAX_DAY);
+        checkRange("day span", delta.getEndDay() - delta.getStartDay(), MAX_SPAN_DAYS);
+        checkRange("removed times", delta.getRemovedMinutes().size(), BASE - 1);
+
+        StringBuilder out = new StringBuilder(DELTA_HEADER_LENGTH
+                + delta.getRemovedMinutes().size() * MINUTE_DIGITS + delta.getUpserts().size() * SLOT_LENGTH + 1);
+        out.append(DELTA_PREFIX).append(ALPHABET.charAt(VERSION));
+        appendDigits(out, delta.getBaseVersion(), VERSION_DIGITS);
+        appendDigits(out, delta.getNewVersion(), VERSION_DIGITS);
+        appendDigits(out, delta.getStartDay(), DAY_DIGITS);
+        appendDigits(out, delta.getEndDay() - delta.getStartDay(), SPAN_DIGITS);
+        appendDigits(out, delta.getRemovedMinutes().size(), 1);
+        for (int minute : delta.getRemovedMinutes()) {
+            checkRange("minute of day", minute, MINUTES_PER_DAY - 1);
+            appendDigits(out, minute, MINUTE_DIGITS);
+        }
+        for (CompactSchedule.Slot slot : delta.getUpserts()) {
+            checkRange("minute of day", slot.getMinuteOfDay(), MINUTES_PER_DAY - 1);
+            checkAmount(slot);
+            appendDigits(out, slot.getMinuteOfDay(), MINUTE_DIGITS);
+            appendDigits(out, slot.getDecigrams(), AMOUNT_DIGITS);
+        }
+        out.append(ALPHABET.charAt(checksum(out, out.length())));
+        return out.toString();
+    }
+
+    /** Decodes a delta message; throws IllegalArgumentException like {@link #decode} */
+    public static ScheduleDelta decodeDelta(String text) {
+        StringBuilder compact = stripWhitespace(text);
+        if (!startsWith(compact, DELTA_PREFIX)) throw new IllegalArgumentException("Not a schedule delta");
+        int length = compact.length();
+        if (length < DELTA_HEADER_LENGTH + 1) throw new IllegalArgumentException("Bad length " + length);
+        int version = digit(compact, DELTA_PREFIX.length());
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported version " + version);
+        if (digit(compact, length - 1) != checksum(compact, length - 1)) {
+            throw new IllegalArgumentException("Check digit mismatch");
+        }
+
+        int pos = DELTA_PREFIX.length() + 1;
+        int baseVersion = readDigits(compact, pos, VERSION_DIGITS);
+        pos += VERSION_DIGITS;
+        int newVersion = readDigits(compact, pos, VERSION_DIGITS);
+        pos += VERSION_DIGITS;
+        int startDay = readDigits(compact, pos, DAY_DIGITS);
+        pos += DAY_DIGITS;
+        int span = readDigits(compact, pos, SPAN_DIGITS);
+        pos += SPAN_DIGITS;
+        int removedCount = readDigits(compact, pos, 1);
+        pos += 1;
+        int slotChars = length - 1 - pos - removedCount * MINUTE_DIGITS;
+        if (slotChars < 0 || slotChars % SLOT_LENGTH != 0) throw new IllegalArgumentException("Bad length " + length);
+
+        List<Integer> removed = new ArrayList<>(removedCount);
+        for (int i = 0; i < removedCount; i++) {
+            int minute = readDigits(compact, pos, MINUTE_DIGITS);
+            checkRange("minute of day", minute, MINUTES_PER_DAY - 1);
+            removed.add(minute);
+            pos += MINUTE_DIGITS;
+        }
+        List<CompactSchedule.Slot> upserts = new ArrayList<>(slotChars / SLOT_LENGTH);
+        while (pos < length - 1) {
+            int minute = readDigits(compact, pos, MINUTE_DIGITS);
+            checkRange("minute of day", minute, MINUTES_PER_DAY - 1);
+            upserts.add(new CompactSchedule.Slot(minute, readDigits(compact, pos + MINUTE_DIGITS, AMOUNT_DIGITS)));
+            pos += SLOT_LENGTH;
+        }
+        return new ScheduleDelta(baseVersion, newVersion, startDay, startDay + span, removed, upserts);
+    }
+
+    /** Whether the message starts like a compact schedule, of any version */
+    public static boolean isCompact(CharSequence text) {
+        return startsWith(text, PREFIX);
+    }
+
+    /** Whether the message starts like a schedule delta, of any version */
+    public static boolean isDelta(CharSequence text) {
+        return startsWith(text, DELTA_PREFIX);
+    }
+
+    /** Grams rounded to the nearest decigram */
+    public static int toDecigrams(float grams) {
+        return Math.round(grams * 10);
+    }
+
+    /** Days from 2000-01-01 to the local calendar date of the given time */
+    public static int toEpochDay(long millis) {
+        Calendar local = Calendar.getInstance();
+        local.setTimeInMillis(millis);
+        Calendar utc = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        utc.clear();
+        utc.set(local.get(Calendar.YEAR), local.get(Calendar.MONTH), local.get(Calendar.DAY_OF_MONTH));
+        // Both are UTC midnights, so the division is exact
+        return (int) ((utc.getTimeInMillis() - EPOCH_2000_UTC_MS) / DAY_MS);
+    }
+
+    /** Local midnight of the given day number */
+    public static long fromEpochDay(int day) {
+        Calendar utc = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        utc.setTimeInMillis(EPOCH_2000_UTC_MS + day * DAY_MS);
+        Calendar local = Calendar.getInstance();
+        local.clear();
+        local.set(utc.get(Calendar.YEAR), utc.get(Calendar.MONTH), utc.get(Calendar.DAY_OF_MONTH));
+        return local.getTimeInMillis();
+    }
+
+    private static boolean startsWith(CharSequence text, String prefix) {
+        return text != null && text.length() > prefix.length()
+                && text.subSequence(0, prefix.length()).toString().equals(prefix)
+                && ALPHABET.indexOf(text.charAt(prefix.length())) >= 0;
+    }
+
+    private static StringBuilder stripWhitespace(String text) {
+        if (text == null) throw new IllegalArgumentException("No message");
+        StringBuilder compact = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) compact.append(c);
+        }
+        return compact;
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int digits) {
+        for (int shift = (digits - 1) * 6; shift >= 0; shift -= 6) {
+            out.append(ALPHABET.charAt((value >> shift) & (BASE - 1)));
+        }
+    }
+
+    private static int readDigits(CharSequence text, int pos, int digits) {
+        int value = 0;
+        for (int i = 0; i < digits; i++) {
+            value = value * BASE + digit(text, pos + i);
+        }
+        return value;
+    }
+
+    private static int digit(CharSequence text, int pos) {
+        int value = ALPHABET.indexOf(text.charAt(pos));
+        if (value < 0) throw new IllegalArgumentException("Bad character at " + pos);
+        return value;
+    }
+
+    private static int checksum(CharSequence text, int end) {
+        int sum = 0;
+        for (int i = 0; i < end; i++) {
+            sum += digit(text, i);
+        }
+        return sum % BASE;
+    }
+
+    // An amount that rounds to 0 dg would be skipped by the feeder but counted as sent
+    private static void checkAmount(CompactSchedule.Slot slot) {
+        if (slot.getDecigrams() == 0) {
+            throw new IllegalArgumentException("Amount at minute " + slot.getMinuteOfDay()
+                    + " rounds to 0 decigrams");
+        }
+        checkRange("decigrams", slot.getDecigrams(), MAX_DECIGRAMS);
+    }
+
+    private static void checkRange(String field, int value, int max) {
+        if (value < 0 || value > max) {
+            throw new IllegalArgumentException(field + " out of range: " + value);
+        }
+    }
+
+    private CompactScheduleCodec() {
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.schedulecore;
+
+import java.text.DateFormatSymbols;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reading the feeding times users enter.
+ */
+public final class FeedingTimes {
+    // Upper-cased AM/PM markers of every locale, mapped to whether they mean PM
+    private static final Map<String, Boolean> MARKERS = loadMarkers();
+
+    /**
+     * Converts a feeding time such as "5:00 AM" or "09:30 PM" into minutes since midnight.
+     * Returns -1 if the time cannot be read, so unparseable rows sort first.
+     */
+    public static int toMinuteOfDay(String feedingTime) {
+        if (feedingTime == null) return -1;
+
+        int length = feedingTime.length();
+        int i = 0;
+        int hour = 0;
+        int minute = 0;
+        int digits = 0;
+
+        while (i < length && Character.isWhitespace(feedingTime.charAt(i))) i++;
+        while (i < length && Character.isDigit(feedingTime.charAt(i))) {
+            hour = hour * 10 + Character.digit(feedingTime.charAt(i++), 10);
+            digits++;
+        }
+        if (digits == 0 || i >= length || feedingTime.charAt(i) != ':') return -1;
+        i++;
+
+        digits = 0;
+        while (i < length && Character.isDigit(feedingTime.charAt(i))) {
+            minute = minute * 10 + Character.digit(feedingTime.charAt(i++), 10);
+            digits++;
+        }
+        if (digits == 0 || hour > 23 || minute > 59) return -1;
+
+        // Older rows were formatted in the device locale, so accept any locale's AM/PM marker;
+        // failing that, look for a Latin one such as "a.m."; 24-hour strings have none
+        Boolean pm = MARKERS.get(marker(feedingTime.substring(i)));
+        boolean isPm = pm != null && pm;
+        boolean isAm = pm != null && !pm;
+        for (; pm == null && i < length; i++) {
+            char c = Character.toUpperCase(feedingTime.charAt(i));
+            if (c == 'P') {
+                isPm = true;
+                break;
+            }
+            if (c == 'A') {
+                isAm = true;
+                break;
+            }
+        }
+
+        if (isPm && hour < 12) hour += 12;
+        if (isAm && hour == 12) hour = 0;
+
+        return hour * 60 + minute;
+    }
+
+    private static Map<String, Boolean> loadMarkers() {
+        Map<String, Boolean> markers = new HashMap<>();
+        Set<String> ambiguous = new HashSet<>();
+        for (Locale locale : DateFormatSymbols.getAvailableLocales()) {
+            String[] amPm = DateFormatSymbols.getInstance(locale).getAmPmStrings();
+            for (int i = 0; i < 2; i++) {
+                String marker = marker(amPm[i]);
+                Boolean previous = markers.put(marker, i == 1);
+                if (previous != null && previous != (i == 1)) ambiguous.add(marker);
+            }
+        }
+        // A marker that means AM in one locale and PM in another decides nothing
+        markers.keySet().removeAll(ambiguous);
+        markers.remove("");
+        return markers;
+    }
+
+    // Upper-cased, without the spaces and bidi marks formatters put around markers
+    private static String marker(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && isPadding(text.charAt(start))) start++;
+        while (end > start && isPadding(text.charAt(end - 1))) end--;
+        return text.substring(start, end).toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean isPadding(char c) {
+        return Character.isWhitespace(c) || Character.isSpaceChar(c) || Character.getType(c) == Character.FORMAT;
+    }
+
+    private FeedingTimes() {
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.schedulecore;
+
+import java.util.List;
+
+/**
+ * Exponential growth with a constant daily mortality, fitted to a pond's weight samples.
+ * Growth is the specific growth rate of a least squares line through ln(weight) by day;
+ * with fewer than two usable samples it falls back to {@link #DEFAULT_DAILY_GROWTH}.
+ * Mortality spreads the deaths since stocking evenly over the days stocked.
+ */
+public final class GrowthModel {
+    // 1.5% a day, a typical grow-out rate for tilapia and milkfish
+    public static final float DEFAULT_DAILY_GROWTH = 0.015f;
+    // Fitted rates above this come from noisy samples, not fish
+    static final float MAX_DAILY_GROWTH = 0.05f;
+
+    // Feed per day as a share of body weight, by the smallest weight in grams it applies to
+    private static final float[] RATION_FROM_WEIGHT = {0f, 5f, 20f, 50f, 100f, 250f, 500f};
+    private static final float[] RATION_SHARE = {0.10f, 0.06f, 0.04f, 0.03f, 0.025f, 0.02f, 0.015f};
+
+    private final int anchorDay;
+    private final float anchorWeight;
+    private final int countDay;
+    private final int anchorCount;
+    private final float dailyGrowth;
+    private final float dailyMortality;
+
+    GrowthModel(int anchorDay, float anchorWeight, int countDay, int anchorCount, float dailyGrowth,
+                float dailyMortality) {
+        this.anchorDay = anchorDay;
+        this.anchorWeight = anchorWeight;
+        this.countDay = countDay;
+        this.anchorCount = anchorCount;
+        this.dailyGrowth = dailyGrowth;
+        this.dailyMortality = dailyMortality;
+    }
+
+    /**
+     * Fits the model to the samples, which must be ordered by day. Weight is anchored at
+     * the last sample; the count is anchored at {@code aliveCount} on {@code today}.
+     * Returns null if there is no sample with a positive weight.
+     */
+    public static GrowthModel fit(List<WeightSample> samples, int stockedCount, int aliveCount,
+                                  int daysStocked, int today) {
+        WeightSample last = null;
+        int n = 0;
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (WeightSample sample : samples) {
+            if (sample.getWeightGrams() <= 0) continue;
+            double x = sample.getDay();
+            double y = Math.log(sample.getWeightGrams());
+            n++;
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+            last = sample;
+        }
+        if (last == null) return null;
+
+        float growth = DEFAULT_DAILY_GROWTH;
+        double spread = n * sumXX - sumX * sumX;
+        if (n >= 2 && spread > 0) {
+            growth = (float) Math.max(0, Math.min(MAX_DAILY_GROWTH, (n * sumXY - sumX * sumY) / spread));
+        }
+
+        float mortality = 0f;
+        if (stockedCount > 0 && aliveCount < stockedCount && daysStocked > 0) {
+            double survival = Math.max(aliveCount, 0) / (double) stockedCount;
+            mortality = (float) (1 - Math.pow(survival, 1.0 / daysStocked));
+        }
+
+        return new GrowthModel(last.getDay(), last.getWeightGrams(), today, Math.max(aliveCount, 0),
+                growth, mortality);
+    }
+
+    public float getDailyGrowth() { return dailyGrowth; }
+
+    public float getDailyMortality() { return dailyMortality; }
+
+    /** Average weight of one fish on the given day */
+    public float weightOn(int day) {
+        return (float) (anchorWeight * Math.exp(dailyGrowth * (day - anchorDay)));
+    }
+
+    /** Live fish on the given day; days before the one the model was fitted on keep today's count */
+    public float countOn(int day) {
+        if (day <= countDay) return anchorCount;
+        return (float) (anchorCount * Math.pow(1 - dailyMortality, day - countDay));
+    }
+
+    /** The model's weight and count for each of {@code days} days from {@code firstDay} */
+    public BiomassProjection project(int firstDay, int days) {
+        float[] weight = new float[days];
+        float[] count = new float[days];
+        for (int i = 0; i < days; i++) {
+            weight[i] = weightOn(firstDay + i);
+            count[i] = countOn(firstDay + i);
+        }
+        return new BiomassProjection(firstDay, weight, count);
+    }
+
+    /** Feed per day for one fish of the given weight, from the feeding table */
+    public static float dailyRationPerFish(float weightGrams) {
+        int row = 0;
+        while (row + 1 < RATION_FROM_WEIGHT.length && weightGrams >= RATION_FROM_WEIGHT[row + 1]) row++;
+        return weightGrams * RATION_SHARE[row];
+    }
+
+    /**
+     * Feed conversion ratio: grams of feed per gram of live weight gained. NaN when the
+     * pond did not gain weight, where the ratio means nothing.
+     */
+    public static float feedConversionRatio(float feedGrams, float startBiomassGrams, float endBiomassGrams) {
+        float gain = endBiomassGrams - startBiomassGrams;
+        return gain > 0 ? feedGrams / gain : Float.NaN;
+    }
+}
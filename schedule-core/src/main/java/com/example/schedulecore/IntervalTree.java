@@ -0,0 +1,95 @@
+package com.example.schedulecore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable interval tree over the (startDate, endDate) ranges of schedule entries, both
+ * ends inclusive as in {@link Schedules#overlaps}. The entries are kept sorted by start date
+ * and the tree is implicit: the middle of each slice is its root, and each root stores the
+ * latest end date below it, so lookups skip every slice that ends too early or starts too
+ * late. Overlap queries take O(log n + k) for k matches; building takes O(n log n).
+ */
+public final class IntervalTree<T extends ScheduleEntry> {
+    private static final Comparator<ScheduleEntry> BY_START_DATE = (e1, e2) -> {
+        int result = Long.compare(e1.getStartDate(), e2.getStartDate());
+        if (result == 0) result = Long.compare(e1.getEndDate(), e2.getEndDate());
+        return result;
+    };
+
+    private final List<T> entries;
+    private final long[] starts;
+    private final long[] ends;
+    // Latest end date in the slice rooted at each index
+    private final long[] maxEnds;
+
+    public IntervalTree(Collection<? extends T> items) {
+        List<T> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, BY_START_DATE);
+        entries = sorted;
+        int size = sorted.size();
+        starts = new long[size];
+        ends = new long[size];
+        maxEnds = new long[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = sorted.get(i).getStartDate();
+            ends[i] = sorted.get(i).getEndDate();
+        }
+        buildMaxEnds(0, size - 1);
+    }
+
+    private long buildMaxEnds(int lo, int hi) {
+        if (lo > hi) return Long.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid - 1), buildMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** The overlapping entry with the earliest start date, or null if none overlaps */
+    public T findOverlap(long startDate, long endDate) {
+        int index = firstOverlap(0, entries.size() - 1, startDate, endDate);
+        return index < 0 ? null : entries.get(index);
+    }
+
+    /** Every entry overlapping the given range, ordered by start date */
+    public List<T> findOverlapping(long startDate, long endDate) {
+        List<T> result = new ArrayList<>();
+        collectOverlapping(0, entries.size() - 1, startDate, endDate, result);
+        return result;
+    }
+
+    /** Every entry whose date range includes the given instant, ordered by start date */
+    public List<T> activeOn(long date) {
+        return findOverlapping(date, date);
+    }
+
+    private int firstOverlap(int lo, int hi, long startDate, long endDate) {
+        if (lo > hi) return -1;
+        int mid = (lo + hi) >>> 1;
+        if (maxEnds[mid] < startDate) return -1;
+        int left = firstOverlap(lo, mid - 1, startDate, endDate);
+        if (left >= 0) return left;
+        // Everything from here on starts too late
+        if (starts[mid] > endDate) return -1;
+        if (ends[mid] >= startDate) return mid;
+        return firstOverlap(mid + 1, hi, startDate, endDate);
+    }
+
+    private void collectOverlapping(int lo, int hi, long startDate, long endDate, List<T> result) {
+        if (lo > hi) return;
+        int mid = (lo + hi) >>> 1;
+        if (maxEnds[mid] < startDate) return;
+        collectOverlapping(lo, mid - 1, startDate, endDate, result);
+        if (starts[mid] > endDate) return;
+        if (ends[mid] >= startDate) result.add(entries.get(mid));
+        collectOverlapping(mid + 1, hi, startDate, endDate, result);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.schedulecore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The changes that turn the schedule a feeder holds into a new one: feeding times to remove,
+ * feeding times to add or re-weigh, and the date range. The feeder applies it only while it
+ * is still at {@link #getBaseVersion()}, then moves to {@link #getNewVersion()}.
+ */
+public final class ScheduleDelta {
+    // Versions are two base-64 digits; 0 means "just received a full schedule"
+    public static final int MAX_VERSION = 64 * 64 - 1;
+
+    private final int baseVersion;
+    private final int newVersion;
+    private final int startDay;
+    private final int endDay;
+    private final List<Integer> removedMinutes;
+    private final List<CompactSchedule.Slot> upserts;
+
+    public ScheduleDelta(int baseVersion, int newVersion, int startDay, int endDay,
+                         List<Integer> removedMinutes, List<CompactSchedule.Slot> upserts) {
+        this.baseVersion = baseVersion;
+        this.newVersion = newVersion;
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.removedMinutes = Collections.unmodifiableList(new ArrayList<>(removedMinutes));
+        this.upserts = Collections.unmodifiableList(new ArrayList<>(upserts));
+    }
+
+    /** The version after the given one, skipping 0 when wrapping around */
+    public static int nextVersion(int version) {
+        return version % MAX_VERSION + 1;
+    }
+
+    /** The smallest delta from one schedule to another; slots are matched by minute of day */
+    public static ScheduleDelta between(CompactSchedule from, CompactSchedule to, int baseVersion) {
+        Map<Integer, Integer> fromAmounts = amountsByMinute(from);
+        Map<Integer, Integer> toAmounts = amountsByMinute(to);
+
+        List<Integer> removed = new ArrayList<>();
+        for (Integer minute : fromAmounts.keySet()) {
+            if (!toAmounts.containsKey(minute)) removed.add(minute);
+        }
+        List<CompactSchedule.Slot> upserts = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : toAmounts.entrySet()) {
+            if (!entry.getValue().equals(fromAmounts.get(entry.getKey()))) {
+                upserts.add(new CompactSchedule.Slot(entry.getKey(), entry.getValue()));
+            }
+        }
+        return new ScheduleDelta(baseVersion, nextVersion(baseVersion), to.getStartDay(), to.getEndDay(),
+                removed, upserts);
+    }
+
+    /** The schedule the feeder holds after applying this delta to the given one, sorted by time */
+    public CompactSchedule applyTo(CompactSchedule base) {
+        Map<Integer, Integer> amounts = new TreeMap<>(amountsByMinute(base));
+        for (Integer minute : removedMinutes) {
+            amounts.remove(minute);
+        }
+        for (CompactSchedule.Slot slot : upserts) {
+            amounts.put(slot.getMinuteOfDay(), slot.getDecigrams());
+        }
+        List<CompactSchedule.Slot> slots = new ArrayList<>(amounts.size());
+        for (Map.Entry<Integer, Integer> entry : amounts.entrySet()) {
+            slots.add(new CompactSchedule.Slot(entry.getKey(), entry.getValue()));
+        }
+        return new CompactSchedule(startDay, endDay, slots);
+    }
+
+    /** Whether applying the delta to the schedule it was computed from changes nothing */
+    public boolean isEmptyFor(CompactSchedule from) {
+        return removedMinutes.isEmpty() && upserts.isEmpty()
+                && startDay == from.getStartDay() && endDay == from.getEndDay();
+    }
+
+    public int getBaseVersion() { return baseVersion; }
+
+    public int getNewVersion() { return newVersion; }
+
+    public int getStartDay() { return startDay; }
+
+    public int getEndDay() { return endDay; }
+
+    public List<Integer> getRemovedMinutes() { return removedMinutes; }
+
+    /** Feeding times to add, or to keep with a new amount */
+    public List<CompactSchedule.Slot> getUpserts() { return upserts; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScheduleDelta)) return false;
+        ScheduleDelta other = (ScheduleDelta) o;
+        return baseVersion == other.baseVersion && newVersion == other.newVersion
+                && startDay == other.startDay && endDay == other.endDay
+                && removedMinutes.equals(other.removedMinutes) && upserts.equals(other.upserts);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = baseVersion;
+        result = 31 * result + newVersion;
+        result = 31 * result + startDay;
+        result = 31 * result + endDay;
+        result = 31 * result + removedMinutes.hashCode();
+        result = 31 * result + upserts.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "v" + baseVersion + "->v" + newVersion + " days " + startDay + "-" + endDay
+                + " -" + removedMinutes + " +" + upserts;
+    }
+
+    // Keeps slot order, the last slot winning for a repeated minute
+    private static Map<Integer, Integer> amountsByMinute(CompactSchedule schedule) {
+        Map<Integer, Integer> amounts = new LinkedHashMap<>();
+        for (CompactSchedule.Slot slot : schedule.getSlots()) {
+            amounts.put(slot.getMinuteOfDay(), slot.getDecigrams());
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.schedulecore;
+
+import java.util.Comparator;
+
+/**
+ * One feeding time of a named schedule: what the schedule algorithms read from a row,
+ * whether it is the app's database entity or an immutable {@link ScheduleRow}.
+ */
+public interface ScheduleEntry {
+    // Orders entries by time of day without parsing the display string
+    Comparator<ScheduleEntry> BY_FEEDING_TIME =
+            (s1, s2) -> Integer.compare(s1.getFeedingMinuteOfDay(), s2.getFeedingMinuteOfDay());
+
+    long getFishId();
+
+    String getScheduleName();
+
+    long getStartDate();
+
+    long getEndDate();
+
+    // As entered, e.g. "5:00 AM"
+    String getFeedingTime();
+
+    // Minutes since midnight, -1 if the feeding time could not be read
+    int getFeedingMinuteOfDay();
+
+    float getFeedQuantity();
+}
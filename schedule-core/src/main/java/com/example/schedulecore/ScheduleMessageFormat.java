@@ -0,0 +1,114 @@
+package com.example.schedulecore;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the schedule SMS bodies, in the text and the compact format. Plain Java, so the
+ * benchmarks and host-side tests can run it without Android.
+ */
+public final class ScheduleMessageFormat {
+    private static final Pattern NON_ASCII = Pattern.compile("[^\\x00-\\x7F]");
+
+    /**
+     * The compact form of the schedules: the date range of all of them and one slot per
+     * feeding time, the last row winning when a time is listed twice
+     */
+    public static CompactSchedule toCompactSchedule(List<? extends ScheduleEntry> schedules) {
+        long minStartDate = Long.MAX_VALUE;
+        long maxEndDate = Long.MIN_VALUE;
+        Map<Integer, CompactSchedule.Slot> slotsByMinute = new TreeMap<>();
+        for (ScheduleEntry s : schedules) {
+            if (s.getStartDate() < minStartDate) minStartDate = s.getStartDate();
+            if (s.getEndDate() > maxEndDate) maxEndDate = s.getEndDate();
+            // Times that could not be read have no slot to go in
+            if (s.getFeedingMinuteOfDay() < 0) continue;
+            slotsByMinute.put(s.getFeedingMinuteOfDay(), new CompactSchedule.Slot(
+                    s.getFeedingMinuteOfDay(), CompactScheduleCodec.toDecigrams(s.getFeedQuantity())));
+        }
+        return new CompactSchedule(
+                CompactScheduleCodec.toEpochDay(minStartDate),
+                CompactScheduleCodec.toEpochDay(maxEndDate),
+                new ArrayList<>(slotsByMinute.values()));
+    }
+
+    // The original human-readable format: "New feeding schedule for ..." with one "- time - amount" line per time.
+    // Sorts the given list in place.
+    public static <T extends ScheduleEntry> String buildTextMessage(String fishName, List<T> schedules) {
+        StringBuilder message = new StringBuilder();
+        message.append("New feeding schedule for ").append(fishName).append("\n\n");
+        
+        // Sort schedules by date and time
+        Collections.sort(schedules, (s1, s2) -> {
+            // First compare by time
+            int timeCompare = Integer.compare(s1.getFeedingMinuteOfDay(), s2.getFeedingMinuteOfDay());
+            if (timeCompare != 0) {
+                return timeCompare;
+            }
+            // If times are the same, compare by date
+            return Long.compare(s1.getStartDate(), s2.getStartDate());
+        });
+        
+        // Group schedules by time and quantity, keeping the time order from the sort above
+        Map<String, List<T>> schedulesByTime = new LinkedHashMap<>();
+        for (T schedule : schedules) {
+            String timeKey = schedule.getFeedingTime() + "_" + schedule.getFeedQuantity();
+            if (!schedulesByTime.containsKey(timeKey)) {
+                schedulesByTime.put(timeKey, new ArrayList<>());
+            }
+            schedulesByTime.get(timeKey).add(schedule);
+        }
+        
+        // Format the message with date ranges and times
+        // English month names whatever the phone's language: the feeder only knows "Jan".."Dec"
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
+        
+        // Add date range header if we have schedules
+        if (!schedules.isEmpty()) {
+            // Find min startDate and max endDate
+            long minStartDate = Long.MAX_VALUE;
+            long maxEndDate = Long.MIN_VALUE;
+            for (ScheduleEntry s : schedules) {
+                if (s.getStartDate() < minStartDate) minStartDate = s.getStartDate();
+                if (s.getEndDate() > maxEndDate) maxEndDate = s.getEndDate();
+            }
+            
+            // Add date range
+            message.append(dateFormat.format(new Date(minStartDate)))
+                  .append(" - ")
+                  .append(dateFormat.format(new Date(maxEndDate)))
+                  .append(":\n");
+        }
+        
+        // Add feeding times with quantities
+        for (Map.Entry<String, List<T>> entry : schedulesByTime.entrySet()) {
+            String[] timeParts = entry.getKey().split("_");
+            String time = timeParts[0];
+            String quantity = timeParts[1];
+            
+            message.append("- ")
+                  .append(time)
+                  .append(" - ")
+                  .append(quantity)
+                  .append("g\n");
+        }
+        // Always ensure the message ends with a newline for Arduino parsing
+        if (message.length() > 0 && message.charAt(message.length() - 1) != '\n') {
+            message.append('\n');
+        }
+
+        // Force ASCII/GSM 7-bit encoding by removing any non-ASCII characters
+        return NON_ASCII.matcher(message).replaceAll("");
+    }
+
+    private ScheduleMessageFormat() {
+    }
+}
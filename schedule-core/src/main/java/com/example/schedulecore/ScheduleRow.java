@@ -0,0 +1,51 @@
+package com.example.schedulecore;
+
+/**
+ * An immutable {@link ScheduleEntry}, for code and tests that have no database row.
+ */
+public final class ScheduleRow implements ScheduleEntry {
+    private final long fishId;
+    private final String scheduleName;
+    private final long startDate;
+    private final long endDate;
+    private final String feedingTime;
+    private final int feedingMinuteOfDay;
+    private final float feedQuantity;
+
+    public ScheduleRow(long fishId, String scheduleName, long startDate, long endDate,
+                       String feedingTime, float feedQuantity) {
+        this.fishId = fishId;
+        this.scheduleName = scheduleName;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.feedingTime = feedingTime;
+        this.feedingMinuteOfDay = FeedingTimes.toMinuteOfDay(feedingTime);
+        this.feedQuantity = feedQuantity;
+    }
+
+    @Override
+    public long getFishId() { return fishId; }
+
+    @Override
+    public String getScheduleName() { return scheduleName; }
+
+    @Override
+    public long getStartDate() { return startDate; }
+
+    @Override
+    public long getEndDate() { return endDate; }
+
+    @Override
+    public String getFeedingTime() { return feedingTime; }
+
+    @Override
+    public int getFeedingMinuteOfDay() { return feedingMinuteOfDay; }
+
+    @Override
+    public float getFeedQuantity() { return feedQuantity; }
+
+    @Override
+    public String toString() {
+        return scheduleName + " " + startDate + "-" + endDate + " " + feedingTime + " " + feedQuantity + "g";
+    }
+}
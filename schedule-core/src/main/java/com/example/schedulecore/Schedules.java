@@ -0,0 +1,115 @@
+package com.example.schedulecore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The schedule rules shared by the setup screens, the dashboard and the SMS code: grouping
+ * rows into named schedules, date range overlap and feed totals.
+ */
+public final class Schedules {
+    // Oldest date range first, as the schedule lists show them
+    private static final Comparator<List<? extends ScheduleEntry>> BY_DATE_RANGE = (g1, g2) -> {
+        ScheduleEntry e1 = g1.get(0);
+        ScheduleEntry e2 = g2.get(0);
+        int result = Long.compare(e1.getStartDate(), e2.getStartDate());
+        if (result == 0) result = Long.compare(e1.getEndDate(), e2.getEndDate());
+        if (result == 0) result = String.valueOf(e1.getScheduleName()).compareTo(String.valueOf(e2.getScheduleName()));
+        return result;
+    };
+
+    /**
+     * Groups rows by (scheduleName, startDate, endDate). Each group is sorted by time of day
+     * and a time listed twice keeps its last row; groups come back ordered by date range.
+     * The given list is not modified.
+     */
+    public static <T extends ScheduleEntry> List<List<T>> group(List<T> entries) {
+        List<List<T>> groups = new ArrayList<>();
+        if (entries == null || entries.isEmpty()) return groups;
+
+        Map<Key, List<T>> rowsByKey = new HashMap<>();
+        for (T entry : entries) {
+            Key key = new Key(entry.getScheduleName(), entry.getStartDate(), entry.getEndDate());
+            List<T> rows = rowsByKey.get(key);
+            if (rows == null) {
+                rows = new ArrayList<>();
+                rowsByKey.put(key, rows);
+                groups.add(rows);
+            }
+            rows.add(entry);
+        }
+
+        for (int g = 0; g < groups.size(); g++) {
+            List<T> rows = groups.get(g);
+            // Stable, so rows for the same time stay in list order and the last one wins
+            Collections.sort(rows, ScheduleEntry.BY_FEEDING_TIME);
+            List<T> times = new ArrayList<>(rows.size());
+            for (T row : rows) {
+                int last = times.size() - 1;
+                if (last >= 0 && times.get(last).getFeedingMinuteOfDay() == row.getFeedingMinuteOfDay()) {
+                    times.set(last, row);
+                } else {
+                    times.add(row);
+                }
+            }
+            groups.set(g, times);
+        }
+        Collections.sort(groups, BY_DATE_RANGE);
+        return groups;
+    }
+
+    /** Whether two inclusive date ranges share at least one instant */
+    public static boolean overlaps(long startDate, long endDate, long otherStart, long otherEnd) {
+        return !(endDate < otherStart || startDate > otherEnd);
+    }
+
+    /** The first entry whose date range overlaps the given one, or null if none does */
+    public static <T extends ScheduleEntry> T findOverlap(long startDate, long endDate, List<T> entries) {
+        if (entries == null) return null;
+        for (T entry : entries) {
+            if (overlaps(startDate, endDate, entry.getStartDate(), entry.getEndDate())) return entry;
+        }
+        return null;
+    }
+
+    /** Feed for the whole pond: the per-fish amount for each live fish */
+    public static float totalFeed(int aliveCount, float feedPerFish) {
+        return aliveCount * feedPerFish;
+    }
+
+    private static final class Key {
+        final String scheduleName;
+        final long startDate;
+        final long endDate;
+
+        Key(String scheduleName, long startDate, long endDate) {
+            this.scheduleName = scheduleName;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return startDate == key.startDate && endDate == key.endDate
+                    && (scheduleName == null ? key.scheduleName == null : scheduleName.equals(key.scheduleName));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = scheduleName != null ? scheduleName.hashCode() : 0;
+            result = 31 * result + (int) (startDate ^ (startDate >>> 32));
+            result = 31 * result + (int) (endDate ^ (endDate >>> 32));
+            return result;
+        }
+    }
+
+    private Schedules() {
+    }
+}
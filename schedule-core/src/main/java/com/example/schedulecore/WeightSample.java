@@ -0,0 +1,26 @@
+package com.example.schedulecore;
+
+/**
+ * One measurement of a pond: the live fish counted and their average weight on a day.
+ * Days are the schedule codec's day numbers, see {@link CompactScheduleCodec#toEpochDay}.
+ */
+public final class WeightSample {
+    private final int day;
+    private final int count;
+    private final float weightGrams;
+
+    public WeightSample(int day, int count, float weightGrams) {
+        this.day = day;
+        this.count = count;
+        this.weightGrams = weightGrams;
+    }
+
+    public int getDay() { return day; }
+
+    public int getCount() { return count; }
+
+    public float getWeightGrams() { return weightGrams; }
+
+    /** Live weight of the pond when the sample was taken */
+    public float getBiomassGrams() { return count * weightGrams; }
+}
@@ -0,0 +1,203 @@
+package com.example.schedulecore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trip and fuzz tests for the compact schedule SMS format and its deltas. The fixed example must
+ * match the one in the firmware README, which the feeder is tested against.
+ */
+public class CompactScheduleCodecTest {
+    private static final int FUZZ_RUNS = 2000;
+
+    @Test
+    public void encode_matchesFirmwareExample() {
+        CompactSchedule schedule = new CompactSchedule(9367, 9373, Arrays.asList(
+                new CompactSchedule.Slot(5 * 60, 1180),
+                new CompactSchedule.Slot(21 * 60, 1150)));
+
+        String encoded = CompactScheduleCodec.encode(schedule);
+
+        assertEquals("FS12IN064i0ISJi0H+9", encoded);
+        assertEquals(schedule, CompactScheduleCodec.decode(encoded));
+    }
+
+    @Test
+    public void tenSlots_fitInOneSegment() {
+        List<CompactSchedule.Slot> slots = new ArrayList<>();
+        for (int i = 0; i < CompactScheduleCodec.MAX_SLOTS; i++) {
+            slots.add(new CompactSchedule.Slot(i * 120, CompactScheduleCodec.MAX_DECIGRAMS));
+        }
+        String encoded = CompactScheduleCodec.encode(new CompactSchedule(0, 0, slots));
+
+        assertTrue(encoded.length() <= 160);
+    }
+
+    @Test
+    public void decode_ignoresLineBreaksBetweenSegments() {
+        String encoded = CompactScheduleCodec.encode(new CompactSchedule(100, 107,
+                Arrays.asList(new CompactSchedule.Slot(360, 55))));
+        String split = encoded.substring(0, 7) + "\n" + encoded.substring(7) + "\r\n";
+
+        assertEquals(CompactScheduleCodec.decode(encoded), CompactScheduleCodec.decode(split));
+    }
+
+    @Test
+    public void epochDay_roundTripsThroughLocalMidnight() {
+        Calendar date = Calendar.getInstance();
+        date.clear();
+        date.set(2025, Calendar.AUGUST, 24, 15, 30);
+
+        int day = CompactScheduleCodec.toEpochDay(date.getTimeInMillis());
+
+        assertEquals(9367, day);
+        assertEquals(day, CompactScheduleCodec.toEpochDay(CompactScheduleCodec.fromEpochDay(day)));
+        assertEquals(day + 1, CompactScheduleCodec.toEpochDay(CompactScheduleCodec.fromEpochDay(day + 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_rejectsEndBeforeStart() {
+        CompactScheduleCodec.encode(new CompactSchedule(10, 9, new ArrayList<>()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_rejectsMoreSlotsThanTheFeederHolds() {
+        List<CompactSchedule.Slot> slots = new ArrayList<>();
+        for (int i = 0; i <= CompactScheduleCodec.MAX_SLOTS; i++) {
+            slots.add(new CompactSchedule.Slot(i * 60, 10));
+        }
+        CompactScheduleCodec.encode(new CompactSchedule(0, 0, slots));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_rejectsAmountRoundingToZero() {
+        CompactScheduleCodec.encode(new CompactSchedule(0, 0, Arrays.asList(
+                new CompactSchedule.Slot(360, CompactScheduleCodec.toDecigrams(0.04f)))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_rejectsUnknownVersion() {
+        String encoded = CompactScheduleCodec.encode(new CompactSchedule(1, 2, new ArrayList<>()));
+        CompactScheduleCodec.decode("FS2" + encoded.substring(3));
+    }
+
+    @Test
+    public void fuzz_randomSchedulesRoundTrip() {
+        Random random = new Random(42);
+        for (int run = 0; run < FUZZ_RUNS; run++) {
+            CompactSchedule schedule = randomSchedule(random);
+            String encoded = CompactScheduleCodec.encode(schedule);
+
+            assertEquals(schedule, CompactScheduleCodec.decode(encoded));
+            for (int i = 0; i < encoded.length(); i++) {
+                assertTrue(CompactScheduleCodec.ALPHABET.indexOf(encoded.charAt(i)) >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void fuzz_everySingleCharacterChangeIsRejected() {
+        Random random = new Random(7);
+        for (int run = 0; run < FUZZ_RUNS / 10; run++) {
+            String encoded = CompactScheduleCodec.encode(randomSchedule(random));
+            int pos = random.nextInt(encoded.length());
+            char original = encoded.charAt(pos);
+            for (int i = 0; i < CompactScheduleCodec.ALPHABET.length(); i++) {
+                char replacement = CompactScheduleCodec.ALPHABET.charAt(i);
+                if (replacement == original) continue;
+                String corrupted = encoded.substring(0, pos) + replacement + encoded.substring(pos + 1);
+                try {
+                    CompactScheduleCodec.decode(corrupted);
+                    fail("Accepted " + corrupted + " for " + encoded);
+                } catch (IllegalArgumentException expected) {
+                    // Check digit, version or range failure
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fuzz_garbageOnlyThrowsIllegalArgument() {
+        Random random = new Random(1);
+        for (int run = 0; run < FUZZ_RUNS; run++) {
+            StringBuilder text = new StringBuilder("FS");
+            int length = random.nextInt(70);
+            for (int i = 0; i < length; i++) {
+                text.append((char) (32 + random.nextInt(95)));
+            }
+            try {
+                CompactScheduleCodec.decode(text.toString());
+            } catch (IllegalArgumentException expected) {
+                // Rejected cleanly
+            }
+        }
+    }
+
+    @Test
+    public void delta_singleTimeChangeIsShorterThanFullSchedule() {
+        CompactSchedule from = new CompactSchedule(9367, 9373, Arrays.asList(
+                new CompactSchedule.Slot(5 * 60, 1180),
+                new CompactSchedule.Slot(12 * 60, 1000),
+                new CompactSchedule.Slot(21 * 60, 1150)));
+        CompactSchedule to = new CompactSchedule(9367, 9373, Arrays.asList(
+                new CompactSchedule.Slot(5 * 60, 1180),
+                new CompactSchedule.Slot(12 * 60, 1200),
+                new CompactSchedule.Slot(21 * 60, 1150)));
+
+        ScheduleDelta delta = ScheduleDelta.between(from, to, 7);
+        String encoded = CompactScheduleCodec.encodeDelta(delta);
+
+        assertEquals(8, delta.getNewVersion());
+        assertEquals(Arrays.asList(new CompactSchedule.Slot(12 * 60, 1200)), delta.getUpserts());
+        assertTrue(encoded.length() < CompactScheduleCodec.encode(to).length());
+        assertEquals(delta, CompactScheduleCodec.decodeDelta(encoded));
+    }
+
+    @Test
+    public void delta_versionWrapsPastZero() {
+        assertEquals(1, ScheduleDelta.nextVersion(0));
+        assertEquals(1, ScheduleDelta.nextVersion(ScheduleDelta.MAX_VERSION));
+    }
+
+    @Test
+    public void fuzz_deltasRoundTripAndReachTarget() {
+        Random random = new Random(99);
+        for (int run = 0; run < FUZZ_RUNS; run++) {
+            CompactSchedule from = sorted(randomSchedule(random));
+            CompactSchedule to = sorted(randomSchedule(random));
+            ScheduleDelta delta = ScheduleDelta.between(from, to, random.nextInt(ScheduleDelta.MAX_VERSION + 1));
+
+            assertEquals(delta, CompactScheduleCodec.decodeDelta(CompactScheduleCodec.encodeDelta(delta)));
+            assertEquals(to, delta.applyTo(from));
+        }
+    }
+
+    // One slot per minute, in time order, as the app sends them
+    private static CompactSchedule sorted(CompactSchedule schedule) {
+        TreeMap<Integer, CompactSchedule.Slot> byMinute = new TreeMap<>();
+        for (CompactSchedule.Slot slot : schedule.getSlots()) {
+            byMinute.put(slot.getMinuteOfDay(), slot);
+        }
+        return new CompactSchedule(schedule.getStartDay(), schedule.getEndDay(), new ArrayList<>(byMinute.values()));
+    }
+
+    private static CompactSchedule randomSchedule(Random random) {
+        int startDay = random.nextInt(CompactScheduleCodec.MAX_DAY + 1);
+        int span = random.nextInt(CompactScheduleCodec.MAX_SPAN_DAYS + 1);
+        int slotCount = random.nextInt(CompactScheduleCodec.MAX_SLOTS + 1);
+        List<CompactSchedule.Slot> slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new CompactSchedule.Slot(random.nextInt(24 * 60),
+                    1 + random.nextInt(CompactScheduleCodec.MAX_DECIGRAMS)));
+        }
+        return new CompactSchedule(startDay, startDay + span, slots);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.schedulecore;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reading stored feeding times, including those formatted in a non-English locale.
+ */
+public class FeedingTimesTest {
+
+    @Test
+    public void toMinuteOfDay_readsEnglishAndTwentyFourHourTimes() {
+        assertEquals(5 * 60, FeedingTimes.toMinuteOfDay("05:00 AM"));
+        assertEquals(17 * 60 + 30, FeedingTimes.toMinuteOfDay("5:30 pm"));
+        assertEquals(0, FeedingTimes.toMinuteOfDay("12:00 AM"));
+        assertEquals(17 * 60, FeedingTimes.toMinuteOfDay("17:00"));
+        assertEquals(-1, FeedingTimes.toMinuteOfDay("five o'clock"));
+    }
+
+    @Test
+    public void toMinuteOfDay_readsLocalizedMarkers() {
+        for (String tag : new String[] {"zh", "ja", "ko", "ar", "th", "vi", "ms"}) {
+            Locale locale = Locale.forLanguageTag(tag);
+            assertEquals(tag, 5 * 60, FeedingTimes.toMinuteOfDay(format(locale, 5)));
+            assertEquals(tag, 17 * 60, FeedingTimes.toMinuteOfDay(format(locale, 17)));
+        }
+        assertEquals(17 * 60, FeedingTimes.toMinuteOfDay("05:00 CH"));
+        assertEquals(5 * 60, FeedingTimes.toMinuteOfDay("05:00 PG"));
+    }
+
+    // How the setup screen used to store a picked time
+    private static String format(Locale locale, int hourOfDay) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(Calendar.HOUR_OF_DAY, hourOfDay);
+        return new SimpleDateFormat("hh:mm a", locale).format(calendar.getTime());
+    }
+}
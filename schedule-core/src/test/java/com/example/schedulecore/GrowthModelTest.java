@@ -0,0 +1,69 @@
+package com.example.schedulecore;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fitting and projection rules the growth forecasts and suggested feed quantities use.
+ */
+public class GrowthModelTest {
+
+    @Test
+    public void fit_recoversGrowthRateOfExactSamples() {
+        float rate = 0.02f;
+        GrowthModel model = GrowthModel.fit(Arrays.asList(
+                new WeightSample(100, 1000, 10f),
+                new WeightSample(130, 1000, (float) (10 * Math.exp(rate * 30))),
+                new WeightSample(160, 1000, (float) (10 * Math.exp(rate * 60)))), 1000, 1000, 60, 160);
+
+        assertEquals(rate, model.getDailyGrowth(), 1e-4f);
+        assertEquals(0f, model.getDailyMortality(), 0f);
+        assertEquals(10 * Math.exp(rate * 70), model.weightOn(170), 0.01);
+    }
+
+    @Test
+    public void fit_withOneSample_usesDefaultGrowth() {
+        GrowthModel model = GrowthModel.fit(Collections.singletonList(new WeightSample(0, 100, 50f)),
+                100, 100, 10, 0);
+
+        assertEquals(GrowthModel.DEFAULT_DAILY_GROWTH, model.getDailyGrowth(), 0f);
+        assertNull(GrowthModel.fit(Collections.singletonList(new WeightSample(0, 100, 0f)), 100, 100, 10, 0));
+    }
+
+    @Test
+    public void mortality_spreadsDeathsOverDaysStocked() {
+        // 19% died over 2 days: 10% a day
+        GrowthModel model = GrowthModel.fit(Collections.singletonList(new WeightSample(0, 81, 50f)),
+                100, 81, 2, 0);
+
+        assertEquals(0.1f, model.getDailyMortality(), 1e-4f);
+        assertEquals(81f, model.countOn(0), 1e-3f);
+        assertEquals(72.9f, model.countOn(1), 1e-3f);
+
+        BiomassProjection projection = model.project(0, 180);
+        assertEquals(180, projection.getDays());
+        assertEquals(72.9f * model.weightOn(1), projection.biomassOn(1), 0.01f);
+    }
+
+    @Test
+    public void feedPerFeeding_splitsTheTableRation() {
+        BiomassProjection projection = GrowthModel.fit(
+                Collections.singletonList(new WeightSample(0, 10, 200f)), 10, 10, 0, 0).project(0, 1);
+
+        // 200g fish eat 2.5% of body weight a day
+        assertEquals(5f, GrowthModel.dailyRationPerFish(200f), 1e-4f);
+        assertEquals(2.5f, projection.feedPerFeeding(0, 2), 1e-4f);
+        assertEquals(50f, projection.pondRationOn(0), 1e-3f);
+        assertFalse(projection.covers(1));
+    }
+
+    @Test
+    public void feedConversionRatio_isNaNWithoutGain() {
+        assertEquals(1.5f, GrowthModel.feedConversionRatio(1500f, 1000f, 2000f), 1e-4f);
+        assertTrue(Float.isNaN(GrowthModel.feedConversionRatio(1500f, 2000f, 2000f)));
+    }
+}
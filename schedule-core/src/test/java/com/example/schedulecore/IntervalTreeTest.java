@@ -0,0 +1,69 @@
+package com.example.schedulecore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The interval tree must answer exactly as a linear scan with {@link Schedules#overlaps}.
+ */
+public class IntervalTreeTest {
+    private static final int FUZZ_RUNS = 500;
+
+    @Test
+    public void emptyTree_findsNothing() {
+        IntervalTree<ScheduleRow> tree = new IntervalTree<>(Collections.<ScheduleRow>emptyList());
+
+        assertNull(tree.findOverlap(0, Long.MAX_VALUE));
+        assertTrue(tree.activeOn(0).isEmpty());
+    }
+
+    @Test
+    public void rangesTouchingAtOneEnd_overlap() {
+        ScheduleRow row = row(10, 20);
+        IntervalTree<ScheduleRow> tree = new IntervalTree<>(Collections.singletonList(row));
+
+        assertSame(row, tree.findOverlap(20, 30));
+        assertSame(row, tree.findOverlap(0, 10));
+        assertNull(tree.findOverlap(21, 30));
+        assertNull(tree.findOverlap(0, 9));
+    }
+
+    @Test
+    public void fuzz_matchesLinearScan() {
+        Random random = new Random(19);
+        for (int run = 0; run < FUZZ_RUNS; run++) {
+            List<ScheduleRow> rows = new ArrayList<>();
+            int count = random.nextInt(60);
+            for (int i = 0; i < count; i++) {
+                long start = random.nextInt(100);
+                rows.add(row(start, start + random.nextInt(20)));
+            }
+            IntervalTree<ScheduleRow> tree = new IntervalTree<>(rows);
+
+            long start = random.nextInt(120);
+            long end = start + random.nextInt(10);
+            List<ScheduleRow> expected = new ArrayList<>();
+            for (ScheduleRow row : rows) {
+                if (Schedules.overlaps(start, end, row.getStartDate(), row.getEndDate())) expected.add(row);
+            }
+            List<ScheduleRow> actual = tree.findOverlapping(start, end);
+
+            assertEquals(expected.size(), actual.size());
+            assertTrue(actual.containsAll(expected));
+            for (int i = 1; i < actual.size(); i++) {
+                assertTrue(actual.get(i - 1).getStartDate() <= actual.get(i).getStartDate());
+            }
+            assertSame(actual.isEmpty() ? null : actual.get(0), tree.findOverlap(start, end));
+        }
+    }
+
+    private static ScheduleRow row(long startDate, long endDate) {
+        return new ScheduleRow(1, "Week", startDate, endDate, "08:00 AM", 1f);
+    }
+}
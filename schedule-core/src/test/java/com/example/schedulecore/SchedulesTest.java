@@ -0,0 +1,45 @@
+package com.example.schedulecore;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Grouping and overlap rules the setup screens and the SMS code rely on.
+ */
+public class SchedulesTest {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    @Test
+    public void group_sortsTimesAndKeepsLastRowPerTime() {
+        List<ScheduleRow> rows = Arrays.asList(
+                new ScheduleRow(1, "Week 2", 7 * DAY_MS, 13 * DAY_MS, "06:00 PM", 2f),
+                new ScheduleRow(1, "Week 1", 0, 6 * DAY_MS, "06:00 PM", 1f),
+                new ScheduleRow(1, "Week 1", 0, 6 * DAY_MS, "07:30 AM", 1f),
+                new ScheduleRow(1, "Week 1", 0, 6 * DAY_MS, "07:30 AM", 3f));
+
+        List<List<ScheduleRow>> groups = Schedules.group(rows);
+
+        assertEquals(2, groups.size());
+        List<ScheduleRow> week1 = groups.get(0);
+        assertEquals("Week 1", week1.get(0).getScheduleName());
+        assertEquals(2, week1.size());
+        assertEquals(7 * 60 + 30, week1.get(0).getFeedingMinuteOfDay());
+        assertEquals(3f, week1.get(0).getFeedQuantity(), 0f);
+        assertEquals(18 * 60, week1.get(1).getFeedingMinuteOfDay());
+        assertEquals("Week 2", groups.get(1).get(0).getScheduleName());
+    }
+
+    @Test
+    public void findOverlap_treatsRangesAsInclusive() {
+        ScheduleRow week1 = new ScheduleRow(1, "Week 1", 0, 6 * DAY_MS, "07:30 AM", 1f);
+        List<ScheduleRow> existing = Arrays.asList(week1);
+
+        assertSame(week1, Schedules.findOverlap(6 * DAY_MS, 10 * DAY_MS, existing));
+        assertNull(Schedules.findOverlap(7 * DAY_MS, 10 * DAY_MS, existing));
+        assertNull(Schedules.findOverlap(0, DAY_MS, null));
+    }
+}